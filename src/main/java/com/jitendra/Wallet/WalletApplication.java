@@ -3,10 +3,14 @@ package com.jitendra.Wallet;
 import io.github.cdimascio.dotenv.Dotenv;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan  // Picks up the wallet.* @ConfigurationProperties classes
 @EnableJpaAuditing  // Enable JPA auditing for @CreatedDate and @LastModifiedDate annotations
+@EnableScheduling  // Background jobs, e.g. the wallet hold expiry sweeper
 public class WalletApplication {
 
 	public static void main(String[] args) {
@@ -20,11 +24,13 @@ public class WalletApplication {
 		String postgresPass = dotenv.get("POSTGRES_PASS", "admin");
 		String postgresDb1 = dotenv.get("POSTGRES_DB1_URL", "jdbc:postgresql://localhost:5432/wallet1");
 		String postgresDb2 = dotenv.get("POSTGRES_DB2_URL", "jdbc:postgresql://localhost:5432/wallet2");
+		String flywayMode = dotenv.get("FLYWAY_MODE", "MIGRATE");
 
 		System.setProperty("POSTGRES_USER", postgresUser);
 		System.setProperty("POSTGRES_PASS", postgresPass);
 		System.setProperty("POSTGRES_DB1_URL", postgresDb1);
 		System.setProperty("POSTGRES_DB2_URL", postgresDb2);
+		System.setProperty("FLYWAY_MODE", flywayMode);
 
 		System.out.println("Using POSTGRES_USER: " + postgresUser);
 
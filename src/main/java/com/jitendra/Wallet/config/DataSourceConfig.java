@@ -1,69 +1,241 @@
 package com.jitendra.Wallet.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.shardingsphere.driver.api.yaml.YamlShardingSphereDataSourceFactory;
 import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationInfoService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.io.ClassPathResource;
 
+import com.jitendra.Wallet.services.deadline.DeadlineEnforcingDataSource;
+import com.jitendra.Wallet.services.deadline.DeadlineProperties;
+import com.jitendra.Wallet.services.sharding.ShardCircuitBreaker;
+import com.jitendra.Wallet.services.sqlaccounting.SqlAccountingProperties;
+import com.jitendra.Wallet.services.sqlaccounting.StatementCountingDataSource;
+
 import javax.sql.DataSource;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import lombok.extern.slf4j.Slf4j;
 
 @Configuration
+@Slf4j
+@ImportRuntimeHints(WalletRuntimeHints.class)
 public class DataSourceConfig {
 
+    // Logical datasource names referenced by actualDataNodes in sharding.yml
+    private static final String SHARD_NAME_PREFIX = "shardwallet";
+
+    // Shard counts baked into sharding.yml: actualDataNodes ranges and inline moduli
+    private static final Pattern RULE_SHARD_RANGE = Pattern.compile("\\$->\\{1\\.\\.(\\d+)}");
+    private static final Pattern RULE_SHARD_MODULO = Pattern.compile("%\\s*(\\d+)\\s*\\+\\s*1");
+
+    private static final String[] DEFAULT_SHARD_URLS = {
+            "jdbc:postgresql://localhost:5432/shardwallet1",
+            "jdbc:postgresql://localhost:5432/shardwallet2"
+    };
+
+    /**
+     * How Flyway behaves on startup (FLYWAY_MODE in .env):
+     * - MIGRATE         → always run migrate() (default, previous behaviour)
+     * - VALIDATE        → only validate applied migrations, never write; fails fast on drift
+     * - SKIP_IF_CURRENT → read the schema history once and skip migrate() when the
+     *                     shard is already at the latest classpath version
+     */
+    public enum FlywayStartupMode {
+        MIGRATE,
+        VALIDATE,
+        SKIP_IF_CURRENT
+    }
+
     @Bean
     public ObjectMapper objectMapper() {
         return new ObjectMapper();
     }
 
-    @Bean
-    @Primary
-    public DataSource dataSource() throws Exception {
+    /**
+     * One Hikari pool per physical shard, keyed by the logical datasource name
+     * used in sharding.yml. The same pools are used for Flyway and handed to
+     * ShardingSphere, so every shard opens its connections exactly once.
+     */
+    @Bean(destroyMethod = "close")
+    public ShardDataSources shardDataSources() {
         // Read from system properties set once in WalletApplication.main()
         // (no duplicate Dotenv loading — BUG-04 fix)
         String postgresUser = System.getProperty("POSTGRES_USER", "postgres");
         String postgresPass = System.getProperty("POSTGRES_PASS", "admin");
 
-        // Use env-var-driven URLs instead of hardcoded ones (BUG-03 fix)
-        String url1 = System.getProperty("POSTGRES_DB1_URL", "jdbc:postgresql://localhost:5432/shardwallet1");
-        String url2 = System.getProperty("POSTGRES_DB2_URL", "jdbc:postgresql://localhost:5432/shardwallet2");
-
-        System.out.println("Running Flyway migrations directly on physical databases...");
-        String[] urls = { url1, url2 };
-        for (String url : urls) {
-            Flyway.configure()
-                    .dataSource(url, postgresUser, postgresPass)
-                    .baselineOnMigrate(true)
-                    .baselineVersion("1")
-                    .locations("classpath:db/migration")
-                    .load()
-                    .migrate();
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        List<String> urls = resolveShardUrls();
+        for (int i = 0; i < urls.size(); i++) {
+            String shardName = SHARD_NAME_PREFIX + (i + 1);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(shardName);
+            pool.setJdbcUrl(urls.get(i));
+            pool.setUsername(postgresUser);
+            pool.setPassword(postgresPass);
+            pool.setDriverClassName("org.postgresql.Driver");
+            pools.put(shardName, pool);
         }
 
         System.out.println("Loading ShardingSphere with user: " + postgresUser);
+        return new ShardDataSources(pools);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources, ShardCircuitBreaker shardCircuitBreaker,
+            DeadlineProperties deadlineProperties, SqlAccountingProperties sqlAccountingProperties)
+            throws Exception {
+        // Checked before Flyway touches anything: an extra POSTGRES_DB{n}_URL must
+        // not be migrated and then routed to by ShardRouter but not by the rules
+        byte[] yamlBytes = new ClassPathResource("sharding.yml").getContentAsByteArray();
+        verifyShardCount(new String(yamlBytes, StandardCharsets.UTF_8), shardDataSources.size());
+
+        FlywayStartupMode mode = FlywayStartupMode.valueOf(
+                System.getProperty("FLYWAY_MODE", FlywayStartupMode.MIGRATE.name()).toUpperCase());
+
+        long startNanos = System.nanoTime();
+        log.info("Running Flyway ({}) on {} physical databases in parallel...", mode, shardDataSources.size());
+        migrateShards(shardDataSources.asMap(), mode);
+        log.info("Flyway finished in {} ms", (System.nanoTime() - startNanos) / 1_000_000);
 
-        ClassPathResource resource = new ClassPathResource("sharding.yml");
-        String yamlContent;
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-            yamlContent = reader.lines().collect(Collectors.joining("\n"));
+        // Rules are parsed straight from the classpath bytes — no temp file round trip.
+        // The dataSources section of sharding.yml is ignored because the pools above
+        // are passed in explicitly.
+        Map<String, DataSource> shards = wrapShards(shardDataSources.asMap(), shardCircuitBreaker,
+                deadlineProperties, sqlAccountingProperties);
+        return YamlShardingSphereDataSourceFactory.createDataSource(shards, yamlBytes);
+    }
+
+    /**
+     * Puts each pool behind its shard's circuit breaker, the saga step
+     * deadline enforcement and the per-request statement accounting, in that
+     * order from the pool outwards.
+     *
+     * Accounting is outermost so it counts what ShardingSphere sends and
+     * nothing else: the SET LOCAL the deadline wrapper adds once per
+     * transaction goes to the connection below it and is not charged to the
+     * request.
+     */
+    static Map<String, DataSource> wrapShards(Map<String, DataSource> pools, ShardCircuitBreaker shardCircuitBreaker,
+            DeadlineProperties deadlineProperties, SqlAccountingProperties sqlAccountingProperties) {
+        Map<String, DataSource> shards = shardCircuitBreaker.wrap(pools);
+        shards = DeadlineEnforcingDataSource.wrap(shards, deadlineProperties);
+        return StatementCountingDataSource.wrap(shards, sqlAccountingProperties);
+    }
+
+    /**
+     * Fails unless every shard range and inline modulo in the sharding rules
+     * equals the number of configured pools. ShardRouter computes shards from
+     * the pool count while ShardingSphere uses the rules, so the two must agree.
+     *
+     * The rules are deliberately not rewritten to fit: with modulo routing a new
+     * shard moves most existing users to a different database, which is a data
+     * migration rather than a configuration change.
+     */
+    static void verifyShardCount(String rules, int shardCount) {
+        Set<Integer> ruleCounts = new TreeSet<>();
+        for (Pattern pattern : new Pattern[] { RULE_SHARD_RANGE, RULE_SHARD_MODULO }) {
+            Matcher matcher = pattern.matcher(rules);
+            while (matcher.find()) {
+                ruleCounts.add(Integer.parseInt(matcher.group(1)));
+            }
+        }
+        if (!ruleCounts.equals(Set.of(shardCount))) {
+            throw new IllegalStateException("sharding.yml is written for " + ruleCounts + " shard(s) but "
+                    + shardCount + " POSTGRES_DB{n}_URL pool(s) are configured; update the rules (and move the "
+                    + "data) before adding or removing a shard");
+        }
+    }
+
+    /**
+     * Migrates every shard concurrently. Shards are independent databases, so
+     * startup cost is max(shard) rather than sum(shards).
+     */
+    private void migrateShards(Map<String, DataSource> shards, FlywayStartupMode mode) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+                futures.add(executor.submit(() -> {
+                    migrateShard(shard.getKey(), shard.getValue(), mode);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Surface the real Flyway error instead of the executor wrapper
+                    if (e.getCause() instanceof Exception cause) {
+                        throw cause;
+                    }
+                    throw e;
+                }
+            }
         }
+    }
 
-        yamlContent = yamlContent.replace("${POSTGRES_USER}", postgresUser);
-        yamlContent = yamlContent.replace("${POSTGRES_PASS}", postgresPass);
+    private void migrateShard(String shardName, DataSource shard, FlywayStartupMode mode) {
+        Flyway flyway = Flyway.configure()
+                .dataSource(shard)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .locations("classpath:db/migration")
+                .load();
 
-        Path tempYaml = Files.createTempFile("sharding-processed", ".yml");
-        Files.write(tempYaml, yamlContent.getBytes(StandardCharsets.UTF_8));
-        tempYaml.toFile().deleteOnExit(); // DEVOPS-05 fix: clean up temp file
+        switch (mode) {
+            case VALIDATE -> {
+                flyway.validate();
+                log.info("Flyway validated {}", shardName);
+            }
+            case SKIP_IF_CURRENT -> {
+                if (isSchemaCurrent(flyway.info())) {
+                    log.info("Flyway skipped {} (schema already current)", shardName);
+                } else {
+                    flyway.migrate();
+                }
+            }
+            default -> flyway.migrate();
+        }
+    }
 
-        return org.apache.shardingsphere.driver.api.yaml.YamlShardingSphereDataSourceFactory
-                .createDataSource(tempYaml.toFile());
+    private boolean isSchemaCurrent(MigrationInfoService info) {
+        MigrationInfo current = info.current();
+        return current != null && info.pending().length == 0;
+    }
+
+    /**
+     * Shard URLs come from POSTGRES_DB1_URL, POSTGRES_DB2_URL, ... (BUG-03 fix:
+     * env-var-driven instead of hardcoded). Additional shards are picked up as
+     * long as the numbering is contiguous.
+     */
+    private List<String> resolveShardUrls() {
+        List<String> urls = new ArrayList<>();
+        for (int i = 1; ; i++) {
+            String fallback = i <= DEFAULT_SHARD_URLS.length ? DEFAULT_SHARD_URLS[i - 1] : null;
+            String url = System.getProperty("POSTGRES_DB" + i + "_URL", fallback);
+            if (url == null) {
+                return urls;
+            }
+            urls.add(url);
+        }
     }
 }
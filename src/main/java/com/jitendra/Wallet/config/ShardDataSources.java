@@ -0,0 +1,54 @@
+package com.jitendra.Wallet.config;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * The physical per-shard connection pools, keyed by logical datasource name
+ * (shardwallet1, shardwallet2, ...).
+ *
+ * Application code normally goes through the ShardingSphere {@link DataSource}.
+ * These pools are only for work that must target one physical database
+ * directly — Flyway, maintenance jobs, per-shard diagnostics.
+ */
+public class ShardDataSources {
+
+    private final Map<String, DataSource> dataSources;
+
+    public ShardDataSources(Map<String, DataSource> dataSources) {
+        this.dataSources = Collections.unmodifiableMap(dataSources);
+    }
+
+    public Map<String, DataSource> asMap() {
+        return dataSources;
+    }
+
+    public List<String> names() {
+        return List.copyOf(dataSources.keySet());
+    }
+
+    public DataSource get(String shardName) {
+        DataSource dataSource = dataSources.get(shardName);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard: " + shardName);
+        }
+        return dataSource;
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    public void close() {
+        for (DataSource dataSource : dataSources.values()) {
+            if (dataSource instanceof HikariDataSource hikari && !hikari.isClosed()) {
+                hikari.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.jitendra.Wallet.config;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs two startup milestones measured from JVM start:
+ * - when the context is ready (Flyway, Hibernate and ShardingSphere all initialised)
+ * - when the first HTTP request has been served (what a load balancer actually sees)
+ *
+ * After the first request the filter is a single volatile read per request.
+ */
+@Component
+@Slf4j
+public class StartupTimer extends OncePerRequestFilter {
+
+    private final AtomicBoolean firstRequestServed = new AtomicBoolean(false);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        log.info("Startup: application ready {} ms after JVM start", millisSinceJvmStart());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        filterChain.doFilter(request, response);
+        if (!firstRequestServed.get() && firstRequestServed.compareAndSet(false, true)) {
+            log.info("Startup: first request {} {} served {} ms after JVM start",
+                    request.getMethod(), request.getRequestURI(), millisSinceJvmStart());
+        }
+    }
+
+    public static long millisSinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
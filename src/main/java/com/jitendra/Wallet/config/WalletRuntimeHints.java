@@ -0,0 +1,46 @@
+package com.jitendra.Wallet.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import com.jitendra.Wallet.entity.SagaInstance;
+import com.jitendra.Wallet.entity.SagaStep;
+import com.jitendra.Wallet.entity.Transaction;
+import com.jitendra.Wallet.entity.User;
+import com.jitendra.Wallet.entity.Wallet;
+import com.jitendra.Wallet.entity.WalletHold;
+import com.jitendra.Wallet.services.saga.SagaContext;
+
+/**
+ * Hints for the AOT build (./gradlew bootJar -Paot).
+ *
+ * Everything here is loaded reflectively or from the classpath at runtime, so the
+ * AOT engine cannot discover it by analysing bean definitions alone:
+ * - sharding.yml is read by DataSourceConfig
+ * - Flyway scans db/migration for SQL files
+ * - SagaContext is round-tripped through Jackson into saga_instance.context
+ * - entities are instantiated by Hibernate (Lombok builders/no-arg constructors)
+ */
+public class WalletRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources().registerPattern("sharding.yml");
+        hints.resources().registerPattern("db/migration/*.sql");
+
+        hints.reflection().registerType(SagaContext.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.DECLARED_FIELDS);
+
+        for (Class<?> entity : new Class<?>[] {
+                User.class, Wallet.class, Transaction.class, SagaInstance.class, SagaStep.class,
+                WalletHold.class }) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+    }
+}
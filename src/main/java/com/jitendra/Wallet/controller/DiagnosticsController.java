@@ -0,0 +1,88 @@
+package com.jitendra.Wallet.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.jitendra.Wallet.dto.RecordingDTO;
+import com.jitendra.Wallet.services.diagnostics.FlightRecorderService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDK Flight Recorder recordings. 404 unless wallet.diagnostics.enabled=true.
+ */
+@RestController
+@RequestMapping("/diagnostics/recordings")
+@RequiredArgsConstructor
+public class DiagnosticsController {
+
+    private final FlightRecorderService flightRecorderService;
+
+    /**
+     * Start a recording
+     * POST /diagnostics/recordings?settings=profile&maxAgeMinutes=10
+     */
+    @PostMapping
+    public ResponseEntity<RecordingDTO> startRecording(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String settings,
+            @RequestParam(required = false) Long maxAgeMinutes) {
+        RecordingDTO recording = flightRecorderService.start(name, settings, maxAgeMinutes);
+        return ResponseEntity.status(HttpStatus.CREATED).body(recording);
+    }
+
+    /**
+     * Recordings in this JVM
+     * GET /diagnostics/recordings
+     */
+    @GetMapping
+    public ResponseEntity<List<RecordingDTO>> getRecordings() {
+        return ResponseEntity.ok(flightRecorderService.list());
+    }
+
+    /**
+     * Download what a recording holds so far (open with JDK Mission Control or `jfr print`)
+     * GET /diagnostics/recordings/{id}/dump
+     */
+    @GetMapping("/{id}/dump")
+    public ResponseEntity<StreamingResponseBody> dumpRecording(@PathVariable Long id) throws IOException {
+        Path file = flightRecorderService.dump(id);
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(Files.size(file))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"recording-" + id + ".jfr\"")
+                .body(body);
+    }
+
+    /**
+     * Stop and discard a recording
+     * DELETE /diagnostics/recordings/{id}
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> stopRecording(@PathVariable Long id) {
+        flightRecorderService.stop(id);
+        return ResponseEntity.noContent().build();
+    }
+}
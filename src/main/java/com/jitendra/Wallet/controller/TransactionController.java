@@ -1,12 +1,17 @@
 package com.jitendra.Wallet.controller;
 
+import java.time.Instant;
+
 import jakarta.validation.Valid;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -16,12 +21,16 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import lombok.RequiredArgsConstructor;
 import com.jitendra.Wallet.dto.TransactionRequestDTO;
 import com.jitendra.Wallet.dto.TransactionResponseDTO;
 import com.jitendra.Wallet.entity.TransactionStatus;
+import com.jitendra.Wallet.services.TransactionExportService;
+import com.jitendra.Wallet.services.TransactionExportService.ExportFormat;
 import com.jitendra.Wallet.services.TransactionService;
+import com.jitendra.Wallet.services.paging.CountMode;
 
 /**
  * TransactionController — all list endpoints are paginated.
@@ -64,6 +73,7 @@ import com.jitendra.Wallet.services.TransactionService;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
 
     // -------------------------------------------------------------------------
     // WRITE / SINGLE-RECORD OPERATIONS — no pagination
@@ -112,6 +122,13 @@ public class TransactionController {
     // The Page wrapper tells the client how many items exist in total and how
     // many pages there are — without it, the caller can't know when to stop
     // requesting more pages.
+    //
+    // ?count= picks how totalElements is computed (see CountMode):
+    //   AUTO (default) exact when cheap, otherwise cached or planner-estimated
+    //   EXACT          COUNT(*) every time
+    //   CACHED         COUNT(*) at most once per wallet.paging.count-ttl-ms
+    //   ESTIMATED      planner row estimate, no scan
+    // Callers that only need "is there a next page" can rely on "last".
     // -------------------------------------------------------------------------
 
     /**
@@ -122,8 +139,9 @@ public class TransactionController {
     @GetMapping("/wallet/{walletId}")
     public ResponseEntity<Page<TransactionResponseDTO>> getTransactionsByWalletId(
             @PathVariable Long walletId,
-            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(transactionService.getTransactionsByWalletId(walletId, pageable));
+            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(defaultValue = "AUTO") CountMode count) {
+        return ResponseEntity.ok(transactionService.getTransactionsByWalletId(walletId, pageable, count));
     }
 
     /**
@@ -133,8 +151,9 @@ public class TransactionController {
     @GetMapping("/source/{sourceWalletId}")
     public ResponseEntity<Page<TransactionResponseDTO>> getTransactionsBySourceWallet(
             @PathVariable Long sourceWalletId,
-            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(transactionService.getTransactionsBySourceWallet(sourceWalletId, pageable));
+            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(defaultValue = "AUTO") CountMode count) {
+        return ResponseEntity.ok(transactionService.getTransactionsBySourceWallet(sourceWalletId, pageable, count));
     }
 
     /**
@@ -144,9 +163,10 @@ public class TransactionController {
     @GetMapping("/destination/{destinationWalletId}")
     public ResponseEntity<Page<TransactionResponseDTO>> getTransactionsByDestinationWallet(
             @PathVariable Long destinationWalletId,
-            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(defaultValue = "AUTO") CountMode count) {
         return ResponseEntity.ok(
-                transactionService.getTransactionsByDestinationWallet(destinationWalletId, pageable));
+                transactionService.getTransactionsByDestinationWallet(destinationWalletId, pageable, count));
     }
 
     /**
@@ -156,8 +176,9 @@ public class TransactionController {
     @GetMapping("/status")
     public ResponseEntity<Page<TransactionResponseDTO>> getTransactionsByStatus(
             @RequestParam TransactionStatus status,
-            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(transactionService.getTransactionsByStatus(status, pageable));
+            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(defaultValue = "AUTO") CountMode count) {
+        return ResponseEntity.ok(transactionService.getTransactionsByStatus(status, pageable, count));
     }
 
     /**
@@ -171,8 +192,9 @@ public class TransactionController {
     @GetMapping("/saga/{sagaInstanceId}")
     public ResponseEntity<Page<TransactionResponseDTO>> getTransactionsBySagaInstance(
             @PathVariable Long sagaInstanceId,
-            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(transactionService.getTransactionsBySagaInstance(sagaInstanceId, pageable));
+            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(defaultValue = "AUTO") CountMode count) {
+        return ResponseEntity.ok(transactionService.getTransactionsBySagaInstance(sagaInstanceId, pageable, count));
     }
 
     /**
@@ -196,9 +218,10 @@ public class TransactionController {
     public ResponseEntity<Page<TransactionResponseDTO>> getTransactionsBetweenWallets(
             @RequestParam Long sourceWalletId,
             @RequestParam Long destinationWalletId,
-            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(defaultValue = "AUTO") CountMode count) {
         return ResponseEntity.ok(
-                transactionService.getTransactionsBetweenWallets(sourceWalletId, destinationWalletId, pageable));
+                transactionService.getTransactionsBetweenWallets(sourceWalletId, destinationWalletId, pageable, count));
     }
 
     /**
@@ -208,8 +231,9 @@ public class TransactionController {
     @GetMapping("/wallet/{walletId}/successful")
     public ResponseEntity<Page<TransactionResponseDTO>> getSuccessfulTransactionsByWallet(
             @PathVariable Long walletId,
-            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(transactionService.getSuccessfulTransactionsByWallet(walletId, pageable));
+            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(defaultValue = "AUTO") CountMode count) {
+        return ResponseEntity.ok(transactionService.getSuccessfulTransactionsByWallet(walletId, pageable, count));
     }
 
     /**
@@ -220,7 +244,51 @@ public class TransactionController {
     @GetMapping("/wallet/{walletId}/failed")
     public ResponseEntity<Page<TransactionResponseDTO>> getFailedTransactionsByWallet(
             @PathVariable Long walletId,
-            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(transactionService.getFailedTransactionsByWallet(walletId, pageable));
+            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(defaultValue = "AUTO") CountMode count) {
+        return ResponseEntity.ok(transactionService.getFailedTransactionsByWallet(walletId, pageable, count));
+    }
+
+    /**
+     * GET /transactions/wallet/{walletId}/history?from=2025-01-01T00:00:00Z&to=2025-02-01T00:00:00Z
+     * Date-bounded history, created_date in [from, to). Ranges older than the
+     * archive horizon are served transparently from archived segments.
+     */
+    @GetMapping("/wallet/{walletId}/history")
+    public ResponseEntity<Page<TransactionResponseDTO>> getTransactionHistory(
+            @PathVariable Long walletId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(defaultValue = "AUTO") CountMode count) {
+        return ResponseEntity.ok(
+                transactionService.getTransactionsByWalletIdBetween(walletId, from, to, pageable, count));
+    }
+
+    // -------------------------------------------------------------------------
+    // STREAMING EXPORT — no pagination
+    // -------------------------------------------------------------------------
+
+    /**
+     * GET /transactions/wallet/{walletId}/export?format=NDJSON|CSV
+     * The wallet's full history, oldest first, streamed row by row from a
+     * DB cursor. Use this instead of walking the paginated endpoint.
+     */
+    @GetMapping("/wallet/{walletId}/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactionsByWallet(
+            @PathVariable Long walletId,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        transactionExportService.requireWallet(walletId);
+
+        MediaType mediaType = format == ExportFormat.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        String filename = "wallet-" + walletId + "-transactions." + format.name().toLowerCase();
+
+        StreamingResponseBody body = out -> transactionExportService.export(walletId, format, out);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
     }
 }
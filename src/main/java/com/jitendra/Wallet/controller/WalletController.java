@@ -1,6 +1,10 @@
 package com.jitendra.Wallet.controller;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 import jakarta.validation.Valid;
 
@@ -8,6 +12,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,8 +25,14 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.jitendra.Wallet.dto.WalletRequestDTO;
+import com.jitendra.Wallet.dto.WalletDailyStatsDTO;
 import com.jitendra.Wallet.dto.WalletResponseDTO;
 import com.jitendra.Wallet.services.WalletService;
+import com.jitendra.Wallet.services.history.BalanceHistoryService;
+import com.jitendra.Wallet.services.holds.WalletHoldService;
+import com.jitendra.Wallet.services.paging.CountMode;
+import com.jitendra.Wallet.services.stats.DailyStatsRebuilder;
+import com.jitendra.Wallet.services.stats.WalletDailyStatsService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -31,6 +42,10 @@ import lombok.RequiredArgsConstructor;
 public class WalletController {
 
     private final WalletService walletService;
+    private final WalletHoldService walletHoldService;
+    private final BalanceHistoryService balanceHistoryService;
+    private final WalletDailyStatsService walletDailyStatsService;
+    private final DailyStatsRebuilder dailyStatsRebuilder;
 
     /**
      * Create a new wallet
@@ -68,8 +83,9 @@ public class WalletController {
     @GetMapping("/user/{userId}")
     public ResponseEntity<Page<WalletResponseDTO>> getWalletsByUserId(
             @PathVariable Long userId,
-            @PageableDefault(size = 10, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
-        return ResponseEntity.ok(walletService.getWalletsByUserId(userId, pageable));
+            @PageableDefault(size = 10, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
+            @RequestParam(defaultValue = "AUTO") CountMode count) {
+        return ResponseEntity.ok(walletService.getWalletsByUserId(userId, pageable, count));
     }
 
     /**
@@ -93,15 +109,53 @@ public class WalletController {
     }
 
     /**
-     * Get wallet balance
+     * Get wallet balance, now or as of a past instant
      * GET /wallets/{id}/balance
+     * GET /wallets/{id}/balance?asOf=2026-01-31T23:59:59Z
      */
     @GetMapping("/{id}/balance")
-    public ResponseEntity<BigDecimal> getBalance(@PathVariable Long id) {
-        BigDecimal balance = walletService.getBalance(id);
+    public ResponseEntity<BigDecimal> getBalance(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant asOf) {
+        BigDecimal balance = asOf == null
+                ? walletService.getBalance(id)
+                : balanceHistoryService.getBalanceAsOf(id, asOf);
         return ResponseEntity.ok(balance);
     }
 
+    /**
+     * Get spendable balance (balance minus active holds and reservations)
+     * GET /wallets/{id}/available-balance
+     */
+    @GetMapping("/{id}/available-balance")
+    public ResponseEntity<BigDecimal> getAvailableBalance(@PathVariable Long id) {
+        return ResponseEntity.ok(walletHoldService.getAvailableBalance(id));
+    }
+
+    /**
+     * Daily inflow / outflow rollups, both ends inclusive
+     * GET /wallets/{id}/daily-stats?from=2026-01-01&to=2026-01-31
+     */
+    @GetMapping("/{id}/daily-stats")
+    public ResponseEntity<List<WalletDailyStatsDTO>> getDailyStats(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(walletDailyStatsService.getDailyStats(id, from, to));
+    }
+
+    /**
+     * Recompute every wallet's daily rollups for a date range from the raw
+     * transactions, all shards in parallel. Returns transfers refolded per shard.
+     * POST /wallets/daily-stats/rebuild?from=2026-01-01&to=2026-01-31
+     */
+    @PostMapping("/daily-stats/rebuild")
+    public ResponseEntity<Map<String, Long>> rebuildDailyStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(dailyStatsRebuilder.rebuild(from, to));
+    }
+
     /**
      * Add funds to wallet
      * POST /wallets/{id}/add-funds?amount=100.00
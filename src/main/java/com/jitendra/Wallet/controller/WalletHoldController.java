@@ -0,0 +1,70 @@
+package com.jitendra.Wallet.controller;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.jitendra.Wallet.dto.HoldRequestDTO;
+import com.jitendra.Wallet.dto.HoldResponseDTO;
+import com.jitendra.Wallet.services.holds.WalletHoldService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/wallets/{walletId}/holds")
+@RequiredArgsConstructor
+public class WalletHoldController {
+
+    private final WalletHoldService walletHoldService;
+
+    /**
+     * Place a hold (pre-authorization)
+     * POST /wallets/{walletId}/holds
+     */
+    @PostMapping
+    public ResponseEntity<HoldResponseDTO> placeHold(
+            @PathVariable Long walletId,
+            @Valid @RequestBody HoldRequestDTO holdRequest) {
+        HoldResponseDTO response = walletHoldService.placeHold(walletId, holdRequest);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Active holds on a wallet, soonest expiry first
+     * GET /wallets/{walletId}/holds
+     */
+    @GetMapping
+    public ResponseEntity<List<HoldResponseDTO>> getHolds(@PathVariable Long walletId) {
+        return ResponseEntity.ok(walletHoldService.getHolds(walletId));
+    }
+
+    /**
+     * Capture a hold — debits the held amount
+     * POST /wallets/{walletId}/holds/{holdId}/capture
+     */
+    @PostMapping("/{holdId}/capture")
+    public ResponseEntity<Void> captureHold(@PathVariable Long walletId, @PathVariable Long holdId) {
+        walletHoldService.captureHold(walletId, holdId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Release a hold without moving money
+     * DELETE /wallets/{walletId}/holds/{holdId}
+     */
+    @DeleteMapping("/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable Long walletId, @PathVariable Long holdId) {
+        walletHoldService.releaseHold(walletId, holdId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.jitendra.Wallet.dto;
+
+import java.math.BigDecimal;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldRequestDTO {
+
+    @NotNull(message = "Amount must not be null")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+
+    // Optional — wallet.holds.default-ttl-seconds when absent
+    @Positive(message = "TTL must be a positive number of seconds")
+    private Long ttlSeconds;
+
+    @Size(max = 255, message = "Reference must not exceed 255 characters")
+    private String reference;
+}
@@ -0,0 +1,21 @@
+package com.jitendra.Wallet.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldResponseDTO {
+
+    private Long id;
+    private Long walletId;
+    private BigDecimal amount;
+    private String reference;
+    private Instant createdAt;
+    private Instant expiresAt;
+}
@@ -0,0 +1,20 @@
+package com.jitendra.Wallet.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordingDTO {
+
+    private Long id;
+    private String name;
+    private String state;
+    private Instant startTime;
+    private Long maxAgeSeconds;
+    private Long sizeBytes;
+}
@@ -0,0 +1,21 @@
+package com.jitendra.Wallet.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletDailyStatsDTO {
+
+    private Long walletId;
+    private LocalDate date;
+    private BigDecimal inflow;
+    private BigDecimal outflow;
+    private long inflowCount;
+    private long outflowCount;
+}
@@ -12,7 +12,6 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Index;
-import jakarta.persistence.UniqueConstraint;
 import jakarta.persistence.Column;
 import jakarta.persistence.EntityListeners;
 import org.hibernate.annotations.JdbcTypeCode;
@@ -29,11 +28,11 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 @Entity
+// Partitioned by month on created_date (V11): unique constraints must include the
+// partition key, so (saga_instance_id, step_order) is indexed but not unique
 @Table(name = "saga_step", indexes = {
         @Index(name = "idx_step_saga_order", columnList = "saga_instance_id, step_order"),
         @Index(name = "idx_step_saga_status", columnList = "saga_instance_id, status")
-}, uniqueConstraints = {
-        @UniqueConstraint(name = "uk_saga_step_order", columnNames = { "saga_instance_id", "step_order" })
 })
 @EntityListeners(AuditingEntityListener.class)
 @Getter
@@ -47,9 +46,10 @@ public class SagaStep {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    // Many-to-one relationship with SagaInstance (proper foreign key)
+    // Many-to-one relationship with SagaInstance. No database foreign key since
+    // saga_instance became partitioned (its id alone is not a unique key)
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "saga_instance_id", nullable = false, updatable = false, foreignKey = @jakarta.persistence.ForeignKey(name = "fk_saga_step_instance"))
+    @JoinColumn(name = "saga_instance_id", nullable = false, updatable = false, foreignKey = @jakarta.persistence.ForeignKey(value = jakarta.persistence.ConstraintMode.NO_CONSTRAINT))
     private SagaInstance sagaInstance;
 
     // Order of execution - critical for orchestration and determining next step
@@ -23,6 +23,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
+
+    // sagaInstanceId for transfers settled without a saga (same-shard paths)
+    public static final Long NO_SAGA_INSTANCE = 0L;
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -38,6 +38,10 @@ public class Wallet {
     @Column(name = "balance", nullable = false)
     private BigDecimal balance = BigDecimal.ZERO;
 
+    // Reserved by in-flight TCC transfers; not spendable until confirmed or released
+    @Column(name = "held_balance", nullable = false)
+    private BigDecimal heldBalance = BigDecimal.ZERO;
+
     @Version
     private Long version;
 
@@ -49,8 +53,12 @@ public class Wallet {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    public BigDecimal getAvailableBalance() {
+        return this.balance.subtract(this.heldBalance);
+    }
+
     public boolean hasSufficientBalance(BigDecimal amount) {
-        return this.balance.compareTo(amount) >= 0;
+        return getAvailableBalance().compareTo(amount) >= 0;
     }
 
     public void debit(BigDecimal amount) {
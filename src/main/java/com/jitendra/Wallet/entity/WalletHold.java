@@ -0,0 +1,50 @@
+package com.jitendra.Wallet.entity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Funds held on a wallet until captured, released or expired.
+ * Sharded by user_id, co-located with the wallet it holds funds on.
+ */
+@Entity
+@Table(name = "wallet_hold")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false, updatable = false)
+    private Long walletId;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    @Column(name = "amount", nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Column(name = "reference")
+    private String reference;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
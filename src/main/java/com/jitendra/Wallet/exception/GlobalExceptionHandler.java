@@ -3,6 +3,7 @@ package com.jitendra.Wallet.exception;
 import java.time.Instant;
 import java.util.stream.Collectors;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -40,7 +41,11 @@ import lombok.extern.slf4j.Slf4j;
  *                       DB)
  *                       3. BusinessException → 400 (deliberate business-rule
  *                       violation)
- *                       4. Exception (catch-all) → 500 (anything unexpected)
+ *                       4. ShardUnavailableException → 503 + Retry-After
+ *                       (shard circuit breaker open)
+ *                       5. TooManyRequestsException → 429 + Retry-After
+ *                       (admission limit reached)
+ *                       6. Exception (catch-all) → 500 (anything unexpected)
  *
  *                       WHY SEPARATE EXCEPTION TYPES MATTER:
  *                       ------------------------------------
@@ -119,7 +124,46 @@ public class GlobalExceptionHandler {
     }
 
     // -------------------------------------------------------------------------
-    // 4. Catch-all — anything not matched above
+    // 4. Shard unavailable (circuit breaker open)
+    // HTTP 503: nothing is wrong with the request, retry after the breaker's
+    // open window
+    // -------------------------------------------------------------------------
+
+    /**
+     * Thrown when the request needs a shard whose circuit breaker is open.
+     * Retry-After tells well-behaved clients when to come back.
+     */
+    @ExceptionHandler(ShardUnavailableException.class)
+    public ResponseEntity<ErrorResponseDTO> handleShardUnavailableException(ShardUnavailableException ex) {
+
+        log.warn("Shard unavailable: {}", ex.getMessage());
+
+        ResponseEntity<ErrorResponseDTO> response = buildResponse(
+                HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage());
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
+    // -------------------------------------------------------------------------
+    // 5. Load shedding (admission limit reached)
+    // HTTP 429: come back later rather than queue behind an overloaded service
+    // -------------------------------------------------------------------------
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponseDTO> handleTooManyRequestsException(TooManyRequestsException ex) {
+
+        log.warn("Request shed: {}", ex.getMessage());
+
+        ResponseEntity<ErrorResponseDTO> response = buildResponse(
+                HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", ex.getMessage());
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
+    // -------------------------------------------------------------------------
+    // 6. Catch-all — anything not matched above
     // HTTP 500: something broke that we didn't anticipate
     // -------------------------------------------------------------------------
 
@@ -130,6 +174,14 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponseDTO> handleGenericException(Exception ex) {
 
+        // A breaker rejection raised while opening a connection reaches us
+        // wrapped by JPA / the transaction manager
+        for (Throwable cause = ex.getCause(); cause != null && cause != cause.getCause(); cause = cause.getCause()) {
+            if (cause instanceof ShardUnavailableException shardUnavailable) {
+                return handleShardUnavailableException(shardUnavailable);
+            }
+        }
+
         log.error("Unexpected server error: {}", ex.getMessage(), ex);
 
         return buildResponse(
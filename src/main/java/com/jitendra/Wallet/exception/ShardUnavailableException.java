@@ -0,0 +1,25 @@
+package com.jitendra.Wallet.exception;
+
+/**
+ * Thrown when a request needs a shard whose circuit breaker is open.
+ * Retryable: maps to HTTP 503 with Retry-After in the GlobalExceptionHandler.
+ */
+public class ShardUnavailableException extends RuntimeException {
+
+    private final String shard;
+    private final long retryAfterSeconds;
+
+    public ShardUnavailableException(String shard, long retryAfterSeconds) {
+        super("Shard " + shard + " is unavailable, retry in " + retryAfterSeconds + "s");
+        this.shard = shard;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getShard() {
+        return shard;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
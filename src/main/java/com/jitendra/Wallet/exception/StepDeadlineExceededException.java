@@ -0,0 +1,13 @@
+package com.jitendra.Wallet.exception;
+
+/**
+ * Thrown when a saga step runs out of time: its own step deadline passed, or
+ * the saga's expiry_time did. Not transient, so the step is not retried; the
+ * step is marked FAILED and the saga compensates.
+ */
+public class StepDeadlineExceededException extends RuntimeException {
+
+    public StepDeadlineExceededException(String message) {
+        super(message);
+    }
+}
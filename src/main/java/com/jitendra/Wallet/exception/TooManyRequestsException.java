@@ -0,0 +1,20 @@
+package com.jitendra.Wallet.exception;
+
+/**
+ * Thrown when admission control sheds a request because the service is at
+ * its concurrency limit. Retryable: maps to HTTP 429 with Retry-After in the
+ * GlobalExceptionHandler.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
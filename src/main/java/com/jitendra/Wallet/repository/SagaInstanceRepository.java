@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -51,4 +52,33 @@ public interface SagaInstanceRepository extends JpaRepository<SagaInstance, Long
     
     // Count saga instances by saga type and status
     long countBySagaTypeAndStatus(String sagaType, SagaStatus status);
+
+    /**
+     * Merges changed keys into context.data in place instead of rewriting the
+     * whole document. Concurrent steps of the same saga each merge their own
+     * keys, so neither overwrites the other and no @Version conflict arises.
+     *
+     * removed is a JSON array of keys to delete from context.data; the delete
+     * runs before the merge so a key can't be both dropped and re-added.
+     */
+    @Modifying
+    @Query(value = "UPDATE saga_instance SET context = jsonb_set(context, '{data}', "
+            + "(COALESCE(context -> 'data', '{}'::jsonb) "
+            + "- ARRAY(SELECT jsonb_array_elements_text(CAST(:removed AS jsonb)))) "
+            + "|| CAST(:delta AS jsonb)), updated_date = :now "
+            + "WHERE id = :id", nativeQuery = true)
+    int mergeContextData(@Param("id") Long id, @Param("delta") String deltaJson,
+            @Param("removed") String removedJson, @Param("now") Instant now);
+
+    /**
+     * Status change guarded by the version the caller last saw, without
+     * loading the entity. Returns 0 when someone else updated the row since.
+     * Clears the persistence context so a SagaInstance loaded earlier in the
+     * same transaction isn't flushed back with the old version.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SagaInstance s SET s.status = :status, s.version = s.version + 1, s.updatedDate = :now "
+            + "WHERE s.id = :id AND s.version = :version")
+    int updateStatusIfVersion(@Param("id") Long id, @Param("status") SagaStatus status,
+            @Param("version") Long version, @Param("now") Instant now);
 }
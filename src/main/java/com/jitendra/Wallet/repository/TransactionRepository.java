@@ -1,14 +1,17 @@
 package com.jitendra.Wallet.repository;
 
+import java.time.Instant;
 import java.util.List;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.jitendra.Wallet.dto.TransactionResponseDTO;
 import com.jitendra.Wallet.entity.Transaction;
 import com.jitendra.Wallet.entity.TransactionStatus;
 import com.jitendra.Wallet.entity.TransactionType;
@@ -29,33 +32,64 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     /** Used by saga internals to find transactions in a specific state. */
     List<Transaction> findBySagaInstanceIdAndStatus(Long sagaInstanceId, TransactionStatus status);
 
+    /**
+     * Moves a PENDING transaction to its final status. Returns 0 if some other
+     * path already finalised it — the caller must re-read instead of overwriting.
+     */
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = :status, t.updatedDate = :updatedDate "
+            + "WHERE t.id = :id AND t.status = com.jitendra.Wallet.entity.TransactionStatus.PENDING")
+    int finishIfPending(@Param("id") Long id,
+            @Param("status") TransactionStatus status,
+            @Param("updatedDate") Instant updatedDate);
+
     // -------------------------------------------------------------------------
     // PAGINATED — used by the public REST API layer.
     // These can return large unbounded result sets (e.g. thousands of
     // transactions for an active wallet) so pagination is essential.
     // Spring Data automatically generates:
-    // SELECT ... WHERE ... LIMIT :size OFFSET :page*size
-    // SELECT COUNT(*) WHERE ... (for totalElements)
+    // SELECT ... WHERE ... LIMIT :size+1 OFFSET :page*size
+    // Returning Slice (not Page) skips the COUNT(*) — totalElements is filled
+    // in by PageCounter according to the ?count= mode the client asked for.
+    //
+    // WHY DTO PROJECTIONS:
+    // "SELECT new TransactionResponseDTO(...)" makes Hibernate build the DTO
+    // straight from the row. No Transaction entity is created, nothing enters
+    // the persistence context, and no dirty-checking snapshot is kept — the
+    // page costs exactly one DTO per row.
     // -------------------------------------------------------------------------
 
+    String VIEW = "SELECT new com.jitendra.Wallet.dto.TransactionResponseDTO("
+            + "t.id, t.description, t.sourceWalletId, t.destinationWalletId, t.amount, "
+            + "t.status, t.type, t.sagaInstanceId, t.createdDate, t.updatedDate) FROM Transaction t ";
+
     /** GET /transactions/source/{id} */
-    Page<Transaction> findBySourceWalletId(Long sourceWalletId, Pageable pageable);
+    @Query(VIEW + "WHERE t.sourceWalletId = :walletId")
+    Slice<TransactionResponseDTO> findViewsBySourceWalletId(@Param("walletId") Long sourceWalletId, Pageable pageable);
 
     /** GET /transactions/destination/{id} */
-    Page<Transaction> findByDestinationWalletId(Long destinationWalletId, Pageable pageable);
+    @Query(VIEW + "WHERE t.destinationWalletId = :walletId")
+    Slice<TransactionResponseDTO> findViewsByDestinationWalletId(@Param("walletId") Long destinationWalletId,
+            Pageable pageable);
 
     /**
      * GET /transactions/saga/{id} — public endpoint, different from internal
      * findBySagaInstanceId
      */
-    Page<Transaction> findBySagaInstanceId(Long sagaInstanceId, Pageable pageable);
+    @Query(VIEW + "WHERE t.sagaInstanceId = :sagaInstanceId")
+    Slice<TransactionResponseDTO> findViewsBySagaInstanceId(@Param("sagaInstanceId") Long sagaInstanceId,
+            Pageable pageable);
 
     /** GET /transactions/status?status=PENDING */
-    Page<Transaction> findByStatus(TransactionStatus status, Pageable pageable);
+    @Query(VIEW + "WHERE t.status = :status")
+    Slice<TransactionResponseDTO> findViewsByStatus(@Param("status") TransactionStatus status, Pageable pageable);
 
     /** GET /transactions/between?sourceWalletId=1&destinationWalletId=2 */
-    Page<Transaction> findBySourceWalletIdAndDestinationWalletId(
-            Long sourceWalletId, Long destinationWalletId, Pageable pageable);
+    @Query(VIEW + "WHERE t.sourceWalletId = :sourceWalletId AND t.destinationWalletId = :destinationWalletId")
+    Slice<TransactionResponseDTO> findViewsBySourceWalletIdAndDestinationWalletId(
+            @Param("sourceWalletId") Long sourceWalletId,
+            @Param("destinationWalletId") Long destinationWalletId,
+            Pageable pageable);
 
     /**
      * GET /transactions/wallet/{id}
@@ -63,8 +97,8 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      * alone, so we write it explicitly. Adding Pageable here is the same as
      * any other method — Spring wraps it in LIMIT/OFFSET automatically.
      */
-    @Query("SELECT t FROM Transaction t WHERE t.sourceWalletId = :walletId OR t.destinationWalletId = :walletId")
-    Page<Transaction> findByWalletId(@Param("walletId") Long walletId, Pageable pageable);
+    @Query(VIEW + "WHERE t.sourceWalletId = :walletId OR t.destinationWalletId = :walletId")
+    Slice<TransactionResponseDTO> findViewsByWalletId(@Param("walletId") Long walletId, Pageable pageable);
 
     /**
      * GET /transactions/wallet/{id}/successful and /failed
@@ -73,12 +107,62 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      * for the wallet before discarding most of them. This query lets the DB do
      * the filtering, and Pageable adds LIMIT/OFFSET on top of that.
      */
-    @Query("SELECT t FROM Transaction t WHERE (t.sourceWalletId = :walletId OR t.destinationWalletId = :walletId) AND t.status = :status")
-    Page<Transaction> findByWalletIdAndStatus(
+    @Query(VIEW + "WHERE (t.sourceWalletId = :walletId OR t.destinationWalletId = :walletId) "
+            + "AND t.status = :status")
+    Slice<TransactionResponseDTO> findViewsByWalletIdAndStatus(
             @Param("walletId") Long walletId,
             @Param("status") TransactionStatus status,
             Pageable pageable);
 
+    /**
+     * GET /transactions/wallet/{id}/history?from=&to= — the hot-table part of
+     * a date-bounded history. Rows older than the archive horizon may live in
+     * segment files instead (see TransactionArchive).
+     */
+    @Query(VIEW + "WHERE (t.sourceWalletId = :walletId OR t.destinationWalletId = :walletId) "
+            + "AND t.createdDate >= :from AND t.createdDate < :to")
+    Slice<TransactionResponseDTO> findViewsByWalletIdAndCreatedDateBetween(
+            @Param("walletId") Long walletId,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            Pageable pageable);
+
+    /** Unpaged variant, merged with archived rows in memory. */
+    @Query(VIEW + "WHERE (t.sourceWalletId = :walletId OR t.destinationWalletId = :walletId) "
+            + "AND t.createdDate >= :from AND t.createdDate < :to")
+    List<TransactionResponseDTO> findAllViewsByWalletIdAndCreatedDateBetween(
+            @Param("walletId") Long walletId,
+            @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    // -------------------------------------------------------------------------
+    // Totals for the listings above, run only when PageCounter needs one
+    // -------------------------------------------------------------------------
+
+    long countBySourceWalletId(Long sourceWalletId);
+
+    long countByDestinationWalletId(Long destinationWalletId);
+
+    long countBySagaInstanceId(Long sagaInstanceId);
+
+    long countByStatus(TransactionStatus status);
+
+    long countBySourceWalletIdAndDestinationWalletId(Long sourceWalletId, Long destinationWalletId);
+
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.sourceWalletId = :walletId OR t.destinationWalletId = :walletId")
+    long countByWalletId(@Param("walletId") Long walletId);
+
+    @Query("SELECT COUNT(t) FROM Transaction t "
+            + "WHERE (t.sourceWalletId = :walletId OR t.destinationWalletId = :walletId) AND t.status = :status")
+    long countByWalletIdAndStatus(@Param("walletId") Long walletId, @Param("status") TransactionStatus status);
+
+    @Query("SELECT COUNT(t) FROM Transaction t "
+            + "WHERE (t.sourceWalletId = :walletId OR t.destinationWalletId = :walletId) "
+            + "AND t.createdDate >= :from AND t.createdDate < :to")
+    long countByWalletIdAndCreatedDateBetween(@Param("walletId") Long walletId,
+            @Param("from") Instant from,
+            @Param("to") Instant to);
+
     // -------------------------------------------------------------------------
     // Remaining non-paginated methods (used by derived filters, kept for safety)
     // -------------------------------------------------------------------------
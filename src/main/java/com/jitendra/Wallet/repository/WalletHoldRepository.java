@@ -0,0 +1,40 @@
+package com.jitendra.Wallet.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.jitendra.Wallet.entity.WalletHold;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface WalletHoldRepository extends JpaRepository<WalletHold, Long> {
+
+    // user_id is the sharding column — always pass it so the query hits one shard
+    Optional<WalletHold> findByIdAndWalletIdAndUserId(Long id, Long walletId, Long userId);
+
+    /**
+     * SELECT ... FOR UPDATE: the expiry sweeper (SKIP LOCKED) passes over a hold
+     * locked here, and a hold the sweeper is deleting is no longer found once
+     * the lock is granted.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM WalletHold h WHERE h.id = :id AND h.walletId = :walletId AND h.userId = :userId")
+    Optional<WalletHold> findForUpdate(@Param("id") Long id, @Param("walletId") Long walletId,
+            @Param("userId") Long userId);
+
+    // Conditional delete: 0 rows means someone else already settled the hold
+    @Modifying
+    @Query(value = "DELETE FROM wallet_hold WHERE id = :id AND user_id = :userId", nativeQuery = true)
+    int deleteHold(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Served by idx_wallet_hold_wallet_expires
+    List<WalletHold> findByWalletIdAndUserIdOrderByExpiresAtAsc(Long walletId, Long userId);
+}
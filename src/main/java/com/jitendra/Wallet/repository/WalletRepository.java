@@ -2,13 +2,22 @@ package com.jitendra.Wallet.repository;
 
 import com.jitendra.Wallet.entity.Wallet;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
 
@@ -21,7 +30,54 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
     /**
      * Paginated: used by GET /wallets/user/{userId}.
      * A user could have many wallets in a large system, so we paginate at the
-     * DB level rather than loading all of them into memory.
+     * DB level rather than loading all of them into memory. A Slice skips the
+     * COUNT(*); PageCounter supplies totalElements via countByUserId.
+     */
+    Slice<Wallet> findByUserId(Long userId, Pageable pageable);
+
+    long countByUserId(Long userId);
+
+    /**
+     * SELECT ... FOR UPDATE in ascending id order, so two transfers touching the
+     * same pair of wallets always lock them in the same order (no deadlock).
+     * user_id is included so ShardingSphere routes to one shard instead of
+     * broadcasting.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.userId IN :userIds AND w.id IN :ids ORDER BY w.id")
+    List<Wallet> findAllForUpdateOrderById(@Param("userIds") Collection<Long> userIds,
+            @Param("ids") Collection<Long> ids);
+
+    /**
+     * Spendable balance in one primary-key lookup — held_balance is the
+     * maintained aggregate of holds and reservations, nothing is summed.
      */
-    Page<Wallet> findByUserId(Long userId, Pageable pageable);
+    @Query("SELECT w.balance - w.heldBalance FROM Wallet w WHERE w.id = :id AND w.userId = :userId")
+    Optional<BigDecimal> findAvailableBalance(@Param("id") Long id, @Param("userId") Long userId);
+
+    // -------------------------------------------------------------------------
+    // TCC reserve / confirm / release.
+    // Single conditional UPDATEs: the WHERE clause is the balance check, so
+    // concurrent reservations cannot overdraw and need no optimistic retry.
+    // version is bumped so JPA copies of the wallet see the change.
+    // -------------------------------------------------------------------------
+
+    @Modifying
+    @Query(value = "UPDATE wallet SET held_balance = held_balance + :amount, version = COALESCE(version, 0) + 1, "
+            + "updated_at = CURRENT_TIMESTAMP "
+            + "WHERE id = :id AND user_id = :userId AND is_active AND balance - held_balance >= :amount",
+            nativeQuery = true)
+    int reserve(@Param("id") Long id, @Param("userId") Long userId, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query(value = "UPDATE wallet SET balance = balance - :amount, held_balance = held_balance - :amount, "
+            + "version = COALESCE(version, 0) + 1, updated_at = CURRENT_TIMESTAMP "
+            + "WHERE id = :id AND user_id = :userId AND held_balance >= :amount", nativeQuery = true)
+    int confirmReserved(@Param("id") Long id, @Param("userId") Long userId, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query(value = "UPDATE wallet SET held_balance = held_balance - :amount, version = COALESCE(version, 0) + 1, "
+            + "updated_at = CURRENT_TIMESTAMP "
+            + "WHERE id = :id AND user_id = :userId AND held_balance >= :amount", nativeQuery = true)
+    int releaseReserved(@Param("id") Long id, @Param("userId") Long userId, @Param("amount") BigDecimal amount);
 }
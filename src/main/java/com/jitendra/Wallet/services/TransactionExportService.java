@@ -0,0 +1,282 @@
+package com.jitendra.Wallet.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Iterator;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jitendra.Wallet.dto.TransactionResponseDTO;
+import com.jitendra.Wallet.services.archive.TransactionArchive;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams a wallet's full transaction history as NDJSON or CSV.
+ *
+ * WHY NOT THE PAGINATED ENDPOINT:
+ * Walking GET /transactions/wallet/{id} page by page re-runs OFFSET (the DB
+ * re-reads every skipped row) and COUNT on every page, and each page is
+ * materialised as entities + a Page of DTOs. Here one query runs once;
+ * rows are pulled through a server-side cursor (fetch size) and each row is
+ * written straight to the response, so memory stays flat whatever the
+ * history size.
+ *
+ * PostgreSQL only honours the fetch size inside a transaction (autocommit
+ * off), hence the read-only TransactionTemplate around the query.
+ *
+ * Rows already moved to the archive are merged into the same order as the
+ * cursor reads the hot table. They are not simply "older": a transfer still
+ * PENDING at the horizon, or one the archive job has not reached yet, stays
+ * hot while newer rows have already left. The archive side is itself a merge
+ * over segments (see TransactionArchive#walletTransactions), so neither side
+ * is ever held in memory as a whole.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    public enum ExportFormat {
+        NDJSON, CSV
+    }
+
+    private static final int FETCH_SIZE = 1_000;
+
+    private static final String EXPORT_QUERY = "SELECT id, description, source_wallet_id, destination_wallet_id, "
+            + "amount, status, type, saga_instance_id, created_date, updated_date "
+            + "FROM transactions WHERE source_wallet_id = ? OR destination_wallet_id = ? "
+            + "ORDER BY created_date, id";
+
+    private static final String CSV_HEADER = "id,description,sourceWalletId,destinationWalletId,amount,"
+            + "status,type,sagaInstanceId,createdDate,updatedDate\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+    private final TransactionArchive transactionArchive;
+
+    /**
+     * Fails fast (404) before the response is committed — once streaming
+     * starts the status code can no longer change.
+     */
+    public void requireWallet(Long walletId) {
+        shardRouter.ownerOf(walletId);
+    }
+
+    /**
+     * Writes every transaction of the wallet (source or destination), oldest
+     * first, to the given stream.
+     *
+     * @return number of rows written
+     */
+    public long export(Long walletId, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        JdbcTemplate cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursorTemplate.setFetchSize(FETCH_SIZE);
+
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        txTemplate.setReadOnly(true);
+
+        long[] rows = { 0 };
+        ArchivedRows archived = new ArchivedRows(
+                transactionArchive.walletTransactions(walletId, Instant.EPOCH, Instant.now()));
+        try {
+            txTemplate.executeWithoutResult(status -> cursorTemplate.query(EXPORT_QUERY, (RowCallbackHandler) rs -> {
+                Instant createdDate = instant(rs.getTimestamp("created_date"));
+                long id = rs.getLong("id");
+                rows[0] += archived.writeBefore(createdDate, id, rowWriter);
+                rowWriter.write(rs);
+                rows[0]++;
+            }, walletId, walletId));
+            rows[0] += archived.writeBefore(null, 0, rowWriter);
+        } catch (UncheckedIOException e) {
+            // Client went away mid-download; nothing left to send it
+            throw e.getCause();
+        }
+        rowWriter.finish();
+        writer.flush();
+
+        log.info("Exported {} transactions for wallet id: {} as {}", rows[0], walletId, format);
+        return rows[0];
+    }
+
+    /**
+     * The archive side of the merge: archived rows are written while they sort
+     * before the hot row about to be written. A row that is in both places (a
+     * crash between writing its segment and deleting it) goes out once, from
+     * the hot table.
+     */
+    private static final class ArchivedRows {
+        private final Iterator<TransactionResponseDTO> rows;
+        private TransactionResponseDTO head;
+
+        ArchivedRows(Iterator<TransactionResponseDTO> rows) {
+            this.rows = rows;
+            this.head = rows.hasNext() ? rows.next() : null;
+        }
+
+        /** Writes archived rows ordered before (createdDate, id); everything left when createdDate is null. */
+        long writeBefore(Instant createdDate, long id, RowWriter rowWriter) {
+            long written = 0;
+            while (head != null) {
+                int order = createdDate == null ? -1 : head.getCreatedDate().compareTo(createdDate);
+                if (order == 0) {
+                    order = Long.compare(head.getId(), id);
+                }
+                if (order > 0) {
+                    break;
+                }
+                if (order < 0) {
+                    rowWriter.write(head);
+                    written++;
+                }
+                head = rows.hasNext() ? rows.next() : null;
+            }
+            return written;
+        }
+    }
+
+    private interface RowWriter {
+        void write(long id, String description, long sourceWalletId, long destinationWalletId, BigDecimal amount,
+                String status, String type, long sagaInstanceId, Instant createdDate, Instant updatedDate);
+
+        default void write(ResultSet rs) throws SQLException {
+            write(rs.getLong("id"), rs.getString("description"), rs.getLong("source_wallet_id"),
+                    rs.getLong("destination_wallet_id"), rs.getBigDecimal("amount"), rs.getString("status"),
+                    rs.getString("type"), rs.getLong("saga_instance_id"), instant(rs.getTimestamp("created_date")),
+                    instant(rs.getTimestamp("updated_date")));
+        }
+
+        default void write(TransactionResponseDTO row) {
+            write(row.getId(), row.getDescription(), row.getSourceWalletId(), row.getDestinationWalletId(),
+                    row.getAmount(), row.getStatus().name(), row.getType().name(), row.getSagaInstanceId(),
+                    row.getCreatedDate(), row.getUpdatedDate());
+        }
+
+        default void finish() throws IOException {
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            JsonFactory factory = objectMapper.getFactory();
+            this.generator = factory.createGenerator(writer);
+            // One object per line; we write the newline ourselves, and the
+            // response stream stays open for the caller
+            this.generator.setRootValueSeparator(null);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(long id, String description, long sourceWalletId, long destinationWalletId,
+                BigDecimal amount, String status, String type, long sagaInstanceId, Instant createdDate,
+                Instant updatedDate) {
+            try {
+                generator.writeStartObject();
+                generator.writeNumberField("id", id);
+                generator.writeStringField("description", description);
+                generator.writeNumberField("sourceWalletId", sourceWalletId);
+                generator.writeNumberField("destinationWalletId", destinationWalletId);
+                generator.writeNumberField("amount", amount);
+                generator.writeStringField("status", status);
+                generator.writeStringField("type", type);
+                generator.writeNumberField("sagaInstanceId", sagaInstanceId);
+                generator.writeStringField("createdDate", iso(createdDate));
+                generator.writeStringField("updatedDate", iso(updatedDate));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CSV_HEADER);
+        }
+
+        @Override
+        public void write(long id, String description, long sourceWalletId, long destinationWalletId,
+                BigDecimal amount, String status, String type, long sagaInstanceId, Instant createdDate,
+                Instant updatedDate) {
+            try {
+                writer.write(Long.toString(id));
+                writer.write(',');
+                writer.write(csv(description));
+                writer.write(',');
+                writer.write(Long.toString(sourceWalletId));
+                writer.write(',');
+                writer.write(Long.toString(destinationWalletId));
+                writer.write(',');
+                writer.write(amount.toPlainString());
+                writer.write(',');
+                writer.write(status);
+                writer.write(',');
+                writer.write(type);
+                writer.write(',');
+                writer.write(Long.toString(sagaInstanceId));
+                writer.write(',');
+                writer.write(iso(createdDate));
+                writer.write(',');
+                writer.write(iso(updatedDate));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // RFC 4180: quote when the value contains a delimiter, quote or newline
+        private static String csv(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    private static String iso(Instant instant) {
+        return instant == null ? "" : instant.toString();
+    }
+}
@@ -1,10 +1,20 @@
 package com.jitendra.Wallet.services;
 
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Function;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,9 +25,18 @@ import com.jitendra.Wallet.entity.TransactionStatus;
 import com.jitendra.Wallet.entity.Wallet;
 import com.jitendra.Wallet.exception.BusinessException;
 import com.jitendra.Wallet.exception.ResourceNotFoundException;
+import com.jitendra.Wallet.exception.ShardUnavailableException;
+import com.jitendra.Wallet.exception.TooManyRequestsException;
 import com.jitendra.Wallet.repository.TransactionRepository;
 import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.admission.AdmissionLimiter;
+import com.jitendra.Wallet.services.admission.AdmissionLimiter.Outcome;
+import com.jitendra.Wallet.services.archive.TransactionArchive;
+import com.jitendra.Wallet.services.paging.CountMode;
+import com.jitendra.Wallet.services.paging.CountQuery;
+import com.jitendra.Wallet.services.paging.PageCounter;
 import com.jitendra.Wallet.services.saga.TransferSagaService;
+import com.jitendra.Wallet.services.velocity.VelocityLimiter;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,6 +49,10 @@ public class TransactionService {
         private final TransactionRepository transactionRepository;
         private final WalletRepository walletRepository;
         private final TransferSagaService transferSagaService;
+        private final PageCounter pageCounter;
+        private final TransactionArchive transactionArchive;
+        private final AdmissionLimiter admissionLimiter;
+        private final VelocityLimiter velocityLimiter;
 
         // =====================================================================
         // SINGLE-RECORD OPERATIONS — no pagination
@@ -38,8 +61,32 @@ public class TransactionService {
         /**
          * Creates a transaction and initiates saga orchestration.
          * This is a write operation — pagination is irrelevant.
+         *
+         * Goes through the adaptive concurrency limit first: over the limit the
+         * request is shed with 429 instead of queuing on the connection pools.
+         * The source wallet's velocity limits are checked after the balance; a
+         * transfer that does not go through gives its count back.
          */
         public TransactionResponseDTO createTransaction(TransactionRequestDTO transactionRequest) {
+                AdmissionLimiter.Permit permit = admissionLimiter.acquire();
+                try {
+                        TransactionResponseDTO response = admitted(transactionRequest);
+                        permit.release(Outcome.SUCCESS);
+                        return response;
+                } catch (BusinessException | ResourceNotFoundException | TooManyRequestsException e) {
+                        // The caller's mistake, answered as fast as a success
+                        permit.release(Outcome.SUCCESS);
+                        throw e;
+                } catch (ShardUnavailableException e) {
+                        permit.release(Outcome.IGNORE);
+                        throw e;
+                } catch (RuntimeException e) {
+                        permit.release(Outcome.DROPPED);
+                        throw e;
+                }
+        }
+
+        private TransactionResponseDTO admitted(TransactionRequestDTO transactionRequest) {
                 log.info("Creating transaction from wallet {} to wallet {} with amount {}",
                                 transactionRequest.getSourceWalletId(),
                                 transactionRequest.getDestinationWalletId(),
@@ -60,7 +107,18 @@ public class TransactionService {
                         throw new BusinessException("Insufficient balance in source wallet");
                 }
 
-                return transferSagaService.initiateTransfer(transactionRequest);
+                VelocityLimiter.Reservation reservation = velocityLimiter.reserve(sourceWallet.getId(),
+                                sourceWallet.getUserId(), transactionRequest.getAmount());
+                try {
+                        TransactionResponseDTO response = transferSagaService.initiateTransfer(transactionRequest);
+                        if (response.getStatus() == TransactionStatus.FAILED) {
+                                velocityLimiter.release(reservation);
+                        }
+                        return response;
+                } catch (RuntimeException e) {
+                        velocityLimiter.release(reservation);
+                        throw e;
+                }
         }
 
         /**
@@ -68,10 +126,12 @@ public class TransactionService {
          */
         public TransactionResponseDTO getTransactionById(Long id) {
                 log.info("Fetching transaction with id: {}", id);
-                Transaction transaction = transactionRepository.findById(id)
+                return transactionRepository.findById(id)
+                                .map(this::mapToResponseDTO)
+                                // Old terminal transactions live in the archive, not the hot table
+                                .or(() -> transactionArchive.findTransaction(id))
                                 .orElseThrow(() -> new ResourceNotFoundException(
                                                 "Transaction not found with id: " + id));
-                return mapToResponseDTO(transaction);
         }
 
         /**
@@ -99,51 +159,78 @@ public class TransactionService {
         // A busy wallet can have thousands of transactions. Without pagination,
         // GET /transactions/wallet/42 would load all of them into memory every time.
         // With Pageable, the repository generates:
-        // SELECT ... WHERE ... LIMIT :size OFFSET :page*size ← row fetch
-        // SELECT COUNT(*) WHERE ... ← for metadata
+        // SELECT ... WHERE ... LIMIT :size+1 OFFSET :page*size ← row fetch
         // So only the requested "window" ever leaves the database.
         //
-        // HOW page.map() WORKS:
-        // The repository returns Page<Transaction> (an entity page).
-        // We need to present DTOs, not entities, to the outside world.
-        // Page.map(fn) applies fn to every item in the page's content list
-        // and returns a new Page<DTO> with all pagination metadata preserved.
-        // It's the idiomatic, single-line way to convert Page<Entity> → Page<DTO>.
+        // WHY NO COUNT(*) BY DEFAULT:
+        // The repository returns a Slice; PageCounter fills totalElements per
+        // ?count= (AUTO, EXACT, CACHED, ESTIMATED). A COUNT over every
+        // matching row on every shard used to cost more than the page itself.
+        //
+        // WHY DTO PROJECTIONS + readOnly:
+        // The repository returns Slice<TransactionResponseDTO> built directly
+        // by the query (SELECT new ...), so no Transaction entity is hydrated,
+        // stored in the persistence context, or snapshotted for dirty checking.
+        // readOnly = true additionally sets the Hibernate session to read-only
+        // / FlushMode.MANUAL and lets the driver mark the connection read-only,
+        // so a list call never flushes anything.
         //
         // CALLER INTERFACE:
-        // GET /transactions/wallet/42?page=0&size=10&sort=createdDate,desc
+        // GET /transactions/wallet/42?page=0&size=10&sort=createdDate,desc&count=ESTIMATED
         // Spring MVC auto-populates the Pageable from query params.
         // =====================================================================
 
         /**
          * GET /transactions/wallet/{walletId} — transactions where wallet is src OR dst
          */
-        public Page<TransactionResponseDTO> getTransactionsByWalletId(Long walletId, Pageable pageable) {
+        @Transactional(readOnly = true)
+        public Page<TransactionResponseDTO> getTransactionsByWalletId(Long walletId, Pageable pageable,
+                        CountMode countMode) {
                 log.info("Fetching transactions for wallet id: {} (page {})", walletId, pageable.getPageNumber());
-                return transactionRepository.findByWalletId(walletId, pageable)
-                                .map(this::mapToResponseDTO);
+                return pageCounter.toPage(transactionRepository.findViewsByWalletId(walletId, pageable), countMode,
+                                new CountQuery("tx.wallet:" + walletId,
+                                                () -> transactionRepository.countByWalletId(walletId),
+                                                "SELECT 1 FROM transactions WHERE source_wallet_id = ? OR destination_wallet_id = ?",
+                                                walletId, walletId));
         }
 
         /** GET /transactions/source/{sourceWalletId} */
-        public Page<TransactionResponseDTO> getTransactionsBySourceWallet(Long sourceWalletId, Pageable pageable) {
+        @Transactional(readOnly = true)
+        public Page<TransactionResponseDTO> getTransactionsBySourceWallet(Long sourceWalletId, Pageable pageable,
+                        CountMode countMode) {
                 log.info("Fetching transactions from source wallet id: {}", sourceWalletId);
-                return transactionRepository.findBySourceWalletId(sourceWalletId, pageable)
-                                .map(this::mapToResponseDTO);
+                return pageCounter.toPage(transactionRepository.findViewsBySourceWalletId(sourceWalletId, pageable),
+                                countMode,
+                                new CountQuery("tx.source:" + sourceWalletId,
+                                                () -> transactionRepository.countBySourceWalletId(sourceWalletId),
+                                                "SELECT 1 FROM transactions WHERE source_wallet_id = ?",
+                                                sourceWalletId));
         }
 
         /** GET /transactions/destination/{destinationWalletId} */
+        @Transactional(readOnly = true)
         public Page<TransactionResponseDTO> getTransactionsByDestinationWallet(Long destinationWalletId,
-                        Pageable pageable) {
+                        Pageable pageable, CountMode countMode) {
                 log.info("Fetching transactions to destination wallet id: {}", destinationWalletId);
-                return transactionRepository.findByDestinationWalletId(destinationWalletId, pageable)
-                                .map(this::mapToResponseDTO);
+                return pageCounter.toPage(
+                                transactionRepository.findViewsByDestinationWalletId(destinationWalletId, pageable),
+                                countMode,
+                                new CountQuery("tx.destination:" + destinationWalletId,
+                                                () -> transactionRepository.countByDestinationWalletId(destinationWalletId),
+                                                "SELECT 1 FROM transactions WHERE destination_wallet_id = ?",
+                                                destinationWalletId));
         }
 
         /** GET /transactions/status?status=PENDING */
-        public Page<TransactionResponseDTO> getTransactionsByStatus(TransactionStatus status, Pageable pageable) {
+        @Transactional(readOnly = true)
+        public Page<TransactionResponseDTO> getTransactionsByStatus(TransactionStatus status, Pageable pageable,
+                        CountMode countMode) {
                 log.info("Fetching transactions with status: {}", status);
-                return transactionRepository.findByStatus(status, pageable)
-                                .map(this::mapToResponseDTO);
+                return pageCounter.toPage(transactionRepository.findViewsByStatus(status, pageable), countMode,
+                                new CountQuery("tx.status:" + status,
+                                                () -> transactionRepository.countByStatus(status),
+                                                "SELECT 1 FROM transactions WHERE status = ?",
+                                                status.name()));
         }
 
         /**
@@ -154,20 +241,30 @@ public class TransactionService {
          * as a plain List — unpaginated — because it needs ALL saga steps for
          * compensation. This method is only for callers querying the HTTP API.
          */
-        public Page<TransactionResponseDTO> getTransactionsBySagaInstance(Long sagaInstanceId, Pageable pageable) {
+        @Transactional(readOnly = true)
+        public Page<TransactionResponseDTO> getTransactionsBySagaInstance(Long sagaInstanceId, Pageable pageable,
+                        CountMode countMode) {
                 log.info("Fetching transactions for saga instance id: {}", sagaInstanceId);
-                return transactionRepository.findBySagaInstanceId(sagaInstanceId, pageable)
-                                .map(this::mapToResponseDTO);
+                return pageCounter.toPage(transactionRepository.findViewsBySagaInstanceId(sagaInstanceId, pageable),
+                                countMode,
+                                new CountQuery("tx.saga:" + sagaInstanceId,
+                                                () -> transactionRepository.countBySagaInstanceId(sagaInstanceId),
+                                                "SELECT 1 FROM transactions WHERE saga_instance_id = ?",
+                                                sagaInstanceId));
         }
 
         /** GET /transactions/between?sourceWalletId=1&destinationWalletId=2 */
+        @Transactional(readOnly = true)
         public Page<TransactionResponseDTO> getTransactionsBetweenWallets(
-                        Long sourceWalletId, Long destinationWalletId, Pageable pageable) {
+                        Long sourceWalletId, Long destinationWalletId, Pageable pageable, CountMode countMode) {
                 log.info("Fetching transactions between wallets {} and {}", sourceWalletId, destinationWalletId);
-                return transactionRepository
-                                .findBySourceWalletIdAndDestinationWalletId(sourceWalletId, destinationWalletId,
-                                                pageable)
-                                .map(this::mapToResponseDTO);
+                return pageCounter.toPage(transactionRepository.findViewsBySourceWalletIdAndDestinationWalletId(
+                                sourceWalletId, destinationWalletId, pageable), countMode,
+                                new CountQuery("tx.between:" + sourceWalletId + ":" + destinationWalletId,
+                                                () -> transactionRepository.countBySourceWalletIdAndDestinationWalletId(
+                                                                sourceWalletId, destinationWalletId),
+                                                "SELECT 1 FROM transactions WHERE source_wallet_id = ? AND destination_wallet_id = ?",
+                                                sourceWalletId, destinationWalletId));
         }
 
         /**
@@ -181,19 +278,142 @@ public class TransactionService {
          * Now: a single DB query with WHERE (src=? OR dst=?) AND status='SUCCESS'
          * plus LIMIT/OFFSET. Only SUCCESS rows ever leave the DB at all.
          */
-        public Page<TransactionResponseDTO> getSuccessfulTransactionsByWallet(Long walletId, Pageable pageable) {
+        @Transactional(readOnly = true)
+        public Page<TransactionResponseDTO> getSuccessfulTransactionsByWallet(Long walletId, Pageable pageable,
+                        CountMode countMode) {
                 log.info("Fetching successful transactions for wallet id: {}", walletId);
-                return transactionRepository.findByWalletIdAndStatus(walletId, TransactionStatus.SUCCESS, pageable)
-                                .map(this::mapToResponseDTO);
+                return byWalletAndStatus(walletId, TransactionStatus.SUCCESS, pageable, countMode);
         }
 
         /**
          * GET /transactions/wallet/{walletId}/failed — same reasoning as above.
          */
-        public Page<TransactionResponseDTO> getFailedTransactionsByWallet(Long walletId, Pageable pageable) {
+        @Transactional(readOnly = true)
+        public Page<TransactionResponseDTO> getFailedTransactionsByWallet(Long walletId, Pageable pageable,
+                        CountMode countMode) {
                 log.info("Fetching failed transactions for wallet id: {}", walletId);
-                return transactionRepository.findByWalletIdAndStatus(walletId, TransactionStatus.FAILED, pageable)
-                                .map(this::mapToResponseDTO);
+                return byWalletAndStatus(walletId, TransactionStatus.FAILED, pageable, countMode);
+        }
+
+        /**
+         * GET /transactions/wallet/{walletId}/history?from=&to= — created_date in [from, to)
+         *
+         * WHY TWO PATHS:
+         * Terminal rows older than the archive horizon are moved to segment
+         * files, so the hot table stays small enough to stay in cache.
+         * A range that starts after the horizon is entirely hot: a normal
+         * LIMIT/OFFSET query. A range reaching past it merges the hot rows with
+         * the archived ones — slower, but only old history pays for it.
+         *
+         * The merge keeps only the first offset + size + 1 rows in the
+         * requested order: the hot side is asked for exactly that many, and
+         * archived rows pass through a bounded sorted set. The total follows
+         * countMode like every other listing, with the archived rows added to
+         * the exact count (an estimate only sees the hot table).
+         */
+        @Transactional(readOnly = true)
+        public Page<TransactionResponseDTO> getTransactionsByWalletIdBetween(Long walletId, Instant from, Instant to,
+                        Pageable pageable, CountMode countMode) {
+                if (!from.isBefore(to)) {
+                        throw new BusinessException("'from' must be before 'to'");
+                }
+                log.info("Fetching transactions for wallet id: {} between {} and {}", walletId, from, to);
+
+                CountQuery hotCount = new CountQuery("tx.wallet:" + walletId + ":" + from + ":" + to,
+                                () -> transactionRepository.countByWalletIdAndCreatedDateBetween(walletId, from, to),
+                                "SELECT 1 FROM transactions WHERE (source_wallet_id = ? "
+                                                + "OR destination_wallet_id = ?) AND created_date >= ? AND created_date < ?",
+                                walletId, walletId, Timestamp.from(from), Timestamp.from(to));
+
+                if (!from.isBefore(transactionArchive.horizon())) {
+                        return pageCounter.toPage(
+                                        transactionRepository.findViewsByWalletIdAndCreatedDateBetween(walletId, from, to,
+                                                        pageable),
+                                        countMode, hotCount);
+                }
+
+                Sort sort = pageable.getSort().isSorted() ? pageable.getSort()
+                                : Sort.by(Sort.Direction.DESC, "createdDate");
+                Comparator<TransactionResponseDTO> order = comparatorFor(sort);
+                int window = pageable.isPaged() ? Math.toIntExact(pageable.getOffset() + pageable.getPageSize() + 1)
+                                : Integer.MAX_VALUE;
+
+                // Equal rows (same id, same values) collapse: a row both hot and archived is listed once
+                TreeSet<TransactionResponseDTO> top = new TreeSet<>(order);
+                List<TransactionResponseDTO> hot = pageable.isPaged()
+                                ? transactionRepository.findViewsByWalletIdAndCreatedDateBetween(walletId, from, to,
+                                                PageRequest.of(0, window, sort)).getContent()
+                                : transactionRepository.findAllViewsByWalletIdAndCreatedDateBetween(walletId, from, to);
+                top.addAll(hot);
+                Iterator<TransactionResponseDTO> archived = transactionArchive.walletTransactions(walletId, from, to);
+                while (archived.hasNext()) {
+                        top.add(archived.next());
+                        if (top.size() > window) {
+                                top.pollLast();
+                        }
+                }
+
+                List<TransactionResponseDTO> rows = new ArrayList<>(top);
+                int start = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), rows.size()) : 0;
+                int end = pageable.isPaged() ? Math.min(start + pageable.getPageSize(), rows.size()) : rows.size();
+                Slice<TransactionResponseDTO> slice = new SliceImpl<>(rows.subList(start, end), pageable,
+                                rows.size() > end);
+                return pageCounter.toPage(slice, countMode, new CountQuery(hotCount.cacheKey(),
+                                () -> hotCount.exact().getAsLong() + transactionArchive.countWalletTransactions(walletId,
+                                                from, to),
+                                hotCount.estimateSql(), hotCount.estimateArgs()));
+        }
+
+        /**
+         * The Sort a pageable would have applied in SQL, for rows merged in
+         * memory. Ties go to id, in the direction of the last order, so pages
+         * never overlap.
+         */
+        private static Comparator<TransactionResponseDTO> comparatorFor(Sort sort) {
+                Comparator<TransactionResponseDTO> comparator = null;
+                Sort.Direction last = Sort.Direction.DESC;
+                for (Sort.Order order : sort) {
+                        Comparator<TransactionResponseDTO> next = Comparator.comparing(
+                                        sortKey(order.getProperty()), Comparator.nullsFirst(Comparator.naturalOrder()));
+                        if (order.isDescending()) {
+                                next = next.reversed();
+                        }
+                        comparator = comparator == null ? next : comparator.thenComparing(next);
+                        last = order.getDirection();
+                }
+                Comparator<TransactionResponseDTO> byId = Comparator.comparing(TransactionResponseDTO::getId);
+                return comparator.thenComparing(last.isDescending() ? byId.reversed() : byId);
+        }
+
+        private static Function<TransactionResponseDTO, Comparable<Object>> sortKey(String property) {
+                Function<TransactionResponseDTO, ?> key = switch (property) {
+                        case "id" -> TransactionResponseDTO::getId;
+                        case "description" -> TransactionResponseDTO::getDescription;
+                        case "sourceWalletId" -> TransactionResponseDTO::getSourceWalletId;
+                        case "destinationWalletId" -> TransactionResponseDTO::getDestinationWalletId;
+                        case "amount" -> TransactionResponseDTO::getAmount;
+                        case "status" -> TransactionResponseDTO::getStatus;
+                        case "type" -> TransactionResponseDTO::getType;
+                        case "sagaInstanceId" -> TransactionResponseDTO::getSagaInstanceId;
+                        case "createdDate" -> TransactionResponseDTO::getCreatedDate;
+                        case "updatedDate" -> TransactionResponseDTO::getUpdatedDate;
+                        default -> throw new BusinessException("Cannot sort transactions by '" + property + "'");
+                };
+                @SuppressWarnings("unchecked")
+                Function<TransactionResponseDTO, Comparable<Object>> comparable =
+                                (Function<TransactionResponseDTO, Comparable<Object>>) key;
+                return comparable;
+        }
+
+        private Page<TransactionResponseDTO> byWalletAndStatus(Long walletId, TransactionStatus status,
+                        Pageable pageable, CountMode countMode) {
+                return pageCounter.toPage(transactionRepository.findViewsByWalletIdAndStatus(walletId, status, pageable),
+                                countMode,
+                                new CountQuery("tx.wallet:" + walletId + ":" + status,
+                                                () -> transactionRepository.countByWalletIdAndStatus(walletId, status),
+                                                "SELECT 1 FROM transactions "
+                                                                + "WHERE (source_wallet_id = ? OR destination_wallet_id = ?) AND status = ?",
+                                                walletId, walletId, status.name()));
         }
 
         // =====================================================================
@@ -1,11 +1,14 @@
 package com.jitendra.Wallet.services;
 
 import java.math.BigDecimal;
+import java.util.function.Supplier;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.jitendra.Wallet.dto.WalletRequestDTO;
 import com.jitendra.Wallet.dto.WalletResponseDTO;
@@ -14,6 +17,14 @@ import com.jitendra.Wallet.exception.BusinessException;
 import com.jitendra.Wallet.exception.ResourceNotFoundException;
 import com.jitendra.Wallet.repository.UserRepository;
 import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.contention.WalletContentionManager;
+import com.jitendra.Wallet.services.diagnostics.WalletBalanceMutatedEvent;
+import com.jitendra.Wallet.services.mailbox.WalletMailboxExecutor;
+import com.jitendra.Wallet.services.sharding.ShardCircuitBreaker;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+import com.jitendra.Wallet.services.paging.CountMode;
+import com.jitendra.Wallet.services.paging.CountQuery;
+import com.jitendra.Wallet.services.paging.PageCounter;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,6 +36,12 @@ public class WalletService {
 
     private final WalletRepository walletRepository;
     private final UserRepository userRepository;
+    private final PageCounter pageCounter;
+    private final WalletMailboxExecutor walletMailbox;
+    private final PlatformTransactionManager transactionManager;
+    private final WalletContentionManager contentionManager;
+    private final ShardRouter shardRouter;
+    private final ShardCircuitBreaker shardCircuitBreaker;
 
     /**
      * Create a new wallet for a user
@@ -82,10 +99,13 @@ public class WalletService {
      * The non-paginated overload in the repository is kept for internal use
      * (e.g. checking if any wallets exist for a user in validation logic).
      */
-    public Page<WalletResponseDTO> getWalletsByUserId(Long userId, Pageable pageable) {
+    public Page<WalletResponseDTO> getWalletsByUserId(Long userId, Pageable pageable, CountMode countMode) {
         log.info("Fetching wallets for user id: {} (page {})", userId, pageable.getPageNumber());
-        return walletRepository.findByUserId(userId, pageable)
-                .map(this::mapToResponseDTO);
+        return pageCounter.toPage(walletRepository.findByUserId(userId, pageable).map(this::mapToResponseDTO),
+                countMode,
+                new CountQuery("wallet.user:" + userId,
+                        () -> walletRepository.countByUserId(userId),
+                        "SELECT 1 FROM wallet WHERE user_id = ?", userId));
     }
 
     /**
@@ -146,7 +166,6 @@ public class WalletService {
      * @param amount The amount to add
      * @return WalletResponseDTO with updated wallet details
      */
-    @Transactional
     public WalletResponseDTO addFunds(Long id, BigDecimal amount) {
         log.info("Adding funds {} to wallet id: {}", amount, id);
 
@@ -154,18 +173,24 @@ public class WalletService {
             throw new BusinessException("Amount must be positive");
         }
 
-        Wallet wallet = walletRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + id));
+        return inWalletMailbox(id, () -> {
+            WalletBalanceMutatedEvent balanceEvent = new WalletBalanceMutatedEvent();
+            balanceEvent.begin();
+            Wallet wallet = contentionManager.loadForUpdate(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + id));
 
-        if (!wallet.getIsActive()) {
-            throw new BusinessException("Cannot add funds to inactive wallet");
-        }
+            if (!wallet.getIsActive()) {
+                throw new BusinessException("Cannot add funds to inactive wallet");
+            }
 
-        wallet.credit(amount);
-        Wallet savedWallet = walletRepository.save(wallet);
-        log.info("Added {} to wallet id: {}. New balance: {}", amount, id, savedWallet.getBalance());
+            wallet.credit(amount);
+            Wallet savedWallet = walletRepository.save(wallet);
+            balanceEvent.finish(id, () -> shardRouter.shardForUser(savedWallet.getUserId()), "ADD_FUNDS",
+                    amount, null, null);
+            log.info("Added {} to wallet id: {}. New balance: {}", amount, id, savedWallet.getBalance());
 
-        return mapToResponseDTO(savedWallet);
+            return mapToResponseDTO(savedWallet);
+        });
     }
 
     /**
@@ -175,7 +200,6 @@ public class WalletService {
      * @param amount The amount to debit
      * @return WalletResponseDTO with updated wallet details
      */
-    @Transactional
     public WalletResponseDTO debit(Long id, BigDecimal amount) {
         log.info("Debiting {} from wallet id: {}", amount, id);
 
@@ -183,18 +207,24 @@ public class WalletService {
             throw new BusinessException("Amount must be positive");
         }
 
-        Wallet wallet = walletRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + id));
+        return inWalletMailbox(id, () -> {
+            WalletBalanceMutatedEvent balanceEvent = new WalletBalanceMutatedEvent();
+            balanceEvent.begin();
+            Wallet wallet = contentionManager.loadForUpdate(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + id));
 
-        if (!wallet.getIsActive()) {
-            throw new BusinessException("Cannot debit from inactive wallet");
-        }
+            if (!wallet.getIsActive()) {
+                throw new BusinessException("Cannot debit from inactive wallet");
+            }
 
-        wallet.debit(amount); // Throws exception if insufficient balance
-        Wallet savedWallet = walletRepository.save(wallet);
-        log.info("Debited {} from wallet id: {}. New balance: {}", amount, id, savedWallet.getBalance());
+            wallet.debit(amount); // Throws exception if insufficient balance
+            Wallet savedWallet = walletRepository.save(wallet);
+            balanceEvent.finish(id, () -> shardRouter.shardForUser(savedWallet.getUserId()), "DEBIT",
+                    amount, null, null);
+            log.info("Debited {} from wallet id: {}. New balance: {}", amount, id, savedWallet.getBalance());
 
-        return mapToResponseDTO(savedWallet);
+            return mapToResponseDTO(savedWallet);
+        });
     }
 
     /**
@@ -204,7 +234,6 @@ public class WalletService {
      * @param amount The amount to credit
      * @return WalletResponseDTO with updated wallet details
      */
-    @Transactional
     public WalletResponseDTO credit(Long id, BigDecimal amount) {
         log.info("Crediting {} to wallet id: {}", amount, id);
 
@@ -212,18 +241,24 @@ public class WalletService {
             throw new BusinessException("Amount must be positive");
         }
 
-        Wallet wallet = walletRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + id));
+        return inWalletMailbox(id, () -> {
+            WalletBalanceMutatedEvent balanceEvent = new WalletBalanceMutatedEvent();
+            balanceEvent.begin();
+            Wallet wallet = contentionManager.loadForUpdate(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + id));
 
-        if (!wallet.getIsActive()) {
-            throw new BusinessException("Cannot credit to inactive wallet");
-        }
+            if (!wallet.getIsActive()) {
+                throw new BusinessException("Cannot credit to inactive wallet");
+            }
 
-        wallet.credit(amount);
-        Wallet savedWallet = walletRepository.save(wallet);
-        log.info("Credited {} to wallet id: {}. New balance: {}", amount, id, savedWallet.getBalance());
+            wallet.credit(amount);
+            Wallet savedWallet = walletRepository.save(wallet);
+            balanceEvent.finish(id, () -> shardRouter.shardForUser(savedWallet.getUserId()), "CREDIT",
+                    amount, null, null);
+            log.info("Credited {} to wallet id: {}. New balance: {}", amount, id, savedWallet.getBalance());
 
-        return mapToResponseDTO(savedWallet);
+            return mapToResponseDTO(savedWallet);
+        });
     }
 
     /**
@@ -249,6 +284,26 @@ public class WalletService {
         return walletRepository.existsById(id);
     }
 
+    /**
+     * Runs a balance mutation on the wallet's mailbox in its own transaction.
+     * The transaction lives inside the mailbox turn, so the next mutation of
+     * the same wallet only starts after this one committed — it reads the
+     * new @Version instead of racing for it. Hot wallets are loaded with a
+     * row lock (WalletContentionManager).
+     */
+    private <T> T inWalletMailbox(Long walletId, Supplier<T> mutation) {
+        if (!shardCircuitBreaker.allClosed()) {
+            shardCircuitBreaker.checkAvailable(shardRouter.shardForWallet(walletId));
+        }
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        try {
+            return walletMailbox.call(walletId, () -> txTemplate.execute(status -> mutation.get()));
+        } catch (RuntimeException e) {
+            contentionManager.recordFailure(e);
+            throw e;
+        }
+    }
+
     /**
      * Helper method to map Wallet entity to WalletResponseDTO
      * 
@@ -0,0 +1,146 @@
+package com.jitendra.Wallet.services.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+
+import com.jitendra.Wallet.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AIMD concurrency limit in front of transfer creation.
+ *
+ * WHY:
+ * A transfer holds a Tomcat thread and, step by step, shard connections for
+ * the whole saga. Past the point where the pools saturate, extra concurrent
+ * transfers add no throughput — they only queue on Hikari, push every
+ * transfer's latency past client timeouts, and goodput collapses. Shedding
+ * the excess at the door with a cheap 429 keeps the admitted ones fast.
+ *
+ * The limit adapts to measured transfer latency instead of being a tuned
+ * constant: every transfer that finishes within targetLatencyMs while the
+ * limit was actually in use adds 1/limit (about +1 per round of transfers);
+ * a slow transfer or a failure that isn't the caller's fault multiplies it by
+ * backoffRatio, at most once per targetLatencyMs so a burst of slow
+ * completions counts as one signal.
+ *
+ * Metrics: wallet.admission.limit, wallet.admission.inflight (gauges),
+ * wallet.admission.rejected (counter).
+ */
+@Component
+@Slf4j
+public class AdmissionLimiter {
+
+    /** Outcome of an admitted transfer, as far as the limit is concerned. */
+    public enum Outcome {
+        // Completed (successfully or with a business/validation error)
+        SUCCESS,
+        // Failed for a reason that says nothing about load (e.g. shard breaker open)
+        IGNORE,
+        // Failed in a way that suggests overload (pool timeout, DB error)
+        DROPPED
+    }
+
+    private final AdmissionProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    private double limit;
+    private long lastDecreaseNanos;
+    // Smoothed latency, only for Retry-After
+    private volatile double averageLatencyMs;
+
+    public AdmissionLimiter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+        this.averageLatencyMs = properties.getTargetLatencyMs();
+        this.rejected = Counter.builder("wallet.admission.rejected")
+                .description("Transfers shed with 429 at the concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("wallet.admission.limit", this, AdmissionLimiter::getLimit)
+                .description("Current adaptive concurrency limit for transfers")
+                .register(meterRegistry);
+        Gauge.builder("wallet.admission.inflight", inFlight, AtomicInteger::get)
+                .description("Transfers currently admitted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits one transfer or sheds it. The returned permit must be released
+     * exactly once.
+     *
+     * @throws TooManyRequestsException when the limit is reached
+     */
+    public Permit acquire() {
+        if (!properties.isEnabled()) {
+            return new Permit(System.nanoTime(), false);
+        }
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) getLimit()) {
+                rejected.increment();
+                long retryAfter = Math.max(1, (long) Math.ceil(averageLatencyMs / 1_000));
+                throw new TooManyRequestsException(
+                        "Too many transfers in flight (" + current + "), retry in " + retryAfter + "s", retryAfter);
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime(), true);
+            }
+        }
+    }
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    private synchronized void onComplete(long startNanos, int inFlightAtStart, Outcome outcome) {
+        long now = System.nanoTime();
+        double latencyMs = (now - startNanos) / 1_000_000.0;
+        averageLatencyMs = averageLatencyMs * 0.9 + latencyMs * 0.1;
+
+        if (outcome == Outcome.IGNORE) {
+            return;
+        }
+        boolean congested = outcome == Outcome.DROPPED || latencyMs > properties.getTargetLatencyMs();
+        if (congested) {
+            long cooldownNanos = properties.getTargetLatencyMs() * 1_000_000;
+            if (now - lastDecreaseNanos >= cooldownNanos) {
+                limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+                lastDecreaseNanos = now;
+                log.debug("Admission limit decreased to {} ({} ms, {})", (int) limit, (long) latencyMs, outcome);
+            }
+        } else if (inFlightAtStart * 2 >= limit) {
+            // Only grow when the limit was actually being exercised; an idle
+            // service says nothing about how much more it could take
+            limit = Math.min(properties.getMaxLimit(), limit + 1.0 / limit);
+        }
+    }
+
+    /** One admitted transfer. */
+    public final class Permit {
+
+        private final long startNanos;
+        private final boolean counted;
+        private final int inFlightAtStart;
+        private boolean released;
+
+        private Permit(long startNanos, boolean counted) {
+            this.startNanos = startNanos;
+            this.counted = counted;
+            this.inFlightAtStart = inFlight.get();
+        }
+
+        public void release(Outcome outcome) {
+            if (released || !counted) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            onComplete(startNanos, inFlightAtStart, outcome);
+        }
+    }
+}
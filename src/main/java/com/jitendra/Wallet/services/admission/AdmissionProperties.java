@@ -0,0 +1,27 @@
+package com.jitendra.Wallet.services.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.admission.* — adaptive concurrency limit on transfer creation.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.admission")
+public class AdmissionProperties {
+
+    // Off = every transfer is admitted, as before
+    private boolean enabled = true;
+
+    // Concurrent transfers allowed at startup, and the bounds the limit moves in
+    private int initialLimit = 32;
+    private int minLimit = 4;
+    private int maxLimit = 512;
+
+    // A transfer slower than this counts as a congestion signal
+    private long targetLatencyMs = 500;
+
+    // Multiplicative decrease applied on congestion (at most once per targetLatencyMs)
+    private double backoffRatio = 0.9;
+}
@@ -0,0 +1,212 @@
+package com.jitendra.Wallet.services.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jitendra.Wallet.config.ShardDataSources;
+import com.jitendra.Wallet.services.archive.ArchiveSegment.Column;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves old terminal rows out of transactions, saga_instance and saga_step.
+ *
+ * WHY:
+ * These tables only grow, and the jsonb context / step_data blobs make every
+ * row wide. Rows nobody updates again still cost buffer cache, index pages
+ * and vacuum time on every hot query.
+ *
+ * HOW (per physical shard, one batch at a time):
+ * 1. Lock the oldest batch of terminal rows (FOR UPDATE SKIP LOCKED, so a
+ *    second instance picks different rows).
+ * 2. Write them to a segment file and fsync it.
+ * 3. DELETE the same ids and commit.
+ * The file is durable before the rows go, so a crash can only duplicate a
+ * batch in the archive (readers keep the first copy), never lose one.
+ *
+ * saga_step rows are sharded by saga_instance_id, so a saga and its steps
+ * sit on the same shard and leave together.
+ */
+@Component
+@Slf4j
+public class ArchiveJob {
+
+    private static final String TRANSACTION_BATCH = """
+            SELECT id, description, source_wallet_id, destination_wallet_id, amount, status, type,
+                   saga_instance_id, created_date, updated_date
+            FROM transactions
+            WHERE created_date < ? AND status IN ('SUCCESS', 'FAILED', 'CANCELLED')
+            ORDER BY created_date, id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    // FAILED sagas stay: compensation gave up on them and someone has to look
+    private static final String SAGA_BATCH = """
+            SELECT id, saga_type, status, context::text AS context, current_step, completed_date,
+                   compensated_date, error_details, retry_count, created_date, updated_date
+            FROM saga_instance
+            WHERE created_date < ? AND status IN ('COMPLETED', 'COMPENSATED')
+            ORDER BY created_date, id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String STEPS_OF = """
+            SELECT id, saga_instance_id, step_order, step_name, status, error_message, retry_count,
+                   step_data::text AS step_data, created_date, started_date, completed_date
+            FROM saga_step
+            WHERE saga_instance_id = ANY(?)
+            """;
+
+    private final ArchiveProperties properties;
+    private final TransactionArchive archive;
+    private final Map<String, DataSource> shards = new LinkedHashMap<>();
+
+    public ArchiveJob(ArchiveProperties properties, TransactionArchive archive, ShardDataSources shardDataSources) {
+        this.properties = properties;
+        this.archive = archive;
+        for (String name : shardDataSources.names()) {
+            shards.put(name, shardDataSources.get(name));
+        }
+    }
+
+    @Scheduled(cron = "${wallet.archive.cron:0 0 3 * * *}")
+    public void archiveAll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Timestamp cutoff = Timestamp.from(archive.horizon());
+        shards.forEach((name, dataSource) -> {
+            try {
+                long transactions = drain(dataSource, () -> archiveTransactions(name, dataSource, cutoff));
+                long sagas = drain(dataSource, () -> archiveSagas(name, dataSource, cutoff));
+                log.info("Archive on {}: {} transactions, {} sagas older than {}", name, transactions, sagas, cutoff);
+            } catch (Exception e) {
+                log.error("Archive failed on {}: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    private interface Batch {
+        int run();
+    }
+
+    private long drain(DataSource dataSource, Batch batch) {
+        TransactionTemplate txTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        long total = 0;
+        for (int i = 0; i < properties.getMaxBatchesPerRun(); i++) {
+            Integer archived = txTemplate.execute(status -> batch.run());
+            if (archived == null || archived == 0) {
+                break;
+            }
+            total += archived;
+        }
+        return total;
+    }
+
+    private int archiveTransactions(String shard, DataSource dataSource, Timestamp cutoff) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Object[]> rows = jdbcTemplate.query(TRANSACTION_BATCH,
+                rowMapper(TransactionArchive.TRANSACTION_COLUMNS), cutoff, properties.getBatchSize());
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        write(TransactionArchive.TRANSACTIONS, shard, TransactionArchive.TRANSACTION_COLUMNS, rows);
+        deleteIds(jdbcTemplate, "DELETE FROM transactions WHERE id = ANY(?)", ids(rows, 0));
+        return rows.size();
+    }
+
+    private int archiveSagas(String shard, DataSource dataSource, Timestamp cutoff) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Object[]> sagas = jdbcTemplate.query(SAGA_BATCH,
+                rowMapper(TransactionArchive.SAGA_INSTANCE_COLUMNS), cutoff, properties.getBatchSize());
+        if (sagas.isEmpty()) {
+            return 0;
+        }
+        Long[] sagaIds = ids(sagas, 0);
+        List<Object[]> steps = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(STEPS_OF);
+            ps.setArray(1, con.createArrayOf("bigint", sagaIds));
+            return ps;
+        }, rowMapper(TransactionArchive.SAGA_STEP_COLUMNS));
+
+        if (!steps.isEmpty()) {
+            write(TransactionArchive.SAGA_STEP, shard, TransactionArchive.SAGA_STEP_COLUMNS, steps);
+        }
+        write(TransactionArchive.SAGA_INSTANCE, shard, TransactionArchive.SAGA_INSTANCE_COLUMNS, sagas);
+
+        // Steps first: a step never outlives its saga
+        deleteIds(jdbcTemplate, "DELETE FROM saga_step WHERE saga_instance_id = ANY(?)", sagaIds);
+        deleteIds(jdbcTemplate, "DELETE FROM saga_instance WHERE id = ANY(?)", sagaIds);
+        return sagas.size();
+    }
+
+    private void write(String table, String shard, List<Column> columns, List<Object[]> rows) {
+        try {
+            archive.writeSegment(table, shard, columns, rows);
+        } catch (IOException e) {
+            // Rolls the batch back: nothing is deleted unless its segment is on disk
+            throw new UncheckedIOException("Cannot write " + table + " segment for " + shard, e);
+        }
+    }
+
+    private static void deleteIds(JdbcTemplate jdbcTemplate, String sql, Long[] ids) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            Array array = con.createArrayOf("bigint", ids);
+            ps.setArray(1, array);
+            return ps;
+        });
+    }
+
+    private static Long[] ids(List<Object[]> rows, int idColumn) {
+        Long[] ids = new Long[rows.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (Long) rows.get(i)[idColumn];
+        }
+        return ids;
+    }
+
+    private static RowMapper<Object[]> rowMapper(List<Column> columns) {
+        return (rs, rowNum) -> {
+            Object[] row = new Object[columns.size()];
+            for (int c = 0; c < columns.size(); c++) {
+                row[c] = value(rs, columns.get(c));
+            }
+            return row;
+        };
+    }
+
+    private static Object value(ResultSet rs, Column column) throws SQLException {
+        return switch (column.type()) {
+            case LONG -> {
+                long value = rs.getLong(column.name());
+                yield rs.wasNull() ? null : value;
+            }
+            case TIMESTAMP -> {
+                Timestamp value = rs.getTimestamp(column.name());
+                yield value == null ? null : value.toInstant();
+            }
+            case DECIMAL -> rs.getBigDecimal(column.name());
+            case STRING -> rs.getString(column.name());
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.jitendra.Wallet.services.archive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.archive.* — moving old terminal rows out of the hot tables into
+ * compressed columnar segment files.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.archive")
+public class ArchiveProperties {
+
+    // Run the archive job; reads fall back to existing segments either way
+    private boolean enabled = false;
+
+    // Root directory for segment files (one sub-directory per table and shard)
+    private String directory = "./archive";
+
+    // Terminal rows older than this leave the hot tables
+    private int retentionDays = 90;
+
+    // Rows per segment file and per DELETE
+    private int batchSize = 5_000;
+
+    // Bound on one run per shard and table, so a backlog drains over several runs
+    private int maxBatchesPerRun = 50;
+
+    private String cron = "0 0 3 * * *";
+
+    // Decoded segments kept in memory for repeated archive reads
+    private int segmentCacheSize = 16;
+}
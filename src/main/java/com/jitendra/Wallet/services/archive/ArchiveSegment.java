@@ -0,0 +1,332 @@
+package com.jitendra.Wallet.services.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact columnar file for archived rows.
+ *
+ * LAYOUT (the whole file is gzip-compressed):
+ *   int    magic "WSEG", byte version
+ *   varint column count, then per column: UTF name, byte type
+ *   varint row count
+ *   per column: null bitmap (1 bit per row), then the non-null values
+ *
+ * WHY COLUMNAR:
+ * Storing a column's values next to each other puts similar bytes together —
+ * ids and timestamps become small deltas, statuses repeat — so gzip shrinks
+ * them far more than row-by-row dumps. LONG and TIMESTAMP are delta +
+ * zigzag varint encoded; DECIMAL keeps scale and unscaled bytes, so amounts
+ * round-trip exactly.
+ */
+final class ArchiveSegment {
+
+    private static final int MAGIC = 0x5753_4547; // "WSEG"
+    private static final int FILTER_MAGIC = 0x5749_4458; // "WIDX"
+    private static final byte VERSION = 1;
+
+    enum ColumnType {
+        LONG, TIMESTAMP, DECIMAL, STRING
+    }
+
+    record Column(String name, ColumnType type) {
+    }
+
+    /** Decoded segment; each row holds Long, Instant, BigDecimal or String values (or null). */
+    record Rows(List<Column> columns, List<Object[]> rows) {
+    }
+
+    /**
+     * Bloom filter over the wallet ids of one segment, kept next to it as a
+     * small uncompressed file. "No" is certain; "maybe" is wrong about 1% of
+     * the time (10 bits and 7 probes per wallet), which only costs decoding a
+     * segment that turns out not to hold the wallet.
+     */
+    record WalletFilter(long[] words) {
+
+        private static final int BITS_PER_WALLET = 10;
+        private static final int PROBES = 7;
+
+        static WalletFilter of(Collection<Long> walletIds) {
+            int words = Math.max(1, (walletIds.size() * BITS_PER_WALLET + 63) / 64);
+            long[] bits = new long[words];
+            for (long walletId : walletIds) {
+                long hash = mix(walletId);
+                for (int i = 0; i < PROBES; i++) {
+                    int bit = bit(hash, i, words * 64L);
+                    bits[bit >>> 6] |= 1L << bit;
+                }
+            }
+            return new WalletFilter(bits);
+        }
+
+        boolean mightContain(long walletId) {
+            long hash = mix(walletId);
+            for (int i = 0; i < PROBES; i++) {
+                int bit = bit(hash, i, words.length * 64L);
+                if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Double hashing: probe i is h1 + i * h2, from the two halves of one 64-bit mix
+        private static int bit(long hash, int probe, long bitCount) {
+            long h1 = (int) hash;
+            long h2 = (int) (hash >>> 32);
+            return (int) Math.floorMod(h1 + probe * h2, bitCount);
+        }
+
+        // SplitMix64 finaliser: wallet ids are sequential-ish, their bits must not be
+        private static long mix(long value) {
+            long z = value;
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    private ArchiveSegment() {
+    }
+
+    /**
+     * Writes the rows durably: a temp file is fsynced, then atomically renamed,
+     * so a reader never sees a half-written segment and a crash leaves at worst
+     * a stray .tmp file.
+     */
+    static void write(Path file, List<Column> columns, List<Object[]> rows) throws IOException {
+        writeDurably(file, fileOut -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(fileOut, 1 << 16), 1 << 16);
+            DataOutputStream out = new DataOutputStream(gzip);
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            writeVarLong(out, columns.size());
+            for (Column column : columns) {
+                out.writeUTF(column.name());
+                out.writeByte(column.type().ordinal());
+            }
+            writeVarLong(out, rows.size());
+            for (int c = 0; c < columns.size(); c++) {
+                writeColumn(out, columns.get(c).type(), rows, c);
+            }
+            out.flush();
+            gzip.finish();
+            gzip.flush();
+        });
+    }
+
+    /** Writes a segment's wallet filter, with the same durability as the segment itself. */
+    static void writeWalletFilter(Path file, WalletFilter filter) throws IOException {
+        writeDurably(file, fileOut -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16));
+            out.writeInt(FILTER_MAGIC);
+            out.writeByte(VERSION);
+            writeVarLong(out, filter.words().length);
+            for (long word : filter.words()) {
+                out.writeLong(word);
+            }
+            out.flush();
+        });
+    }
+
+    static WalletFilter readWalletFilter(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != FILTER_MAGIC) {
+                throw new IOException("Not a wallet filter: " + file);
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported wallet filter version " + version + ": " + file);
+            }
+            long[] words = new long[(int) readVarLong(in)];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            return new WalletFilter(words);
+        }
+    }
+
+    private interface Body {
+        void writeTo(FileOutputStream out) throws IOException;
+    }
+
+    private static void writeDurably(Path file, Body body) throws IOException {
+        createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tmp.toFile())) {
+            body.writeTo(fileOut);
+            fileOut.getFD().sync();
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // The new name lives in the directory, not in the file: until the
+        // directory is synced a power loss can undo the rename, and the caller
+        // deletes the source rows as soon as this returns
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    // Each new directory is synced into its parent, or the whole subtree can vanish the same way
+    private static void createDirectories(Path dir) throws IOException {
+        if (Files.isDirectory(dir)) {
+            return;
+        }
+        createDirectories(dir.getParent());
+        try {
+            Files.createDirectory(dir);
+        } catch (FileAlreadyExistsException e) {
+            return; // another writer created it
+        }
+        syncDirectory(dir.getParent());
+    }
+
+    private static void syncDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    static Rows read(Path file) throws IOException {
+        try (InputStream fileIn = Files.newInputStream(file);
+                DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(new GZIPInputStream(fileIn, 1 << 16), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an archive segment: " + file);
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported segment version " + version + ": " + file);
+            }
+            int columnCount = (int) readVarLong(in);
+            List<Column> columns = new ArrayList<>(columnCount);
+            for (int c = 0; c < columnCount; c++) {
+                columns.add(new Column(in.readUTF(), ColumnType.values()[in.readByte()]));
+            }
+            int rowCount = (int) readVarLong(in);
+            List<Object[]> rows = new ArrayList<>(rowCount);
+            for (int r = 0; r < rowCount; r++) {
+                rows.add(new Object[columnCount]);
+            }
+            for (int c = 0; c < columnCount; c++) {
+                readColumn(in, columns.get(c).type(), rows, c);
+            }
+            return new Rows(columns, rows);
+        }
+    }
+
+    private static void writeColumn(DataOutputStream out, ColumnType type, List<Object[]> rows, int c)
+            throws IOException {
+        byte[] nulls = new byte[(rows.size() + 7) / 8];
+        for (int r = 0; r < rows.size(); r++) {
+            if (rows.get(r)[c] == null) {
+                nulls[r >>> 3] |= (byte) (1 << (r & 7));
+            }
+        }
+        out.write(nulls);
+
+        long previous = 0;
+        for (Object[] row : rows) {
+            Object value = row[c];
+            if (value == null) {
+                continue;
+            }
+            switch (type) {
+                case LONG, TIMESTAMP -> {
+                    long current = type == ColumnType.LONG
+                            ? ((Number) value).longValue()
+                            : ChronoUnit.MICROS.between(Instant.EPOCH, (Instant) value);
+                    writeVarLong(out, zigZag(current - previous));
+                    previous = current;
+                }
+                case DECIMAL -> {
+                    BigDecimal decimal = (BigDecimal) value;
+                    byte[] unscaled = decimal.unscaledValue().toByteArray();
+                    writeVarLong(out, zigZag(decimal.scale()));
+                    writeVarLong(out, unscaled.length);
+                    out.write(unscaled);
+                }
+                case STRING -> {
+                    byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                    writeVarLong(out, bytes.length);
+                    out.write(bytes);
+                }
+            }
+        }
+    }
+
+    private static void readColumn(DataInputStream in, ColumnType type, List<Object[]> rows, int c)
+            throws IOException {
+        byte[] nulls = new byte[(rows.size() + 7) / 8];
+        in.readFully(nulls);
+
+        long previous = 0;
+        for (int r = 0; r < rows.size(); r++) {
+            if ((nulls[r >>> 3] & (1 << (r & 7))) != 0) {
+                continue;
+            }
+            rows.get(r)[c] = switch (type) {
+                case LONG -> previous += unZigZag(readVarLong(in));
+                case TIMESTAMP -> Instant.EPOCH.plus(previous += unZigZag(readVarLong(in)), ChronoUnit.MICROS);
+                case DECIMAL -> {
+                    int scale = (int) unZigZag(readVarLong(in));
+                    byte[] unscaled = new byte[(int) readVarLong(in)];
+                    in.readFully(unscaled);
+                    yield new BigDecimal(new BigInteger(unscaled), scale);
+                }
+                case STRING -> {
+                    byte[] bytes = new byte[(int) readVarLong(in)];
+                    in.readFully(bytes);
+                    yield new String(bytes, StandardCharsets.UTF_8);
+                }
+            };
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,423 @@
+package com.jitendra.Wallet.services.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+import com.jitendra.Wallet.dto.TransactionResponseDTO;
+import com.jitendra.Wallet.entity.TransactionStatus;
+import com.jitendra.Wallet.entity.TransactionType;
+import com.jitendra.Wallet.services.archive.ArchiveSegment.Column;
+import com.jitendra.Wallet.services.archive.ArchiveSegment.ColumnType;
+import com.jitendra.Wallet.services.archive.ArchiveSegment.Rows;
+import com.jitendra.Wallet.services.archive.ArchiveSegment.WalletFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Where archived rows live and how they are found again.
+ *
+ * Segment files are named {minCreated}_{maxCreated}_{minId}_{maxId}.seg.gz
+ * (epoch millis), under {directory}/{table}/{shard}/. A lookup by time range
+ * or by id only opens the segments whose name overlaps it — no index to keep
+ * in sync, and the directory listing is the catalog.
+ *
+ * Transaction segments also get a {name}.wallets Bloom filter, written before
+ * the segment itself. A wallet's history spans every shard (transactions are
+ * sharded by id), so a wallet lookup checks each candidate's filter — a few
+ * KB, held in memory once read — and decodes only the segments that may hold
+ * the wallet. Segments from before the filters existed are always decoded.
+ */
+@Component
+@Slf4j
+public class TransactionArchive {
+
+    static final String TRANSACTIONS = "transactions";
+    static final String SAGA_INSTANCE = "saga_instance";
+    static final String SAGA_STEP = "saga_step";
+
+    static final List<Column> TRANSACTION_COLUMNS = List.of(
+            new Column("id", ColumnType.LONG),
+            new Column("description", ColumnType.STRING),
+            new Column("source_wallet_id", ColumnType.LONG),
+            new Column("destination_wallet_id", ColumnType.LONG),
+            new Column("amount", ColumnType.DECIMAL),
+            new Column("status", ColumnType.STRING),
+            new Column("type", ColumnType.STRING),
+            new Column("saga_instance_id", ColumnType.LONG),
+            new Column("created_date", ColumnType.TIMESTAMP),
+            new Column("updated_date", ColumnType.TIMESTAMP));
+
+    static final List<Column> SAGA_INSTANCE_COLUMNS = List.of(
+            new Column("id", ColumnType.LONG),
+            new Column("saga_type", ColumnType.STRING),
+            new Column("status", ColumnType.STRING),
+            new Column("context", ColumnType.STRING),
+            new Column("current_step", ColumnType.STRING),
+            new Column("completed_date", ColumnType.TIMESTAMP),
+            new Column("compensated_date", ColumnType.TIMESTAMP),
+            new Column("error_details", ColumnType.STRING),
+            new Column("retry_count", ColumnType.LONG),
+            new Column("created_date", ColumnType.TIMESTAMP),
+            new Column("updated_date", ColumnType.TIMESTAMP));
+
+    static final List<Column> SAGA_STEP_COLUMNS = List.of(
+            new Column("id", ColumnType.LONG),
+            new Column("saga_instance_id", ColumnType.LONG),
+            new Column("step_order", ColumnType.LONG),
+            new Column("step_name", ColumnType.STRING),
+            new Column("status", ColumnType.STRING),
+            new Column("error_message", ColumnType.STRING),
+            new Column("retry_count", ColumnType.LONG),
+            new Column("step_data", ColumnType.STRING),
+            new Column("created_date", ColumnType.TIMESTAMP),
+            new Column("started_date", ColumnType.TIMESTAMP),
+            new Column("completed_date", ColumnType.TIMESTAMP));
+
+    private static final String SUFFIX = ".seg.gz";
+    private static final String WALLET_FILTER_SUFFIX = ".wallets";
+
+    private static final Comparator<TransactionResponseDTO> CREATED_ORDER = Comparator
+            .comparing(TransactionResponseDTO::getCreatedDate)
+            .thenComparing(TransactionResponseDTO::getId);
+
+    private record SegmentName(Path path, long minCreatedMs, long maxCreatedMs, long minId, long maxId) {
+    }
+
+    private final ArchiveProperties properties;
+    private final Path root;
+    private final Map<Path, Rows> segmentCache;
+    private final Map<Path, Optional<WalletFilter>> walletFilters = new ConcurrentHashMap<>();
+
+    public TransactionArchive(ArchiveProperties properties) {
+        this.properties = properties;
+        this.root = Paths.get(properties.getDirectory());
+        this.segmentCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Rows> eldest) {
+                return size() > properties.getSegmentCacheSize();
+            }
+        };
+    }
+
+    /**
+     * Rows created before this instant may have been archived; anything newer
+     * is guaranteed to still be in the hot table.
+     */
+    public Instant horizon() {
+        return Instant.now().minus(properties.getRetentionDays(), ChronoUnit.DAYS);
+    }
+
+    /**
+     * Persists one batch. The id and created_date ranges of the rows become
+     * the file name, which is all a later lookup needs to skip it. A wallet
+     * filter goes first, so no segment is ever visible without it.
+     */
+    void writeSegment(String table, String shard, List<Column> columns, List<Object[]> rows) throws IOException {
+        int id = indexOf(columns, "id");
+        int created = indexOf(columns, "created_date");
+        long minCreated = Long.MAX_VALUE, maxCreated = Long.MIN_VALUE, minId = Long.MAX_VALUE, maxId = Long.MIN_VALUE;
+        for (Object[] row : rows) {
+            long rowId = (Long) row[id];
+            long rowCreated = ((Instant) row[created]).toEpochMilli();
+            minId = Math.min(minId, rowId);
+            maxId = Math.max(maxId, rowId);
+            minCreated = Math.min(minCreated, rowCreated);
+            maxCreated = Math.max(maxCreated, rowCreated);
+        }
+        Path file = root.resolve(table).resolve(shard)
+                .resolve(minCreated + "_" + maxCreated + "_" + minId + "_" + maxId + SUFFIX);
+        if (columns.equals(TRANSACTION_COLUMNS)) {
+            Set<Long> wallets = new HashSet<>();
+            for (Object[] row : rows) {
+                wallets.add((Long) row[2]);
+                wallets.add((Long) row[3]);
+            }
+            ArchiveSegment.writeWalletFilter(walletFilterOf(file), WalletFilter.of(wallets));
+        }
+        ArchiveSegment.write(file, columns, rows);
+    }
+
+    /** An archived transaction by id, searching only segments whose id range covers it. */
+    public Optional<TransactionResponseDTO> findTransaction(long transactionId) {
+        return scanTransactions(
+                segment -> segment.minId() <= transactionId && transactionId <= segment.maxId(),
+                row -> (Long) row[0] == transactionId)
+                .stream().findFirst();
+    }
+
+    /**
+     * Archived transactions where the wallet is source or destination and
+     * created_date is in [from, to), oldest first (created_date, then id).
+     *
+     * Rows come out of a merge across the matching segments: a segment is
+     * decoded only once the merge reaches its earliest possible row, and only
+     * the wallet's rows are kept from it. Memory follows the segments that
+     * overlap in time, not the size of the range.
+     */
+    public Iterator<TransactionResponseDTO> walletTransactions(long walletId, Instant from, Instant to) {
+        long fromMs = from.toEpochMilli();
+        long toMs = to.toEpochMilli();
+        List<SegmentName> candidates = segments(TRANSACTIONS).stream()
+                .filter(segment -> segment.maxCreatedMs() >= fromMs && segment.minCreatedMs() < toMs)
+                .filter(segment -> mayHoldWallet(segment.path(), walletId))
+                .sorted(Comparator.comparingLong(SegmentName::minCreatedMs))
+                .toList();
+        return new SegmentMerge(candidates, row -> {
+            Instant created = (Instant) row[8];
+            return ((Long) row[2] == walletId || (Long) row[3] == walletId)
+                    && !created.isBefore(from) && created.isBefore(to);
+        });
+    }
+
+    /** How many rows {@link #walletTransactions} would return, without keeping them. */
+    public long countWalletTransactions(long walletId, Instant from, Instant to) {
+        long count = 0;
+        for (Iterator<TransactionResponseDTO> rows = walletTransactions(walletId, from, to); rows.hasNext(); rows.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Every transaction one shard archived with created_date in [from, to) —
+     * lets a daily stats rebuild cover rows that already left the hot table.
+     */
+    public List<TransactionResponseDTO> findShardTransactions(String shard, Instant from, Instant to) {
+        long fromMs = from.toEpochMilli();
+        long toMs = to.toEpochMilli();
+        return scanTransactions(
+                segment -> segment.path().getParent().getFileName().toString().equals(shard)
+                        && segment.maxCreatedMs() >= fromMs && segment.minCreatedMs() < toMs,
+                row -> !((Instant) row[8]).isBefore(from) && ((Instant) row[8]).isBefore(to));
+    }
+
+    private List<TransactionResponseDTO> scanTransactions(Predicate<SegmentName> segmentFilter,
+            Predicate<Object[]> rowFilter) {
+        Map<Long, TransactionResponseDTO> found = new LinkedHashMap<>();
+        for (SegmentName segment : segments(TRANSACTIONS)) {
+            if (!segmentFilter.test(segment)) {
+                continue;
+            }
+            for (Object[] row : load(segment.path()).rows()) {
+                // A crash between writing a segment and deleting its rows re-archives
+                // them on the next run; the first copy wins
+                if (rowFilter.test(row)) {
+                    found.putIfAbsent((Long) row[0], toTransaction(row));
+                }
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    /**
+     * Merges the matching rows of segments sorted by their earliest row.
+     * Archived batches of one shard are written oldest first, but a row that
+     * was PENDING past the horizon leaves in a later, overlapping segment,
+     * and every shard has its own sequence — hence a merge, not a concatenation.
+     */
+    private final class SegmentMerge implements Iterator<TransactionResponseDTO> {
+
+        private final Deque<SegmentName> unopened;
+        private final Predicate<Object[]> rowFilter;
+        private final PriorityQueue<SegmentCursor> open = new PriorityQueue<>(
+                Comparator.comparing(SegmentCursor::current, CREATED_ORDER));
+        private TransactionResponseDTO next;
+        private Long lastId;
+
+        SegmentMerge(List<SegmentName> segments, Predicate<Object[]> rowFilter) {
+            this.unopened = new ArrayDeque<>(segments);
+            this.rowFilter = rowFilter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public TransactionResponseDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            TransactionResponseDTO row = next;
+            next = null;
+            return row;
+        }
+
+        private TransactionResponseDTO advance() {
+            while (true) {
+                SegmentCursor head = open.peek();
+                // Nothing in an unopened segment is older than its name says,
+                // so the head can go out only once it is older than that
+                if (!unopened.isEmpty() && (head == null || !head.current().getCreatedDate()
+                        .isBefore(Instant.ofEpochMilli(unopened.peek().minCreatedMs())))) {
+                    openSegment(unopened.poll());
+                    continue;
+                }
+                if (head == null) {
+                    return null;
+                }
+                open.poll();
+                TransactionResponseDTO row = head.current();
+                if (head.advance()) {
+                    open.add(head);
+                }
+                // A crash between writing a segment and deleting its rows
+                // re-archives them on the next run; copies sort next to each other
+                if (row.getId().equals(lastId)) {
+                    continue;
+                }
+                lastId = row.getId();
+                return row;
+            }
+        }
+
+        private void openSegment(SegmentName segment) {
+            List<TransactionResponseDTO> rows = new ArrayList<>();
+            for (Object[] row : load(segment.path()).rows()) {
+                if (rowFilter.test(row)) {
+                    rows.add(toTransaction(row));
+                }
+            }
+            if (!rows.isEmpty()) {
+                rows.sort(CREATED_ORDER);
+                open.add(new SegmentCursor(rows));
+            }
+        }
+    }
+
+    private static final class SegmentCursor {
+        private final List<TransactionResponseDTO> rows;
+        private int position;
+
+        SegmentCursor(List<TransactionResponseDTO> rows) {
+            this.rows = rows;
+        }
+
+        TransactionResponseDTO current() {
+            return rows.get(position);
+        }
+
+        boolean advance() {
+            return ++position < rows.size();
+        }
+    }
+
+    private boolean mayHoldWallet(Path segment, long walletId) {
+        return walletFilters.computeIfAbsent(segment, this::loadWalletFilter)
+                .map(filter -> filter.mightContain(walletId))
+                .orElse(true);
+    }
+
+    private Optional<WalletFilter> loadWalletFilter(Path segment) {
+        Path file = walletFilterOf(segment);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(ArchiveSegment.readWalletFilter(file));
+        } catch (IOException e) {
+            log.warn("Unreadable wallet filter {}, decoding its segment instead: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Path walletFilterOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - SUFFIX.length()) + WALLET_FILTER_SUFFIX);
+    }
+
+    private List<SegmentName> segments(String table) {
+        Path tableDir = root.resolve(table);
+        if (!Files.isDirectory(tableDir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(tableDir, 2)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .map(TransactionArchive::parseName)
+                    .flatMap(Optional::stream)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list archive " + tableDir, e);
+        }
+    }
+
+    private Rows load(Path path) {
+        synchronized (segmentCache) {
+            Rows cached = segmentCache.get(path);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        try {
+            Rows rows = ArchiveSegment.read(path);
+            synchronized (segmentCache) {
+                segmentCache.put(path, rows);
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archive segment " + path, e);
+        }
+    }
+
+    private static Optional<SegmentName> parseName(Path path) {
+        String name = path.getFileName().toString();
+        String[] parts = name.substring(0, name.length() - SUFFIX.length()).split("_");
+        if (parts.length != 4) {
+            log.warn("Ignoring unexpected file in archive: {}", path);
+            return Optional.empty();
+        }
+        return Optional.of(new SegmentName(path, Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                Long.parseLong(parts[2]), Long.parseLong(parts[3])));
+    }
+
+    private static TransactionResponseDTO toTransaction(Object[] row) {
+        return new TransactionResponseDTO(
+                (Long) row[0],
+                (String) row[1],
+                (Long) row[2],
+                (Long) row[3],
+                (BigDecimal) row[4],
+                TransactionStatus.valueOf((String) row[5]),
+                TransactionType.valueOf((String) row[6]),
+                (Long) row[7],
+                (Instant) row[8],
+                (Instant) row[9]);
+    }
+
+    private static int indexOf(List<Column> columns, String name) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).name().equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No column " + name);
+    }
+}
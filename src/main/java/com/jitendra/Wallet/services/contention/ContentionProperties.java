@@ -0,0 +1,34 @@
+package com.jitendra.Wallet.services.contention;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.contention.* — when a wallet switches from @Version checks to
+ * SELECT ... FOR UPDATE and back.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.contention")
+public class ContentionProperties {
+
+    // Off = every wallet stays optimistic
+    private boolean enabled = true;
+
+    // Half-life of a wallet's conflict score: a conflict counts 1, then half
+    // as much after this long
+    private long halfLifeMs = 10_000;
+
+    // Score at which a wallet turns pessimistic...
+    private double hotThreshold = 3.0;
+
+    // ...and below which it goes back to optimistic (hysteresis, so a wallet
+    // near the threshold doesn't flap)
+    private double coolThreshold = 0.5;
+
+    // Upper bound on wallets with a live score; beyond it new wallets are not tracked
+    private int maxTrackedWallets = 100_000;
+
+    // How often scores that decayed to nothing are dropped
+    private long sweepIntervalMs = 60_000;
+}
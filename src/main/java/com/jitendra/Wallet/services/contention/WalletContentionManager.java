@@ -0,0 +1,201 @@
+package com.jitendra.Wallet.services.contention;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.StaleObjectStateException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.jitendra.Wallet.entity.Wallet;
+import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks optimistic or pessimistic locking per wallet from its recent
+ * optimistic-lock conflicts.
+ *
+ * WHY:
+ * @Version costs nothing for a wallet nobody else is touching, but on a hot
+ * wallet most writers lose at commit and redo the whole step after a back-off.
+ * For those wallets a row lock taken up front is cheaper: writers queue in
+ * Postgres instead of failing. The mailboxes already remove same-node races;
+ * this covers writers on other nodes and paths outside the mailboxes.
+ *
+ * Each conflict adds 1 to the wallet's score, which halves every
+ * wallet.contention.half-life-ms. Above hot-threshold the wallet's loads take
+ * FOR UPDATE (through findAllForUpdateOrderById, the same id-ordered lock the
+ * fast path uses); once the score falls below cool-threshold it is optimistic
+ * again. Pessimistic loads cause no conflicts, so a wallet that stopped being
+ * hot cools down on its own.
+ *
+ * Metrics: wallet.contention.hot (gauge), wallet.contention.switches{mode},
+ * wallet.contention.conflicts.
+ */
+@Component
+@Slf4j
+public class WalletContentionManager {
+
+    private final ContentionProperties properties;
+    private final WalletRepository walletRepository;
+    private final ShardRouter shardRouter;
+
+    private final Map<Long, Heat> heat = new ConcurrentHashMap<>();
+
+    private final Counter conflicts;
+    private final Counter toPessimistic;
+    private final Counter toOptimistic;
+
+    public WalletContentionManager(ContentionProperties properties, WalletRepository walletRepository,
+            ShardRouter shardRouter, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.walletRepository = walletRepository;
+        this.shardRouter = shardRouter;
+        this.conflicts = Counter.builder("wallet.contention.conflicts")
+                .description("Optimistic-lock conflicts observed on wallets")
+                .register(meterRegistry);
+        this.toPessimistic = Counter.builder("wallet.contention.switches").tag("mode", "pessimistic")
+                .description("Wallets switched between optimistic and pessimistic locking")
+                .register(meterRegistry);
+        this.toOptimistic = Counter.builder("wallet.contention.switches").tag("mode", "optimistic")
+                .description("Wallets switched between optimistic and pessimistic locking")
+                .register(meterRegistry);
+        Gauge.builder("wallet.contention.hot", heat, WalletContentionManager::countHot)
+                .description("Wallets currently loaded with SELECT ... FOR UPDATE")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads a wallet for modification: a plain find for cold wallets, a row
+     * lock for hot ones. Must run inside the transaction that writes it.
+     */
+    public Optional<Wallet> loadForUpdate(Long walletId) {
+        if (!isHot(walletId)) {
+            return walletRepository.findById(walletId);
+        }
+        List<Wallet> locked = walletRepository.findAllForUpdateOrderById(
+                List.of(shardRouter.ownerOf(walletId)), List.of(walletId));
+        return locked.stream().findFirst();
+    }
+
+    public boolean isHot(Long walletId) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        Heat h = heat.get(walletId);
+        return h != null && h.refresh(System.currentTimeMillis());
+    }
+
+    /**
+     * Records the wallet behind an optimistic-lock failure anywhere in the
+     * cause chain; anything else is ignored. Safe to call with any throwable.
+     */
+    public void recordFailure(Throwable failure) {
+        Long walletId = conflictingWallet(failure);
+        if (walletId == null || !properties.isEnabled()) {
+            return;
+        }
+        conflicts.increment();
+        Heat h = heat.get(walletId);
+        if (h == null) {
+            if (heat.size() >= properties.getMaxTrackedWallets()) {
+                return;
+            }
+            h = heat.computeIfAbsent(walletId, Heat::new);
+        }
+        h.conflict(System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.contention.sweep-interval-ms:60000}")
+    void sweep() {
+        long now = System.currentTimeMillis();
+        heat.values().removeIf(h -> h.isCold(now));
+    }
+
+    private static double countHot(Map<Long, Heat> heat) {
+        return heat.values().stream().filter(Heat::isPessimistic).count();
+    }
+
+    private static Long conflictingWallet(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof ObjectOptimisticLockingFailureException e
+                    && Wallet.class.getName().equals(e.getPersistentClassName())) {
+                return asLong(e.getIdentifier());
+            }
+            if (t instanceof StaleObjectStateException e && Wallet.class.getName().equals(e.getEntityName())) {
+                return asLong(e.getIdentifier());
+            }
+            if (t instanceof OptimisticLockException e && e.getEntity() instanceof Wallet wallet) {
+                return wallet.getId();
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    private static Long asLong(Object identifier) {
+        return identifier instanceof Number n ? n.longValue() : null;
+    }
+
+    /** Decaying conflict score plus the current locking mode of one wallet. */
+    private final class Heat {
+
+        private final long walletId;
+        private double score;
+        private long updatedAt = System.currentTimeMillis();
+        private volatile boolean pessimistic;
+
+        Heat(long walletId) {
+            this.walletId = walletId;
+        }
+
+        synchronized void conflict(long now) {
+            decay(now);
+            score += 1.0;
+            if (!pessimistic && score >= properties.getHotThreshold()) {
+                pessimistic = true;
+                toPessimistic.increment();
+                log.info("Wallet {} is contended (score {}), switching to pessimistic locking",
+                        walletId, String.format("%.1f", score));
+            }
+        }
+
+        /** @return true while the wallet should be locked pessimistically */
+        synchronized boolean refresh(long now) {
+            decay(now);
+            if (pessimistic && score < properties.getCoolThreshold()) {
+                pessimistic = false;
+                toOptimistic.increment();
+                log.info("Wallet {} cooled down, back to optimistic locking", walletId);
+            }
+            return pessimistic;
+        }
+
+        synchronized boolean isCold(long now) {
+            return !refresh(now) && score < 0.01;
+        }
+
+        boolean isPessimistic() {
+            return pessimistic;
+        }
+
+        private void decay(long now) {
+            long elapsed = now - updatedAt;
+            if (elapsed > 0) {
+                score *= Math.pow(0.5, (double) elapsed / properties.getHalfLifeMs());
+                updatedAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.jitendra.Wallet.services.deadline;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * A shard's pool as ShardingSphere sees it, bounding every statement issued
+ * under a {@link StepDeadline}.
+ *
+ * WHY:
+ * A debit waiting on a row lock held by another transfer used to wait as long
+ * as the lock was held, keeping its pooled connection (and the saga) with it.
+ * Under a deadline each statement now gets:
+ * - SET LOCAL lock_timeout / statement_timeout, once per transaction and
+ *   deadline, so Postgres gives up on the server side (55P03 / 57014). Both
+ *   reset at commit or rollback, so a pooled connection never carries them on.
+ * - a JDBC query timeout of the remaining budget (whole seconds, rounded up),
+ *   which also covers a server that has stopped answering.
+ * - an immediate SQLTimeoutException when the budget is already spent, without
+ *   touching the database.
+ *
+ * Statements outside a deadline (HTTP reads, background jobs) pass unchanged.
+ */
+public final class DeadlineEnforcingDataSource implements DataSource {
+
+    private final DataSource delegate;
+    private final long lockTimeoutMs;
+
+    DeadlineEnforcingDataSource(DataSource delegate, long lockTimeoutMs) {
+        this.delegate = delegate;
+        this.lockTimeoutMs = lockTimeoutMs;
+    }
+
+    /**
+     * Wraps every pool, or returns them unchanged when deadlines are disabled.
+     */
+    public static Map<String, DataSource> wrap(Map<String, DataSource> shards, DeadlineProperties properties) {
+        if (!properties.isEnabled()) {
+            return shards;
+        }
+        Map<String, DataSource> wrapped = new LinkedHashMap<>();
+        shards.forEach((name, dataSource) -> wrapped.put(name,
+                new DeadlineEnforcingDataSource(dataSource, properties.getLockTimeoutMs())));
+        return wrapped;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = delegate.getConnection();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Shard pools use their configured credentials");
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        // Deadline whose SET LOCAL values the current transaction carries; 0 = none
+        private long appliedDeadline;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("commit") || name.equals("rollback") || name.equals("setAutoCommit")) {
+                // Transaction boundary: SET LOCAL values are gone after it
+                appliedDeadline = 0;
+            }
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof CallableStatement) {
+                return statementProxy(result, CallableStatement.class);
+            }
+            if (result instanceof PreparedStatement) {
+                return statementProxy(result, PreparedStatement.class);
+            }
+            if (result instanceof Statement) {
+                return statementProxy(result, Statement.class);
+            }
+            return result;
+        }
+
+        private Object statementProxy(Object statement, Class<?> type) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                    new StatementHandler(this, (Statement) statement));
+        }
+
+        /**
+         * Sets the server-side timeouts for this transaction, in one round trip.
+         * Skipped in autocommit mode, where SET LOCAL would not outlive itself.
+         */
+        void applyLocalTimeouts(long deadline, long remainingMs) throws SQLException {
+            if (appliedDeadline == deadline || target.getAutoCommit()) {
+                return;
+            }
+            try (Statement statement = target.createStatement()) {
+                statement.execute("SET LOCAL lock_timeout = " + Math.min(lockTimeoutMs, remainingMs)
+                        + "; SET LOCAL statement_timeout = " + remainingMs);
+            }
+            appliedDeadline = deadline;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final ConnectionHandler connection;
+        private final Statement target;
+
+        StatementHandler(ConnectionHandler connection, Statement target) {
+            this.connection = connection;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().startsWith("execute")) {
+                long deadline = StepDeadline.current();
+                if (deadline != 0) {
+                    long remainingMs = deadline - System.currentTimeMillis();
+                    if (remainingMs <= 0) {
+                        throw new SQLTimeoutException("Step deadline exceeded before statement was sent");
+                    }
+                    connection.applyLocalTimeouts(deadline, remainingMs);
+                    target.setQueryTimeout((int) Math.max(1, (remainingMs + 999) / 1_000));
+                }
+            }
+            return invokeTarget(target, method, args);
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ---- plain delegation ----
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        if (iface.isInstance(delegate)) {
+            return iface.cast(delegate);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || iface.isInstance(delegate) || delegate.isWrapperFor(iface);
+    }
+}
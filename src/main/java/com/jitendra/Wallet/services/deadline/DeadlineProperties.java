@@ -0,0 +1,29 @@
+package com.jitendra.Wallet.services.deadline;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.deadline.* — time budgets for saga steps and whole sagas.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.deadline")
+public class DeadlineProperties {
+
+    // Off = steps run without statement/lock timeouts and expiry_time is not enforced
+    private boolean enabled = true;
+
+    // Budget for one forward step (executeStep), retries and back-off included.
+    // Compensation has none: an undo cut short is a refund never made
+    private long stepTimeoutMs = 5_000;
+
+    // Longest a single statement may wait for a row lock (capped by what is
+    // left of the step budget). Postgres aborts the attempt's transaction on
+    // the timeout (55P03); the step retries in a new one if budget remains
+    private long lockTimeoutMs = 1_000;
+
+    // Written to saga_instance.timeout_minutes / expiry_time when a saga starts;
+    // no forward step starts after expiry_time
+    private int sagaTimeoutMinutes = 5;
+}
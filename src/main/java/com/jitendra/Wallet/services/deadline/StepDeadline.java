@@ -0,0 +1,74 @@
+package com.jitendra.Wallet.services.deadline;
+
+import java.util.function.Supplier;
+
+import com.jitendra.Wallet.exception.StepDeadlineExceededException;
+
+/**
+ * The deadline of the saga step running on the current thread.
+ *
+ * The orchestrator opens a scope around each step; {@link DeadlineEnforcingDataSource}
+ * reads it for every statement the step issues. Inside a transaction
+ * ShardingSphere executes on the calling thread, so a thread-local is enough
+ * to reach the physical connections. Work handed to another thread (a wallet
+ * mailbox) takes the deadline along through {@link #propagate}.
+ */
+public final class StepDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private StepDeadline() {
+    }
+
+    /** Restores the enclosing deadline (if any) when closed. */
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Sets the deadline for the current thread until the scope is closed. A
+     * nested scope can only shorten the enclosing deadline.
+     */
+    public static Scope enter(long deadlineMillis) {
+        Long previous = DEADLINE.get();
+        DEADLINE.set(previous == null ? deadlineMillis : Math.min(previous, deadlineMillis));
+        return () -> {
+            if (previous == null) {
+                DEADLINE.remove();
+            } else {
+                DEADLINE.set(previous);
+            }
+        };
+    }
+
+    /** Deadline in epoch millis, or 0 when no step deadline is active. */
+    public static long current() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? 0 : deadline;
+    }
+
+    /** The task, run under the caller's current deadline on whichever thread runs it. */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        long deadline = current();
+        if (deadline == 0) {
+            return task;
+        }
+        return () -> {
+            try (Scope scope = enter(deadline)) {
+                return task.get();
+            }
+        };
+    }
+
+    /**
+     * @throws StepDeadlineExceededException when the active deadline has passed
+     */
+    public static void check(String what) {
+        long deadline = current();
+        if (deadline != 0 && System.currentTimeMillis() >= deadline) {
+            throw new StepDeadlineExceededException("Deadline exceeded for " + what);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.jitendra.Wallet.services.diagnostics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.diagnostics.* — flight recordings on demand.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.diagnostics")
+public class DiagnosticsProperties {
+
+    // Off = /diagnostics answers 404. The recordings expose internals, so keep
+    // it off wherever the API is reachable by untrusted callers
+    private boolean enabled = false;
+
+    // JFR settings preset for recordings: "default" (~1% overhead) or "profile"
+    private String jfrSettings = "default";
+
+    // Recordings keep a rolling window of this much history
+    private long maxAgeMinutes = 30;
+    private long maxSizeMb = 256;
+
+    // Start a recording at boot, so a p99 spike can be dumped after the fact
+    private boolean continuousRecording = false;
+}
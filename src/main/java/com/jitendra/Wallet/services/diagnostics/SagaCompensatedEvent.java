@@ -0,0 +1,39 @@
+package com.jitendra.Wallet.services.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A whole compensation run: every completed step undone in reverse order.
+ */
+@Name("com.jitendra.wallet.SagaCompensated")
+@Label("Saga Compensated")
+@Category({ "Wallet", "Saga" })
+@Description("Compensation of a failed saga")
+@StackTrace(false)
+public final class SagaCompensatedEvent extends Event {
+
+    @Label("Saga Instance Id")
+    long sagaInstanceId;
+
+    @Label("Steps")
+    @Description("Completed steps that had to be undone")
+    int stepCount;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    public void finish(long sagaInstanceId, int stepCount, boolean succeeded) {
+        end();
+        if (shouldCommit()) {
+            this.sagaInstanceId = sagaInstanceId;
+            this.stepCount = stepCount;
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
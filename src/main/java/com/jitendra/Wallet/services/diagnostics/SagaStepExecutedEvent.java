@@ -0,0 +1,58 @@
+package com.jitendra.Wallet.services.diagnostics;
+
+import java.util.function.Supplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One executeStep or compensateStep call, retries and back-off included.
+ */
+@Name("com.jitendra.wallet.SagaStepExecuted")
+@Label("Saga Step Executed")
+@Category({ "Wallet", "Saga" })
+@Description("A saga step (or its compensation), retries included")
+@StackTrace(false)
+public final class SagaStepExecutedEvent extends Event {
+
+    @Label("Saga Instance Id")
+    long sagaInstanceId;
+
+    @Label("Step")
+    String stepName;
+
+    @Label("Shard")
+    @Description("Shard of the wallet the step changes; empty for steps without one")
+    String shard;
+
+    @Label("Compensation")
+    boolean compensation;
+
+    @Label("Retry Count")
+    int retryCount;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /**
+     * Ends the event and commits it if a recording wants it. The shard is only
+     * resolved in that case.
+     */
+    public void finish(long sagaInstanceId, String stepName, boolean compensation, Supplier<String> shard,
+            int retryCount, boolean succeeded) {
+        end();
+        if (shouldCommit()) {
+            this.sagaInstanceId = sagaInstanceId;
+            this.stepName = stepName;
+            this.compensation = compensation;
+            this.shard = shard.get();
+            this.retryCount = retryCount;
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.jitendra.Wallet.services.diagnostics;
+
+import java.util.function.Supplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A retry of a saga step after a transient failure. The duration runs from
+ * the start of the failed attempt to the start of the retry, so it includes
+ * the back-off.
+ */
+@Name("com.jitendra.wallet.SagaStepRetried")
+@Label("Saga Step Retried")
+@Category({ "Wallet", "Saga" })
+@Description("A saga step attempt failed transiently and is being retried")
+@StackTrace(false)
+public final class SagaStepRetriedEvent extends Event {
+
+    @Label("Saga Instance Id")
+    long sagaInstanceId;
+
+    @Label("Step")
+    String stepName;
+
+    @Label("Shard")
+    String shard;
+
+    @Label("Compensation")
+    boolean compensation;
+
+    @Label("Retry Count")
+    @Description("Retries so far, this one included")
+    int retryCount;
+
+    @Label("Cause")
+    String cause;
+
+    public void finish(long sagaInstanceId, String stepName, boolean compensation, Supplier<String> shard,
+            int retryCount, Throwable cause) {
+        end();
+        if (shouldCommit()) {
+            this.sagaInstanceId = sagaInstanceId;
+            this.stepName = stepName;
+            this.compensation = compensation;
+            this.shard = shard.get();
+            this.retryCount = retryCount;
+            this.cause = cause == null ? null : cause.getClass().getSimpleName() + ": " + cause.getMessage();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.jitendra.Wallet.services.diagnostics;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A wallet balance change, from loading the row to saving it. Long durations
+ * next to jdk.JavaMonitorWait / lock events point at a hot wallet.
+ */
+@Name("com.jitendra.wallet.WalletBalanceMutated")
+@Label("Wallet Balance Mutated")
+@Category({ "Wallet", "Balance" })
+@Description("Load, change and save of one wallet balance")
+@StackTrace(false)
+public final class WalletBalanceMutatedEvent extends Event {
+
+    @Label("Wallet Id")
+    long walletId;
+
+    @Label("Shard")
+    String shard;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Amount")
+    String amount;
+
+    @Label("Saga Instance Id")
+    @Description("0 outside a saga")
+    long sagaInstanceId;
+
+    @Label("Step")
+    String stepName;
+
+    public void finish(long walletId, Supplier<String> shard, String operation, BigDecimal amount,
+            Long sagaInstanceId, String stepName) {
+        end();
+        if (shouldCommit()) {
+            this.walletId = walletId;
+            this.shard = shard.get();
+            this.operation = operation;
+            this.amount = amount.toPlainString();
+            this.sagaInstanceId = sagaInstanceId == null ? 0 : sagaInstanceId;
+            this.stepName = stepName;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.jitendra.Wallet.services.history;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.history.* — balance checkpoints.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.history")
+public class BalanceHistoryProperties {
+
+    // When BalanceSnapshotJob checkpoints every wallet that changed since its
+    // last snapshot (Spring cron, server time zone). Default: nightly.
+    private String snapshotCron = "0 5 0 * * *";
+
+    // Wallets checkpointed per statement
+    private int snapshotBatchSize = 5_000;
+}
@@ -0,0 +1,70 @@
+package com.jitendra.Wallet.services.history;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Historical balance of a wallet.
+ *
+ * HOW AN AS-OF QUERY WORKS:
+ * 1. Nearest checkpoint at or before the time (wallet_balance_snapshot).
+ * 2. Highest-seq ledger entry after that checkpoint and at or before the
+ *    time. Entries carry balance_after, so "applying the delta" since the
+ *    checkpoint is reading one row — no replay of the transactions table.
+ *    seq, not created_at, is the order of changes within a wallet; the walk
+ *    back along (wallet_id, seq) stops at the first entry old enough.
+ *
+ * Every query carries user_id so ShardingSphere routes it to one shard.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BalanceHistoryService {
+
+    private static final String NEAREST_SNAPSHOT = "SELECT seq, balance FROM wallet_balance_snapshot "
+            + "WHERE user_id = ? AND wallet_id = ? AND snapshot_at <= ? "
+            + "ORDER BY seq DESC LIMIT 1";
+
+    private static final String LATEST_ENTRY_SINCE = "SELECT balance_after FROM wallet_ledger_entry "
+            + "WHERE user_id = ? AND wallet_id = ? AND seq > ? AND created_at <= ? "
+            + "ORDER BY seq DESC LIMIT 1";
+
+    private record Checkpoint(long seq, BigDecimal balance) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    /**
+     * Balance of the wallet as of the given instant. Zero before the wallet's
+     * first balance change.
+     */
+    public BigDecimal getBalanceAsOf(Long walletId, Instant asOf) {
+        long userId = shardRouter.ownerOf(walletId);
+        Timestamp at = Timestamp.from(asOf);
+
+        List<Checkpoint> checkpoints = jdbcTemplate.query(NEAREST_SNAPSHOT,
+                (rs, i) -> new Checkpoint(rs.getLong("seq"), rs.getBigDecimal("balance")),
+                userId, walletId, at);
+        Checkpoint checkpoint = checkpoints.isEmpty() ? new Checkpoint(0, BigDecimal.ZERO) : checkpoints.get(0);
+
+        List<BigDecimal> after = jdbcTemplate.query(LATEST_ENTRY_SINCE,
+                (rs, i) -> rs.getBigDecimal("balance_after"),
+                userId, walletId, checkpoint.seq(), at);
+
+        BigDecimal balance = after.isEmpty() ? checkpoint.balance() : after.get(0);
+        log.info("Balance of wallet id: {} as of {} is {} (checkpoint seq {})", walletId, asOf, balance,
+                checkpoint.seq());
+        return balance;
+    }
+}
@@ -0,0 +1,96 @@
+package com.jitendra.Wallet.services.holds;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jitendra.Wallet.config.ShardDataSources;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Expires holds in batches, shard by shard.
+ *
+ * Runs directly on the physical shard pools: wallet_hold and wallet share
+ * the user_id sharding key, so a hold and the wallet it reduces are always on
+ * the same database and one local statement can delete a batch of expired
+ * holds and give their amounts back to the wallets' held_balance.
+ *
+ * FOR UPDATE SKIP LOCKED lets a capture/release that is working on a hold
+ * finish instead of racing the sweeper, and lets several instances sweep
+ * concurrently without deleting the same rows twice.
+ */
+@Component
+@Slf4j
+public class HoldExpirySweeper {
+
+    private static final String SWEEP_BATCH = """
+            WITH expired AS (
+                DELETE FROM wallet_hold
+                WHERE id IN (
+                    SELECT id FROM wallet_hold
+                    WHERE expires_at <= ?
+                    ORDER BY expires_at
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING wallet_id, amount
+            )
+            UPDATE wallet w
+            SET held_balance = w.held_balance - e.total,
+                version = COALESCE(w.version, 0) + 1,
+                updated_at = ?
+            FROM (SELECT wallet_id, SUM(amount) AS total FROM expired GROUP BY wallet_id) e
+            WHERE w.id = e.wallet_id
+            """;
+
+    private record ShardSweep(JdbcTemplate jdbcTemplate, TransactionTemplate txTemplate) {
+    }
+
+    private final HoldProperties holdProperties;
+    private final Map<String, ShardSweep> shards = new LinkedHashMap<>();
+
+    public HoldExpirySweeper(ShardDataSources shardDataSources, HoldProperties holdProperties) {
+        this.holdProperties = holdProperties;
+        for (String name : shardDataSources.names()) {
+            var dataSource = shardDataSources.get(name);
+            shards.put(name, new ShardSweep(new JdbcTemplate(dataSource),
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource))));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.holds.sweep-interval-ms:5000}")
+    public void sweep() {
+        shards.forEach((name, shard) -> {
+            try {
+                int wallets = sweepShard(shard);
+                if (wallets > 0) {
+                    log.info("Hold sweeper released expired holds on {} wallets in {}", wallets, name);
+                }
+            } catch (Exception e) {
+                // One unreachable shard must not stop the others from being swept
+                log.error("Hold sweep failed on {}: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    private int sweepShard(ShardSweep shard) {
+        int walletsTouched = 0;
+        for (int batch = 0; batch < holdProperties.getMaxBatchesPerSweep(); batch++) {
+            Timestamp now = Timestamp.from(Instant.now());
+            Integer updated = shard.txTemplate().execute(status -> shard.jdbcTemplate().update(SWEEP_BATCH,
+                    now, holdProperties.getSweepBatchSize(), now));
+            if (updated == null || updated == 0) {
+                break;
+            }
+            walletsTouched += updated;
+        }
+        return walletsTouched;
+    }
+}
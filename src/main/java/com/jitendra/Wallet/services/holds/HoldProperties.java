@@ -0,0 +1,25 @@
+package com.jitendra.Wallet.services.holds;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.holds.* — authorization holds and their expiry sweeper.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.holds")
+public class HoldProperties {
+
+    // TTL applied when a hold request does not specify one
+    private long defaultTtlSeconds = 900;
+
+    // Pause between sweeps (per run, every shard is swept)
+    private long sweepIntervalMs = 5_000;
+
+    // Expired holds deleted per statement
+    private int sweepBatchSize = 500;
+
+    // Upper bound on batches per shard per run, so one backlog can't pin the sweeper
+    private int maxBatchesPerSweep = 20;
+}
@@ -0,0 +1,164 @@
+package com.jitendra.Wallet.services.holds;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jitendra.Wallet.dto.HoldRequestDTO;
+import com.jitendra.Wallet.dto.HoldResponseDTO;
+import com.jitendra.Wallet.entity.WalletHold;
+import com.jitendra.Wallet.exception.BusinessException;
+import com.jitendra.Wallet.exception.ResourceNotFoundException;
+import com.jitendra.Wallet.repository.WalletHoldRepository;
+import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.mailbox.WalletMailboxExecutor;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Authorization holds on wallets.
+ *
+ * Every hold row is mirrored in wallet.held_balance within the same local
+ * transaction (hold and wallet share a shard), so available balance is
+ * balance - held_balance read from one row instead of a SUM over holds.
+ *
+ * Release and capture lock the hold row first and delete it conditionally,
+ * so they cannot both settle a hold — with each other or with the expiry
+ * sweeper — and give its amount back to held_balance twice.
+ *
+ * Placing, releasing and capturing a hold change the wallet row, so each
+ * runs on the wallet's mailbox like any other balance mutation.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class WalletHoldService {
+
+    private final WalletHoldRepository walletHoldRepository;
+    private final WalletRepository walletRepository;
+    private final ShardRouter shardRouter;
+    private final HoldProperties holdProperties;
+    private final WalletMailboxExecutor walletMailbox;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Place a hold: reserves the amount (fails if the wallet is inactive or
+     * lacks available balance) and records the hold row.
+     */
+    public HoldResponseDTO placeHold(Long walletId, HoldRequestDTO request) {
+        return inWalletMailbox(walletId, () -> reserve(walletId, request));
+    }
+
+    private HoldResponseDTO reserve(Long walletId, HoldRequestDTO request) {
+        long userId = shardRouter.ownerOf(walletId);
+        log.info("Placing hold of {} on wallet id: {}", request.getAmount(), walletId);
+
+        if (walletRepository.reserve(walletId, userId, request.getAmount()) == 0) {
+            throw new BusinessException("Insufficient available balance or inactive wallet: " + walletId);
+        }
+
+        Instant now = Instant.now();
+        long ttlSeconds = request.getTtlSeconds() != null ? request.getTtlSeconds()
+                : holdProperties.getDefaultTtlSeconds();
+        WalletHold hold = walletHoldRepository.save(WalletHold.builder()
+                .walletId(walletId)
+                .userId(userId)
+                .amount(request.getAmount())
+                .reference(request.getReference())
+                .createdAt(now)
+                .expiresAt(now.plusSeconds(ttlSeconds))
+                .build());
+
+        log.info("Hold id: {} placed on wallet id: {}, expires at {}", hold.getId(), walletId, hold.getExpiresAt());
+        return mapToResponseDTO(hold);
+    }
+
+    /**
+     * Release a hold without moving money.
+     */
+    public void releaseHold(Long walletId, Long holdId) {
+        inWalletMailbox(walletId, () -> {
+            WalletHold hold = settleHold(walletId, holdId, false);
+            if (walletRepository.releaseReserved(walletId, hold.getUserId(), hold.getAmount()) == 0) {
+                throw new IllegalStateException("held_balance out of sync for wallet id: " + walletId);
+            }
+            log.info("Hold id: {} released on wallet id: {}", holdId, walletId);
+            return null;
+        });
+    }
+
+    /**
+     * Capture a hold: the held amount is debited from the wallet.
+     */
+    public void captureHold(Long walletId, Long holdId) {
+        inWalletMailbox(walletId, () -> {
+            WalletHold hold = settleHold(walletId, holdId, true);
+            if (walletRepository.confirmReserved(walletId, hold.getUserId(), hold.getAmount()) == 0) {
+                throw new IllegalStateException("held_balance out of sync for wallet id: " + walletId);
+            }
+            log.info("Hold id: {} captured on wallet id: {}, debited {}", holdId, walletId, hold.getAmount());
+            return null;
+        });
+    }
+
+    public List<HoldResponseDTO> getHolds(Long walletId) {
+        return walletHoldRepository.findByWalletIdAndUserIdOrderByExpiresAtAsc(walletId, shardRouter.ownerOf(walletId))
+                .stream()
+                .map(this::mapToResponseDTO)
+                .toList();
+    }
+
+    /**
+     * Spendable balance: balance minus every active hold and TCC reservation.
+     */
+    public BigDecimal getAvailableBalance(Long walletId) {
+        return walletRepository.findAvailableBalance(walletId, shardRouter.ownerOf(walletId))
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + walletId));
+    }
+
+    /**
+     * Locks the hold and deletes it; the caller then settles held_balance in
+     * the same transaction.
+     */
+    private WalletHold settleHold(Long walletId, Long holdId, boolean rejectExpired) {
+        WalletHold hold = walletHoldRepository.findForUpdate(holdId, walletId, shardRouter.ownerOf(walletId))
+                .orElseThrow(() -> holdNotFound(walletId, holdId));
+        if (rejectExpired && hold.getExpiresAt().isBefore(Instant.now())) {
+            throw new BusinessException("Hold has expired: " + holdId);
+        }
+        if (walletHoldRepository.deleteHold(holdId, hold.getUserId()) == 0) {
+            throw holdNotFound(walletId, holdId);
+        }
+        return hold;
+    }
+
+    /**
+     * Runs a hold change on the wallet's mailbox in its own transaction, which
+     * commits before the wallet's next mutation starts.
+     */
+    private <T> T inWalletMailbox(Long walletId, Supplier<T> mutation) {
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        return walletMailbox.call(walletId, () -> txTemplate.execute(status -> mutation.get()));
+    }
+
+    private static ResourceNotFoundException holdNotFound(Long walletId, Long holdId) {
+        return new ResourceNotFoundException("Hold not found with id: " + holdId + " on wallet id: " + walletId);
+    }
+
+    private HoldResponseDTO mapToResponseDTO(WalletHold hold) {
+        return new HoldResponseDTO(
+                hold.getId(),
+                hold.getWalletId(),
+                hold.getAmount(),
+                hold.getReference(),
+                hold.getCreatedAt(),
+                hold.getExpiresAt());
+    }
+}
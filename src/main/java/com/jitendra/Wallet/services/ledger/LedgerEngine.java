@@ -0,0 +1,114 @@
+package com.jitendra.Wallet.services.ledger;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.stereotype.Service;
+
+import com.jitendra.Wallet.config.ShardDataSources;
+import com.jitendra.Wallet.entity.TransactionStatus;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional LMAX-style ledger for transfers whose wallets share a shard.
+ *
+ * One {@link LedgerShard} (ring buffer + single writer thread + primitive
+ * balance map) per physical shard. Cross-shard transfers never come here —
+ * they still need the saga.
+ *
+ * Enabled with wallet.ledger.enabled=true.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LedgerEngine {
+
+    private final LedgerProperties properties;
+    private final LedgerJournalWriter journalWriter;
+    private final ShardDataSources shardDataSources;
+
+    private final Map<String, LedgerShard> shards = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (String shardName : shardDataSources.names()) {
+            LedgerShard shard = new LedgerShard(shardName, properties.getRingBufferSize(),
+                    properties.getMaxBatchSize(), properties.getMaxCachedWallets(), journalWriter);
+            shard.start();
+            shards.put(shardName, shard);
+        }
+        log.info("Ledger engine started for shards {}", shards.keySet());
+    }
+
+    @PreDestroy
+    void stop() {
+        shards.values().forEach(LedgerShard::stop);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * The engine keeps balances in cents; amounts with finer precision go
+     * through the saga instead.
+     */
+    public static boolean supportsAmount(BigDecimal amount) {
+        return amount.stripTrailingZeros().scale() <= 2;
+    }
+
+    /**
+     * Applies a same-shard transfer and blocks until its batch is journaled.
+     *
+     * @return SUCCESS, or FAILED when the source wallet could not cover the amount
+     * @throws IllegalStateException if the ring buffer is full, the batch could not
+     *                               be committed, or the wait timed out
+     */
+    public TransactionStatus transfer(String shardName, Long transactionId,
+            Long sourceWalletId, long sourceUserId,
+            Long destinationWalletId, long destinationUserId,
+            BigDecimal amount) {
+        LedgerShard shard = shards.get(shardName);
+        if (shard == null) {
+            throw new IllegalStateException("Ledger not running for shard " + shardName);
+        }
+
+        CompletableFuture<TransactionStatus> result = new CompletableFuture<>();
+        LedgerTransfer transfer = new LedgerTransfer(transactionId, sourceWalletId, sourceUserId,
+                destinationWalletId, destinationUserId, LedgerJournalWriter.toCents(amount), result);
+
+        if (!shard.submit(transfer)) {
+            throw new IllegalStateException("Ledger ring buffer full for shard " + shardName);
+        }
+
+        try {
+            return result.get(properties.getAwaitTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Completing the future tells the writer to skip this transfer if it has
+            // not been applied yet; the status guard in the journal covers the rest
+            if (!result.completeExceptionally(e)) {
+                return result.join(); // the batch committed in the meantime
+            }
+            throw new IllegalStateException("Ledger transfer timed out for transaction " + transactionId, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ledger transfer failed for transaction " + transactionId
+                    + ": " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            throw new IllegalStateException("Interrupted waiting for ledger transfer " + transactionId, e);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.jitendra.Wallet.services.ledger;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jitendra.Wallet.entity.TransactionStatus;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Durable side of the ledger engine: one DB transaction per batch (group commit).
+ *
+ * Every statement carries user_id (the wallet sharding column), so ShardingSphere
+ * routes the wallet and journal writes to the shard that owns the batch instead
+ * of broadcasting. The transactions status update routes by transaction id;
+ * ledger transfers get their id from ShardLocalTransactions, which places the
+ * row on the same shard, so the whole batch commits on one physical database.
+ */
+@Component
+@RequiredArgsConstructor
+class LedgerJournalWriter {
+
+    private static final String INSERT_JOURNAL = "INSERT INTO ledger_journal "
+            + "(transaction_id, user_id, source_wallet_id, destination_wallet_id, amount, created_date) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Delta update instead of absolute value: writes from the saga path or
+    // WalletService in between are preserved. version is bumped so JPA entities
+    // loaded elsewhere see the change as an optimistic-lock conflict.
+    private static final String APPLY_DELTA = "UPDATE wallet "
+            + "SET balance = balance + ?, version = COALESCE(version, 0) + 1, updated_at = ? "
+            + "WHERE id = ? AND user_id = ? AND balance - held_balance + ? >= 0";
+
+    // Guarded by status so a caller that already gave up (and marked FAILED)
+    // can never be overwritten by a late batch
+    private static final String FINISH_TRANSACTION = "UPDATE transactions SET status = ?, updated_date = ? "
+            + "WHERE id = ? AND status = 'PENDING'";
+
+    /** Per-wallet aggregated balance change for one batch. */
+    record WalletDelta(long walletId, long userId, long deltaCents) {
+    }
+
+    /**
+     * What the writer thread believes a wallet's spendable balance is after the
+     * batch (-1 when the wallet was not found).
+     */
+    record CachedBalance(long walletId, long userId, long availableCents) {
+    }
+
+    /** Thrown inside the batch transaction; the whole batch rolls back. */
+    static class BatchConflictException extends RuntimeException {
+        private final Long staleTransactionId;
+
+        BatchConflictException(String message, Long staleTransactionId) {
+            super(message);
+            this.staleTransactionId = staleTransactionId;
+        }
+
+        Long getStaleTransactionId() {
+            return staleTransactionId;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Loads spendable balances (balance - held_balance, in cents) for wallets
+     * the writer thread has not cached yet.
+     */
+    Map<Long, Long> loadBalances(Map<Long, Long> walletOwners) {
+        return queryBalances(walletOwners, "");
+    }
+
+    private Map<Long, Long> queryBalances(Map<Long, Long> walletOwners, String lockClause) {
+        Map<Long, Long> balances = new HashMap<>();
+        if (walletOwners.isEmpty()) {
+            return balances;
+        }
+        String sql = "SELECT id, balance - held_balance AS available FROM wallet "
+                + "WHERE user_id IN (" + placeholders(walletOwners.size()) + ") "
+                + "AND id IN (" + placeholders(walletOwners.size()) + ")" + lockClause;
+        List<Object> args = new ArrayList<>(walletOwners.values());
+        args.addAll(walletOwners.keySet());
+        jdbcTemplate.query(sql, rs -> {
+            balances.put(rs.getLong("id"), toCents(rs.getBigDecimal("available")));
+        }, args.toArray());
+        return balances;
+    }
+
+    /**
+     * Journals applied transfers, applies aggregated wallet deltas, finalises
+     * every transaction row, and returns the post-commit balances of the
+     * touched wallets so the in-memory view resynchronises with the database.
+     *
+     * A rejection is only as good as the cached balance it was based on, so the
+     * wallets of rejected transfers are locked and compared with what the
+     * writer thread believed; any difference rolls the batch back as a conflict
+     * and the writer retries with reloaded balances.
+     */
+    Map<Long, Long> commit(List<LedgerTransfer> applied, List<LedgerTransfer> rejected,
+            Collection<WalletDelta> deltas, Collection<CachedBalance> rejectedBalances) {
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        return txTemplate.execute(status -> {
+            Timestamp now = Timestamp.from(Instant.now());
+
+            if (!applied.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_JOURNAL, applied, applied.size(), (ps, transfer) -> {
+                    ps.setLong(1, transfer.transactionId());
+                    ps.setLong(2, transfer.sourceUserId());
+                    ps.setLong(3, transfer.sourceWalletId());
+                    ps.setLong(4, transfer.destinationWalletId());
+                    ps.setBigDecimal(5, fromCents(transfer.amountCents()));
+                    ps.setTimestamp(6, now);
+                });
+            }
+
+            if (!deltas.isEmpty()) {
+                List<WalletDelta> deltaList = new ArrayList<>(deltas);
+                int[][] counts = jdbcTemplate.batchUpdate(APPLY_DELTA, deltaList, deltaList.size(), (ps, delta) -> {
+                    BigDecimal amount = fromCents(delta.deltaCents());
+                    ps.setBigDecimal(1, amount);
+                    ps.setTimestamp(2, now);
+                    ps.setLong(3, delta.walletId());
+                    ps.setLong(4, delta.userId());
+                    ps.setBigDecimal(5, amount);
+                });
+                for (int[] chunk : counts) {
+                    for (int count : chunk) {
+                        if (count == 0) {
+                            // Someone drained a wallet outside the ledger since it was cached
+                            throw new BatchConflictException("Wallet balance changed outside the ledger", null);
+                        }
+                    }
+                }
+            }
+
+            confirmRejections(rejectedBalances);
+
+            finish(applied, TransactionStatus.SUCCESS, now);
+            finish(rejected, TransactionStatus.FAILED, now);
+
+            Map<Long, Long> owners = new HashMap<>();
+            for (WalletDelta delta : deltas) {
+                owners.put(delta.walletId(), delta.userId());
+            }
+            return loadBalances(owners);
+        });
+    }
+
+    private void confirmRejections(Collection<CachedBalance> rejectedBalances) {
+        if (rejectedBalances.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> owners = new HashMap<>();
+        for (CachedBalance cached : rejectedBalances) {
+            owners.put(cached.walletId(), cached.userId());
+        }
+        // Runs after the deltas, so the locked rows already include this batch
+        Map<Long, Long> locked = queryBalances(owners, " FOR UPDATE");
+        for (CachedBalance cached : rejectedBalances) {
+            if (locked.getOrDefault(cached.walletId(), -1L) != cached.availableCents()) {
+                throw new BatchConflictException("Cached balance of wallet " + cached.walletId()
+                        + " is stale", null);
+            }
+        }
+    }
+
+    private void finish(List<LedgerTransfer> transfers, TransactionStatus status, Timestamp now) {
+        if (transfers.isEmpty()) {
+            return;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(FINISH_TRANSACTION, transfers, transfers.size(), (ps, transfer) -> {
+            ps.setString(1, status.name());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, transfer.transactionId());
+        });
+        for (int i = 0; i < transfers.size(); i++) {
+            if (counts[0][i] == 0) {
+                throw new BatchConflictException("Transaction no longer PENDING: "
+                        + transfers.get(i).transactionId(), transfers.get(i).transactionId());
+            }
+        }
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
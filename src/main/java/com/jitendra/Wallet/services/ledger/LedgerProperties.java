@@ -0,0 +1,29 @@
+package com.jitendra.Wallet.services.ledger;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.ledger.* — in-memory ledger engine for same-shard transfers.
+ * Disabled by default; every transfer goes through the saga when off.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.ledger")
+public class LedgerProperties {
+
+    // Route same-shard transfers to the single-writer engine
+    private boolean enabled = false;
+
+    // Per-shard ring buffer slots (power of two)
+    private int ringBufferSize = 65_536;
+
+    // Upper bound on transfers folded into one journal commit
+    private int maxBatchSize = 1_024;
+
+    // Wallet balances cached per shard before the cache is cleared and refilled
+    private int maxCachedWallets = 100_000;
+
+    // How long an HTTP thread waits for its transfer to be journaled
+    private long awaitTimeoutMs = 5_000;
+}
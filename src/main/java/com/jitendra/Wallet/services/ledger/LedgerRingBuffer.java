@@ -0,0 +1,77 @@
+package com.jitendra.Wallet.services.ledger;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer / single-consumer ring buffer (LMAX-style).
+ *
+ * Producers (HTTP threads) claim a sequence with one CAS and publish into the
+ * slot; the single consumer (the shard's writer thread) drains in batches.
+ * No locks on either side.
+ *
+ * - tail: next sequence to claim, shared by producers
+ * - head: next sequence to consume, written only by the consumer
+ * - a slot is "published" once it is non-null; the consumer nulls it out
+ *   after reading, which is what frees it for the next lap
+ */
+final class LedgerRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    LedgerRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return false when the buffer is full (caller decides whether to back off or reject)
+     */
+    boolean offer(T item) {
+        while (true) {
+            long sequence = tail.get();
+            if (sequence - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(sequence, sequence + 1)) {
+                slots.lazySet((int) sequence & mask, item);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Moves up to maxItems published entries into target. Consumer thread only.
+     *
+     * @return number of items drained
+     */
+    int drainTo(List<T> target, int maxItems) {
+        long sequence = head;
+        int drained = 0;
+        while (drained < maxItems) {
+            int index = (int) sequence & mask;
+            T item = slots.get(index);
+            if (item == null) {
+                // Either empty, or a producer claimed the slot but has not published yet
+                break;
+            }
+            slots.lazySet(index, null);
+            target.add(item);
+            sequence++;
+            drained++;
+        }
+        head = sequence;
+        return drained;
+    }
+
+    boolean isEmpty() {
+        return slots.get((int) head & mask) == null;
+    }
+}
@@ -0,0 +1,213 @@
+package com.jitendra.Wallet.services.ledger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.jitendra.Wallet.entity.TransactionStatus;
+import com.jitendra.Wallet.services.ledger.LedgerJournalWriter.BatchConflictException;
+import com.jitendra.Wallet.services.ledger.LedgerJournalWriter.CachedBalance;
+import com.jitendra.Wallet.services.ledger.LedgerJournalWriter.WalletDelta;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single-writer ledger for one physical shard.
+ *
+ * WHY ONE THREAD:
+ * Every balance on this shard is owned by exactly one thread, so applying a
+ * transfer is two array writes — no locks, no @Version races, no retries.
+ * Durability comes from the group commit: the thread drains whatever arrived
+ * in the ring buffer, applies it in memory, then journals the whole batch in
+ * ONE database transaction before completing any caller's future.
+ *
+ * A caller is only told SUCCESS after its batch is committed, and FAILED only
+ * after the locked database row confirmed the balance the rejection was based
+ * on — the cache is a fast path, never the authority for refusing money.
+ *
+ * The cache is bounded by wallet.ledger.max-cached-wallets: when full it is
+ * cleared and refills from the wallets of the next batches.
+ */
+@Slf4j
+class LedgerShard implements Runnable {
+
+    private static final int MAX_COMMIT_ATTEMPTS = 3;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final String shardName;
+    private final LedgerRingBuffer<LedgerTransfer> ringBuffer;
+    private final LedgerJournalWriter journalWriter;
+    private final int maxBatchSize;
+    private final int maxCachedWallets;
+
+    // Owned by the writer thread only
+    private final LongLongHashMap balances = new LongLongHashMap(4_096);
+    private final List<LedgerTransfer> batch;
+
+    private volatile boolean running = true;
+    private volatile Thread writerThread;
+
+    LedgerShard(String shardName, int ringBufferSize, int maxBatchSize, int maxCachedWallets,
+            LedgerJournalWriter journalWriter) {
+        this.shardName = shardName;
+        this.ringBuffer = new LedgerRingBuffer<>(ringBufferSize);
+        this.maxBatchSize = maxBatchSize;
+        this.maxCachedWallets = maxCachedWallets;
+        this.journalWriter = journalWriter;
+        this.batch = new ArrayList<>(maxBatchSize);
+    }
+
+    void start() {
+        writerThread = Thread.ofPlatform().name("ledger-" + shardName).daemon(true).start(this);
+    }
+
+    void stop() {
+        running = false;
+        LockSupport.unpark(writerThread);
+    }
+
+    boolean submit(LedgerTransfer transfer) {
+        if (!ringBuffer.offer(transfer)) {
+            return false;
+        }
+        LockSupport.unpark(writerThread);
+        return true;
+    }
+
+    @Override
+    public void run() {
+        log.info("Ledger writer started for {}", shardName);
+        while (running || !ringBuffer.isEmpty()) {
+            batch.clear();
+            if (ringBuffer.drainTo(batch, maxBatchSize) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                processBatch(batch);
+            } catch (Exception e) {
+                // Never let the writer thread die: fail the batch and keep serving
+                log.error("Ledger batch on {} failed: {}", shardName, e.getMessage(), e);
+                failAll(batch, e);
+            }
+        }
+        log.info("Ledger writer stopped for {}", shardName);
+    }
+
+    void processBatch(List<LedgerTransfer> transfers) {
+        if (balances.size() > maxCachedWallets) {
+            // Crude bound, like ShardRouter's owner cache: clear and reload on demand
+            balances.clear();
+        }
+
+        List<LedgerTransfer> pending = new ArrayList<>(transfers.size());
+        for (LedgerTransfer transfer : transfers) {
+            // The caller timed out and gave up — do not move money behind its back
+            if (!transfer.result().isDone()) {
+                pending.add(transfer);
+            }
+        }
+
+        for (int attempt = 1; attempt <= MAX_COMMIT_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            loadMissingBalances(pending);
+
+            List<LedgerTransfer> applied = new ArrayList<>(pending.size());
+            List<LedgerTransfer> rejected = new ArrayList<>();
+            Map<Long, WalletDelta> deltas = new LinkedHashMap<>();
+            Set<Long> touched = new HashSet<>();
+
+            for (LedgerTransfer transfer : pending) {
+                long sourceBalance = balances.get(transfer.sourceWalletId(), -1L);
+                long destinationBalance = balances.get(transfer.destinationWalletId(), -1L);
+                if (sourceBalance < 0 || destinationBalance < 0 || sourceBalance < transfer.amountCents()) {
+                    rejected.add(transfer);
+                    continue;
+                }
+                touched.add(transfer.sourceWalletId());
+                touched.add(transfer.destinationWalletId());
+
+                balances.put(transfer.sourceWalletId(), sourceBalance - transfer.amountCents());
+                balances.put(transfer.destinationWalletId(),
+                        balances.get(transfer.destinationWalletId(), 0L) + transfer.amountCents());
+
+                addDelta(deltas, transfer.sourceWalletId(), transfer.sourceUserId(), -transfer.amountCents());
+                addDelta(deltas, transfer.destinationWalletId(), transfer.destinationUserId(),
+                        transfer.amountCents());
+                applied.add(transfer);
+            }
+
+            // Post-batch view of every wallet a rejection relied on, checked
+            // against the locked rows before the rejection is committed
+            Map<Long, CachedBalance> rejectedBalances = new LinkedHashMap<>();
+            for (LedgerTransfer transfer : rejected) {
+                rejectedBalances.put(transfer.sourceWalletId(), new CachedBalance(transfer.sourceWalletId(),
+                        transfer.sourceUserId(), balances.get(transfer.sourceWalletId(), -1L)));
+                rejectedBalances.put(transfer.destinationWalletId(), new CachedBalance(
+                        transfer.destinationWalletId(), transfer.destinationUserId(),
+                        balances.get(transfer.destinationWalletId(), -1L)));
+                touched.add(transfer.sourceWalletId());
+                touched.add(transfer.destinationWalletId());
+            }
+
+            try {
+                Map<Long, Long> committed = journalWriter.commit(applied, rejected, deltas.values(),
+                        rejectedBalances.values());
+                committed.forEach(balances::put);
+                applied.forEach(t -> t.result().complete(TransactionStatus.SUCCESS));
+                rejected.forEach(t -> t.result().complete(TransactionStatus.FAILED));
+                return;
+            } catch (BatchConflictException e) {
+                // Undo the in-memory view and reload from the database on the next attempt
+                touched.forEach(balances::remove);
+                if (e.getStaleTransactionId() != null) {
+                    pending.removeIf(t -> {
+                        if (t.transactionId() == e.getStaleTransactionId()) {
+                            t.result().completeExceptionally(e);
+                            return true;
+                        }
+                        return false;
+                    });
+                }
+                log.warn("Ledger batch conflict on {} (attempt {}/{}): {}",
+                        shardName, attempt, MAX_COMMIT_ATTEMPTS, e.getMessage());
+            } catch (RuntimeException e) {
+                touched.forEach(balances::remove);
+                throw e;
+            }
+        }
+        failAll(pending, new IllegalStateException("Ledger batch could not be committed on " + shardName));
+    }
+
+    private void loadMissingBalances(List<LedgerTransfer> transfers) {
+        Map<Long, Long> missing = new HashMap<>();
+        for (LedgerTransfer transfer : transfers) {
+            if (!balances.containsKey(transfer.sourceWalletId())) {
+                missing.put(transfer.sourceWalletId(), transfer.sourceUserId());
+            }
+            if (!balances.containsKey(transfer.destinationWalletId())) {
+                missing.put(transfer.destinationWalletId(), transfer.destinationUserId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            journalWriter.loadBalances(missing).forEach(balances::put);
+        }
+    }
+
+    private static void addDelta(Map<Long, WalletDelta> deltas, long walletId, long userId, long cents) {
+        WalletDelta current = deltas.get(walletId);
+        long total = current == null ? cents : current.deltaCents() + cents;
+        deltas.put(walletId, new WalletDelta(walletId, userId, total));
+    }
+
+    private static void failAll(List<LedgerTransfer> transfers, Exception cause) {
+        for (LedgerTransfer transfer : transfers) {
+            transfer.result().completeExceptionally(cause);
+        }
+    }
+}
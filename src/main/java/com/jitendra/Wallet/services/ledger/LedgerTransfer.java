@@ -0,0 +1,20 @@
+package com.jitendra.Wallet.services.ledger;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.jitendra.Wallet.entity.TransactionStatus;
+
+/**
+ * One transfer travelling through a shard's ring buffer.
+ * Amounts are in minor units (cents) so the writer thread never allocates
+ * BigDecimals on the hot path.
+ */
+record LedgerTransfer(
+        long transactionId,
+        long sourceWalletId,
+        long sourceUserId,
+        long destinationWalletId,
+        long destinationUserId,
+        long amountCents,
+        CompletableFuture<TransactionStatus> result) {
+}
@@ -0,0 +1,124 @@
+package com.jitendra.Wallet.services.ledger;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing long → long map used by the ledger writer thread.
+ *
+ * No boxing, no per-entry objects: two parallel primitive arrays with linear
+ * probing. Key 0 is reserved as the empty marker, which is safe because wallet
+ * ids are positive Snowflake ids.
+ *
+ * NOT thread-safe — owned by exactly one {@link LedgerShard} writer thread.
+ */
+final class LongLongHashMap {
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int mask;
+
+    LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    long get(long key, long defaultValue) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : defaultValue;
+    }
+
+    void put(long key, long value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int index = slot(key);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+    }
+
+    void remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return;
+        }
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = slot(keys[next]);
+            boolean movable = gap <= next ? (home <= gap || home > next) : (home <= gap && home > next);
+            if (movable) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = 0L;
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, 0L);
+        size = 0;
+    }
+
+    private int indexOf(long key) {
+        int index = slot(key);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(long key) {
+        // Murmur3 finalizer — Snowflake ids share high bits, so mix before masking
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        mask = keys.length - 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
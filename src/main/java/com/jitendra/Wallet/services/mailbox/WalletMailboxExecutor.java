@@ -0,0 +1,230 @@
+package com.jitendra.Wallet.services.mailbox;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.jitendra.Wallet.services.sqlaccounting.SqlAccounting;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Actor-style mailboxes: single-wallet mutations run on that wallet's
+ * mailbox, one at a time, while other wallets proceed in parallel.
+ *
+ * Serialized here: WalletService debit, credit and add-funds, each attempt
+ * and each compensation attempt of the saga steps that name their wallet
+ * (SagaStepInterface.getWalletKey: debit and credit), and placing,
+ * releasing and capturing holds. Not serialized, because they change
+ * several wallets in one statement or transaction: the same-shard fast path
+ * and its batches (LocalTransferService, which locks both rows FOR UPDATE
+ * in id order), the ledger engine's journal writer, and the hold expiry
+ * sweeper. Those rely on row locks and conditional updates instead. Nor are
+ * the reserve and confirm steps: each is one guarded UPDATE with no
+ * @Version to race on.
+ *
+ * WHY:
+ * Concurrent transfers on a hot wallet all load the same @Version, all but
+ * one lose at commit, and the losers sleep 1–10 s in the saga RetryTemplate
+ * before trying again. Queueing them in-process means each one loads the
+ * version its predecessor just committed, so on a single node the conflict
+ * never happens. Across nodes @Version still guards correctness.
+ *
+ * Wallets are hashed onto a fixed number of mailboxes; a mailbox with work
+ * is drained by one virtual thread, and an idle one costs nothing. A task
+ * must open and commit its own transaction inside the mailbox — the next
+ * task may only start once the previous one's write is durable.
+ *
+ * A task must not submit to another mailbox and wait for it; two mailboxes
+ * doing that to each other would deadlock. Every current caller touches a
+ * single wallet. Nor should a task sleep or retry: everything queued behind
+ * it waits too, so callers retry around call(), one attempt per turn.
+ */
+@Component
+@Slf4j
+public class WalletMailboxExecutor {
+
+    private final WalletMailboxProperties properties;
+    private final Mailbox[] mailboxes;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Mailbox drained by the current thread, so re-entrant calls run inline
+    private static final ThreadLocal<Mailbox> CURRENT = new ThreadLocal<>();
+
+    public WalletMailboxExecutor(WalletMailboxProperties properties) {
+        if (Integer.bitCount(properties.getShards()) != 1) {
+            throw new IllegalArgumentException("wallet.mailbox.shards must be a power of two");
+        }
+        this.properties = properties;
+        this.mailboxes = new Mailbox[properties.getShards()];
+        for (int i = 0; i < mailboxes.length; i++) {
+            mailboxes[i] = new Mailbox();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdown();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Runs the task on the wallet's mailbox and waits for its result. With
+     * mailboxes disabled, or without a wallet, it runs on the caller's thread.
+     * Runtime exceptions from the task reach the caller unchanged.
+     *
+     * A task that has started is always waited for, however long it takes:
+     * its transaction may still commit, and reporting a failure for work that
+     * then succeeds would leave, say, a debit the saga never refunds. The
+     * task's own statements are bounded by the step deadline.
+     *
+     * @throws IllegalStateException if the task had not started within
+     *                               wallet.mailbox.await-timeout-ms; it is
+     *                               then skipped and never runs
+     */
+    public <T> T call(Long walletId, Supplier<T> task) {
+        if (!properties.isEnabled() || walletId == null) {
+            return task.get();
+        }
+        Mailbox mailbox = mailboxFor(walletId);
+        if (CURRENT.get() == mailbox) {
+            return task.get();
+        }
+
+        MailboxTask<T> queued = new MailboxTask<>(SqlAccounting.propagate(task));
+        mailbox.enqueue(queued);
+        return queued.await(walletId, properties.getAwaitTimeoutMs());
+    }
+
+    /**
+     * One queued call. QUEUED moves exactly once, to STARTED (the mailbox
+     * picked it up) or to CANCELLED (the caller gave up first), so a task the
+     * caller was told failed can never run afterwards.
+     */
+    private static final class MailboxTask<T> implements Runnable {
+
+        private static final int QUEUED = 0;
+        private static final int STARTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final Supplier<T> task;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        MailboxTask(Supplier<T> task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(QUEUED, STARTED)) {
+                return;
+            }
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        T await(Long walletId, long timeoutMs) {
+            try {
+                return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (state.compareAndSet(QUEUED, CANCELLED)) {
+                    throw new IllegalStateException("Timed out waiting on the mailbox of wallet " + walletId, e);
+                }
+                log.warn("Mailbox task of wallet {} still running after {} ms, waiting for its outcome",
+                        walletId, timeoutMs);
+                return join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (state.compareAndSet(QUEUED, CANCELLED)) {
+                    throw new IllegalStateException("Interrupted waiting on the mailbox of wallet " + walletId, e);
+                }
+                return join();
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+
+        // Uninterruptible: the outcome of a started task must reach the caller
+        private T join() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+
+        private static RuntimeException rethrow(Throwable cause) {
+            if (cause instanceof RuntimeException runtime) {
+                return runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            return new IllegalStateException(cause);
+        }
+    }
+
+    private Mailbox mailboxFor(long walletId) {
+        // Snowflake ids share their low bits with the sequence; mix before masking
+        long h = walletId * 0x9E3779B97F4A7C15L;
+        return mailboxes[(int) (h >>> 32) & (mailboxes.length - 1)];
+    }
+
+    /**
+     * Queue plus a "scheduled" flag: whoever flips the flag starts the drainer,
+     * so at most one thread runs a mailbox's tasks at any time.
+     */
+    private final class Mailbox implements Runnable {
+
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        void enqueue(Runnable task) {
+            queue.add(task);
+            if (scheduled.compareAndSet(false, true)) {
+                workers.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            CURRENT.set(this);
+            try {
+                do {
+                    Runnable task;
+                    while ((task = queue.poll()) != null) {
+                        try {
+                            task.run();
+                        } catch (RuntimeException e) {
+                            log.error("Wallet mailbox task failed: {}", e.getMessage(), e);
+                        }
+                    }
+                    scheduled.set(false);
+                    // A task enqueued between the last poll and the flag reset
+                    // found the flag still set and relied on us to pick it up
+                } while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+            } finally {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.jitendra.Wallet.services.mailbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.mailbox.* — in-process serialisation of same-wallet mutations.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.mailbox")
+public class WalletMailboxProperties {
+
+    // Run WalletService debits/credits and wallet saga steps through the
+    // per-wallet mailboxes; off = callers race on @Version as before
+    private boolean enabled = true;
+
+    // Number of mailboxes wallets are hashed onto (power of two). More shards,
+    // fewer unrelated wallets queued behind each other
+    private int shards = 1_024;
+
+    // How long a caller waits for its turn; a task that has started is always
+    // waited for, since its transaction may still commit
+    private long awaitTimeoutMs = 10_000;
+}
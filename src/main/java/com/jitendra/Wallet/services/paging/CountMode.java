@@ -0,0 +1,18 @@
+package com.jitendra.Wallet.services.paging;
+
+/**
+ * How a paginated endpoint fills totalElements. Chosen per request with
+ * ?count=...
+ */
+public enum CountMode {
+    // Known from the page itself when it is the whole result; otherwise a
+    // fresh cached count, otherwise the planner estimate — replaced by an
+    // exact COUNT when the estimate is small enough to be cheap
+    AUTO,
+    // COUNT(*) on every request
+    EXACT,
+    // COUNT(*) at most once per TTL per (query, key)
+    CACHED,
+    // Planner row estimate (EXPLAIN), no scan at all
+    ESTIMATED
+}
@@ -0,0 +1,15 @@
+package com.jitendra.Wallet.services.paging;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Everything {@link PageCounter} needs to produce a total for one listing.
+ *
+ * @param cacheKey     identifies the query and its parameters, e.g. "tx.wallet:42"
+ * @param exact        runs the exact COUNT(*)
+ * @param estimateSql  the listing's WHERE clause as a plain SQL query against
+ *                     the physical table, used for EXPLAIN on each shard
+ * @param estimateArgs bind parameters for estimateSql
+ */
+public record CountQuery(String cacheKey, LongSupplier exact, String estimateSql, Object... estimateArgs) {
+}
@@ -0,0 +1,116 @@
+package com.jitendra.Wallet.services.paging;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jitendra.Wallet.config.ShardDataSources;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Turns a Slice (rows + "is there more?", no COUNT) into a Page whose
+ * totalElements comes from the requested {@link CountMode}.
+ *
+ * WHY:
+ * Page<T> from Spring Data runs COUNT(*) over every matching row — on every
+ * shard — for every page request. For a busy wallet that costs more than the
+ * page itself, while most clients only need "roughly how many" or "is there
+ * a next page".
+ */
+@Component
+@Slf4j
+public class PageCounter {
+
+    private record CachedCount(long value, long expiresAtNanos) {
+    }
+
+    private final PagingProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Map<String, JdbcTemplate> shards = new LinkedHashMap<>();
+    private final ConcurrentHashMap<String, CachedCount> cache = new ConcurrentHashMap<>();
+
+    public PageCounter(PagingProperties properties, ObjectMapper objectMapper, ShardDataSources shardDataSources) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        for (String name : shardDataSources.names()) {
+            DataSource dataSource = shardDataSources.get(name);
+            shards.put(name, new JdbcTemplate(dataSource));
+        }
+    }
+
+    public <T> Page<T> toPage(Slice<T> slice, CountMode mode, CountQuery query) {
+        long offset = slice.getPageable().isPaged() ? slice.getPageable().getOffset() : 0;
+        // A total smaller than what the slice proves exists is never reported
+        long lowerBound = offset + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+
+        long total = switch (mode) {
+            case EXACT -> exact(query);
+            case CACHED -> cached(query);
+            case ESTIMATED -> estimate(query);
+            case AUTO -> auto(slice, query, lowerBound);
+        };
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), Math.max(total, lowerBound));
+    }
+
+    private long auto(Slice<?> slice, CountQuery query, long lowerBound) {
+        if (!slice.hasNext() && (slice.getNumberOfElements() > 0 || slice.isFirst())) {
+            return lowerBound; // last page reached: the total is exact for free
+        }
+        CachedCount hit = cache.get(query.cacheKey());
+        if (hit != null && hit.expiresAtNanos() > System.nanoTime()) {
+            return hit.value();
+        }
+        long estimate = estimate(query);
+        return estimate < properties.getExactCountThreshold() ? cached(query) : estimate;
+    }
+
+    private long exact(CountQuery query) {
+        return query.exact().getAsLong();
+    }
+
+    private long cached(CountQuery query) {
+        long now = System.nanoTime();
+        CachedCount hit = cache.get(query.cacheKey());
+        if (hit != null && hit.expiresAtNanos() > now) {
+            return hit.value();
+        }
+        long value = exact(query);
+        if (cache.size() >= properties.getMaxCachedCounts()) {
+            cache.clear();
+        }
+        cache.put(query.cacheKey(), new CachedCount(value, now + properties.getCountTtlMs() * 1_000_000L));
+        return value;
+    }
+
+    /**
+     * Sum of the planner's row estimates on each physical shard. Reads table
+     * statistics only, so it costs the same for 10 rows or 10 million.
+     */
+    private long estimate(CountQuery query) {
+        long total = 0;
+        for (Map.Entry<String, JdbcTemplate> shard : shards.entrySet()) {
+            try {
+                String plan = shard.getValue().queryForObject("EXPLAIN (FORMAT JSON) " + query.estimateSql(),
+                        String.class, query.estimateArgs());
+                JsonNode root = objectMapper.readTree(plan);
+                total += root.get(0).get("Plan").get("Plan Rows").asLong();
+            } catch (Exception e) {
+                log.warn("Row estimate failed on {} for {}, falling back to exact count: {}",
+                        shard.getKey(), query.cacheKey(), e.getMessage());
+                return cached(query);
+            }
+        }
+        return total;
+    }
+}
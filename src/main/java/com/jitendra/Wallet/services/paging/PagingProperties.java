@@ -0,0 +1,22 @@
+package com.jitendra.Wallet.services.paging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.paging.* — how totalElements is computed for paginated endpoints.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.paging")
+public class PagingProperties {
+
+    // How long a cached total stays valid
+    private long countTtlMs = 30_000;
+
+    // Crude bound on cached totals; the cache is cleared when reached
+    private int maxCachedCounts = 100_000;
+
+    // AUTO runs an exact COUNT when the planner estimates fewer rows than this
+    private long exactCountThreshold = 10_000;
+}
@@ -0,0 +1,153 @@
+package com.jitendra.Wallet.services.partitioning;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.jitendra.Wallet.config.ShardDataSources;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the monthly partitions of the time-partitioned tables in shape on
+ * every physical shard:
+ *
+ * 1. PRE-CREATE — the current month plus wallet.partitions.premake-months
+ *    ahead. There is no DEFAULT partition (it would block DETACH
+ *    CONCURRENTLY), so a missing month would reject inserts; running at
+ *    startup and daily leaves months of slack.
+ * 2. DETACH — months older than wallet.partitions.detach-after-months leave
+ *    the parent with DETACH PARTITION CONCURRENTLY, which does not block
+ *    readers or writers of the other months — but only once they are empty.
+ *    The archive job moves terminal rows out; a PENDING transfer or a FAILED
+ *    saga stays, and detaching its month would make it vanish from every
+ *    query (recovery and compensation included). Such a month stays attached
+ *    until a later run finds it empty.
+ * 3. DROP — a detached month held no rows, so it is dropped.
+ *
+ * New rows always land in the current month, so an old month found empty
+ * stays empty until it is detached.
+ *
+ * DDL goes to the physical pools directly: ShardingSphere would broadcast or
+ * reject it, and every shard has its own set of partitions anyway.
+ */
+@Component
+@Slf4j
+public class PartitionManager {
+
+    static final List<String> PARTITIONED_TABLES = List.of("transactions", "saga_instance", "saga_step");
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String PREMAKE = "SELECT wallet_create_month_partitions(?, LOCALTIMESTAMP, "
+            + "LOCALTIMESTAMP + make_interval(months => ?))";
+
+    private static final String ATTACHED_PARTITIONS = """
+            SELECT c.relname, i.inhdetachpending
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = ? AND p.relnamespace = to_regnamespace(current_schema())
+            """;
+
+    record Partition(String name, YearMonth month, boolean detachPending) {
+    }
+
+    private final PartitionProperties properties;
+    private final Map<String, JdbcTemplate> shards = new LinkedHashMap<>();
+
+    public PartitionManager(PartitionProperties properties, ShardDataSources shardDataSources) {
+        this.properties = properties;
+        for (String name : shardDataSources.names()) {
+            DataSource dataSource = shardDataSources.get(name);
+            shards.put(name, new JdbcTemplate(dataSource));
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${wallet.partitions.cron:0 20 0 * * *}")
+    public void maintain() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        shards.forEach((shard, jdbcTemplate) -> {
+            for (String table : PARTITIONED_TABLES) {
+                try {
+                    maintain(shard, jdbcTemplate, table);
+                } catch (Exception e) {
+                    // Next run retries; premade months give plenty of slack
+                    log.error("Partition maintenance failed for {} on {}: {}", table, shard, e.getMessage());
+                }
+            }
+        });
+    }
+
+    void maintain(String shard, JdbcTemplate jdbcTemplate, String table) {
+        jdbcTemplate.queryForList(PREMAKE, table, properties.getPremakeMonths());
+
+        if (properties.getDetachAfterMonths() <= 0) {
+            return;
+        }
+        YearMonth oldestKept = YearMonth.now().minusMonths(properties.getDetachAfterMonths());
+        for (Partition partition : attached(jdbcTemplate, table)) {
+            if (partition.month() == null || !partition.month().isBefore(oldestKept)) {
+                continue;
+            }
+            if (!isEmpty(jdbcTemplate, partition)) {
+                log.warn("Partition {} of {} on {} still holds rows not yet archived; kept attached",
+                        partition.name(), table, shard);
+                continue;
+            }
+            if (partition.detachPending()) {
+                // An earlier concurrent detach was interrupted half-way
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition.name() + " FINALIZE");
+            } else {
+                // Autocommit connection: CONCURRENTLY cannot run inside a transaction block
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition.name()
+                        + " CONCURRENTLY");
+            }
+            log.info("Detached partition {} from {} on {}", partition.name(), table, shard);
+
+            if (properties.isDropEmptyDetached()) {
+                jdbcTemplate.execute("DROP TABLE " + partition.name());
+                log.info("Dropped empty partition {} on {}", partition.name(), shard);
+            }
+        }
+    }
+
+    private static boolean isEmpty(JdbcTemplate jdbcTemplate, Partition partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM " + partition.name() + ")", Boolean.class));
+    }
+
+    List<Partition> attached(JdbcTemplate jdbcTemplate, String table) {
+        String prefix = table + "_p";
+        return jdbcTemplate.query(ATTACHED_PARTITIONS, (rs, i) -> {
+            String name = rs.getString("relname");
+            YearMonth month = null;
+            // Only partitions following our naming scheme are ever touched
+            if (name.startsWith(prefix) && name.length() == prefix.length() + 6) {
+                try {
+                    month = YearMonth.parse(name.substring(prefix.length()), SUFFIX);
+                } catch (DateTimeParseException e) {
+                    log.warn("Ignoring partition {} of {}: unexpected name", name, table);
+                }
+            }
+            return new Partition(name, month, rs.getBoolean("inhdetachpending"));
+        }, table);
+    }
+}
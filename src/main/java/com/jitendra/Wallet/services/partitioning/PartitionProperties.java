@@ -0,0 +1,28 @@
+package com.jitendra.Wallet.services.partitioning;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.partitions.* — monthly partitions of transactions, saga_instance and
+ * saga_step (see V11__Partition_Transactions_And_Sagas.sql).
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.partitions")
+public class PartitionProperties {
+
+    private boolean enabled = true;
+
+    // Months created ahead of the current one, so inserts never miss a partition
+    private int premakeMonths = 3;
+
+    // Months older than this are detached once empty; 0 keeps every partition
+    // attached. Keep it beyond wallet.archive.retention-days so months empty out.
+    private int detachAfterMonths = 0;
+
+    // Drop a partition right after detaching it (only empty ones are detached)
+    private boolean dropEmptyDetached = true;
+
+    private String cron = "0 20 0 * * *";
+}
@@ -1,16 +1,24 @@
 package com.jitendra.Wallet.services.saga;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Context object that carries data throughout the saga execution.
@@ -56,6 +64,33 @@ public class SagaContext {
     @Builder.Default
     private Integer retryCount = 0;
 
+    // Keys written / removed through put() and remove() since the last
+    // drainChanges(). The orchestrator persists just these after a step
+    // instead of re-serializing the whole context. Never serialized.
+    @JsonIgnore
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private Set<String> writtenKeys = ConcurrentHashMap.newKeySet();
+
+    @JsonIgnore
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private Set<String> removedKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Data changes since the last drain: keys to upsert with their current
+     * values, and keys to delete.
+     */
+    public record Changes(Map<String, Object> written, Set<String> removed) {
+        public boolean isEmpty() {
+            return written.isEmpty() && removed.isEmpty();
+        }
+    }
+
     // Jackson ObjectMapper for JSON serialization
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -73,6 +108,8 @@ public class SagaContext {
      */
     public void put(String key, Object value) {
         this.data.put(key, value);
+        this.removedKeys.remove(key);
+        this.writtenKeys.add(key);
     }
 
     /**
@@ -128,9 +165,29 @@ public class SagaContext {
      * @return removed value or null
      */
     public Object remove(String key) {
+        this.writtenKeys.remove(key);
+        this.removedKeys.add(key);
         return this.data.remove(key);
     }
 
+    /**
+     * Returns what put() / remove() changed since the previous call and starts
+     * tracking afresh.
+     */
+    public Changes drainChanges() {
+        Map<String, Object> written = new HashMap<>();
+        for (String key : writtenKeys) {
+            writtenKeys.remove(key);
+            written.put(key, this.data.get(key));
+        }
+        Set<String> removed = new HashSet<>();
+        for (String key : removedKeys) {
+            removedKeys.remove(key);
+            removed.add(key);
+        }
+        return new Changes(written, removed);
+    }
+
     // ==================== Metadata Methods ====================
 
     /**
@@ -228,6 +285,8 @@ public class SagaContext {
      * Clear all data in context (use with caution)
      */
     public void clear() {
+        this.removedKeys.addAll(this.data.keySet());
+        this.writtenKeys.clear();
         this.data.clear();
     }
 
@@ -0,0 +1,127 @@
+package com.jitendra.Wallet.services.saga;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.jitendra.Wallet.services.contention.WalletContentionManager;
+import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.SagaStepType;
+import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.SagaType;
+import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.StepNode;
+import com.jitendra.Wallet.services.sqlaccounting.SqlAccounting;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the steps of a saga as a dependency DAG.
+ *
+ * Every step whose dependencies have COMPLETED is started at once on a virtual
+ * thread; each step still commits in its own transaction through
+ * {@link SagaOrchestrator#executeStep}. A linear saga degenerates to the old
+ * one-after-another loop, while independent branches (e.g. debit and credit
+ * on different shards) take max(step latency) instead of the sum.
+ *
+ * Steps that change a wallet's balance run each attempt on that wallet's
+ * mailbox inside executeStep, so concurrent sagas on a hot wallet queue up
+ * instead of failing @Version.
+ *
+ * On the first failure no new step is started, in-flight steps are allowed to
+ * finish (their effects must be known before compensating), and the caller
+ * compensates whatever completed.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SagaDagExecutor {
+
+    private final SagaOrchestrator sagaOrchestrator;
+    private final WalletContentionManager contentionManager;
+
+    /**
+     * @return the step that failed, or null when every step completed
+     */
+    public SagaStepType execute(Long sagaInstanceId, SagaType sagaType) {
+        List<StepNode> nodes = sagaType.getNodes();
+        Set<SagaStepType> completed = EnumSet.noneOf(SagaStepType.class);
+        Set<SagaStepType> started = EnumSet.noneOf(SagaStepType.class);
+        SagaStepType failedStep = null;
+        int inFlight = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<StepOutcome> completionService = new ExecutorCompletionService<>(executor);
+
+            do {
+                if (failedStep == null) {
+                    for (int i = 0; i < nodes.size(); i++) {
+                        StepNode node = nodes.get(i);
+                        if (!started.contains(node.step()) && completed.containsAll(node.dependsOn())) {
+                            started.add(node.step());
+                            inFlight++;
+                            // stepOrder = position in the topological order (unique per saga)
+                            int stepOrder = i + 1;
+                            log.info("Executing saga step: {} for sagaInstanceId: {}", node.step(), sagaInstanceId);
+                            // Statements of the step still count against the request
+                            Supplier<StepOutcome> task = SqlAccounting.propagate(
+                                    () -> run(sagaInstanceId, node.step(), stepOrder));
+                            completionService.submit(task::get);
+                        }
+                    }
+                }
+                if (inFlight == 0) {
+                    break;
+                }
+
+                StepOutcome outcome = take(completionService);
+                inFlight--;
+                if (outcome.succeeded()) {
+                    completed.add(outcome.step());
+                    log.info("Saga step {} completed successfully for sagaInstanceId: {}", outcome.step(), sagaInstanceId);
+                } else if (failedStep == null) {
+                    failedStep = outcome.step();
+                    log.error("Saga step {} failed for sagaInstanceId: {}", outcome.step(), sagaInstanceId);
+                }
+            } while (inFlight > 0 || (failedStep == null && completed.size() < nodes.size()));
+        }
+
+        return failedStep;
+    }
+
+    private record StepOutcome(SagaStepType step, boolean succeeded) {
+    }
+
+    private StepOutcome run(Long sagaInstanceId, SagaStepType step, int stepOrder) {
+        try {
+            boolean succeeded = sagaOrchestrator.executeStep(sagaInstanceId, step.name(), stepOrder);
+            return new StepOutcome(step, succeeded);
+        } catch (Exception e) {
+            // Only a lookup failure before the first attempt (e.g. unknown step) gets here
+            contentionManager.recordFailure(e);
+            log.error("Exception during saga step {} for sagaInstanceId: {}: {}",
+                    step, sagaInstanceId, e.getMessage());
+            return new StepOutcome(step, false);
+        }
+    }
+
+    private static StepOutcome take(CompletionService<StepOutcome> completionService) {
+        try {
+            Future<StepOutcome> done = completionService.take();
+            return done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while executing saga steps", e);
+        } catch (ExecutionException e) {
+            // run() never throws, so this is a bug rather than a step failure
+            throw new IllegalStateException("Saga step task failed", e.getCause());
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.jitendra.Wallet.services.saga;
 
-import java.util.Collections;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,8 +17,12 @@ import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jitendra.Wallet.entity.SagaInstance;
 import com.jitendra.Wallet.entity.SagaStatus;
@@ -23,7 +30,15 @@ import com.jitendra.Wallet.entity.SagaStep;
 import com.jitendra.Wallet.entity.StepStatus;
 import com.jitendra.Wallet.repository.SagaInstanceRepository;
 import com.jitendra.Wallet.repository.SagaStepRepository;
+import com.jitendra.Wallet.services.contention.WalletContentionManager;
+import com.jitendra.Wallet.services.deadline.DeadlineProperties;
+import com.jitendra.Wallet.services.deadline.StepDeadline;
+import com.jitendra.Wallet.services.diagnostics.SagaCompensatedEvent;
+import com.jitendra.Wallet.services.diagnostics.SagaStepExecutedEvent;
+import com.jitendra.Wallet.services.diagnostics.SagaStepRetriedEvent;
+import com.jitendra.Wallet.services.mailbox.WalletMailboxExecutor;
 import com.jitendra.Wallet.services.saga.steps.SagaStepFactory;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
 
 import lombok.extern.slf4j.Slf4j;
 import lombok.RequiredArgsConstructor;
@@ -38,6 +53,15 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
     private final SagaInstanceRepository sagaInstanceRepository;
     private final SagaStepFactory sagaStepFactory;
     private final SagaStepRepository sagaStepRepository;
+    private final SagaSessionCache sagaSessions;
+    private final WalletContentionManager contentionManager;
+    private final DeadlineProperties deadlineProperties;
+    private final ShardRouter shardRouter;
+    private final WalletMailboxExecutor walletMailbox;
+    private final PlatformTransactionManager transactionManager;
+
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() {
+    };
 
     /**
      * Exception types considered transient (temporary) — safe to retry.
@@ -78,16 +102,24 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
     public Long startSaga(SagaContext context) {
         try {
             String contextJson = objectMapper.writeValueAsString(context);
+            int timeoutMinutes = deadlineProperties.getSagaTimeoutMinutes();
 
             SagaInstance sagaInstance = SagaInstance
                     .builder()
                     .sagaType(context.getSagaType())
                     .context(contextJson)
                     .status(SagaStatus.STARTED)
+                    .timeoutMinutes(timeoutMinutes)
+                    .expiryTime(LocalDateTime.now().plusMinutes(timeoutMinutes))
                     .build();
 
             sagaInstance = sagaInstanceRepository.save(sagaInstance);
 
+            // Seed the session from the JSON just written rather than the
+            // caller's object, so steps see exactly the types a DB read would give
+            sagaSessions.open(sagaInstance.getId(), objectMapper.readValue(contextJson, SagaContext.class),
+                    sagaInstance.getVersion(), sagaInstance.getExpiryTime());
+
             log.info("Saga started with id: {}", sagaInstance.getId());
             return sagaInstance.getId();
         } catch (Exception e) {
@@ -96,188 +128,415 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
         }
     }
 
+    /**
+     * Runs one forward step, retrying transient failures.
+     *
+     * Each attempt is its own transaction: the step's effect, its COMPLETED
+     * row and its context changes commit together or not at all, so a failed
+     * attempt leaves nothing behind and the next one starts on a fresh
+     * transaction (Postgres refuses every statement in one that already
+     * failed). A step that changes a wallet runs each attempt on that
+     * wallet's mailbox; the back-off between attempts is slept here, so other
+     * work on the wallet is not queued behind the sleep.
+     */
     @Override
-    @Transactional(noRollbackFor = {
-            TransientDataAccessException.class,
-            ObjectOptimisticLockingFailureException.class,
-            CannotAcquireLockException.class
-    })
     public boolean executeStep(Long sagaInstanceId, String stepName, Integer stepOrder) {
-
-        SagaInstance sagaInstance = sagaInstanceRepository.findById(sagaInstanceId)
-                .orElseThrow(() -> new RuntimeException("SagaInstance not found with id: " + sagaInstanceId));
-
-        SagaStepInterface step = sagaStepFactory.getSagaStepByName(stepName);
-        if (step == null) {
-            log.error("Saga step not found for step name: {}", stepName);
-            throw new RuntimeException("Saga step not found for step name: " + stepName);
-        }
-
-        // Fetch existing PENDING step from DB, or build a new one
-        SagaStep sagaStep = sagaStepRepository
-                .findBySagaInstanceIdAndStatusAndStepName(sagaInstanceId, StepStatus.PENDING, stepName)
-                .orElse(
-                        SagaStep.builder()
-                                .sagaInstance(sagaInstance)
-                                .stepName(stepName)
-                                .stepOrder(stepOrder)
-                                .status(StepStatus.PENDING).build());
-
-        if (sagaStep.getId() == null) {
-            sagaStep = sagaStepRepository.save(sagaStep);
-        }
-
+        SagaStepInterface step = stepNamed(stepName);
+        Long walletId = step.getWalletKey(loadContext(sagaInstanceId));
+
+        // Every statement from here on is bounded by the step's deadline
+        StepDeadline.Scope deadline = enterStepDeadline(sagaInstanceId);
+        SagaStepExecutedEvent stepEvent = new SagaStepExecutedEvent();
+        stepEvent.begin();
+        int[] retries = { 0 };
+        boolean succeeded = false;
         try {
-            SagaContext context = objectMapper.readValue(sagaInstance.getContext(), SagaContext.class);
-            sagaStep.setStatus(StepStatus.RUNNING);
-            
-            //The final keyword here is required by Java because runningSagaStep is referenced inside the
-            //  lambda below. Any variable used inside a lambda must be effectively final.
-            final SagaStep runningSagaStep = sagaStepRepository.save(sagaStep);
-
-            // Build a RetryTemplate driven by the step's own maxRetries setting.
             // Only transient exceptions (lock contention, optimistic locking, etc.)
             // are retried; permanent errors propagate immediately.
-            RetryTemplate retryTemplate = buildRetryTemplate(runningSagaStep.getMaxRetries());
+            RetryTemplate retryTemplate = buildRetryTemplate(step.getMaxRetries());
+            SagaStepRetriedEvent[] attemptEvent = new SagaStepRetriedEvent[1];
 
             boolean result = retryTemplate.execute(
                     (RetryCallback<Boolean, Exception>) retryContext -> {
+                        // Out of time (or the saga expired): fail instead of retrying,
+                        // so the saga compensates
+                        StepDeadline.check("saga step '" + stepName + "' of sagaInstanceId " + sagaInstanceId);
                         // retryContext.getRetryCount() == 0 on the very first attempt
                         if (retryContext.getRetryCount() > 0) {
-                            runningSagaStep.setRetryCount(runningSagaStep.getRetryCount() + 1);
-                            sagaStepRepository.save(runningSagaStep);
+                            contentionManager.recordFailure(retryContext.getLastThrowable());
+                            retries[0]++;
                             log.warn("Retrying saga step '{}' for sagaInstanceId {}, attempt {}/{}, "
                                     + "previous error: {}",
                                     stepName, sagaInstanceId,
                                     retryContext.getRetryCount() + 1,
-                                    runningSagaStep.getMaxRetries(),
+                                    step.getMaxRetries(),
                                     retryContext.getLastThrowable() != null
                                             ? retryContext.getLastThrowable().getMessage() : "unknown");
+                            attemptEvent[0].finish(sagaInstanceId, stepName, false, () -> shardOf(walletId),
+                                    retries[0], retryContext.getLastThrowable());
                         }
-                        return step.execute(context);
+                        attemptEvent[0] = new SagaStepRetriedEvent();
+                        attemptEvent[0].begin();
+                        int attemptRetries = retries[0];
+                        return walletMailbox.call(walletId, StepDeadline.propagate(
+                                () -> attemptStep(sagaInstanceId, step, stepOrder, attemptRetries)));
                     },
                     (RecoveryCallback<Boolean>) recoveryContext -> {
                         // Reached only when every attempt threw a transient exception
                         Throwable lastError = recoveryContext.getLastThrowable();
                         log.error("All {} attempts exhausted for saga step '{}' in sagaInstanceId {}. "
                                 + "Final error: {}",
-                                runningSagaStep.getMaxRetries(), stepName, sagaInstanceId,
+                                step.getMaxRetries(), stepName, sagaInstanceId,
                                 lastError != null ? lastError.getMessage() : "unknown");
-                        if (lastError != null) {
-                            runningSagaStep.setErrorMessage(lastError.getMessage());
-                        }
+                        recordStepFailure(sagaInstanceId, step, stepOrder, retries[0], lastError);
                         return false;
                     }
             );
 
             if (result) {
-                runningSagaStep.setStatus(StepStatus.COMPLETED);
-                sagaStepRepository.save(runningSagaStep);
-
-                // Serialize and persist any data added to context during step execution
-                sagaInstance.setContext(objectMapper.writeValueAsString(context));
-                sagaInstanceRepository.save(sagaInstance);
-
                 log.info("Saga step '{}' completed for sagaInstanceId {}", stepName, sagaInstanceId);
-                return true;
+                succeeded = true;
             } else {
-                runningSagaStep.setStatus(StepStatus.FAILED);
-                sagaStepRepository.save(runningSagaStep);
                 log.error("Saga step '{}' failed for sagaInstanceId {}", stepName, sagaInstanceId);
-                return false;
             }
+            return result;
 
         } catch (Exception e) {
             // Permanent (non-transient) failure — no retry, mark step as FAILED immediately
-            sagaStep.setStatus(StepStatus.FAILED);
-            sagaStep.setErrorMessage(e.getMessage());
-            sagaStepRepository.save(sagaStep);
+            contentionManager.recordFailure(e);
+            recordStepFailure(sagaInstanceId, step, stepOrder, retries[0], e);
             log.error("Saga step '{}' failed permanently for sagaInstanceId {} with error: {}",
                     stepName, sagaInstanceId, e.getMessage());
             return false;
+        } finally {
+            deadline.close();
+            stepEvent.finish(sagaInstanceId, stepName, false, () -> shardOf(walletId), retries[0], succeeded);
         }
     }
 
-    @Override
-    @Transactional(noRollbackFor = {
-            TransientDataAccessException.class,
-            ObjectOptimisticLockingFailureException.class,
-            CannotAcquireLockException.class
-    })
-    public boolean compensateStep(Long sagaInstanceId, String stepName) {
+    /**
+     * One attempt of a forward step in its own transaction. The step row is
+     * written once, with the outcome: COMPLETED together with the step's
+     * effect and context changes, or FAILED when the step declined. An
+     * exception rolls all of it back.
+     */
+    private boolean attemptStep(Long sagaInstanceId, SagaStepInterface step, Integer stepOrder, int retries) {
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        return Boolean.TRUE.equals(txTemplate.execute(status -> {
+            SagaContext context = loadContext(sagaInstanceId);
+            boolean result;
+            try {
+                result = step.execute(context);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new StepAttemptException(e);
+            }
 
-        SagaInstance sagaInstance = sagaInstanceRepository.findById(sagaInstanceId)
-                .orElseThrow(() -> new RuntimeException("SagaInstance not found with id: " + sagaInstanceId));
+            SagaStep sagaStep = pendingStep(sagaInstanceId, step, stepOrder);
+            sagaStep.setStatus(result ? StepStatus.COMPLETED : StepStatus.FAILED);
+            sagaStep.setRetryCount(retries);
+            sagaStepRepository.save(sagaStep);
+            if (result) {
+                // Persist only the keys this step changed — sibling steps may be
+                // running concurrently on the same saga instance
+                try {
+                    mergeContextChanges(sagaInstanceId, context);
+                } catch (JsonProcessingException e) {
+                    throw new StepAttemptException(e);
+                }
+            }
+            return result;
+        }));
+    }
+
+    /** Records a forward step that threw on its last attempt; the attempt itself rolled back. */
+    private void recordStepFailure(Long sagaInstanceId, SagaStepInterface step, Integer stepOrder, int retries,
+            Throwable error) {
+        try {
+            inTransaction(() -> {
+                SagaStep sagaStep = pendingStep(sagaInstanceId, step, stepOrder);
+                sagaStep.setStatus(StepStatus.FAILED);
+                sagaStep.setRetryCount(retries);
+                if (error != null) {
+                    sagaStep.setErrorMessage(error.getMessage());
+                }
+                sagaStepRepository.save(sagaStep);
+            });
+        } catch (RuntimeException e) {
+            // The step already failed; a missing FAILED row changes nothing for the saga
+            log.error("Could not record failure of saga step '{}' for sagaInstanceId {}: {}",
+                    step.getStepName(), sagaInstanceId, e.getMessage());
+        }
+    }
 
+    /** The step's PENDING row if one was created ahead of time, otherwise a new one. */
+    private SagaStep pendingStep(Long sagaInstanceId, SagaStepInterface step, Integer stepOrder) {
+        return sagaStepRepository
+                .findBySagaInstanceIdAndStatusAndStepName(sagaInstanceId, StepStatus.PENDING, step.getStepName())
+                .orElseGet(() -> SagaStep.builder()
+                        // Only the id is needed for the FK — no SELECT
+                        .sagaInstance(sagaInstanceRepository.getReferenceById(sagaInstanceId))
+                        .stepName(step.getStepName())
+                        .stepOrder(stepOrder)
+                        .maxRetries(step.getMaxRetries())
+                        .status(StepStatus.PENDING).build());
+    }
+
+    private SagaStepInterface stepNamed(String stepName) {
         SagaStepInterface step = sagaStepFactory.getSagaStepByName(stepName);
         if (step == null) {
             log.error("Saga step not found for step name: {}", stepName);
             throw new RuntimeException("Saga step not found for step name: " + stepName);
         }
+        return step;
+    }
+
+    /** A checked exception from a step, unchecked so the attempt's transaction rolls back. */
+    private static final class StepAttemptException extends RuntimeException {
+        StepAttemptException(Exception cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Undoes one completed step, retrying transient failures.
+     *
+     * Like a forward step, each attempt is queued on the wallet's mailbox and
+     * is its own transaction that writes the undo, the COMPENSATED row and the
+     * context changes together, so a refund does not race the wallet's other
+     * mutations for its @Version. There is no step deadline here: a
+     * compensation cut short leaves a debit nobody refunds, so it is only
+     * bounded by its retries.
+     */
+    @Override
+    public boolean compensateStep(Long sagaInstanceId, String stepName) {
+        SagaStepInterface step = stepNamed(stepName);
+        Long walletId = step.getWalletKey(loadContext(sagaInstanceId));
 
         // Fetch the completed step that needs to be rolled back
-        SagaStep sagaStep = sagaStepRepository
-                .findBySagaInstanceIdAndStatusAndStepName(sagaInstanceId, StepStatus.COMPLETED, stepName)
-                .orElseThrow(() -> new RuntimeException("Completed saga step not found for step name: " + stepName));
+        SagaStep sagaStep = completedStep(sagaInstanceId, stepName);
 
+        SagaStepExecutedEvent stepEvent = new SagaStepExecutedEvent();
+        stepEvent.begin();
+        int[] retries = { sagaStep.getRetryCount() };
+        boolean succeeded = false;
         try {
-            SagaContext context = objectMapper.readValue(sagaInstance.getContext(), SagaContext.class);
-            sagaStep.setStatus(StepStatus.RUNNING);
-            final SagaStep runningSagaStep = sagaStepRepository.save(sagaStep);
-
-            RetryTemplate retryTemplate = buildRetryTemplate(runningSagaStep.getMaxRetries());
+            RetryTemplate retryTemplate = buildRetryTemplate(sagaStep.getMaxRetries());
+            SagaStepRetriedEvent[] attemptEvent = new SagaStepRetriedEvent[1];
 
             boolean result = retryTemplate.execute(
                     (RetryCallback<Boolean, Exception>) retryContext -> {
                         if (retryContext.getRetryCount() > 0) {
-                            runningSagaStep.setRetryCount(runningSagaStep.getRetryCount() + 1);
-                            sagaStepRepository.save(runningSagaStep);
+                            contentionManager.recordFailure(retryContext.getLastThrowable());
+                            retries[0]++;
                             log.warn("Retrying compensation of saga step '{}' for sagaInstanceId {}, "
                                     + "attempt {}/{}, previous error: {}",
                                     stepName, sagaInstanceId,
                                     retryContext.getRetryCount() + 1,
-                                    runningSagaStep.getMaxRetries(),
+                                    sagaStep.getMaxRetries(),
                                     retryContext.getLastThrowable() != null
                                             ? retryContext.getLastThrowable().getMessage() : "unknown");
+                            attemptEvent[0].finish(sagaInstanceId, stepName, true, () -> shardOf(walletId),
+                                    retries[0], retryContext.getLastThrowable());
                         }
-                        return step.compensate(context);
+                        attemptEvent[0] = new SagaStepRetriedEvent();
+                        attemptEvent[0].begin();
+                        int attemptRetries = retries[0];
+                        return walletMailbox.call(walletId,
+                                () -> attemptCompensation(sagaInstanceId, step, attemptRetries));
                     },
                     (RecoveryCallback<Boolean>) recoveryContext -> {
                         Throwable lastError = recoveryContext.getLastThrowable();
                         log.error("All {} compensation attempts exhausted for saga step '{}' in sagaInstanceId {}. "
                                 + "Final error: {}",
-                                runningSagaStep.getMaxRetries(), stepName, sagaInstanceId,
+                                sagaStep.getMaxRetries(), stepName, sagaInstanceId,
                                 lastError != null ? lastError.getMessage() : "unknown");
-                        if (lastError != null) {
-                            runningSagaStep.setErrorMessage(lastError.getMessage());
-                        }
+                        recordCompensationFailure(sagaInstanceId, stepName, retries[0], lastError);
                         return false;
                     }
             );
 
             if (result) {
-                runningSagaStep.setStatus(StepStatus.COMPENSATED);
-                sagaStepRepository.save(runningSagaStep);
-
-                // Serialize and persist any data added to context during compensation
-                sagaInstance.setContext(objectMapper.writeValueAsString(context));
-                sagaInstanceRepository.save(sagaInstance);
-
                 log.info("Saga step '{}' compensated for sagaInstanceId {}", stepName, sagaInstanceId);
-                return true;
+                succeeded = true;
             } else {
-                runningSagaStep.setStatus(StepStatus.FAILED);
-                sagaStepRepository.save(runningSagaStep);
                 log.error("Saga step '{}' compensation failed for sagaInstanceId {}", stepName, sagaInstanceId);
-                return false;
             }
+            return result;
         } catch (Exception e) {
-            sagaStep.setStatus(StepStatus.FAILED);
-            sagaStep.setErrorMessage(e.getMessage());
-            sagaStepRepository.save(sagaStep);
+            contentionManager.recordFailure(e);
+            recordCompensationFailure(sagaInstanceId, stepName, retries[0], e);
             log.error("Saga step '{}' compensation failed permanently for sagaInstanceId {} with error: {}",
                     stepName, sagaInstanceId, e.getMessage());
             return false;
+        } finally {
+            stepEvent.finish(sagaInstanceId, stepName, true, () -> shardOf(walletId), retries[0], succeeded);
+        }
+    }
+
+    /**
+     * One compensation attempt in its own transaction: COMPENSATED commits
+     * with the undo and its context changes, FAILED when the step declined.
+     */
+    private boolean attemptCompensation(Long sagaInstanceId, SagaStepInterface step, int retries) {
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        return Boolean.TRUE.equals(txTemplate.execute(status -> {
+            SagaContext context = loadContext(sagaInstanceId);
+            boolean result;
+            try {
+                result = step.compensate(context);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new StepAttemptException(e);
+            }
+
+            SagaStep sagaStep = completedStep(sagaInstanceId, step.getStepName());
+            sagaStep.setStatus(result ? StepStatus.COMPENSATED : StepStatus.FAILED);
+            sagaStep.setRetryCount(retries);
+            sagaStepRepository.save(sagaStep);
+            if (result) {
+                // Persist only the keys changed during compensation
+                try {
+                    mergeContextChanges(sagaInstanceId, context);
+                } catch (JsonProcessingException e) {
+                    throw new StepAttemptException(e);
+                }
+            }
+            return result;
+        }));
+    }
+
+    /** Records a compensation that threw on its last attempt; the attempt itself rolled back. */
+    private void recordCompensationFailure(Long sagaInstanceId, String stepName, int retries, Throwable error) {
+        try {
+            inTransaction(() -> {
+                SagaStep sagaStep = completedStep(sagaInstanceId, stepName);
+                sagaStep.setStatus(StepStatus.FAILED);
+                sagaStep.setRetryCount(retries);
+                if (error != null) {
+                    sagaStep.setErrorMessage(error.getMessage());
+                }
+                sagaStepRepository.save(sagaStep);
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not record failed compensation of saga step '{}' for sagaInstanceId {}: {}",
+                    stepName, sagaInstanceId, e.getMessage());
+        }
+    }
+
+    private SagaStep completedStep(Long sagaInstanceId, String stepName) {
+        return sagaStepRepository
+                .findBySagaInstanceIdAndStatusAndStepName(sagaInstanceId, StepStatus.COMPLETED, stepName)
+                .orElseThrow(() -> new RuntimeException("Completed saga step not found for step name: " + stepName));
+    }
+
+    private void inTransaction(Runnable work) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> work.run());
+    }
+
+    /**
+     * Shard of the wallet a step changes, for flight recorder events only.
+     */
+    private String shardOf(Long walletId) {
+        try {
+            return walletId == null ? null : shardRouter.shardForWallet(walletId);
+        } catch (RuntimeException e) {
+            // Diagnostics must never fail the step
+            return null;
+        }
+    }
+
+    /**
+     * Deadline for one forward step: stepTimeoutMs from now, cut short by the
+     * saga's expiry_time. Compensation runs without one.
+     */
+    private StepDeadline.Scope enterStepDeadline(Long sagaInstanceId) {
+        if (!deadlineProperties.isEnabled()) {
+            return () -> {
+            };
+        }
+        long deadline = System.currentTimeMillis() + deadlineProperties.getStepTimeoutMs();
+        LocalDateTime expiryTime = expiryTime(sagaInstanceId);
+        if (expiryTime != null) {
+            deadline = Math.min(deadline, expiryTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        return StepDeadline.enter(deadline);
+    }
+
+    private LocalDateTime expiryTime(Long sagaInstanceId) {
+        SagaSession session = sagaSessions.get(sagaInstanceId);
+        if (session != null) {
+            return session.getExpiryTime();
+        }
+        // No session means loadContext() could not cache one: read the row itself
+        return sagaInstanceRepository.findById(sagaInstanceId).map(SagaInstance::getExpiryTime).orElse(null);
+    }
+
+    private void mergeContextChanges(Long sagaInstanceId, SagaContext context)
+            throws JsonProcessingException {
+        // SagaContext tracks what put()/remove() touched, so there is no need
+        // to snapshot and diff the whole data map around every step
+        SagaContext.Changes changes = context.drainChanges();
+        if (!changes.isEmpty()) {
+            String writtenJson = objectMapper.writeValueAsString(changes.written());
+            sagaInstanceRepository.mergeContextData(sagaInstanceId, writtenJson,
+                    objectMapper.writeValueAsString(changes.removed()),
+                    Instant.now());
+
+            SagaSession session = sagaSessions.get(sagaInstanceId);
+            if (session != null) {
+                // Round-trip the delta so later steps read the same types as from the DB
+                Map<String, Object> written = objectMapper.readValue(writtenJson, DATA_TYPE);
+                sagaSessions.afterCommit(() -> session.apply(written, changes.removed()));
+            }
+        }
+    }
+
+    /**
+     * Decoded context for one step: from this node's session when the saga is
+     * running here, otherwise read from saga_instance (recovery, or a saga
+     * started on another node) and cached for the steps that follow.
+     */
+    private SagaContext loadContext(Long sagaInstanceId) {
+        SagaSession session = sagaSessions.get(sagaInstanceId);
+        if (session != null) {
+            return session.contextForStep();
+        }
+        SagaInstance sagaInstance = sagaInstanceRepository.findById(sagaInstanceId)
+                .orElseThrow(() -> new RuntimeException("SagaInstance not found with id: " + sagaInstanceId));
+        try {
+            SagaContext context = objectMapper.readValue(sagaInstance.getContext(), SagaContext.class);
+            session = sagaSessions.open(sagaInstanceId, context, sagaInstance.getVersion(),
+                    sagaInstance.getExpiryTime());
+            return session != null ? session.contextForStep() : context;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unreadable context for sagaInstanceId: " + sagaInstanceId, e);
+        }
+    }
+
+    /**
+     * Moves the saga to a new status. With a session this is one version-guarded
+     * UPDATE and no SELECT; on a version conflict (or without a session) it
+     * falls back to load-and-save and resynchronises the session's version.
+     */
+    private void updateStatus(Long sagaInstanceId, SagaStatus status) {
+        SagaSession session = sagaSessions.get(sagaInstanceId);
+        if (session != null && session.getVersion() != null) {
+            Long version = session.getVersion();
+            if (sagaInstanceRepository.updateStatusIfVersion(sagaInstanceId, status, version, Instant.now()) == 1) {
+                session.setVersion(version + 1);
+                return;
+            }
+            log.warn("Saga session for sagaInstanceId {} is stale (version {}), reloading", sagaInstanceId, version);
+        }
+        SagaInstance sagaInstance = sagaInstanceRepository.findById(sagaInstanceId)
+                .orElseThrow(() -> new RuntimeException("SagaInstance not found with id: " + sagaInstanceId));
+        sagaInstance.setStatus(status);
+        sagaInstance = sagaInstanceRepository.saveAndFlush(sagaInstance);
+        if (session != null) {
+            session.setVersion(sagaInstance.getVersion());
         }
     }
 
@@ -287,21 +546,25 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
                 .orElseThrow(() -> new RuntimeException("SagaInstance not found with id: " + sagaInstanceId));
     }
 
+    /**
+     * Compensates every completed step, newest first. Not one transaction:
+     * each compensation attempt and each status change commits on its own, so
+     * an undo that went through stays done whatever happens to the next one.
+     */
     @Override
-    @Transactional
     public void compensateSaga(Long sagaInstanceId) {
+        SagaCompensatedEvent compensatedEvent = new SagaCompensatedEvent();
+        compensatedEvent.begin();
         try {
-            SagaInstance sagaInstance = sagaInstanceRepository.findById(sagaInstanceId)
-                    .orElseThrow(() -> new RuntimeException("SagaInstance not found with id: " + sagaInstanceId));
-
             // Find all completed steps for this saga instance
             List<SagaStep> completedSteps = sagaStepRepository.findBySagaInstanceIdAndStatus(sagaInstanceId,
                     StepStatus.COMPLETED);
 
             if (completedSteps.isEmpty()) {
                 log.info("No completed steps found for saga compensation, sagaInstanceId: {}", sagaInstanceId);
-                sagaInstance.setStatus(SagaStatus.COMPENSATED);
-                sagaInstanceRepository.save(sagaInstance);
+                inTransaction(() -> updateStatus(sagaInstanceId, SagaStatus.COMPENSATED));
+                sagaSessions.close(sagaInstanceId);
+                compensatedEvent.finish(sagaInstanceId, 0, true);
                 return;
             }
 
@@ -309,11 +572,12 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
                     completedSteps.size());
 
             // Update saga status to compensating
-            sagaInstance.setStatus(SagaStatus.COMPENSATING);
-            sagaInstanceRepository.save(sagaInstance);
+            inTransaction(() -> updateStatus(sagaInstanceId, SagaStatus.COMPENSATING));
 
-            // Compensate steps in reverse order (LIFO)
-            Collections.reverse(completedSteps);
+            // Compensate in reverse topological order: stepOrder is the step's
+            // position in the saga's topological order, so descending stepOrder
+            // undoes every step after the steps that depend on it
+            completedSteps.sort(Comparator.comparing(SagaStep::getStepOrder).reversed());
 
             boolean allStepsCompensated = true;
 
@@ -334,23 +598,22 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
                 }
             }
 
-            // Update final saga status
-            //  re-read saga instance to get latest version after
-            // compensation steps modified it, preventing ObjectOptimisticLockingFailureException
+            // Update final saga status. Compensation steps only merge context
+            // keys and never bump the version, so the session's version still holds
             if (allStepsCompensated) {
-                SagaInstance refreshedSagaInstance = sagaInstanceRepository.findById(sagaInstanceId)
-                        .orElseThrow(() -> new RuntimeException("SagaInstance not found with id: " + sagaInstanceId));
-                refreshedSagaInstance.setStatus(SagaStatus.COMPENSATED);
-                sagaInstanceRepository.save(refreshedSagaInstance);
+                inTransaction(() -> updateStatus(sagaInstanceId, SagaStatus.COMPENSATED));
+                sagaSessions.close(sagaInstanceId);
                 log.info("Saga compensation completed successfully for sagaInstanceId: {}", sagaInstanceId);
             } else {
-                failSaga(sagaInstanceId);
+                inTransaction(() -> failSaga(sagaInstanceId));
                 log.error("Saga compensation failed for sagaInstanceId: {}", sagaInstanceId);
             }
+            compensatedEvent.finish(sagaInstanceId, completedSteps.size(), allStepsCompensated);
 
         } catch (Exception e) {
             log.error("Failed to compensate saga with id: {}, error: {}", sagaInstanceId, e.getMessage());
-            failSaga(sagaInstanceId);
+            compensatedEvent.finish(sagaInstanceId, 0, false);
+            inTransaction(() -> failSaga(sagaInstanceId));
             throw new RuntimeException("Failed to compensate saga", e);
         }
     }
@@ -359,11 +622,8 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
     @Transactional
     public void failSaga(Long sagaInstanceId) {
         try {
-            SagaInstance sagaInstance = sagaInstanceRepository.findById(sagaInstanceId)
-                    .orElseThrow(() -> new RuntimeException("SagaInstance not found with id: " + sagaInstanceId));
-
-            sagaInstance.setStatus(SagaStatus.FAILED);
-            sagaInstanceRepository.save(sagaInstance);
+            updateStatus(sagaInstanceId, SagaStatus.FAILED);
+            sagaSessions.close(sagaInstanceId);
             log.error("Saga marked as failed for sagaInstanceId: {}", sagaInstanceId);
         } catch (Exception e) {
             log.error("Failed to mark saga as failed for id: {}, error: {}", sagaInstanceId, e.getMessage());
@@ -375,11 +635,8 @@ public class SagaOrchestratorImpl implements SagaOrchestrator {
     @Transactional
     public void completeSaga(Long sagaInstanceId) {
         try {
-            SagaInstance sagaInstance = sagaInstanceRepository.findById(sagaInstanceId)
-                    .orElseThrow(() -> new RuntimeException("SagaInstance not found with id: " + sagaInstanceId));
-
-            sagaInstance.setStatus(SagaStatus.COMPLETED);
-            sagaInstanceRepository.save(sagaInstance);
+            updateStatus(sagaInstanceId, SagaStatus.COMPLETED);
+            sagaSessions.close(sagaInstanceId);
             log.info("Saga completed successfully for sagaInstanceId: {}", sagaInstanceId);
         } catch (Exception e) {
             log.error("Failed to mark saga as completed for id: {}, error: {}", sagaInstanceId, e.getMessage());
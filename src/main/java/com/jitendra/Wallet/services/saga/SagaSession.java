@@ -0,0 +1,62 @@
+package com.jitendra.Wallet.services.saga;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What this node knows about a saga it is currently running: the decoded
+ * context, the saga_instance version it last wrote and its expiry_time.
+ *
+ * Steps of a parallel saga run on different threads, so each step works on
+ * its own copy of the context and folds its changes back once committed.
+ */
+final class SagaSession {
+
+    private final Long sagaInstanceId;
+    private final SagaContext context;
+    private final LocalDateTime expiryTime;
+    private volatile Long version;
+    private volatile long touchedAtMillis;
+
+    SagaSession(Long sagaInstanceId, SagaContext context, Long version, LocalDateTime expiryTime) {
+        this.sagaInstanceId = sagaInstanceId;
+        this.context = context;
+        this.version = version;
+        this.expiryTime = expiryTime;
+        this.touchedAtMillis = System.currentTimeMillis();
+    }
+
+    Long getSagaInstanceId() {
+        return sagaInstanceId;
+    }
+
+    /**
+     * Copy of the context for one step; its put()/remove() tracking starts empty.
+     */
+    synchronized SagaContext contextForStep() {
+        touchedAtMillis = System.currentTimeMillis();
+        return context.copy();
+    }
+
+    synchronized void apply(Map<String, Object> written, Set<String> removed) {
+        removed.forEach(key -> context.getData().remove(key));
+        context.getData().putAll(written);
+    }
+
+    Long getVersion() {
+        return version;
+    }
+
+    void setVersion(Long version) {
+        this.version = version;
+    }
+
+    LocalDateTime getExpiryTime() {
+        return expiryTime;
+    }
+
+    long getTouchedAtMillis() {
+        return touchedAtMillis;
+    }
+}
@@ -0,0 +1,97 @@
+package com.jitendra.Wallet.services.saga;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-flight sagas started (or resumed) on this node.
+ *
+ * WHY:
+ * A transfer used to re-read saga_instance and re-parse its JSON context in
+ * every executeStep and again in completeSaga, although the same JVM wrote
+ * both a few milliseconds earlier. The orchestrator now asks this cache
+ * first and only goes to the database when there is no session (another node
+ * started the saga, or it is being recovered) or when a version-guarded
+ * status update finds the row changed underneath it.
+ *
+ * Sessions are dropped when the saga reaches a terminal status. Runs that die
+ * half way are swept once the cache is full.
+ */
+@Component
+@Slf4j
+class SagaSessionCache {
+
+    private static final int MAX_SESSIONS = 10_000;
+    private static final long IDLE_EVICT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final Map<Long, SagaSession> sessions = new ConcurrentHashMap<>();
+
+    SagaSession get(Long sagaInstanceId) {
+        return sessions.get(sagaInstanceId);
+    }
+
+    /**
+     * Registers a session. When called inside a transaction the session is
+     * discarded again if that transaction rolls back, so a saga that never
+     * committed can't be served from memory.
+     */
+    SagaSession open(Long sagaInstanceId, SagaContext context, Long version, LocalDateTime expiryTime) {
+        if (sessions.size() >= MAX_SESSIONS) {
+            sweep();
+            if (sessions.size() >= MAX_SESSIONS) {
+                // Still full of live sagas — this one simply reads from the database
+                return null;
+            }
+        }
+        SagaSession session = new SagaSession(sagaInstanceId, context, version, expiryTime);
+        sessions.put(sagaInstanceId, session);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        sessions.remove(sagaInstanceId, session);
+                    }
+                }
+            });
+        }
+        return session;
+    }
+
+    void close(Long sagaInstanceId) {
+        sessions.remove(sagaInstanceId);
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or right away
+     * when there is none. Used to fold step results into a session only after
+     * they are durable.
+     */
+    void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void sweep() {
+        long cutoff = System.currentTimeMillis() - IDLE_EVICT_MILLIS;
+        int before = sessions.size();
+        sessions.values().removeIf(session -> session.getTouchedAtMillis() < cutoff);
+        log.warn("Saga session cache full, evicted {} idle sessions", before - sessions.size());
+    }
+}
@@ -42,6 +42,18 @@ public interface SagaStepInterface {
         return "compensate_" + getStepName();
     }
     
+    /**
+     * Wallet whose @Version-checked balance this step changes, or null if it
+     * changes none. Steps on the same wallet are queued on its mailbox
+     * (WalletMailboxExecutor) instead of racing each other.
+     *
+     * @param context - Shared context containing saga data
+     * @return wallet id, or null
+     */
+    default Long getWalletKey(SagaContext context) {
+        return null;
+    }
+    
     /**
      * Get maximum retry attempts for this step
      * @return max retries (default: 3)
@@ -0,0 +1,47 @@
+package com.jitendra.Wallet.services.saga;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.transfer.* — how TransferSagaService routes a transfer.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.transfer")
+public class TransferProperties {
+
+    // Same-shard transfers commit debit + credit + status in one local
+    // transaction instead of running the saga
+    private boolean localFastPath = true;
+
+    // Cross-shard transfers run debit and credit concurrently
+    // (SagaType.PARALLEL_TRANSACTION_TRANSFER) instead of one after the other
+    private boolean parallelSagaSteps = false;
+
+    // Cross-shard transfers reserve the source funds and only debit them once
+    // the credit committed (SagaType.TCC_TRANSACTION_TRANSFER). Takes
+    // precedence over parallelSagaSteps
+    private boolean tcc = false;
+
+    private Batch batch = new Batch();
+
+    /**
+     * Group commit for the local fast path: transfers arriving on the same
+     * shard within the window share one database transaction.
+     */
+    @Data
+    public static class Batch {
+
+        private boolean enabled = false;
+
+        // How long the first transfer of a batch waits for company
+        private long windowMicros = 2_000;
+
+        // A batch is flushed early once it holds this many transfers
+        private int maxSize = 256;
+
+        // Per-shard queue bound; beyond it transfers commit on their own
+        private int queueCapacity = 10_000;
+    }
+}
@@ -4,6 +4,7 @@ import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -15,9 +16,15 @@ import com.jitendra.Wallet.entity.Transaction;
 import com.jitendra.Wallet.entity.TransactionStatus;
 import com.jitendra.Wallet.repository.TransactionRepository;
 
-import com.jitendra.Wallet.services.saga.steps.SagaStepFactory;
+import com.jitendra.Wallet.services.ledger.LedgerEngine;
 import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.SagaStepType;
 import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.SagaType;
+import com.jitendra.Wallet.services.sharding.LocalTransferService;
+import com.jitendra.Wallet.services.sharding.ShardCircuitBreaker;
+import com.jitendra.Wallet.services.sharding.ShardLocalTransactions;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+import com.jitendra.Wallet.services.sharding.TransferBatcher;
+import com.jitendra.Wallet.services.stats.WalletDailyStatsService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,6 +32,10 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * TransferSagaService orchestrates the complete wallet transfer saga workflow.
  * It handles Transaction creation, saga step execution, and status updates.
+ *
+ * Routing: same-shard transfers go to the {@link LedgerEngine} when it is
+ * enabled, otherwise to {@link LocalTransferService} (one local transaction).
+ * Cross-shard transfers always take the saga.
  */
 @Service
 @Slf4j
@@ -32,9 +43,17 @@ import lombok.extern.slf4j.Slf4j;
 public class TransferSagaService {
 
     private final SagaOrchestrator sagaOrchestrator;
-    private final SagaStepFactory sagaStepFactory;
+    private final SagaDagExecutor sagaDagExecutor;
     private final TransactionRepository transactionRepository;
     private final PlatformTransactionManager transactionManager;
+    private final LedgerEngine ledgerEngine;
+    private final ShardRouter shardRouter;
+    private final ShardCircuitBreaker shardCircuitBreaker;
+    private final LocalTransferService localTransferService;
+    private final ShardLocalTransactions shardLocalTransactions;
+    private final TransferBatcher transferBatcher;
+    private final TransferProperties transferProperties;
+    private final WalletDailyStatsService dailyStatsService;
 
     /**
      * Initiates a wallet transfer saga.
@@ -49,12 +68,39 @@ public class TransferSagaService {
                 transactionRequest.getDestinationWalletId(),
                 transactionRequest.getAmount());
 
+        // Fail fast (503, retryable) instead of starting work that would stall
+        // on a shard whose breaker is open
+        if (!shardCircuitBreaker.allClosed()) {
+            shardCircuitBreaker.checkAvailable(shardRouter.shardForWallet(transactionRequest.getSourceWalletId()));
+            shardCircuitBreaker.checkAvailable(
+                    shardRouter.shardForWallet(transactionRequest.getDestinationWalletId()));
+        }
+
+        if (ledgerEngine.isEnabled() || transferProperties.isLocalFastPath()) {
+            Optional<String> shard = shardRouter.commonShard(
+                    transactionRequest.getSourceWalletId(), transactionRequest.getDestinationWalletId());
+            if (shard.isPresent()) {
+                if (ledgerEngine.isEnabled() && LedgerEngine.supportsAmount(transactionRequest.getAmount())) {
+                    return initiateLedgerTransfer(transactionRequest, shard.get());
+                }
+                if (transferProperties.isLocalFastPath()) {
+                    return completed(transferProperties.getBatch().isEnabled()
+                            ? transferBatcher.submit(shard.get(), transactionRequest)
+                            : localTransferService.transfer(shard.get(), transactionRequest));
+                }
+            }
+        }
+
         // === Fix #5: Atomic initialization ===
         // TransactionTemplate ensures Transaction creation + Saga start + linking
         // all commit or rollback together. Prevents orphaned Transaction records
         // (with sagaInstanceId = -1) if startSaga() throws.
         TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
 
+        SagaType sagaType = transferProperties.isTcc() ? SagaType.TCC_TRANSACTION_TRANSFER
+                : transferProperties.isParallelSagaSteps() ? SagaType.PARALLEL_TRANSACTION_TRANSFER
+                : SagaType.TRANSACTION_TRANSFER;
+
         Object[] initResult = txTemplate.execute(status -> {
             Instant now = Instant.now();
             Transaction tx = Transaction.builder()
@@ -83,7 +129,7 @@ public class TransferSagaService {
             contextData.put("newStatus", TransactionStatus.SUCCESS.name());
 
             SagaContext sagaCtx = SagaContext.builder()
-                    .sagaType(SagaType.TRANSACTION_TRANSFER.name())
+                    .sagaType(sagaType.name())
                     .data(contextData)
                     .build();
 
@@ -95,7 +141,7 @@ public class TransferSagaService {
 
             log.info("Saga started with id: {}, linked to transaction id: {}", sagaId, tx.getId());
 
-            return new Object[] { tx, sagaId, sagaCtx };
+            return new Object[] { tx, sagaId };
         });
 
         if (initResult == null) {
@@ -104,10 +150,9 @@ public class TransferSagaService {
 
         Transaction savedTransaction = (Transaction) initResult[0];
         Long sagaInstanceId = (Long) initResult[1];
-        SagaContext sagaContext = (SagaContext) initResult[2];
 
         // Execute the saga steps (each step commits in its own transaction)
-        boolean success = executeTransferSaga(sagaInstanceId, sagaContext);
+        boolean success = executeTransferSaga(sagaInstanceId, sagaType);
 
         // === Fix #6: Remove redundant SUCCESS write ===
         // On success, the UPDATE_TRANSACTION_STATUS saga step already committed
@@ -123,63 +168,77 @@ public class TransferSagaService {
                             "Transaction not found with id: " + transactionId));
         }
 
-        return mapToResponseDTO(finalTransaction);
+        return completed(finalTransaction);
     }
 
     /**
-     * Executes all steps of the transfer saga in order.
-     * If any step fails, triggers compensation to rollback completed steps.
+     * Same-shard transfer through the ledger engine: one Transaction row, no
+     * saga instance, no step rows. The row gets a shard-local id so the engine
+     * finalises its status in the same single-shard commit that moves the money.
+     */
+    private TransactionResponseDTO initiateLedgerTransfer(TransactionRequestDTO transactionRequest, String shard) {
+        Instant now = Instant.now();
+        Transaction tx = Transaction.builder()
+                .id(shardLocalTransactions.nextId(shard))
+                .description(transactionRequest.getDescription())
+                .sourceWalletId(transactionRequest.getSourceWalletId())
+                .destinationWalletId(transactionRequest.getDestinationWalletId())
+                .amount(transactionRequest.getAmount())
+                .type(transactionRequest.getType())
+                .status(TransactionStatus.PENDING)
+                .sagaInstanceId(Transaction.NO_SAGA_INSTANCE)
+                .createdDate(now)
+                .updatedDate(now)
+                .build();
+        shardLocalTransactions.insertAll(List.of(tx));
+        log.info("Transaction created with id: {} routed to ledger on {}", tx.getId(), shard);
+
+        final Long transactionId = tx.getId();
+        try {
+            TransactionStatus status = ledgerEngine.transfer(shard, transactionId,
+                    tx.getSourceWalletId(), shardRouter.ownerOf(tx.getSourceWalletId()),
+                    tx.getDestinationWalletId(), shardRouter.ownerOf(tx.getDestinationWalletId()),
+                    tx.getAmount());
+            tx.setStatus(status);
+            tx.setUpdatedDate(Instant.now());
+            return completed(tx);
+        } catch (RuntimeException e) {
+            log.error("Ledger transfer failed for transaction id: {}: {}", transactionId, e.getMessage());
+            // Guarded: if the batch committed after all, keep its SUCCESS
+            TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+            txTemplate.executeWithoutResult(status -> transactionRepository.finishIfPending(
+                    transactionId, TransactionStatus.FAILED, Instant.now()));
+            Transaction finalTransaction = transactionRepository.findById(transactionId)
+                    .orElseThrow(() -> new RuntimeException("Transaction not found with id: " + transactionId));
+            return completed(finalTransaction);
+        }
+    }
+
+    /**
+     * Executes the steps of the transfer saga as a dependency DAG (independent
+     * steps run concurrently). If any step fails, triggers compensation to
+     * rollback completed steps.
      * 
      * @param sagaInstanceId The saga instance ID
-     * @param sagaContext    The saga context with transfer data
+     * @param sagaType       The saga definition the instance was started with
      * @return true if all steps succeeded, false otherwise
      */
-    private boolean executeTransferSaga(Long sagaInstanceId, SagaContext sagaContext) {
-        log.info("Executing transfer saga steps for sagaInstanceId: {}", sagaInstanceId);
-
-        // Get ordered list of steps for TRANSACTION_TRANSFER saga
-        List<SagaStepType> steps = sagaStepFactory.getStepsForSaga(SagaType.TRANSACTION_TRANSFER);
+    private boolean executeTransferSaga(Long sagaInstanceId, SagaType sagaType) {
+        log.info("Executing {} saga steps for sagaInstanceId: {}", sagaType, sagaInstanceId);
 
-        boolean allStepsSucceeded = true;
-        String failedStepName = null;
-        int stepOrder = 1;
-
-        for (SagaStepType stepType : steps) {
-            String stepName = stepType.name();
-            log.info("Executing saga step: {} for sagaInstanceId: {}", stepName, sagaInstanceId);
-
-            try {
-                boolean stepResult = sagaOrchestrator.executeStep(sagaInstanceId, stepName, stepOrder++);
-
-                if (!stepResult) {
-                    log.error("Saga step {} failed for sagaInstanceId: {}", stepName, sagaInstanceId);
-                    allStepsSucceeded = false;
-                    failedStepName = stepName;
-                    break;
-                }
-
-                log.info("Saga step {} completed successfully for sagaInstanceId: {}", stepName, sagaInstanceId);
-
-            } catch (Exception e) {
-                log.error("Exception during saga step {} for sagaInstanceId: {}: {}",
-                        stepName, sagaInstanceId, e.getMessage());
-                allStepsSucceeded = false;
-                failedStepName = stepName;
-                break;
-            }
-        }
+        SagaStepType failedStep = sagaDagExecutor.execute(sagaInstanceId, sagaType);
 
         // Handle saga completion or compensation
-        if (allStepsSucceeded) {
+        if (failedStep == null) {
             sagaOrchestrator.completeSaga(sagaInstanceId);
             log.info("Transfer saga completed successfully for sagaInstanceId: {}", sagaInstanceId);
-        } else {
-            log.error("Transfer saga failed at step {} for sagaInstanceId: {}, initiating compensation",
-                    failedStepName, sagaInstanceId);
-            sagaOrchestrator.compensateSaga(sagaInstanceId);
+            return true;
         }
 
-        return allStepsSucceeded;
+        log.error("Transfer saga failed at step {} for sagaInstanceId: {}, initiating compensation",
+                failedStep, sagaInstanceId);
+        sagaOrchestrator.compensateSaga(sagaInstanceId);
+        return false;
     }
 
     /**
@@ -202,6 +261,16 @@ public class TransferSagaService {
         return updatedTransaction;
     }
 
+    /**
+     * Every route ends here once its transaction is final: the daily rollups
+     * are fed from this single point whether the transfer went through the
+     * ledger, the local fast path, or the saga.
+     */
+    private TransactionResponseDTO completed(Transaction transaction) {
+        dailyStatsService.record(transaction);
+        return mapToResponseDTO(transaction);
+    }
+
     /**
      * Map Transaction entity to TransactionResponseDTO
      */
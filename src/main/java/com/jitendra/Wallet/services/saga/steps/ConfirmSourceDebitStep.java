@@ -0,0 +1,96 @@
+package com.jitendra.Wallet.services.saga.steps;
+
+import java.math.BigDecimal;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.jitendra.Wallet.entity.Wallet;
+import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.diagnostics.WalletBalanceMutatedEvent;
+import com.jitendra.Wallet.services.saga.SagaContext;
+import com.jitendra.Wallet.services.saga.SagaStepInterface;
+import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.SagaStepType;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TCC "confirm": turns the source wallet's hold into the actual debit
+ * (balance and held_balance both drop by the amount). In the TCC saga it runs
+ * last, once the credit and status update have committed; in the parallel
+ * saga it runs alongside the credit, and compensation refunds the source.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConfirmSourceDebitStep implements SagaStepInterface {
+
+    private static final String CONFIRMED_KEY = "sourceDebitConfirmed";
+
+    private final WalletRepository walletRepository;
+    private final ShardRouter shardRouter;
+
+    @Override
+    @Transactional
+    public boolean execute(SagaContext context) throws Exception {
+        log.info("Executing ConfirmSourceDebitStep for sagaInstanceId: {}", context.getSagaInstanceId());
+
+        BigDecimal amount = new BigDecimal(context.getData().get("amount").toString());
+        Long sourceWalletId = Long.valueOf(context.getData().get("sourceWalletId").toString());
+
+        WalletBalanceMutatedEvent balanceEvent = new WalletBalanceMutatedEvent();
+        balanceEvent.begin();
+        long owner = shardRouter.ownerOf(sourceWalletId);
+        int updated = walletRepository.confirmReserved(sourceWalletId, owner, amount);
+        if (updated == 0) {
+            throw new RuntimeException("Reserved funds not found on source wallet id: " + sourceWalletId);
+        }
+        balanceEvent.finish(sourceWalletId, () -> shardRouter.shardForUser(owner), "CONFIRM_DEBIT", amount,
+                context.getSagaInstanceId(), getStepName());
+
+        // The hold is consumed — ReserveSourceFundsStep must not release it again
+        context.put(ReserveSourceFundsStep.RESERVED_KEY, false);
+        context.put(CONFIRMED_KEY, true);
+        log.info("Confirmed debit of {} from source wallet id: {}", amount, sourceWalletId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean compensate(SagaContext context) throws Exception {
+        log.info("Compensating ConfirmSourceDebitStep for sagaInstanceId: {}", context.getSagaInstanceId());
+
+        if (!Boolean.TRUE.equals(context.get(CONFIRMED_KEY))) {
+            return true;
+        }
+
+        BigDecimal amount = new BigDecimal(context.getData().get("amount").toString());
+        Long sourceWalletId = Long.valueOf(context.getData().get("sourceWalletId").toString());
+
+        WalletBalanceMutatedEvent balanceEvent = new WalletBalanceMutatedEvent();
+        balanceEvent.begin();
+        Wallet wallet = walletRepository.findById(sourceWalletId)
+                .orElseThrow(() -> new RuntimeException("Source Wallet not Found"));
+        wallet.credit(amount);
+        walletRepository.save(wallet);
+        balanceEvent.finish(sourceWalletId, () -> shardRouter.shardForUser(wallet.getUserId()), "CREDIT", amount,
+                context.getSagaInstanceId(), getStepName());
+
+        context.put(CONFIRMED_KEY, false);
+        log.info("Credited amount: {} back to source wallet id: {}. New balance: {}", amount, sourceWalletId,
+                wallet.getBalance());
+        return true;
+    }
+
+    @Override
+    public String getStepName() {
+        return SagaStepType.CONFIRM_SOURCE_DEBIT.toString();
+    }
+
+    @Override
+    public Integer getStepOrder() {
+        return 4;
+    }
+}
@@ -6,9 +6,12 @@ import org.springframework.stereotype.Service;
 
 import com.jitendra.Wallet.entity.Wallet;
 import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.contention.WalletContentionManager;
+import com.jitendra.Wallet.services.diagnostics.WalletBalanceMutatedEvent;
 import com.jitendra.Wallet.services.saga.SagaContext;
 import com.jitendra.Wallet.services.saga.SagaStepInterface;
 import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.SagaStepType;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
 
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +23,8 @@ import lombok.extern.slf4j.Slf4j;
 public class CreditDestinationWalletStep implements SagaStepInterface {
 
     private final WalletRepository walletRepository;
+    private final WalletContentionManager contentionManager;
+    private final ShardRouter shardRouter;
 
     @Override
     @Transactional
@@ -34,7 +39,9 @@ public class CreditDestinationWalletStep implements SagaStepInterface {
         Long destinationWalletId = Long.valueOf(context.getData().get("destinationWalletId").toString());
 
         // step 2 : fetch the destination wallet from the database
-        Wallet wallet = walletRepository.findById(destinationWalletId)
+        WalletBalanceMutatedEvent balanceEvent = new WalletBalanceMutatedEvent();
+        balanceEvent.begin();
+        Wallet wallet = contentionManager.loadForUpdate(destinationWalletId)
                 .orElseThrow(() -> new RuntimeException("Destination Wallet not Found"));
 
         context.put("toWalletBalanceBeforeCredit", wallet.getBalance());
@@ -42,6 +49,8 @@ public class CreditDestinationWalletStep implements SagaStepInterface {
         // step 3 : credit the destination wallet with the amount
         wallet.credit(amount);
         walletRepository.save(wallet);
+        balanceEvent.finish(destinationWalletId, () -> shardRouter.shardForUser(wallet.getUserId()), "CREDIT", amount,
+                context.getSagaInstanceId(), getStepName());
 
         // step 4 : update context and log the success message
         context.put("toWalletBalanceAfterCredit", wallet.getBalance());
@@ -62,7 +71,9 @@ public class CreditDestinationWalletStep implements SagaStepInterface {
         Long destinationWalletId = Long.valueOf(context.getData().get("destinationWalletId").toString());
 
         // step 2 : fetch the destination wallet from the database
-        Wallet wallet = walletRepository.findById(destinationWalletId)
+        WalletBalanceMutatedEvent balanceEvent = new WalletBalanceMutatedEvent();
+        balanceEvent.begin();
+        Wallet wallet = contentionManager.loadForUpdate(destinationWalletId)
                 .orElseThrow(() -> new RuntimeException("Destination Wallet not Found"));
 
         context.put("toWalletBalanceBeforeCredit", wallet.getBalance());
@@ -70,6 +81,8 @@ public class CreditDestinationWalletStep implements SagaStepInterface {
         // step 3 : debit the destination wallet with the amount
         wallet.debit(amount);
         walletRepository.save(wallet);
+        balanceEvent.finish(destinationWalletId, () -> shardRouter.shardForUser(wallet.getUserId()), "DEBIT", amount,
+                context.getSagaInstanceId(), getStepName());
 
         // step 4 : update context and log the success message
         context.put("toWalletBalanceAfterCredit", wallet.getBalance());
@@ -79,6 +92,11 @@ public class CreditDestinationWalletStep implements SagaStepInterface {
 
     }
 
+    @Override
+    public Long getWalletKey(SagaContext context) {
+        return Long.valueOf(context.getData().get("destinationWalletId").toString());
+    }
+
     @Override
     public String getStepName() {
         return SagaStepType.CREDIT_DESTINATION_WALLET.toString();
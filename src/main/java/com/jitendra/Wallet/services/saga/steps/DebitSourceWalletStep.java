@@ -6,9 +6,12 @@ import org.springframework.stereotype.Service;
 
 import com.jitendra.Wallet.entity.Wallet;
 import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.contention.WalletContentionManager;
+import com.jitendra.Wallet.services.diagnostics.WalletBalanceMutatedEvent;
 import com.jitendra.Wallet.services.saga.SagaContext;
 import com.jitendra.Wallet.services.saga.SagaStepInterface;
 import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.SagaStepType;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
 
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +23,8 @@ import lombok.extern.slf4j.Slf4j;
 public class DebitSourceWalletStep implements SagaStepInterface {
 
     private final WalletRepository walletRepository;
+    private final WalletContentionManager contentionManager;
+    private final ShardRouter shardRouter;
 
     @Override
     @Transactional
@@ -29,7 +34,9 @@ public class DebitSourceWalletStep implements SagaStepInterface {
         BigDecimal amount = new BigDecimal(context.getData().get("amount").toString());
         Long sourceWalletId = Long.valueOf(context.getData().get("sourceWalletId").toString());
 
-        Wallet wallet = walletRepository.findById(sourceWalletId)
+        WalletBalanceMutatedEvent balanceEvent = new WalletBalanceMutatedEvent();
+        balanceEvent.begin();
+        Wallet wallet = contentionManager.loadForUpdate(sourceWalletId)
                 .orElseThrow(() -> new RuntimeException("Source Wallet not Found"));
 
         context.put("fromWalletBalanceBeforeDebit", wallet.getBalance());
@@ -42,6 +49,8 @@ public class DebitSourceWalletStep implements SagaStepInterface {
 
         wallet.debit(amount);
         walletRepository.save(wallet);
+        balanceEvent.finish(sourceWalletId, () -> shardRouter.shardForUser(wallet.getUserId()), "DEBIT", amount,
+                context.getSagaInstanceId(), getStepName());
 
         context.put("fromWalletBalanceAfterDebit", wallet.getBalance());
         log.info("Debited amount: {} from source wallet id: {}. New balance: {}", amount, sourceWalletId,
@@ -57,13 +66,17 @@ public class DebitSourceWalletStep implements SagaStepInterface {
         BigDecimal amount = new BigDecimal(context.getData().get("amount").toString());
         Long sourceWalletId = Long.valueOf(context.getData().get("sourceWalletId").toString());
 
-        Wallet wallet = walletRepository.findById(sourceWalletId)
+        WalletBalanceMutatedEvent balanceEvent = new WalletBalanceMutatedEvent();
+        balanceEvent.begin();
+        Wallet wallet = contentionManager.loadForUpdate(sourceWalletId)
                 .orElseThrow(() -> new RuntimeException("Source Wallet not Found"));
 
         context.put("fromWalletBalanceBeforeDebit", wallet.getBalance());
 
         wallet.credit(amount);
         walletRepository.save(wallet);
+        balanceEvent.finish(sourceWalletId, () -> shardRouter.shardForUser(wallet.getUserId()), "CREDIT", amount,
+                context.getSagaInstanceId(), getStepName());
 
         context.put("fromWalletBalanceAfterDebit", wallet.getBalance());
         log.info("Credited amount: {} back to source wallet id: {}. New balance: {}", amount, sourceWalletId,
@@ -71,6 +84,11 @@ public class DebitSourceWalletStep implements SagaStepInterface {
         return true;
     }
 
+    @Override
+    public Long getWalletKey(SagaContext context) {
+        return Long.valueOf(context.getData().get("sourceWalletId").toString());
+    }
+
     @Override
     public String getStepName() {
         return SagaStepType.DEBIT_SOURCE_WALLET.toString();
@@ -0,0 +1,86 @@
+package com.jitendra.Wallet.services.saga.steps;
+
+import java.math.BigDecimal;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.saga.SagaContext;
+import com.jitendra.Wallet.services.saga.SagaStepInterface;
+import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.SagaStepType;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TCC "try": moves the amount from the source wallet's spendable balance into
+ * held_balance. The balance itself is untouched until ConfirmSourceDebitStep,
+ * so a failed transfer never shows an intermediate debited balance and
+ * compensation is a single held_balance decrement.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReserveSourceFundsStep implements SagaStepInterface {
+
+    static final String RESERVED_KEY = "sourceFundsReserved";
+
+    private final WalletRepository walletRepository;
+    private final ShardRouter shardRouter;
+
+    @Override
+    @Transactional
+    public boolean execute(SagaContext context) throws Exception {
+        log.info("Executing ReserveSourceFundsStep for sagaInstanceId: {}", context.getSagaInstanceId());
+
+        BigDecimal amount = new BigDecimal(context.getData().get("amount").toString());
+        Long sourceWalletId = Long.valueOf(context.getData().get("sourceWalletId").toString());
+
+        int updated = walletRepository.reserve(sourceWalletId, shardRouter.ownerOf(sourceWalletId), amount);
+        if (updated == 0) {
+            log.error("Could not reserve {} on source wallet id: {} (inactive or insufficient available balance)",
+                    amount, sourceWalletId);
+            throw new RuntimeException("Insufficient balance in source wallet id: " + sourceWalletId);
+        }
+
+        context.put(RESERVED_KEY, true);
+        log.info("Reserved amount: {} on source wallet id: {}", amount, sourceWalletId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean compensate(SagaContext context) throws Exception {
+        log.info("Compensating ReserveSourceFundsStep for sagaInstanceId: {}", context.getSagaInstanceId());
+
+        // Idempotent: nothing to release if the hold was already released or confirmed
+        if (!Boolean.TRUE.equals(context.get(RESERVED_KEY))) {
+            log.info("No active reservation for sagaInstanceId: {}, nothing to release", context.getSagaInstanceId());
+            return true;
+        }
+
+        BigDecimal amount = new BigDecimal(context.getData().get("amount").toString());
+        Long sourceWalletId = Long.valueOf(context.getData().get("sourceWalletId").toString());
+
+        int updated = walletRepository.releaseReserved(sourceWalletId, shardRouter.ownerOf(sourceWalletId), amount);
+        if (updated == 0) {
+            throw new RuntimeException("Reserved funds not found on source wallet id: " + sourceWalletId);
+        }
+
+        context.put(RESERVED_KEY, false);
+        log.info("Released reservation of {} on source wallet id: {}", amount, sourceWalletId);
+        return true;
+    }
+
+    @Override
+    public String getStepName() {
+        return SagaStepType.RESERVE_SOURCE_FUNDS.toString();
+    }
+
+    @Override
+    public Integer getStepOrder() {
+        return 1;
+    }
+}
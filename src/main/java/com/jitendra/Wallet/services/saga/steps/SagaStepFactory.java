@@ -1,7 +1,10 @@
 package com.jitendra.Wallet.services.saga.steps;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.stereotype.Component;
 
@@ -13,36 +16,98 @@ public class SagaStepFactory {
     public enum SagaStepType {
         DEBIT_SOURCE_WALLET,
         CREDIT_DESTINATION_WALLET,
-        UPDATE_TRANSACTION_STATUS
+        UPDATE_TRANSACTION_STATUS,
+        RESERVE_SOURCE_FUNDS,
+        CONFIRM_SOURCE_DEBIT
     }
 
+    /**
+     * A step and the steps that must have COMPLETED before it may start.
+     */
+    public record StepNode(SagaStepType step, Set<SagaStepType> dependsOn) {
+
+        static StepNode root(SagaStepType step) {
+            return new StepNode(step, Set.of());
+        }
+
+        static StepNode after(SagaStepType step, SagaStepType first, SagaStepType... rest) {
+            return new StepNode(step, Set.copyOf(EnumSet.of(first, rest)));
+        }
+    }
+
+    /**
+     * A saga is a dependency DAG of steps, listed in a topological order
+     * (every step after the steps it depends on). Steps whose dependencies are
+     * all met may run concurrently — see SagaDagExecutor.
+     */
     public enum SagaType {
+        // Linear: each step waits for the previous one
         TRANSACTION_TRANSFER(List.of(
-                SagaStepType.DEBIT_SOURCE_WALLET,
-                SagaStepType.CREDIT_DESTINATION_WALLET,
-                SagaStepType.UPDATE_TRANSACTION_STATUS));
+                StepNode.root(SagaStepType.DEBIT_SOURCE_WALLET),
+                StepNode.after(SagaStepType.CREDIT_DESTINATION_WALLET, SagaStepType.DEBIT_SOURCE_WALLET),
+                StepNode.after(SagaStepType.UPDATE_TRANSACTION_STATUS, SagaStepType.CREDIT_DESTINATION_WALLET))),
+
+        // The source funds are reserved first, so the credit never runs ahead
+        // of money that may not be there. Crediting the destination and
+        // confirming the source debit then hit different shards and overlap
+        PARALLEL_TRANSACTION_TRANSFER(List.of(
+                StepNode.root(SagaStepType.RESERVE_SOURCE_FUNDS),
+                StepNode.after(SagaStepType.CREDIT_DESTINATION_WALLET, SagaStepType.RESERVE_SOURCE_FUNDS),
+                StepNode.after(SagaStepType.CONFIRM_SOURCE_DEBIT, SagaStepType.RESERVE_SOURCE_FUNDS),
+                StepNode.after(SagaStepType.UPDATE_TRANSACTION_STATUS,
+                        SagaStepType.CREDIT_DESTINATION_WALLET, SagaStepType.CONFIRM_SOURCE_DEBIT))),
 
+        // Try-Confirm-Cancel: the source is only held until everything else
+        // committed, so cancelling is a cheap hold release instead of a refund
+        TCC_TRANSACTION_TRANSFER(List.of(
+                StepNode.root(SagaStepType.RESERVE_SOURCE_FUNDS),
+                StepNode.after(SagaStepType.CREDIT_DESTINATION_WALLET, SagaStepType.RESERVE_SOURCE_FUNDS),
+                StepNode.after(SagaStepType.UPDATE_TRANSACTION_STATUS, SagaStepType.CREDIT_DESTINATION_WALLET),
+                StepNode.after(SagaStepType.CONFIRM_SOURCE_DEBIT, SagaStepType.UPDATE_TRANSACTION_STATUS)));
+
+        private final List<StepNode> nodes;
         private final List<SagaStepType> steps;
 
-        SagaType(List<SagaStepType> steps) {
-            this.steps = steps;
+        SagaType(List<StepNode> nodes) {
+            Set<SagaStepType> seen = EnumSet.noneOf(SagaStepType.class);
+            for (StepNode node : nodes) {
+                if (!seen.containsAll(node.dependsOn())) {
+                    throw new IllegalStateException(name() + ": step " + node.step()
+                            + " listed before its dependencies " + node.dependsOn());
+                }
+                seen.add(node.step());
+            }
+            this.nodes = nodes;
+            this.steps = nodes.stream().map(StepNode::step).toList();
         }
 
+        /** Steps in topological order. */
         public List<SagaStepType> getSteps() {
             return steps;
         }
+
+        public List<StepNode> getNodes() {
+            return nodes;
+        }
     }
 
     private final Map<SagaStepType, SagaStepInterface> stepMap;
 
+    // Steps are wired explicitly through the constructor rather than injected as a
+    // List<SagaStepInterface>. The map itself is still built at runtime; this only
+    // keeps the AOT-generated bean definition a plain constructor call.
     public SagaStepFactory(
             DebitSourceWalletStep debitSourceWalletStep,
             CreditDestinationWalletStep creditDestinationWalletStep,
-            UpdateTransactionStatus updateTransactionStatus) {
-        this.stepMap = Map.of(
-                SagaStepType.DEBIT_SOURCE_WALLET, debitSourceWalletStep,
-                SagaStepType.CREDIT_DESTINATION_WALLET, creditDestinationWalletStep,
-                SagaStepType.UPDATE_TRANSACTION_STATUS, updateTransactionStatus);
+            UpdateTransactionStatus updateTransactionStatus,
+            ReserveSourceFundsStep reserveSourceFundsStep,
+            ConfirmSourceDebitStep confirmSourceDebitStep) {
+        this.stepMap = new EnumMap<>(SagaStepType.class);
+        this.stepMap.put(SagaStepType.DEBIT_SOURCE_WALLET, debitSourceWalletStep);
+        this.stepMap.put(SagaStepType.CREDIT_DESTINATION_WALLET, creditDestinationWalletStep);
+        this.stepMap.put(SagaStepType.UPDATE_TRANSACTION_STATUS, updateTransactionStatus);
+        this.stepMap.put(SagaStepType.RESERVE_SOURCE_FUNDS, reserveSourceFundsStep);
+        this.stepMap.put(SagaStepType.CONFIRM_SOURCE_DEBIT, confirmSourceDebitStep);
     }
 
     public SagaStepInterface getSagaStep(SagaStepType stepType) {
@@ -71,7 +136,7 @@ public class SagaStepFactory {
      * Get ordered list of steps for a saga type
      * 
      * @param sagaType The saga type
-     * @return Ordered list of step types to execute
+     * @return Step types in topological order
      */
     public List<SagaStepType> getStepsForSaga(SagaType sagaType) {
         return sagaType.getSteps();
@@ -0,0 +1,174 @@
+package com.jitendra.Wallet.services.sharding;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import com.jitendra.Wallet.services.sharding.ShardCircuitBreaker.Breaker;
+import com.jitendra.Wallet.services.sharding.ShardCircuitBreaker.Outcome;
+
+/**
+ * A shard's pool as ShardingSphere sees it: getConnection() is refused while
+ * the breaker is open, and every connection acquire and statement execution
+ * reports its latency and failure to the breaker.
+ *
+ * Connections and statements are JDK proxies, so only execute* and the
+ * statement factories are touched; everything else goes straight to the
+ * driver. unwrap()/isWrapperFor() reach the underlying pool.
+ */
+public final class CircuitBreakingDataSource implements DataSource {
+
+    private final DataSource delegate;
+    private final Breaker breaker;
+    private final long slowCallMs;
+
+    CircuitBreakingDataSource(DataSource delegate, Breaker breaker, long slowCallMs) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.slowCallMs = slowCallMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        breaker.acquire();
+        long start = System.nanoTime();
+        try {
+            Connection connection = delegate.getConnection();
+            breaker.record(outcome(start));
+            return wrap(connection);
+        } catch (SQLException e) {
+            breaker.record(ShardCircuitBreaker.isShardFailure(e) ? Outcome.FAILURE : outcome(start));
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Shard pools use their configured credentials");
+    }
+
+    private Outcome outcome(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000 > slowCallMs ? Outcome.SLOW : Outcome.SUCCESS;
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new ConnectionHandler(connection));
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof CallableStatement) {
+                return statementProxy(result, CallableStatement.class);
+            }
+            if (result instanceof PreparedStatement) {
+                return statementProxy(result, PreparedStatement.class);
+            }
+            if (result instanceof Statement) {
+                return statementProxy(result, Statement.class);
+            }
+            return result;
+        }
+
+        private Object statementProxy(Object statement, Class<?> type) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                    new StatementHandler(statement));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Object target;
+
+        StatementHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return invokeTarget(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                Object result = invokeTarget(target, method, args);
+                breaker.record(outcome(start));
+                return result;
+            } catch (SQLException e) {
+                breaker.record(ShardCircuitBreaker.isShardFailure(e) ? Outcome.FAILURE : outcome(start));
+                throw e;
+            }
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ---- plain delegation ----
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        if (iface.isInstance(delegate)) {
+            return iface.cast(delegate);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || iface.isInstance(delegate) || delegate.isWrapperFor(iface);
+    }
+}
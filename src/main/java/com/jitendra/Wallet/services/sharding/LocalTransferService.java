@@ -0,0 +1,184 @@
+package com.jitendra.Wallet.services.sharding;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jitendra.Wallet.dto.TransactionRequestDTO;
+import com.jitendra.Wallet.entity.Transaction;
+import com.jitendra.Wallet.entity.TransactionStatus;
+import com.jitendra.Wallet.entity.Wallet;
+import com.jitendra.Wallet.repository.TransactionRepository;
+import com.jitendra.Wallet.repository.WalletRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Same-shard transfer in ONE local ACID transaction.
+ *
+ * WHY NOT THE SAGA:
+ * The saga exists because a debit and a credit on different shards cannot
+ * share a transaction. When both wallets live on the same shard they can, so
+ * the saga's separately committed steps, step rows and compensation are pure
+ * overhead. Here it is: lock both wallets, debit, credit, insert the
+ * transaction row already finalised, commit.
+ *
+ * Locks are taken with one SELECT ... FOR UPDATE ordered by wallet id, so
+ * A→B and B→A transfers running concurrently cannot deadlock.
+ *
+ * The transaction row gets a shard-local id ({@link ShardLocalTransactions}),
+ * so it commits on the same physical database as the wallet writes — with a
+ * snowflake id it would usually route to the other shard.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LocalTransferService {
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final ShardRouter shardRouter;
+    private final ShardLocalTransactions shardLocalTransactions;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Executes the transfer and returns the persisted Transaction — SUCCESS,
+     * or FAILED when the source wallet could not cover the amount.
+     */
+    public Transaction transfer(String shardName, TransactionRequestDTO request) {
+        return transferAll(shardName, List.of(request)).get(0);
+    }
+
+    /**
+     * Executes several same-shard transfers in ONE local transaction (group
+     * commit). Each wallet is locked and written once however many transfers
+     * touch it, and every transfer still gets its own outcome: an item the
+     * source cannot cover is FAILED without affecting the others.
+     *
+     * If the batch as a whole cannot commit, its items are retried one by one
+     * so a single bad item does not fail its neighbours. Every item carries
+     * its transaction id from the start, which makes the retry idempotent: a
+     * batch whose rows exist did commit and is returned as it is.
+     */
+    public List<Transaction> transferAll(String shardName, List<TransactionRequestDTO> requests) {
+        List<Long> ids = requests.stream().map(request -> shardLocalTransactions.nextId(shardName)).toList();
+        return execute(requests, ids);
+    }
+
+    private List<Transaction> execute(List<TransactionRequestDTO> requests, List<Long> ids) {
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        try {
+            return txTemplate.execute(status -> applyBatch(requests, ids));
+        } catch (RuntimeException e) {
+            if (requests.size() > 1) {
+                // One database, one transaction: rows present means the whole
+                // batch committed, and retrying it would apply it twice
+                Map<Long, Transaction> committed = new HashMap<>();
+                transactionRepository.findAllById(ids).forEach(tx -> committed.put(tx.getId(), tx));
+                if (!committed.isEmpty()) {
+                    log.warn("Batch of {} local transfers reported {} but had committed",
+                            requests.size(), e.getMessage());
+                    return ids.stream().map(committed::get).toList();
+                }
+                log.warn("Batch of {} local transfers failed ({}), retrying individually",
+                        requests.size(), e.getMessage());
+                List<Transaction> results = new ArrayList<>(requests.size());
+                for (int i = 0; i < requests.size(); i++) {
+                    results.addAll(execute(List.of(requests.get(i)), List.of(ids.get(i))));
+                }
+                return results;
+            }
+            TransactionRequestDTO request = requests.get(0);
+            Long id = ids.get(0);
+            // Wallet writes and the row share one database, so either both are
+            // there or neither is: a row means the commit went through and only
+            // its acknowledgement was lost
+            Optional<Transaction> committed = transactionRepository.findById(id);
+            if (committed.isPresent()) {
+                log.warn("Local transfer {} reported {} but had committed", id, e.getMessage());
+                return List.of(committed.get());
+            }
+            // Rolled back — record the attempt the same way a compensated saga would
+            log.error("Local transfer from {} to {} failed: {}",
+                    request.getSourceWalletId(), request.getDestinationWalletId(), e.getMessage());
+            Transaction failed = newTransaction(id, request, TransactionStatus.FAILED);
+            shardLocalTransactions.insertAll(List.of(failed));
+            return List.of(failed);
+        }
+    }
+
+    private List<Transaction> applyBatch(List<TransactionRequestDTO> requests, List<Long> ids) {
+        Set<Long> walletIds = new HashSet<>();
+        Set<Long> ownerIds = new HashSet<>();
+        for (TransactionRequestDTO request : requests) {
+            walletIds.add(request.getSourceWalletId());
+            walletIds.add(request.getDestinationWalletId());
+            ownerIds.add(shardRouter.ownerOf(request.getSourceWalletId()));
+            ownerIds.add(shardRouter.ownerOf(request.getDestinationWalletId()));
+        }
+
+        Map<Long, Wallet> locked = new HashMap<>();
+        for (Wallet wallet : walletRepository.findAllForUpdateOrderById(ownerIds, walletIds)) {
+            locked.put(wallet.getId(), wallet);
+        }
+
+        List<Transaction> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TransactionRequestDTO request = requests.get(i);
+            Long id = ids.get(i);
+            Wallet source = locked.get(request.getSourceWalletId());
+            Wallet destination = locked.get(request.getDestinationWalletId());
+            BigDecimal amount = request.getAmount();
+
+            if (source == null || destination == null) {
+                log.warn("Wallet missing for transfer {} -> {}",
+                        request.getSourceWalletId(), request.getDestinationWalletId());
+                results.add(newTransaction(id, request, TransactionStatus.FAILED));
+                continue;
+            }
+            if (!source.hasSufficientBalance(amount)) {
+                log.warn("Insufficient balance in source wallet id: {}. Available balance: {}, Required amount: {}",
+                        source.getId(), source.getBalance(), amount);
+                results.add(newTransaction(id, request, TransactionStatus.FAILED));
+                continue;
+            }
+
+            source.debit(amount);
+            destination.credit(amount);
+            results.add(newTransaction(id, request, TransactionStatus.SUCCESS));
+        }
+        // Dirty checking flushes each touched wallet once (version bumped) on
+        // commit — the UPDATE carries the batch's net delta for that wallet
+
+        shardLocalTransactions.insertAll(results);
+        log.info("Local transfer batch committed: {} transfers, {} wallets", results.size(), locked.size());
+        return results;
+    }
+
+    private static Transaction newTransaction(Long id, TransactionRequestDTO request, TransactionStatus status) {
+        Instant now = Instant.now();
+        return Transaction.builder()
+                .id(id)
+                .description(request.getDescription())
+                .sourceWalletId(request.getSourceWalletId())
+                .destinationWalletId(request.getDestinationWalletId())
+                .amount(request.getAmount())
+                .type(request.getType())
+                .status(status)
+                .sagaInstanceId(Transaction.NO_SAGA_INSTANCE)
+                .createdDate(now)
+                .updatedDate(now)
+                .build();
+    }
+}
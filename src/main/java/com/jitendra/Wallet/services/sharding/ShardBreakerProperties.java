@@ -0,0 +1,40 @@
+package com.jitendra.Wallet.services.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.shard-breaker.* — per-shard circuit breaker on the connections
+ * ShardingSphere uses.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.shard-breaker")
+public class ShardBreakerProperties {
+
+    private boolean enabled = true;
+
+    // Last N calls (connection acquires + statements) the rates are computed over
+    private int windowSize = 100;
+
+    // No verdict before this many calls are in the window
+    private int minimumCalls = 20;
+
+    // Open when this share of the window failed at the connection level...
+    private int failureRatePercent = 50;
+
+    // ...or took longer than slowCallMs
+    private int slowCallRatePercent = 80;
+    private long slowCallMs = 2_000;
+
+    // How long an open breaker rejects before letting probes through
+    private long openMs = 10_000;
+
+    // Concurrent connection acquires allowed while half-open; this many
+    // successes close the breaker, one failure re-opens it
+    private int halfOpenProbes = 5;
+
+    // Probes used up without closing or re-opening the breaker for this long
+    // (a probe stuck on a hung connection) re-open it with a fresh budget
+    private long halfOpenProbeTimeoutMs = 10_000;
+}
@@ -0,0 +1,275 @@
+package com.jitendra.Wallet.services.sharding;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.stereotype.Component;
+
+import com.jitendra.Wallet.exception.ShardUnavailableException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One circuit breaker per physical shard.
+ *
+ * WHY:
+ * When one shard stalls, every request that touches it waits out the Hikari
+ * connection timeout (30 s), the saga retries add more waiters, and the
+ * shared Tomcat threads end up parked on the sick shard while requests for
+ * the healthy one queue behind them. An open breaker turns those waits into
+ * an immediate, retryable 503 and leaves the threads to the healthy shard.
+ *
+ * CLOSED: calls pass; the last windowSize outcomes are kept. Once minimumCalls
+ * are in, the breaker opens when the share of connection-level failures or of
+ * slow calls crosses its threshold. Constraint violations and other answers
+ * from a working database are not failures.
+ * OPEN: connection acquires for the shard throw ShardUnavailableException
+ * until openMs has passed.
+ * HALF_OPEN: up to halfOpenProbes acquires go through. As many successes close
+ * the breaker; a single failure opens it again, and so does running out of
+ * probes without a verdict for halfOpenProbeTimeoutMs.
+ *
+ * Outcomes are fed by {@link CircuitBreakingDataSource}, which wraps the pools
+ * handed to ShardingSphere. Services call {@link #checkAvailable} up front to
+ * reject a request before any work for it is written; that check only reads
+ * the state and never uses up a half-open probe.
+ */
+@Component
+@Slf4j
+public class ShardCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    enum Outcome {
+        SUCCESS, SLOW, FAILURE
+    }
+
+    private final ShardBreakerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    public ShardCircuitBreaker(ShardBreakerProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Wraps every pool so its connections report to this shard's breaker.
+     */
+    public Map<String, DataSource> wrap(Map<String, DataSource> shards) {
+        Map<String, DataSource> wrapped = new LinkedHashMap<>();
+        shards.forEach((name, dataSource) -> wrapped.put(name,
+                new CircuitBreakingDataSource(dataSource, breaker(name), properties.getSlowCallMs())));
+        return wrapped;
+    }
+
+    /**
+     * Read-only pre-check: passes a half-open breaker, leaving its probes to
+     * the connection acquires that report back.
+     *
+     * @throws ShardUnavailableException when the shard's breaker is open
+     */
+    public void checkAvailable(String shard) {
+        if (properties.isEnabled()) {
+            breaker(shard).check();
+        }
+    }
+
+    public State state(String shard) {
+        return breaker(shard).state;
+    }
+
+    /** Seconds until an open breaker lets probes through (at least 1). */
+    public long retryAfterSeconds(String shard) {
+        return breaker(shard).retryAfterSeconds(System.currentTimeMillis());
+    }
+
+    public boolean allClosed() {
+        return breakers.values().stream().allMatch(b -> b.state == State.CLOSED);
+    }
+
+    Breaker breaker(String shard) {
+        return breakers.computeIfAbsent(shard, name -> {
+            Breaker breaker = new Breaker(name);
+            Gauge.builder("wallet.shard.breaker.state", breaker, b -> b.state.ordinal())
+                    .description("0 = closed, 1 = open, 2 = half-open")
+                    .tag("shard", name)
+                    .register(meterRegistry);
+            return breaker;
+        });
+    }
+
+    /**
+     * Connection-level trouble only: the shard could not be reached, ran out
+     * of resources, or cancelled the statement. Anything else is the database
+     * answering. 57014 (query_canceled) is excluded: it is our own step
+     * statement_timeout / query timeout firing, and the slow-call rate already
+     * sees those calls.
+     */
+    static boolean isShardFailure(SQLException e) {
+        if ("57014".equals(e.getSQLState())) {
+            return false;
+        }
+        if (e instanceof SQLTransientConnectionException || e instanceof SQLTimeoutException
+                || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.startsWith("53")
+                || state.startsWith("57") || state.startsWith("58"));
+    }
+
+    final class Breaker {
+
+        private final String shard;
+        private final byte[] window = new byte[Math.max(1, properties.getWindowSize())];
+        private int next;
+        private int calls;
+        private int failures;
+        private int slow;
+        private long openedAt;
+        private long halfOpenedAt;
+        private int probesIssued;
+        private int probeSuccesses;
+        private volatile State state = State.CLOSED;
+
+        Breaker(String shard) {
+            this.shard = shard;
+        }
+
+        /**
+         * Read-only: rejects while open. Takes no probe, since a pre-check
+         * records no outcome and would leave a half-open breaker waiting on
+         * probes that never report.
+         */
+        synchronized void check() {
+            if (!properties.isEnabled()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (state == State.OPEN && now < openedAt + properties.getOpenMs()) {
+                throw new ShardUnavailableException(shard, retryAfterSeconds(now));
+            }
+        }
+
+        /**
+         * For a connection acquire: rejects when open; in half-open lets a
+         * limited number of acquires probe. Probes that have not settled the
+         * breaker within halfOpenProbeTimeoutMs open it again, and the next
+         * half-open period starts with a full probe budget.
+         */
+        synchronized void acquire() {
+            if (!properties.isEnabled()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (state == State.OPEN) {
+                if (now < openedAt + properties.getOpenMs()) {
+                    throw new ShardUnavailableException(shard, retryAfterSeconds(now));
+                }
+                transition(State.HALF_OPEN);
+                halfOpenedAt = now;
+                probesIssued = 0;
+                probeSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesIssued >= properties.getHalfOpenProbes()) {
+                    if (now >= halfOpenedAt + properties.getHalfOpenProbeTimeoutMs()) {
+                        log.error("Shard {} breaker probes gave no verdict within {} ms, opening again",
+                                shard, properties.getHalfOpenProbeTimeoutMs());
+                        open();
+                        throw new ShardUnavailableException(shard, retryAfterSeconds(now));
+                    }
+                    throw new ShardUnavailableException(shard, 1);
+                }
+                probesIssued++;
+            }
+        }
+
+        synchronized long retryAfterSeconds(long now) {
+            long remaining = state == State.OPEN ? openedAt + properties.getOpenMs() - now : 0;
+            return Math.max(1, (remaining + 999) / 1_000);
+        }
+
+        synchronized void record(Outcome outcome) {
+            if (!properties.isEnabled()) {
+                return;
+            }
+            switch (state) {
+                case OPEN -> {
+                    // Late results of calls started before the breaker opened
+                }
+                case HALF_OPEN -> {
+                    if (outcome == Outcome.SUCCESS) {
+                        if (++probeSuccesses >= properties.getHalfOpenProbes()) {
+                            resetWindow();
+                            transition(State.CLOSED);
+                        }
+                    } else {
+                        open();
+                    }
+                }
+                case CLOSED -> {
+                    if (calls == window.length) {
+                        forget(window[next]);
+                    } else {
+                        calls++;
+                    }
+                    window[next] = (byte) outcome.ordinal();
+                    next = (next + 1) % window.length;
+                    if (outcome == Outcome.FAILURE) {
+                        failures++;
+                    } else if (outcome == Outcome.SLOW) {
+                        slow++;
+                    }
+                    if (calls >= properties.getMinimumCalls()
+                            && (failures * 100 >= properties.getFailureRatePercent() * calls
+                                    || slow * 100 >= properties.getSlowCallRatePercent() * calls)) {
+                        log.error("Shard {} breaker opening: {} failed and {} slow of the last {} calls",
+                                shard, failures, slow, calls);
+                        open();
+                    }
+                }
+            }
+        }
+
+        private void forget(byte evicted) {
+            if (evicted == Outcome.FAILURE.ordinal()) {
+                failures--;
+            } else if (evicted == Outcome.SLOW.ordinal()) {
+                slow--;
+            }
+        }
+
+        private void open() {
+            openedAt = System.currentTimeMillis();
+            resetWindow();
+            transition(State.OPEN);
+        }
+
+        private void resetWindow() {
+            next = 0;
+            calls = 0;
+            failures = 0;
+            slow = 0;
+        }
+
+        private void transition(State to) {
+            if (state != to) {
+                log.warn("Shard {} breaker {} -> {}", shard, state, to);
+                state = to;
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.jitendra.Wallet.services.sharding;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.jitendra.Wallet.config.ShardDataSources;
+import com.jitendra.Wallet.entity.Transaction;
+
+/**
+ * Transaction rows that live on a chosen shard.
+ *
+ * WHY:
+ * transactions are sharded by id (id % shardCount + 1) while wallets are
+ * sharded by user_id, so a snowflake id usually puts a same-shard transfer's
+ * transaction row on the other database — and ShardingSphere's local
+ * transactions are not atomic across databases. Allocating an id with the
+ * shard's residue keeps the wallet writes and the transaction row in one
+ * physical transaction.
+ *
+ * Ids are handed out from blocks reserved through a per-shard sequence
+ * (V4). They start at 2^50 shard-count units: above anything a serial
+ * column ever produced, far below current snowflake ids (2^57 and up).
+ */
+@Component
+public class ShardLocalTransactions {
+
+    static final long BLOCK_SIZE = 1_000;
+    static final long LOCAL_ID_BASE = 1L << 50;
+
+    private static final String NEXT_BLOCK = "SELECT nextval('transactions_local_id_block_seq')";
+
+    private static final String INSERT = "INSERT INTO transactions (id, description, source_wallet_id, "
+            + "destination_wallet_id, amount, status, type, saga_instance_id, created_date, updated_date) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final class Block {
+        long next;
+        long end;
+    }
+
+    private final int shardCount;
+    private final ToLongFunction<String> nextBlock;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ShardLocalTransactions(ShardDataSources shardDataSources, DataSource dataSource) {
+        this(shardDataSources.size(),
+                shard -> new JdbcTemplate(shardDataSources.get(shard)).queryForObject(NEXT_BLOCK, Long.class),
+                new JdbcTemplate(dataSource));
+    }
+
+    ShardLocalTransactions(int shardCount, ToLongFunction<String> nextBlock, JdbcTemplate jdbcTemplate) {
+        this.shardCount = shardCount;
+        this.nextBlock = nextBlock;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * A fresh transaction id whose row routes to the given shard.
+     */
+    public long nextId(String shardName) {
+        int index = ShardRouter.shardIndex(shardName);
+        if (index >= shardCount) {
+            throw new IllegalArgumentException("Unknown shard " + shardName);
+        }
+        Block block = blocks.computeIfAbsent(shardName, name -> new Block());
+        long unit;
+        synchronized (block) {
+            if (block.next == block.end) {
+                block.next = nextBlock.applyAsLong(shardName) * BLOCK_SIZE;
+                block.end = block.next + BLOCK_SIZE;
+            }
+            unit = block.next++;
+        }
+        return (LOCAL_ID_BASE + unit) * shardCount + index;
+    }
+
+    /**
+     * Inserts rows whose ids came from {@link #nextId}. Joins the caller's
+     * transaction when there is one; JPA cannot do this because the entity id
+     * is IDENTITY-generated and would be ignored.
+     */
+    public void insertAll(List<Transaction> transactions) {
+        jdbcTemplate.batchUpdate(INSERT, transactions, transactions.size(), (ps, tx) -> {
+            ps.setLong(1, tx.getId());
+            ps.setString(2, tx.getDescription());
+            ps.setLong(3, tx.getSourceWalletId());
+            ps.setLong(4, tx.getDestinationWalletId());
+            ps.setBigDecimal(5, tx.getAmount());
+            ps.setString(6, tx.getStatus().name());
+            ps.setString(7, tx.getType().name());
+            ps.setLong(8, tx.getSagaInstanceId());
+            ps.setTimestamp(9, Timestamp.from(tx.getCreatedDate()));
+            ps.setTimestamp(10, Timestamp.from(tx.getUpdatedDate()));
+        });
+    }
+}
@@ -0,0 +1,128 @@
+package com.jitendra.Wallet.services.sharding;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.jitendra.Wallet.config.ShardDataSources;
+import com.jitendra.Wallet.entity.Wallet;
+import com.jitendra.Wallet.exception.ResourceNotFoundException;
+import com.jitendra.Wallet.exception.ShardUnavailableException;
+import com.jitendra.Wallet.repository.WalletRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Answers "which physical shard does this wallet live on?" without going
+ * through ShardingSphere.
+ *
+ * Mirrors the user-inline rule in sharding.yml:
+ * shardwallet${user_id % shardCount + 1}
+ *
+ * Wallets are sharded by user_id, so a wallet id alone does not identify its
+ * shard. The wallet → user mapping is immutable (user_id is updatable = false),
+ * so it is cached after the first lookup; a findById on a cold wallet is a
+ * broadcast query, a cached one costs nothing.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShardRouter {
+
+    // Crude bound: clear instead of evicting one-by-one, the map refills from hot wallets
+    private static final int MAX_CACHED_WALLETS = 200_000;
+
+    private static final String SHARD_NAME_PREFIX = "shardwallet";
+
+    private final ShardDataSources shardDataSources;
+    private final WalletRepository walletRepository;
+    private final ShardCircuitBreaker shardCircuitBreaker;
+
+    private final ConcurrentHashMap<Long, Long> walletOwners = new ConcurrentHashMap<>();
+
+    public String shardForUser(long userId) {
+        return SHARD_NAME_PREFIX + (Math.floorMod(userId, shardDataSources.size()) + 1);
+    }
+
+    /**
+     * Zero-based position of a shard name, i.e. the residue its rows have
+     * under the inline rules (shardwallet1 → 0).
+     */
+    public static int shardIndex(String shardName) {
+        if (!shardName.startsWith(SHARD_NAME_PREFIX)) {
+            throw new IllegalArgumentException("Not a shard name: " + shardName);
+        }
+        return Integer.parseInt(shardName.substring(SHARD_NAME_PREFIX.length())) - 1;
+    }
+
+    public String shardForWallet(Long walletId) {
+        return shardForUser(ownerOf(walletId));
+    }
+
+    /**
+     * Owner (user_id) of a wallet — the sharding column for wallet and every
+     * table co-located with it.
+     */
+    public long ownerOf(Long walletId) {
+        Long userId = walletOwners.get(walletId);
+        if (userId == null && !shardCircuitBreaker.allClosed()) {
+            userId = ownerFromHealthyShards(walletId);
+        }
+        if (userId == null) {
+            Wallet wallet = walletRepository.findById(walletId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Wallet not found with id: " + walletId));
+            remember(wallet);
+            userId = wallet.getUserId();
+        }
+        return userId;
+    }
+
+    /**
+     * Cold lookup while some breaker is not closed. findById would broadcast
+     * and fail on the sick shard even when the wallet lives on a healthy one,
+     * so ask the healthy shards directly.
+     */
+    private Long ownerFromHealthyShards(Long walletId) {
+        String unavailable = null;
+        for (String shard : shardDataSources.names()) {
+            if (shardCircuitBreaker.state(shard) == ShardCircuitBreaker.State.OPEN) {
+                unavailable = shard;
+                continue;
+            }
+            List<Long> owners = new JdbcTemplate(shardDataSources.get(shard))
+                    .queryForList("SELECT user_id FROM wallet WHERE id = ?", Long.class, walletId);
+            if (!owners.isEmpty()) {
+                walletOwners.put(walletId, owners.get(0));
+                return owners.get(0);
+            }
+        }
+        if (unavailable != null) {
+            // Not on any healthy shard, so it can only be on the sick one
+            throw new ShardUnavailableException(unavailable, shardCircuitBreaker.retryAfterSeconds(unavailable));
+        }
+        return null;
+    }
+
+    /**
+     * Returns the shard both wallets live on, or empty when the transfer
+     * crosses shards.
+     */
+    public Optional<String> commonShard(Long sourceWalletId, Long destinationWalletId) {
+        String sourceShard = shardForWallet(sourceWalletId);
+        String destinationShard = shardForWallet(destinationWalletId);
+        return sourceShard.equals(destinationShard) ? Optional.of(sourceShard) : Optional.empty();
+    }
+
+    /**
+     * Record a wallet's owner when the caller already loaded the entity, so the
+     * next routing decision does not need a query.
+     */
+    public void remember(Wallet wallet) {
+        if (walletOwners.size() >= MAX_CACHED_WALLETS) {
+            walletOwners.clear();
+        }
+        walletOwners.put(wallet.getId(), wallet.getUserId());
+    }
+}
@@ -0,0 +1,121 @@
+package com.jitendra.Wallet.services.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.jitendra.Wallet.dto.TransactionRequestDTO;
+import com.jitendra.Wallet.entity.Transaction;
+import com.jitendra.Wallet.services.saga.TransferProperties;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Group commit for same-shard transfers.
+ *
+ * WHY:
+ * Every transfer committing on its own means one WAL fsync per transfer. One
+ * collector thread per shard waits up to wallet.transfer.batch.window-micros
+ * (or until max-size transfers arrived), then hands the whole batch to
+ * {@link LocalTransferService#transferAll} — one commit, one fsync. Callers
+ * block on their own future and get their own SUCCESS/FAILED.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TransferBatcher {
+
+    private record PendingTransfer(TransactionRequestDTO request, CompletableFuture<Transaction> result) {
+    }
+
+    private final LocalTransferService localTransferService;
+    private final TransferProperties transferProperties;
+
+    private final Map<String, BlockingQueue<PendingTransfer>> queues = new ConcurrentHashMap<>();
+    private final List<Thread> collectors = new ArrayList<>();
+
+    /**
+     * Queues a transfer for the next batch on its shard and waits for the
+     * batch to commit.
+     */
+    public Transaction submit(String shardName, TransactionRequestDTO request) {
+        PendingTransfer pending = new PendingTransfer(request, new CompletableFuture<>());
+        if (!queues.computeIfAbsent(shardName, this::startCollector).offer(pending)) {
+            // Queue full: the batcher is already behind, don't add queueing delay
+            return localTransferService.transfer(shardName, request);
+        }
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        synchronized (collectors) {
+            collectors.forEach(Thread::interrupt);
+        }
+    }
+
+    private BlockingQueue<PendingTransfer> startCollector(String shardName) {
+        BlockingQueue<PendingTransfer> queue = new LinkedBlockingQueue<>(transferProperties.getBatch().getQueueCapacity());
+        Thread collector = Thread.ofVirtual().name("transfer-batcher-" + shardName).start(() -> collect(shardName, queue));
+        synchronized (collectors) {
+            collectors.add(collector);
+        }
+        return queue;
+    }
+
+    private void collect(String shardName, BlockingQueue<PendingTransfer> queue) {
+        TransferProperties.Batch config = transferProperties.getBatch();
+        List<PendingTransfer> batch = new ArrayList<>(config.getMaxSize());
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.clear();
+                batch.add(queue.take());
+
+                long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(config.getWindowMicros());
+                while (batch.size() < config.getMaxSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingTransfer next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(shardName, batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever is still queued commits on its own
+        batch.clear();
+        queue.drainTo(batch);
+        batch.forEach(p -> p.result().completeAsync(() -> localTransferService.transfer(shardName, p.request())));
+    }
+
+    private void flush(String shardName, List<PendingTransfer> batch) {
+        try {
+            List<Transaction> results = localTransferService.transferAll(shardName,
+                    batch.stream().map(PendingTransfer::request).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (Exception e) {
+            log.error("Transfer batch of {} on {} failed: {}", batch.size(), shardName, e.getMessage(), e);
+            batch.forEach(p -> p.result().completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.jitendra.Wallet.services.sqlaccounting;
+
+import java.util.function.Supplier;
+
+/**
+ * The {@link SqlStats} statements on the current thread are charged to.
+ *
+ * SqlAccountingFilter opens a scope per HTTP request. Work handed to other
+ * threads on the request's behalf (saga DAG steps, wallet mailboxes) carries
+ * the scope along through {@link #propagate}. Statements outside any scope
+ * (scheduled jobs, the group-commit flusher) are not counted.
+ *
+ * Tests use it directly:
+ * <pre>
+ * try (SqlAccounting.Scope scope = SqlAccounting.open()) {
+ *     transferSagaService.initiateTransfer(request);
+ *     assertTrue(scope.stats().statements() <= 25);
+ * }
+ * </pre>
+ */
+public final class SqlAccounting {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    private SqlAccounting() {
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final SqlStats stats;
+        private final SqlStats previous;
+
+        private Scope(SqlStats stats, SqlStats previous) {
+            this.stats = stats;
+            this.previous = previous;
+        }
+
+        public SqlStats stats() {
+            return stats;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /** Starts counting into fresh stats until the scope is closed. */
+    public static Scope open() {
+        return enter(new SqlStats());
+    }
+
+    static SqlStats current() {
+        return CURRENT.get();
+    }
+
+    private static Scope enter(SqlStats stats) {
+        SqlStats previous = CURRENT.get();
+        CURRENT.set(stats);
+        return new Scope(stats, previous);
+    }
+
+    /** The task, charging its statements to the caller's current stats. */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        SqlStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope scope = enter(stats)) {
+                return task.get();
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.jitendra.Wallet.services.sqlaccounting;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Charges every statement an HTTP request causes to that request, then
+ * publishes the totals:
+ * - wallet.sql.statements / wallet.sql.rows (summaries) and wallet.sql.time
+ *   (timer), tagged with the route template and method;
+ * - wallet.sql.shard.statements{shard}, to see which shard the load lands on;
+ * - wallet.sql.repeated{uri} plus a WARN log when one SQL string ran at least
+ *   repeated-statement-threshold times in the request (likely N+1).
+ *
+ * WHY:
+ * A transfer's cost in statements was a guess — findById broadcasts, step
+ * row saves and context merges all add up, and only show as latency.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    private final SqlAccountingProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStats stats;
+        try (SqlAccounting.Scope scope = SqlAccounting.open()) {
+            stats = scope.stats();
+            chain.doFilter(request, response);
+        }
+        publish(request, stats);
+    }
+
+    private void publish(HttpServletRequest request, SqlStats stats) {
+        if (stats.statements() == 0) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNMAPPED";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("wallet.sql.statements")
+                .description("SQL statements per HTTP request, all shards")
+                .tag("uri", uri).tag("method", method)
+                .register(meterRegistry)
+                .record(stats.statements());
+        DistributionSummary.builder("wallet.sql.rows")
+                .description("Rows written or fetched per HTTP request")
+                .tag("uri", uri).tag("method", method)
+                .register(meterRegistry)
+                .record(stats.rows());
+        Timer.builder("wallet.sql.time")
+                .description("Time spent executing SQL per HTTP request")
+                .tag("uri", uri).tag("method", method)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(stats.timeNanos()));
+        stats.byShard().forEach((shard, shardStats) -> Counter.builder("wallet.sql.shard.statements")
+                .tag("shard", shard)
+                .register(meterRegistry)
+                .increment(shardStats.statements()));
+
+        Map<String, Long> repeated = stats.repeatedStatements(properties.getRepeatedStatementThreshold());
+        if (!repeated.isEmpty()) {
+            Counter.builder("wallet.sql.repeated")
+                    .description("Requests that ran one SQL string repeatedly (likely N+1)")
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            repeated.forEach((sql, count) -> log.warn("Possible N+1 on {} {}: executed {} times: {}",
+                    method, uri, count, sql));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.jitendra.Wallet.services.sqlaccounting;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.sql-accounting.* — per-request SQL statement accounting.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.sql-accounting")
+public class SqlAccountingProperties {
+
+    // Off = shard pools are not wrapped and nothing is counted
+    private boolean enabled = true;
+
+    // Diagnostic mode: X-Sql-* headers on every response with a body
+    private boolean responseHeaders = false;
+
+    // The same SQL this many times in one request is logged as a likely N+1
+    private int repeatedStatementThreshold = 10;
+}
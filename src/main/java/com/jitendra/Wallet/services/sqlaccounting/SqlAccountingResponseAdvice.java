@@ -0,0 +1,58 @@
+package com.jitendra.Wallet.services.sqlaccounting;
+
+import java.util.StringJoiner;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Diagnostic mode (wallet.sql-accounting.response-headers=true): the SQL cost
+ * of the request so far, as response headers, written just before the body.
+ *
+ * X-Sql-Statements: 23
+ * X-Sql-Rows: 31
+ * X-Sql-Time-Ms: 14
+ * X-Sql-Shards: shardwallet1=15, shardwallet2=8
+ * X-Sql-Repeated: 1        (SQL strings over the N+1 threshold)
+ *
+ * Bodiless (204) and streamed responses get no headers; their cost still
+ * reaches the metrics.
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class SqlAccountingResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    private final SqlAccountingProperties properties;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.isEnabled() && properties.isResponseHeaders();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        SqlStats stats = SqlAccounting.current();
+        if (stats != null) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set("X-Sql-Statements", String.valueOf(stats.statements()));
+            headers.set("X-Sql-Rows", String.valueOf(stats.rows()));
+            headers.set("X-Sql-Time-Ms", String.valueOf(stats.timeNanos() / 1_000_000));
+            StringJoiner shards = new StringJoiner(", ");
+            stats.byShard().forEach((shard, shardStats) -> shards.add(shard + "=" + shardStats.statements()));
+            headers.set("X-Sql-Shards", shards.toString());
+            headers.set("X-Sql-Repeated", String.valueOf(
+                    stats.repeatedStatements(properties.getRepeatedStatementThreshold()).size()));
+        }
+        return body;
+    }
+}
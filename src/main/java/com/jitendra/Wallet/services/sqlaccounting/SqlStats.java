@@ -0,0 +1,94 @@
+package com.jitendra.Wallet.services.sqlaccounting;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statements, rows and time one unit of work (an HTTP request, or a block
+ * measured with {@link SqlAccounting#open()}) cost, per physical shard.
+ *
+ * Thread-safe: the steps of a parallel saga record into the same instance
+ * from several threads.
+ */
+public final class SqlStats {
+
+    // Distinct SQL strings remembered for the N+1 check; beyond that only totals
+    private static final int MAX_DISTINCT_SQL = 256;
+
+    public record ShardStats(long statements, long rows, long timeNanos) {
+    }
+
+    private static final class Counters {
+
+        final LongAdder statements = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+    }
+
+    private final Map<String, Counters> shards = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> executionsBySql = new ConcurrentHashMap<>();
+
+    void recordStatement(String shard, String sql, long rows, long nanos) {
+        Counters counters = shards.computeIfAbsent(shard, s -> new Counters());
+        counters.statements.increment();
+        counters.rows.add(rows);
+        counters.nanos.add(nanos);
+        if (sql != null) {
+            LongAdder executions = executionsBySql.get(sql);
+            if (executions == null && executionsBySql.size() < MAX_DISTINCT_SQL) {
+                executions = executionsBySql.computeIfAbsent(sql, s -> new LongAdder());
+            }
+            if (executions != null) {
+                executions.increment();
+            }
+        }
+    }
+
+    /** Rows read from a result set, counted as they are fetched. */
+    void recordRows(String shard, long rows) {
+        shards.computeIfAbsent(shard, s -> new Counters()).rows.add(rows);
+    }
+
+    public long statements() {
+        return shards.values().stream().mapToLong(c -> c.statements.sum()).sum();
+    }
+
+    public long rows() {
+        return shards.values().stream().mapToLong(c -> c.rows.sum()).sum();
+    }
+
+    public long timeNanos() {
+        return shards.values().stream().mapToLong(c -> c.nanos.sum()).sum();
+    }
+
+    /** Per shard, sorted by shard name. */
+    public Map<String, ShardStats> byShard() {
+        Map<String, ShardStats> result = new TreeMap<>();
+        shards.forEach((shard, c) -> result.put(shard,
+                new ShardStats(c.statements.sum(), c.rows.sum(), c.nanos.sum())));
+        return result;
+    }
+
+    /**
+     * SQL executed at least {@code threshold} times, with its count — the
+     * usual shape of an N+1 (one lookup per row of an earlier result).
+     */
+    public Map<String, Long> repeatedStatements(int threshold) {
+        Map<String, Long> repeated = new LinkedHashMap<>();
+        executionsBySql.forEach((sql, executions) -> {
+            long count = executions.sum();
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+
+    @Override
+    public String toString() {
+        return statements() + " statements, " + rows() + " rows, " + timeNanos() / 1_000_000 + " ms " + byShard();
+    }
+}
@@ -0,0 +1,209 @@
+package com.jitendra.Wallet.services.sqlaccounting;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * A shard's pool as ShardingSphere sees it, charging every statement that
+ * reaches the shard to the current {@link SqlAccounting} scope: one statement,
+ * its execution time, and its rows (update counts, or rows fetched from the
+ * result set).
+ *
+ * Counting below ShardingSphere means a findById broadcast to every shard
+ * shows up as one statement per shard, which is what the databases pay.
+ * Outside a scope statements pass straight through.
+ */
+public final class StatementCountingDataSource implements DataSource {
+
+    private final DataSource delegate;
+    private final String shard;
+
+    StatementCountingDataSource(DataSource delegate, String shard) {
+        this.delegate = delegate;
+        this.shard = shard;
+    }
+
+    /**
+     * Wraps every pool, or returns them unchanged when accounting is disabled.
+     */
+    public static Map<String, DataSource> wrap(Map<String, DataSource> shards, SqlAccountingProperties properties) {
+        if (!properties.isEnabled()) {
+            return shards;
+        }
+        Map<String, DataSource> wrapped = new LinkedHashMap<>();
+        shards.forEach((name, dataSource) -> wrapped.put(name, new StatementCountingDataSource(dataSource, name)));
+        return wrapped;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = delegate.getConnection();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Shard pools use their configured credentials");
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(target, method, args);
+            // prepareStatement / prepareCall take the SQL first; createStatement has none yet
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+            if (result instanceof CallableStatement) {
+                return statementProxy(result, CallableStatement.class, sql);
+            }
+            if (result instanceof PreparedStatement) {
+                return statementProxy(result, PreparedStatement.class, sql);
+            }
+            if (result instanceof Statement) {
+                return statementProxy(result, Statement.class, sql);
+            }
+            return result;
+        }
+
+        private Object statementProxy(Object statement, Class<?> type, String sql) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Object target;
+        private final String preparedSql;
+
+        StatementHandler(Object target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            SqlStats stats = SqlAccounting.current();
+            String name = method.getName();
+            if (stats == null) {
+                return invokeTarget(target, method, args);
+            }
+            if (name.equals("getResultSet")) {
+                return countRows((ResultSet) invokeTarget(target, method, args), stats);
+            }
+            if (!name.startsWith("execute")) {
+                return invokeTarget(target, method, args);
+            }
+
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+            long start = System.nanoTime();
+            Object result = invokeTarget(target, method, args);
+            long nanos = System.nanoTime() - start;
+
+            long rows = 0;
+            if (result instanceof Integer count && count > 0) {
+                rows = count;
+            } else if (result instanceof Long count && count > 0) {
+                rows = count;
+            } else if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    rows += Math.max(0, count);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    rows += Math.max(0, count);
+                }
+            }
+            stats.recordStatement(shard, sql, rows, nanos);
+            return result instanceof ResultSet resultSet ? countRows(resultSet, stats) : result;
+        }
+    }
+
+    private ResultSet countRows(ResultSet resultSet, SqlStats stats) {
+        if (resultSet == null) {
+            return null;
+        }
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                    Object result = invokeTarget(resultSet, method, args);
+                    if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                        stats.recordRows(shard, 1);
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ---- plain delegation ----
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        if (iface.isInstance(delegate)) {
+            return iface.cast(delegate);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || iface.isInstance(delegate) || delegate.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,31 @@
+package com.jitendra.Wallet.services.stats;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.stats.* — per-wallet daily rollups (wallet_daily_stats).
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.stats")
+public class DailyStatsProperties {
+
+    // Fold completed transfers into the rollup as they finish
+    private boolean enabled = true;
+
+    // Rows per cursor round trip when a rebuild scans transactions
+    private int rebuildFetchSize = 1_000;
+
+    // Rollup updates per JDBC batch during a rebuild
+    private int rebuildBatchSize = 500;
+
+    // Longest date range one query or rebuild may cover
+    private int maxRangeDays = 366;
+
+    // Dedup markers older than this are pruned; a transfer cannot be reported
+    // again that long after it finished, short of a rebuild (which clears them)
+    private int markerRetentionDays = 7;
+
+    private String markerPruneCron = "0 30 0 * * *";
+}
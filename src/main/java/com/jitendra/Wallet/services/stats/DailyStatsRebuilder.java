@@ -0,0 +1,175 @@
+package com.jitendra.Wallet.services.stats;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jitendra.Wallet.config.ShardDataSources;
+import com.jitendra.Wallet.dto.TransactionResponseDTO;
+import com.jitendra.Wallet.entity.TransactionStatus;
+import com.jitendra.Wallet.services.archive.TransactionArchive;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recomputes wallet_daily_stats for a date range from the raw transactions.
+ *
+ * 1. CLEAR — on every shard, in parallel, drop the range's rollup rows and
+ *    dedup markers in one transaction. The marker table is locked against
+ *    writers for that moment so a live update cannot land between the two
+ *    deletes and be lost or counted twice.
+ * 2. REFOLD — every shard's transactions table is scanned in parallel (it is
+ *    sharded by transaction id, so each shard holds a slice of every wallet's
+ *    history) and each SUCCESS transfer is fed through the same idempotent
+ *    upsert the live path uses, followed by the shard's archived segments
+ *    for the range. A transfer that finishes during the rebuild is counted
+ *    exactly once, by whichever side gets there first.
+ */
+@Component
+@Slf4j
+public class DailyStatsRebuilder {
+
+    private static final String CLEAR_MARKERS = "DELETE FROM wallet_daily_stats_applied "
+            + "WHERE stat_date BETWEEN ? AND ?";
+
+    private static final String CLEAR_STATS = "DELETE FROM wallet_daily_stats WHERE stat_date BETWEEN ? AND ?";
+
+    private static final String SCAN = "SELECT id, source_wallet_id, destination_wallet_id, amount, created_date "
+            + "FROM transactions WHERE status = 'SUCCESS' AND created_date >= ? AND created_date < ?";
+
+    private final DailyStatsProperties properties;
+    private final WalletDailyStatsService statsService;
+    private final ShardRouter shardRouter;
+    private final TransactionArchive archive;
+    private final Map<String, DataSource> shards = new LinkedHashMap<>();
+
+    public DailyStatsRebuilder(DailyStatsProperties properties, WalletDailyStatsService statsService,
+            ShardRouter shardRouter, TransactionArchive archive, ShardDataSources shardDataSources) {
+        this.properties = properties;
+        this.statsService = statsService;
+        this.shardRouter = shardRouter;
+        this.archive = archive;
+        for (String name : shardDataSources.names()) {
+            shards.put(name, shardDataSources.get(name));
+        }
+    }
+
+    /**
+     * Rebuilds both ends of the range inclusive and returns the number of
+     * transfers refolded per shard.
+     */
+    public Map<String, Long> rebuild(LocalDate from, LocalDate to) {
+        statsService.validateRange(from, to);
+        log.info("Rebuilding daily stats from {} to {} on {}", from, to, shards.keySet());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            runOnEveryShard(executor, (name, dataSource) -> {
+                clear(dataSource, from, to);
+                return 0L;
+            });
+            Map<String, Long> refolded = runOnEveryShard(executor,
+                    (name, dataSource) -> refold(name, dataSource, from, to));
+            log.info("Daily stats rebuilt from {} to {}: {}", from, to, refolded);
+            return refolded;
+        }
+    }
+
+    private interface ShardTask {
+        long run(String name, DataSource dataSource) throws Exception;
+    }
+
+    private Map<String, Long> runOnEveryShard(ExecutorService executor, ShardTask task) {
+        Map<String, Future<Long>> futures = new LinkedHashMap<>();
+        shards.forEach((name, dataSource) -> futures.put(name, executor.submit(() -> task.run(name, dataSource))));
+
+        Map<String, Long> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<Long>> entry : futures.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Daily stats rebuild failed on " + entry.getKey() + ": "
+                        + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted rebuilding daily stats", e);
+            }
+        }
+        return results;
+    }
+
+    private void clear(DataSource dataSource, LocalDate from, LocalDate to) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            // Blocks live upserts (they insert a marker first) until the range is cleared
+            jdbcTemplate.execute("LOCK TABLE wallet_daily_stats_applied IN EXCLUSIVE MODE");
+            jdbcTemplate.update(CLEAR_MARKERS, Date.valueOf(from), Date.valueOf(to));
+            jdbcTemplate.update(CLEAR_STATS, Date.valueOf(from), Date.valueOf(to));
+        });
+    }
+
+    private long refold(String name, DataSource dataSource, LocalDate from, LocalDate to) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(properties.getRebuildFetchSize());
+        Timestamp start = Timestamp.from(from.atStartOfDay(ZoneOffset.UTC).toInstant());
+        Timestamp end = Timestamp.from(to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+
+        List<StatsDelta> buffer = new ArrayList<>(properties.getRebuildBatchSize() * 2);
+        long[] transfers = { 0 };
+
+        // A server-side cursor needs a transaction; read-only, so nothing is held but a snapshot
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(SCAN, rs -> {
+            long transactionId = rs.getLong("id");
+            long sourceWalletId = rs.getLong("source_wallet_id");
+            long destinationWalletId = rs.getLong("destination_wallet_id");
+            LocalDate day = StatsDelta.dayOf(rs.getTimestamp("created_date").toInstant());
+            buffer.add(new StatsDelta(sourceWalletId, shardRouter.ownerOf(sourceWalletId), transactionId,
+                    false, day, rs.getBigDecimal("amount")));
+            buffer.add(new StatsDelta(destinationWalletId, shardRouter.ownerOf(destinationWalletId), transactionId,
+                    true, day, rs.getBigDecimal("amount")));
+            transfers[0]++;
+            if (buffer.size() >= properties.getRebuildBatchSize()) {
+                statsService.apply(buffer);
+                buffer.clear();
+            }
+        }, start, end));
+
+        // Rows the archive job already moved out of the hot table
+        for (TransactionResponseDTO archived : archive.findShardTransactions(name, start.toInstant(),
+                end.toInstant())) {
+            if (archived.getStatus() != TransactionStatus.SUCCESS) {
+                continue;
+            }
+            LocalDate day = StatsDelta.dayOf(archived.getCreatedDate());
+            buffer.add(new StatsDelta(archived.getSourceWalletId(), shardRouter.ownerOf(archived.getSourceWalletId()),
+                    archived.getId(), false, day, archived.getAmount()));
+            buffer.add(new StatsDelta(archived.getDestinationWalletId(),
+                    shardRouter.ownerOf(archived.getDestinationWalletId()), archived.getId(), true, day,
+                    archived.getAmount()));
+            transfers[0]++;
+        }
+        if (!buffer.isEmpty()) {
+            statsService.apply(buffer);
+        }
+        log.info("Daily stats refold on {}: {} transfers", name, transfers[0]);
+        return transfers[0];
+    }
+}
@@ -0,0 +1,22 @@
+package com.jitendra.Wallet.services.stats;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * One side of a completed transfer: money leaving (OUT) or reaching (IN) a
+ * wallet on a given UTC day.
+ */
+record StatsDelta(long walletId, long userId, long transactionId, boolean inflow, LocalDate statDate,
+        BigDecimal amount) {
+
+    static LocalDate dayOf(Instant createdDate) {
+        return LocalDate.ofInstant(createdDate, ZoneOffset.UTC);
+    }
+
+    String flow() {
+        return inflow ? "IN" : "OUT";
+    }
+}
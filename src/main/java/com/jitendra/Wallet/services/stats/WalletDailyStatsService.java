@@ -0,0 +1,185 @@
+package com.jitendra.Wallet.services.stats;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.jitendra.Wallet.config.ShardDataSources;
+import com.jitendra.Wallet.dto.WalletDailyStatsDTO;
+import com.jitendra.Wallet.entity.Transaction;
+import com.jitendra.Wallet.entity.TransactionStatus;
+import com.jitendra.Wallet.exception.BusinessException;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-wallet daily inflow / outflow rollups.
+ *
+ * WHY ROLLUPS:
+ * A dashboard asking "how much came in and went out each day this month"
+ * used to mean a GROUP BY over the transactions table, which is sharded by
+ * transaction id — every shard scanned for one wallet. The rollup row lives
+ * on the wallet's own shard (user_id), so a date range is one index range
+ * read on one shard.
+ *
+ * HOW IT STAYS CORRECT:
+ * Every completed transfer is folded in once per side. The dedup marker and
+ * the additive upsert are a single statement, so a transfer reported twice —
+ * a retry, or a rebuild racing a live update — is counted once. A missed
+ * update (crash between the transfer commit and the rollup) is repaired by
+ * {@link DailyStatsRebuilder}.
+ *
+ * Writes go to the physical pool of the wallet's shard; reads carry user_id so
+ * ShardingSphere routes them to that shard.
+ */
+@Service
+@Slf4j
+public class WalletDailyStatsService {
+
+    static final String APPLY_DELTA = """
+            WITH marked AS (
+                INSERT INTO wallet_daily_stats_applied (wallet_id, transaction_id, flow, user_id, stat_date)
+                VALUES (?, ?, ?, ?, ?)
+                ON CONFLICT DO NOTHING
+                RETURNING wallet_id
+            )
+            INSERT INTO wallet_daily_stats AS s
+                (wallet_id, stat_date, user_id, inflow, outflow, inflow_count, outflow_count, updated_at)
+            SELECT ?, ?, ?, ?, ?, ?, ?, ? FROM marked
+            ON CONFLICT (wallet_id, stat_date) DO UPDATE SET
+                inflow = s.inflow + EXCLUDED.inflow,
+                outflow = s.outflow + EXCLUDED.outflow,
+                inflow_count = s.inflow_count + EXCLUDED.inflow_count,
+                outflow_count = s.outflow_count + EXCLUDED.outflow_count,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String RANGE = "SELECT wallet_id, stat_date, inflow, outflow, inflow_count, outflow_count "
+            + "FROM wallet_daily_stats WHERE user_id = ? AND wallet_id = ? AND stat_date BETWEEN ? AND ? "
+            + "ORDER BY stat_date";
+
+    private static final String PRUNE_MARKERS = "DELETE FROM wallet_daily_stats_applied WHERE stat_date < ?";
+
+    private final DailyStatsProperties properties;
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, JdbcTemplate> shards = new LinkedHashMap<>();
+
+    public WalletDailyStatsService(DailyStatsProperties properties, ShardRouter shardRouter,
+            JdbcTemplate jdbcTemplate, ShardDataSources shardDataSources) {
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        for (String name : shardDataSources.names()) {
+            DataSource dataSource = shardDataSources.get(name);
+            shards.put(name, new JdbcTemplate(dataSource));
+        }
+    }
+
+    /**
+     * Folds a finished transfer into both wallets' rollups. Called after the
+     * transfer committed, whichever route it took; anything but SUCCESS is
+     * ignored. Never throws — the money already moved, and a rebuild repairs
+     * a rollup that missed it.
+     */
+    public void record(Transaction transaction) {
+        if (!properties.isEnabled() || transaction.getStatus() != TransactionStatus.SUCCESS) {
+            return;
+        }
+        try {
+            LocalDate day = StatsDelta.dayOf(transaction.getCreatedDate());
+            apply(List.of(
+                    new StatsDelta(transaction.getSourceWalletId(),
+                            shardRouter.ownerOf(transaction.getSourceWalletId()),
+                            transaction.getId(), false, day, transaction.getAmount()),
+                    new StatsDelta(transaction.getDestinationWalletId(),
+                            shardRouter.ownerOf(transaction.getDestinationWalletId()),
+                            transaction.getId(), true, day, transaction.getAmount())));
+        } catch (Exception e) {
+            log.error("Daily stats update failed for transaction id: {}: {}", transaction.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Applies deltas, one JDBC batch per owning shard.
+     */
+    void apply(List<StatsDelta> deltas) {
+        Map<String, List<StatsDelta>> byShard = new LinkedHashMap<>();
+        for (StatsDelta delta : deltas) {
+            byShard.computeIfAbsent(shardRouter.shardForUser(delta.userId()), s -> new ArrayList<>()).add(delta);
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        byShard.forEach((shard, shardDeltas) -> shards.get(shard).batchUpdate(APPLY_DELTA, shardDeltas,
+                shardDeltas.size(), (ps, delta) -> {
+                    Date day = Date.valueOf(delta.statDate());
+                    ps.setLong(1, delta.walletId());
+                    ps.setLong(2, delta.transactionId());
+                    ps.setString(3, delta.flow());
+                    ps.setLong(4, delta.userId());
+                    ps.setDate(5, day);
+                    ps.setLong(6, delta.walletId());
+                    ps.setDate(7, day);
+                    ps.setLong(8, delta.userId());
+                    ps.setBigDecimal(9, delta.inflow() ? delta.amount() : BigDecimal.ZERO);
+                    ps.setBigDecimal(10, delta.inflow() ? BigDecimal.ZERO : delta.amount());
+                    ps.setLong(11, delta.inflow() ? 1 : 0);
+                    ps.setLong(12, delta.inflow() ? 0 : 1);
+                    ps.setTimestamp(13, now);
+                }));
+    }
+
+    /**
+     * Daily rollups for a wallet, oldest first, both ends inclusive. Days
+     * without a completed transfer have no row.
+     */
+    public List<WalletDailyStatsDTO> getDailyStats(Long walletId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        long userId = shardRouter.ownerOf(walletId);
+        log.info("Fetching daily stats for wallet id: {} from {} to {}", walletId, from, to);
+        return jdbcTemplate.query(RANGE, (rs, i) -> new WalletDailyStatsDTO(
+                rs.getLong("wallet_id"),
+                rs.getDate("stat_date").toLocalDate(),
+                rs.getBigDecimal("inflow"),
+                rs.getBigDecimal("outflow"),
+                rs.getLong("inflow_count"),
+                rs.getLong("outflow_count")),
+                userId, walletId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BusinessException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= properties.getMaxRangeDays()) {
+            throw new BusinessException("Date range is limited to " + properties.getMaxRangeDays() + " days");
+        }
+    }
+
+    @Scheduled(cron = "${wallet.stats.marker-prune-cron:0 30 0 * * *}")
+    public void pruneMarkers() {
+        Date cutoff = Date.valueOf(LocalDate.now(ZoneOffset.UTC).minusDays(properties.getMarkerRetentionDays()));
+        shards.forEach((name, shard) -> {
+            try {
+                int pruned = shard.update(PRUNE_MARKERS, cutoff);
+                log.info("Daily stats markers on {}: {} pruned before {}", name, pruned, cutoff);
+            } catch (Exception e) {
+                log.error("Daily stats marker prune failed on {}: {}", name, e.getMessage());
+            }
+        });
+    }
+}
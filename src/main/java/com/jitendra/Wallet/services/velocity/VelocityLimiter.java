@@ -0,0 +1,253 @@
+package com.jitendra.Wallet.services.velocity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jitendra.Wallet.config.ShardDataSources;
+import com.jitendra.Wallet.exception.TooManyRequestsException;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+import com.jitendra.Wallet.services.velocity.WalletVelocity.Bucket;
+import com.jitendra.Wallet.services.velocity.WalletVelocity.Totals;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-wallet outgoing transfer limits (count and amount per minute, hour and
+ * day), enforced from memory.
+ *
+ * WHY IN MEMORY:
+ * Answering "how many transfers / how much did this wallet send in the last
+ * hour" from SQL means scanning the transactions table — sharded by
+ * transaction id, so every shard — on every transfer. The counters here are
+ * lock-free bucket rings per wallet (see {@link WalletVelocity}); a check is
+ * a few CAS operations and array reads.
+ *
+ * HOW IT SURVIVES RESTARTS:
+ * Wallets whose counters changed are written to wallet_velocity_counter every
+ * checkpoint-interval-ms (and on shutdown), one transaction per shard on the
+ * wallet's own shard; startup reloads the buckets that are still live. A crash
+ * loses at most one interval of counts.
+ *
+ * Counters are per node: with several nodes behind a balancer each enforces
+ * the limit on the traffic it sees.
+ */
+@Service
+@Slf4j
+public class VelocityLimiter {
+
+    private static final String DELETE_WALLETS = "DELETE FROM wallet_velocity_counter WHERE wallet_id = ANY(?)";
+
+    private static final String INSERT_BUCKET = "INSERT INTO wallet_velocity_counter "
+            + "(wallet_id, window_name, bucket_start_ms, user_id, tx_count, amount_cents) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String PRUNE = "DELETE FROM wallet_velocity_counter WHERE bucket_start_ms <= ?";
+
+    private static final String LOAD = "SELECT wallet_id, window_name, bucket_start_ms, user_id, tx_count, "
+            + "amount_cents FROM wallet_velocity_counter WHERE bucket_start_ms > ?";
+
+    /** What a reservation added, so a transfer that did not go through can give it back. */
+    public record Reservation(Long walletId, long[] bucketStarts, long amountCents) {
+
+        static final Reservation NONE = new Reservation(null, new long[0], 0);
+    }
+
+    private final VelocityProperties properties;
+    private final ShardRouter shardRouter;
+    private final Map<String, DataSource> shards = new LinkedHashMap<>();
+
+    private final Map<Long, WalletVelocity> wallets = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public VelocityLimiter(VelocityProperties properties, ShardRouter shardRouter,
+            ShardDataSources shardDataSources) {
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        for (String name : shardDataSources.names()) {
+            shards.put(name, shardDataSources.get(name));
+        }
+    }
+
+    /**
+     * Counts an outgoing transfer against the wallet's windows.
+     *
+     * @throws TooManyRequestsException when any window would exceed its limit;
+     *                                  nothing is counted in that case
+     */
+    public Reservation reserve(Long walletId, long userId, BigDecimal amount) {
+        if (!properties.isEnabled()) {
+            return Reservation.NONE;
+        }
+        long cents = amount.movePointRight(2).setScale(0, RoundingMode.UP).longValueExact();
+        long now = System.currentTimeMillis();
+        WalletVelocity velocity = wallets.computeIfAbsent(walletId, id -> new WalletVelocity(userId));
+
+        // Add first, then check: two concurrent transfers can't both see room
+        // for one more and overshoot together
+        VelocityWindow[] windows = VelocityWindow.values();
+        long[] starts = new long[windows.length];
+        for (VelocityWindow window : windows) {
+            starts[window.ordinal()] = window.bucketStart(now);
+            velocity.add(window, starts[window.ordinal()], 1, cents);
+        }
+        Reservation reservation = new Reservation(walletId, starts, cents);
+        dirty.add(walletId);
+
+        for (VelocityWindow window : windows) {
+            VelocityProperties.Limit limit = limitFor(window);
+            Totals totals = velocity.totals(window, now);
+            boolean countExceeded = limit.getMaxCount() > 0 && totals.count() > limit.getMaxCount();
+            boolean amountExceeded = limit.getMaxAmount() != null
+                    && totals.amountCents() > limit.getMaxAmount().movePointRight(2).longValue();
+            if (countExceeded || amountExceeded) {
+                release(reservation);
+                long oldest = velocity.oldestLiveStart(window, now);
+                long retryAfter = oldest < 0 ? 1 : Math.max(1, (oldest + window.lengthMs - now + 999) / 1_000);
+                throw new TooManyRequestsException("Wallet " + walletId + " exceeded its per-"
+                        + window.name().toLowerCase() + " transfer " + (countExceeded ? "count" : "amount")
+                        + " limit", retryAfter);
+            }
+        }
+        return reservation;
+    }
+
+    /**
+     * Gives a reservation back (the transfer failed or was rejected later).
+     * Buckets that rolled over in the meantime are left alone.
+     */
+    public void release(Reservation reservation) {
+        if (reservation.walletId() == null) {
+            return;
+        }
+        WalletVelocity velocity = wallets.get(reservation.walletId());
+        if (velocity == null) {
+            return;
+        }
+        for (VelocityWindow window : VelocityWindow.values()) {
+            velocity.add(window, reservation.bucketStarts()[window.ordinal()], -1, -reservation.amountCents());
+        }
+        dirty.add(reservation.walletId());
+    }
+
+    private VelocityProperties.Limit limitFor(VelocityWindow window) {
+        return switch (window) {
+            case MINUTE -> properties.getPerMinute();
+            case HOUR -> properties.getPerHour();
+            case DAY -> properties.getPerDay();
+        };
+    }
+
+    // -------------------------------------------------------------------------
+    // Checkpoint / restore
+    // -------------------------------------------------------------------------
+
+    @PostConstruct
+    void restore() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long since = now - VelocityWindow.DAY.lengthMs;
+        int restored = 0;
+        for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+            try {
+                List<Map<String, Object>> rows = new JdbcTemplate(shard.getValue()).queryForList(LOAD, since);
+                for (Map<String, Object> row : rows) {
+                    long walletId = ((Number) row.get("wallet_id")).longValue();
+                    long userId = ((Number) row.get("user_id")).longValue();
+                    VelocityWindow window = VelocityWindow.valueOf((String) row.get("window_name"));
+                    long start = ((Number) row.get("bucket_start_ms")).longValue();
+                    if (window.isLive(start, now)) {
+                        wallets.computeIfAbsent(walletId, id -> new WalletVelocity(userId)).add(window, start,
+                                ((Number) row.get("tx_count")).longValue(),
+                                ((Number) row.get("amount_cents")).longValue());
+                        restored++;
+                    }
+                }
+            } catch (Exception e) {
+                // Starting with empty counters beats not starting at all
+                log.error("Could not restore velocity counters from {}: {}", shard.getKey(), e.getMessage());
+            }
+        }
+        log.info("Restored {} velocity buckets for {} wallets", restored, wallets.size());
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.velocity.checkpoint-interval-ms:10000}")
+    void checkpoint() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Long> changed = new ArrayList<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext();) {
+            changed.add(it.next());
+            it.remove();
+        }
+
+        Map<String, List<Long>> byShard = new HashMap<>();
+        for (Long walletId : changed) {
+            WalletVelocity velocity = wallets.get(walletId);
+            if (velocity != null) {
+                byShard.computeIfAbsent(shardRouter.shardForUser(velocity.userId), s -> new ArrayList<>())
+                        .add(walletId);
+            }
+        }
+        for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+            List<Long> walletIds = byShard.getOrDefault(shard.getKey(), List.of());
+            try {
+                write(shard.getValue(), walletIds, now);
+            } catch (Exception e) {
+                // Try again next round
+                dirty.addAll(walletIds);
+                log.error("Velocity checkpoint on {} failed: {}", shard.getKey(), e.getMessage());
+            }
+        }
+
+        wallets.entrySet().removeIf(e -> !dirty.contains(e.getKey()) && e.getValue().isIdle(now));
+    }
+
+    @PreDestroy
+    void flush() {
+        checkpoint();
+    }
+
+    private void write(DataSource dataSource, List<Long> walletIds, long now) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            if (!walletIds.isEmpty()) {
+                jdbcTemplate.update(DELETE_WALLETS, (Object) walletIds.toArray(Long[]::new));
+                List<Object[]> rows = new ArrayList<>();
+                for (Long walletId : walletIds) {
+                    WalletVelocity velocity = wallets.get(walletId);
+                    for (VelocityWindow window : VelocityWindow.values()) {
+                        velocity.forEachLive(window, now, (Bucket bucket) -> {
+                            if (bucket.count() > 0) {
+                                rows.add(new Object[] { walletId, window.name(), bucket.startMs(),
+                                        velocity.userId, bucket.count(), bucket.amountCents() });
+                            }
+                        });
+                    }
+                }
+                jdbcTemplate.batchUpdate(INSERT_BUCKET, rows);
+            }
+            jdbcTemplate.update(PRUNE, now - VelocityWindow.DAY.lengthMs);
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.jitendra.Wallet.services.velocity;
+
+import java.math.BigDecimal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * wallet.velocity.* — per-wallet outgoing transfer limits over sliding
+ * minute / hour / day windows.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.velocity")
+public class VelocityProperties {
+
+    private boolean enabled = true;
+
+    private Limit perMinute = new Limit(60, null);
+    private Limit perHour = new Limit(1_000, null);
+    private Limit perDay = new Limit(5_000, null);
+
+    // How often changed counters are written to wallet_velocity_counter
+    private long checkpointIntervalMs = 10_000;
+
+    /**
+     * maxCount 0 = no count limit; maxAmount null = no amount limit.
+     */
+    @Data
+    public static class Limit {
+
+        private int maxCount;
+        private BigDecimal maxAmount;
+
+        public Limit() {
+        }
+
+        public Limit(int maxCount, BigDecimal maxAmount) {
+            this.maxCount = maxCount;
+            this.maxAmount = maxAmount;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.jitendra.Wallet.services.velocity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The sliding windows limits are enforced over. Each is split into a fixed
+ * ring of buckets; a window's total is the sum of the buckets younger than
+ * the window, so it slides in bucket-sized steps.
+ */
+enum VelocityWindow {
+
+    MINUTE(TimeUnit.MINUTES.toMillis(1), 12),   // 5 s buckets
+    HOUR(TimeUnit.HOURS.toMillis(1), 12),       // 5 min buckets
+    DAY(TimeUnit.DAYS.toMillis(1), 24);         // 1 h buckets
+
+    final long lengthMs;
+    final int buckets;
+    final long bucketMs;
+
+    VelocityWindow(long lengthMs, int buckets) {
+        this.lengthMs = lengthMs;
+        this.buckets = buckets;
+        this.bucketMs = lengthMs / buckets;
+    }
+
+    long bucketStart(long nowMs) {
+        return nowMs - Math.floorMod(nowMs, bucketMs);
+    }
+
+    int slot(long bucketStartMs) {
+        return (int) Math.floorMod(bucketStartMs / bucketMs, (long) buckets);
+    }
+
+    boolean isLive(long bucketStartMs, long nowMs) {
+        return bucketStartMs > nowMs - lengthMs;
+    }
+}
@@ -0,0 +1,103 @@
+package com.jitendra.Wallet.services.velocity;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bucket rings of one wallet, one ring per window.
+ *
+ * Buckets are immutable and swapped in with CAS, so concurrent transfers from
+ * the same wallet never block each other and a bucket rolling over to a new
+ * period can't swallow a concurrent increment.
+ */
+final class WalletVelocity {
+
+    record Bucket(long startMs, long count, long amountCents) {
+    }
+
+    /** Totals of one window at one instant. */
+    record Totals(long count, long amountCents) {
+    }
+
+    final long userId;
+    private final AtomicReferenceArray<Bucket>[] rings;
+
+    @SuppressWarnings("unchecked")
+    WalletVelocity(long userId) {
+        this.userId = userId;
+        VelocityWindow[] windows = VelocityWindow.values();
+        this.rings = new AtomicReferenceArray[windows.length];
+        for (VelocityWindow window : windows) {
+            rings[window.ordinal()] = new AtomicReferenceArray<>(window.buckets);
+        }
+    }
+
+    /**
+     * Adds to the bucket starting at bucketStartMs. A negative delta (undo)
+     * whose bucket has already rolled over is dropped — the period it
+     * belonged to no longer counts anyway.
+     */
+    void add(VelocityWindow window, long bucketStartMs, long count, long amountCents) {
+        AtomicReferenceArray<Bucket> ring = rings[window.ordinal()];
+        int slot = window.slot(bucketStartMs);
+        while (true) {
+            Bucket current = ring.get(slot);
+            Bucket next;
+            if (current != null && current.startMs() == bucketStartMs) {
+                next = new Bucket(bucketStartMs, current.count() + count, current.amountCents() + amountCents);
+            } else if (current != null && current.startMs() > bucketStartMs) {
+                return;
+            } else if (count < 0) {
+                return;
+            } else {
+                next = new Bucket(bucketStartMs, count, amountCents);
+            }
+            if (ring.compareAndSet(slot, current, next)) {
+                return;
+            }
+        }
+    }
+
+    Totals totals(VelocityWindow window, long nowMs) {
+        AtomicReferenceArray<Bucket> ring = rings[window.ordinal()];
+        long count = 0;
+        long amount = 0;
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket != null && window.isLive(bucket.startMs(), nowMs)) {
+                count += bucket.count();
+                amount += bucket.amountCents();
+            }
+        }
+        return new Totals(count, amount);
+    }
+
+    /** Oldest live bucket's start in the window, or -1 when the window is empty. */
+    long oldestLiveStart(VelocityWindow window, long nowMs) {
+        AtomicReferenceArray<Bucket> ring = rings[window.ordinal()];
+        long oldest = -1;
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket != null && bucket.count() > 0 && window.isLive(bucket.startMs(), nowMs)
+                    && (oldest < 0 || bucket.startMs() < oldest)) {
+                oldest = bucket.startMs();
+            }
+        }
+        return oldest;
+    }
+
+    void forEachLive(VelocityWindow window, long nowMs, Consumer<Bucket> action) {
+        AtomicReferenceArray<Bucket> ring = rings[window.ordinal()];
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket != null && window.isLive(bucket.startMs(), nowMs)) {
+                action.accept(bucket);
+            }
+        }
+    }
+
+    boolean isIdle(long nowMs) {
+        // The day window outlives the others, so it decides
+        return totals(VelocityWindow.DAY, nowMs).count() == 0;
+    }
+}
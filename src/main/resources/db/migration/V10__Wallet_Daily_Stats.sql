@@ -0,0 +1,35 @@
+-- Per-wallet daily rollups for dashboards, sharded by user_id so a wallet's
+-- stats live on the same shard as the wallet. Days are UTC dates of the
+-- transaction's created_date, so live updates and a rebuild from the raw
+-- transactions table always land in the same bucket.
+
+CREATE TABLE IF NOT EXISTS wallet_daily_stats (
+    wallet_id BIGINT NOT NULL,
+    stat_date DATE NOT NULL,
+    user_id BIGINT NOT NULL,
+    inflow DECIMAL(19,2) NOT NULL DEFAULT 0,
+    outflow DECIMAL(19,2) NOT NULL DEFAULT 0,
+    inflow_count BIGINT NOT NULL DEFAULT 0,
+    outflow_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (wallet_id, stat_date)
+);
+
+-- One row per (wallet, transaction, direction) already folded into the
+-- rollup. Inserted in the same statement as the rollup update, so a transfer
+-- reported twice (retry, or a rebuild racing a live update) counts once.
+CREATE TABLE IF NOT EXISTS wallet_daily_stats_applied (
+    wallet_id BIGINT NOT NULL,
+    transaction_id BIGINT NOT NULL,
+    flow VARCHAR(3) NOT NULL CHECK (flow IN ('IN', 'OUT')),
+    user_id BIGINT NOT NULL,
+    stat_date DATE NOT NULL,
+    PRIMARY KEY (wallet_id, transaction_id, flow)
+);
+
+-- Rebuild clears a date range; retention prunes old markers
+CREATE INDEX IF NOT EXISTS idx_wallet_daily_stats_applied_date ON wallet_daily_stats_applied(stat_date);
+CREATE INDEX IF NOT EXISTS idx_wallet_daily_stats_date ON wallet_daily_stats(stat_date);
+
+-- Rebuild scans successful transactions by day on every shard
+CREATE INDEX IF NOT EXISTS idx_transactions_status_created ON transactions(status, created_date);
@@ -0,0 +1,187 @@
+-- Monthly range partitions on created_date for transactions, saga_instance
+-- and saga_step (per shard: Flyway runs on every physical database).
+--
+-- WHY:
+-- Retention on a single heap table is a mass DELETE that leaves dead tuples
+-- and bloated indexes behind for every other query. With monthly partitions,
+-- an old month is detached (and dropped) as a whole, each partition's
+-- indexes stay small, and a query bounded on created_date only touches the
+-- months it covers.
+--
+-- PostgreSQL requires the partition key in every unique constraint, so:
+--   * primary keys become (id, created_date); ids are still globally unique
+--     (snowflake), the key just cannot prove it across partitions
+--   * uk_saga_step_order becomes a plain index — steps are only created by
+--     the orchestrator, once per (saga, order)
+--   * fk_saga_step_instance is dropped — saga_instance(id) alone is no longer
+--     a unique key to reference
+--
+-- Existing rows are copied into the new tables; partitions are created for
+-- every month from the oldest row up to three months ahead. The application's
+-- PartitionManager keeps creating future months after that.
+
+-- -----------------------------------------------------------------------------
+-- Partition helpers, also called by PartitionManager
+-- -----------------------------------------------------------------------------
+
+CREATE OR REPLACE FUNCTION wallet_create_month_partition(parent TEXT, month_start DATE)
+RETURNS VOID AS $$
+DECLARE
+    first_day DATE := date_trunc('month', month_start)::date;
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                   parent || '_p' || to_char(first_day, 'YYYYMM'), parent,
+                   first_day, (first_day + INTERVAL '1 month')::date);
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION wallet_create_month_partitions(parent TEXT, from_ts TIMESTAMP, to_ts TIMESTAMP)
+RETURNS VOID AS $$
+DECLARE
+    first_day DATE := date_trunc('month', from_ts)::date;
+BEGIN
+    WHILE first_day <= to_ts LOOP
+        PERFORM wallet_create_month_partition(parent, first_day);
+        first_day := (first_day + INTERVAL '1 month')::date;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- -----------------------------------------------------------------------------
+-- Move the heap tables aside (constraint and index names must be free)
+-- -----------------------------------------------------------------------------
+
+ALTER TABLE saga_step DROP CONSTRAINT IF EXISTS fk_saga_step_instance;
+
+ALTER TABLE transactions RENAME TO transactions_legacy;
+ALTER TABLE transactions_legacy RENAME CONSTRAINT transactions_pkey TO transactions_legacy_pkey;
+DROP INDEX IF EXISTS idx_transactions_source_created;
+DROP INDEX IF EXISTS idx_transactions_destination_created;
+DROP INDEX IF EXISTS idx_transactions_status_created;
+
+ALTER TABLE saga_instance RENAME TO saga_instance_legacy;
+ALTER TABLE saga_instance_legacy RENAME CONSTRAINT saga_instance_pkey TO saga_instance_legacy_pkey;
+DROP INDEX IF EXISTS idx_saga_status_created;
+DROP INDEX IF EXISTS idx_saga_type_status;
+
+ALTER TABLE saga_step RENAME TO saga_step_legacy;
+ALTER TABLE saga_step_legacy RENAME CONSTRAINT saga_step_pkey TO saga_step_legacy_pkey;
+DROP INDEX IF EXISTS idx_step_saga_order;
+DROP INDEX IF EXISTS idx_step_saga_status;
+DROP INDEX IF EXISTS uk_saga_step_order;
+
+-- Keep the id sequences (the column defaults) alive past DROP TABLE below
+ALTER SEQUENCE IF EXISTS transactions_id_seq OWNED BY NONE;
+ALTER SEQUENCE IF EXISTS saga_instance_id_seq OWNED BY NONE;
+ALTER SEQUENCE IF EXISTS saga_step_id_seq OWNED BY NONE;
+
+-- -----------------------------------------------------------------------------
+-- Partitioned tables
+-- -----------------------------------------------------------------------------
+
+CREATE TABLE transactions (
+    id BIGINT NOT NULL DEFAULT nextval('transactions_id_seq'),
+    description VARCHAR(255) NOT NULL,
+    source_wallet_id BIGINT NOT NULL,
+    destination_wallet_id BIGINT NOT NULL,
+    amount DECIMAL(19,2) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    saga_instance_id BIGINT NOT NULL,
+    created_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_date)
+) PARTITION BY RANGE (created_date);
+
+CREATE TABLE saga_instance (
+    id BIGINT NOT NULL DEFAULT nextval('saga_instance_id_seq'),
+    saga_type VARCHAR(100) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    context JSONB NOT NULL,
+    current_step VARCHAR(255) NOT NULL,
+    completed_date TIMESTAMP,
+    compensated_date TIMESTAMP,
+    error_details TEXT,
+    retry_count INTEGER NOT NULL DEFAULT 0,
+    max_retries INTEGER NOT NULL DEFAULT 3,
+    timeout_minutes INTEGER NOT NULL DEFAULT 60,
+    expiry_time TIMESTAMP,
+    version BIGINT,
+    created_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_date)
+) PARTITION BY RANGE (created_date);
+
+CREATE TABLE saga_step (
+    id BIGINT NOT NULL DEFAULT nextval('saga_step_id_seq'),
+    saga_instance_id BIGINT NOT NULL,
+    step_order INTEGER NOT NULL,
+    step_name VARCHAR(100) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    compensation_action VARCHAR(100),
+    error_message TEXT,
+    retry_count INTEGER NOT NULL DEFAULT 0,
+    max_retries INTEGER NOT NULL DEFAULT 3,
+    step_data JSONB,
+    created_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_date TIMESTAMP,
+    completed_date TIMESTAMP,
+    version BIGINT,
+    PRIMARY KEY (id, created_date)
+) PARTITION BY RANGE (created_date);
+
+ALTER SEQUENCE IF EXISTS transactions_id_seq OWNED BY transactions.id;
+ALTER SEQUENCE IF EXISTS saga_instance_id_seq OWNED BY saga_instance.id;
+ALTER SEQUENCE IF EXISTS saga_step_id_seq OWNED BY saga_step.id;
+
+-- Defined on the parent, created on every partition (current and future)
+CREATE INDEX idx_transactions_source_created ON transactions(source_wallet_id, created_date);
+CREATE INDEX idx_transactions_destination_created ON transactions(destination_wallet_id, created_date);
+CREATE INDEX idx_transactions_status_created ON transactions(status, created_date);
+CREATE INDEX idx_saga_status_created ON saga_instance(status, created_date);
+CREATE INDEX idx_saga_type_status ON saga_instance(saga_type, status);
+CREATE INDEX idx_step_saga_order ON saga_step(saga_instance_id, step_order);
+CREATE INDEX idx_step_saga_status ON saga_step(saga_instance_id, status);
+
+-- -----------------------------------------------------------------------------
+-- Partitions for existing data and the near future, then copy
+-- -----------------------------------------------------------------------------
+
+SELECT wallet_create_month_partitions('transactions',
+        LEAST(COALESCE((SELECT MIN(created_date) FROM transactions_legacy), LOCALTIMESTAMP), LOCALTIMESTAMP),
+        GREATEST(COALESCE((SELECT MAX(created_date) FROM transactions_legacy), LOCALTIMESTAMP),
+                 LOCALTIMESTAMP + INTERVAL '3 months'));
+
+SELECT wallet_create_month_partitions('saga_instance',
+        LEAST(COALESCE((SELECT MIN(created_date) FROM saga_instance_legacy), LOCALTIMESTAMP), LOCALTIMESTAMP),
+        GREATEST(COALESCE((SELECT MAX(created_date) FROM saga_instance_legacy), LOCALTIMESTAMP),
+                 LOCALTIMESTAMP + INTERVAL '3 months'));
+
+SELECT wallet_create_month_partitions('saga_step',
+        LEAST(COALESCE((SELECT MIN(created_date) FROM saga_step_legacy), LOCALTIMESTAMP), LOCALTIMESTAMP),
+        GREATEST(COALESCE((SELECT MAX(created_date) FROM saga_step_legacy), LOCALTIMESTAMP),
+                 LOCALTIMESTAMP + INTERVAL '3 months'));
+
+INSERT INTO transactions (id, description, source_wallet_id, destination_wallet_id, amount, status, type,
+                          saga_instance_id, created_date, updated_date)
+SELECT id, description, source_wallet_id, destination_wallet_id, amount, status, type,
+       saga_instance_id, created_date, updated_date
+FROM transactions_legacy;
+
+INSERT INTO saga_instance (id, saga_type, status, context, current_step, completed_date, compensated_date,
+                           error_details, retry_count, max_retries, timeout_minutes, expiry_time, version,
+                           created_date, updated_date)
+SELECT id, saga_type, status, context, current_step, completed_date, compensated_date,
+       error_details, retry_count, max_retries, timeout_minutes, expiry_time, version,
+       created_date, updated_date
+FROM saga_instance_legacy;
+
+INSERT INTO saga_step (id, saga_instance_id, step_order, step_name, status, compensation_action, error_message,
+                       retry_count, max_retries, step_data, created_date, started_date, completed_date, version)
+SELECT id, saga_instance_id, step_order, step_name, status, compensation_action, error_message,
+       retry_count, max_retries, step_data, created_date, started_date, completed_date, version
+FROM saga_step_legacy;
+
+DROP TABLE saga_step_legacy;
+DROP TABLE saga_instance_legacy;
+DROP TABLE transactions_legacy;
@@ -0,0 +1,16 @@
+-- Checkpoints of the in-memory per-wallet velocity counters (VelocityLimiter).
+-- One row per live bucket; the limiter is authoritative while running and
+-- only reads this table on startup. Sharded by user_id like the wallet.
+
+CREATE TABLE IF NOT EXISTS wallet_velocity_counter (
+    wallet_id BIGINT NOT NULL,
+    window_name VARCHAR(8) NOT NULL CHECK (window_name IN ('MINUTE', 'HOUR', 'DAY')),
+    bucket_start_ms BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    tx_count BIGINT NOT NULL,
+    amount_cents BIGINT NOT NULL,
+    PRIMARY KEY (wallet_id, window_name, bucket_start_ms)
+);
+
+-- Checkpoints prune buckets older than the longest window
+CREATE INDEX IF NOT EXISTS idx_wallet_velocity_counter_start ON wallet_velocity_counter(bucket_start_ms);
@@ -0,0 +1,13 @@
+-- Journal written by the ledger engine's group commit (sharded by user_id,
+-- co-located with the source wallet). One row per applied transfer.
+
+CREATE TABLE IF NOT EXISTS ledger_journal (
+    transaction_id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    source_wallet_id BIGINT NOT NULL,
+    destination_wallet_id BIGINT NOT NULL,
+    amount DECIMAL(19,2) NOT NULL,
+    created_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_ledger_journal_source_wallet ON ledger_journal(source_wallet_id, created_date);
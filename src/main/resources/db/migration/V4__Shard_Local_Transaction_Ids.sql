@@ -0,0 +1,9 @@
+-- Id blocks for transactions rows that must live on a chosen shard
+-- (ShardLocalTransactions). transactions are sharded by id % shardCount, so a
+-- same-shard transfer picks an id that places its row next to its wallets and
+-- the whole transfer commits on one physical database.
+--
+-- Each nextval reserves a block of ids for one application instance; the
+-- shard's residue keeps blocks from different shards apart.
+
+CREATE SEQUENCE IF NOT EXISTS transactions_local_id_block_seq;
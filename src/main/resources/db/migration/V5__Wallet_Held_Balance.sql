@@ -0,0 +1,8 @@
+-- Funds reserved by in-flight transfers (and, later, holds). Spendable balance is
+-- balance - held_balance; the constraint keeps a hold from exceeding it.
+
+ALTER TABLE wallet ADD COLUMN IF NOT EXISTS held_balance DECIMAL(19,2) NOT NULL DEFAULT 0.00;
+
+ALTER TABLE wallet DROP CONSTRAINT IF EXISTS chk_wallet_held_balance;
+ALTER TABLE wallet ADD CONSTRAINT chk_wallet_held_balance
+    CHECK (held_balance >= 0 AND held_balance <= balance);
@@ -0,0 +1,20 @@
+-- Authorization holds (card-style pre-auth), sharded by user_id so each hold
+-- lives on the same shard as its wallet. wallet.held_balance is the
+-- maintained SUM of a wallet's holds (plus in-flight TCC reservations), so
+-- available balance never needs to aggregate this table.
+
+CREATE TABLE IF NOT EXISTS wallet_hold (
+    id BIGSERIAL PRIMARY KEY,
+    wallet_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    amount DECIMAL(19,2) NOT NULL CHECK (amount > 0),
+    reference VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Listing a wallet's holds
+CREATE INDEX IF NOT EXISTS idx_wallet_hold_wallet_expires ON wallet_hold(wallet_id, expires_at);
+
+-- Expiry sweeper: oldest expired holds first
+CREATE INDEX IF NOT EXISTS idx_wallet_hold_expires ON wallet_hold(expires_at);
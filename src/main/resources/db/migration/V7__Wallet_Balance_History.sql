@@ -0,0 +1,64 @@
+-- Per-wallet balance history.
+--
+-- wallet.ledger_seq counts balance changes. A trigger appends one
+-- wallet_ledger_entry per change, whichever code path made it (saga steps,
+-- fast path, ledger engine, holds), so history cannot drift from the balance.
+-- wallet_balance_snapshot holds periodic checkpoints written by
+-- BalanceSnapshotJob. All three tables are sharded by user_id.
+
+ALTER TABLE wallet ADD COLUMN IF NOT EXISTS ledger_seq BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS wallet_ledger_entry (
+    wallet_id BIGINT NOT NULL,
+    seq BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    delta DECIMAL(19,2) NOT NULL,
+    balance_after DECIMAL(19,2) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (wallet_id, seq)
+);
+
+-- As-of lookups: newest entry at or before a point in time
+CREATE INDEX IF NOT EXISTS idx_ledger_entry_wallet_created ON wallet_ledger_entry(wallet_id, created_at);
+
+CREATE TABLE IF NOT EXISTS wallet_balance_snapshot (
+    wallet_id BIGINT NOT NULL,
+    seq BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    balance DECIMAL(19,2) NOT NULL,
+    snapshot_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (wallet_id, seq)
+);
+
+CREATE INDEX IF NOT EXISTS idx_balance_snapshot_wallet_at ON wallet_balance_snapshot(wallet_id, snapshot_at);
+
+-- Opening checkpoint for wallets that already exist (they have no entries yet)
+INSERT INTO wallet_balance_snapshot (wallet_id, seq, user_id, balance, snapshot_at)
+SELECT id, 0, user_id, balance, LOCALTIMESTAMP FROM wallet
+ON CONFLICT DO NOTHING;
+
+CREATE OR REPLACE FUNCTION wallet_record_ledger_entry() RETURNS TRIGGER AS $$
+DECLARE
+    previous DECIMAL(19,2);
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        previous := 0;
+        NEW.ledger_seq := 0;
+    ELSE
+        previous := OLD.balance;
+        NEW.ledger_seq := OLD.ledger_seq;  -- JPA writes back whatever it loaded
+    END IF;
+
+    IF NEW.balance IS DISTINCT FROM previous THEN
+        NEW.ledger_seq := NEW.ledger_seq + 1;
+        INSERT INTO wallet_ledger_entry (wallet_id, seq, user_id, delta, balance_after, created_at)
+        VALUES (NEW.id, NEW.ledger_seq, NEW.user_id, NEW.balance - previous, NEW.balance, LOCALTIMESTAMP);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_wallet_ledger_entry ON wallet;
+CREATE TRIGGER trg_wallet_ledger_entry
+    BEFORE INSERT OR UPDATE ON wallet
+    FOR EACH ROW EXECUTE FUNCTION wallet_record_ledger_entry();
@@ -0,0 +1,30 @@
+-- wallet_ledger_entry.created_at from clock_timestamp() instead of
+-- LOCALTIMESTAMP.
+--
+-- LOCALTIMESTAMP is the start of the writing transaction, so a transaction
+-- that began first but locked the wallet second wrote an entry with a higher
+-- seq and an earlier created_at. clock_timestamp() is read while the trigger
+-- holds the wallet's row lock, so within a wallet created_at now follows seq.
+-- History readers order by seq either way; existing rows keep their values.
+
+CREATE OR REPLACE FUNCTION wallet_record_ledger_entry() RETURNS TRIGGER AS $$
+DECLARE
+    previous DECIMAL(19,2);
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        previous := 0;
+        NEW.ledger_seq := 0;
+    ELSE
+        previous := OLD.balance;
+        NEW.ledger_seq := OLD.ledger_seq;  -- JPA writes back whatever it loaded
+    END IF;
+
+    IF NEW.balance IS DISTINCT FROM previous THEN
+        NEW.ledger_seq := NEW.ledger_seq + 1;
+        INSERT INTO wallet_ledger_entry (wallet_id, seq, user_id, delta, balance_after, created_at)
+        VALUES (NEW.id, NEW.ledger_seq, NEW.user_id, NEW.balance - previous, NEW.balance,
+                clock_timestamp()::timestamp);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
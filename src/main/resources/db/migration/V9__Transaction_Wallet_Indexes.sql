@@ -0,0 +1,6 @@
+-- Per-wallet history lookups (paginated list endpoints and the streaming
+-- export) filter on source OR destination wallet; without these every such
+-- query is a sequential scan of transactions.
+
+CREATE INDEX IF NOT EXISTS idx_transactions_source_created ON transactions(source_wallet_id, created_date);
+CREATE INDEX IF NOT EXISTS idx_transactions_destination_created ON transactions(destination_wallet_id, created_date);
@@ -0,0 +1,102 @@
+package com.jitendra.Wallet;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jitendra.Wallet.dto.TransactionResponseDTO;
+import com.jitendra.Wallet.entity.Transaction;
+import com.jitendra.Wallet.repository.TransactionRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Bytes allocated per history page: entity hydration + mapping (the old path)
+ * vs the DTO projection in a read-only transaction (the current path).
+ *
+ * Needs both Postgres shards running with some transactions in them.
+ * Pick the wallet with -Dbenchmark.walletId=..., otherwise the source wallet
+ * of the newest transaction is used. Run with: ./gradlew benchmark
+ */
+@Tag("benchmark")
+class ProjectionAllocationBenchmark {
+
+    private static final int WARMUP_PAGES = 200;
+    private static final int MEASURED_PAGES = 1_000;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String ENTITY_QUERY = "SELECT t FROM Transaction t "
+            + "WHERE t.sourceWalletId = :walletId OR t.destinationWalletId = :walletId ORDER BY t.createdDate DESC";
+
+    @Test
+    void allocationPerPage() {
+        try (ConfigurableApplicationContext context = SpringApplication.run(
+                WalletApplication.class, "--server.port=0", "--spring.jpa.show-sql=false",
+                "--logging.level.com.jitendra.Wallet=WARN")) {
+            TransactionRepository repository = context.getBean(TransactionRepository.class);
+            EntityManager entityManager = context.getBean(EntityManager.class);
+            PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+
+            Long walletId = Long.getLong("benchmark.walletId", newestSourceWallet(repository));
+            Pageable page = PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdDate"));
+
+            TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+
+            Runnable entityPath = () -> readWrite.executeWithoutResult(status -> {
+                List<Transaction> rows = entityManager.createQuery(ENTITY_QUERY, Transaction.class)
+                        .setParameter("walletId", walletId)
+                        .setMaxResults(PAGE_SIZE)
+                        .getResultList();
+                rows.stream().map(ProjectionAllocationBenchmark::toDto).toList();
+            });
+            Runnable projectionPath = () -> readOnly.executeWithoutResult(
+                    status -> repository.findViewsByWalletId(walletId, page));
+
+            report("entity + map", measure(entityPath));
+            report("DTO projection", measure(projectionPath));
+        }
+    }
+
+    private static long newestSourceWallet(TransactionRepository repository) {
+        return repository.findAll(PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "createdDate")))
+                .stream().findFirst()
+                .map(Transaction::getSourceWalletId)
+                .orElseThrow(() -> new IllegalStateException("No transactions to page through"));
+    }
+
+    private static long measure(Runnable pageFetch) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        for (int i = 0; i < WARMUP_PAGES; i++) {
+            pageFetch.run();
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_PAGES; i++) {
+            pageFetch.run();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_PAGES;
+    }
+
+    private static void report(String label, long bytesPerPage) {
+        System.out.printf("[projection] %-15s %,10d bytes allocated per page of %d%n", label, bytesPerPage, PAGE_SIZE);
+    }
+
+    private static TransactionResponseDTO toDto(Transaction t) {
+        return new TransactionResponseDTO(t.getId(), t.getDescription(), t.getSourceWalletId(),
+                t.getDestinationWalletId(), t.getAmount(), t.getStatus(), t.getType(), t.getSagaInstanceId(),
+                t.getCreatedDate(), t.getUpdatedDate());
+    }
+}
@@ -0,0 +1,50 @@
+package com.jitendra.Wallet;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.jitendra.Wallet.config.DataSourceConfig.FlywayStartupMode;
+
+/**
+ * Time to first request for each Flyway startup mode.
+ * Needs both Postgres shards running. Run with: ./gradlew benchmark
+ */
+@Tag("benchmark")
+class StartupBenchmark {
+
+    private static final int RUNS_PER_MODE = 3;
+
+    @Test
+    void timeToFirstRequest() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+
+        for (FlywayStartupMode mode : FlywayStartupMode.values()) {
+            long totalMillis = 0;
+            for (int run = 0; run < RUNS_PER_MODE; run++) {
+                System.setProperty("FLYWAY_MODE", mode.name());
+                long start = System.nanoTime();
+
+                try (ConfigurableApplicationContext context = SpringApplication.run(
+                        WalletApplication.class, "--server.port=0", "--spring.jpa.show-sql=false")) {
+                    String port = context.getEnvironment().getProperty("local.server.port");
+                    HttpRequest request = HttpRequest
+                            .newBuilder(URI.create("http://localhost:" + port + "/transactions/0"))
+                            .GET().build();
+                    // Any response (404 here) proves the full stack is serving traffic
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                    totalMillis += (System.nanoTime() - start) / 1_000_000;
+                }
+            }
+            System.out.printf("[startup] FLYWAY_MODE=%-16s avg time to first request: %d ms (%d runs)%n",
+                    mode, totalMillis / RUNS_PER_MODE, RUNS_PER_MODE);
+        }
+        System.clearProperty("FLYWAY_MODE");
+    }
+}
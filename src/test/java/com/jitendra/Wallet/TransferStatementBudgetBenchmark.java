@@ -0,0 +1,103 @@
+package com.jitendra.Wallet;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import com.jitendra.Wallet.dto.TransactionRequestDTO;
+import com.jitendra.Wallet.entity.TransactionType;
+import com.jitendra.Wallet.entity.Wallet;
+import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.WalletService;
+import com.jitendra.Wallet.services.saga.TransferSagaService;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+import com.jitendra.Wallet.services.sqlaccounting.SqlAccounting;
+import com.jitendra.Wallet.services.sqlaccounting.SqlStats;
+
+/**
+ * SQL statements one TransferSagaService.initiateTransfer costs, counted on
+ * the physical shards, for a same-shard transfer (local fast path) and a
+ * cross-shard one (saga). Fails when a transfer goes over its budget, so a
+ * change that adds a query per transfer shows up here.
+ *
+ * The unit tests check the parts of that budget that need no database:
+ * LocalTransferServiceTest and SagaOrchestratorImplTest the calls one
+ * transfer or step makes, DataSourceConfigTest that the deadline's SET LOCAL
+ * is not counted.
+ *
+ * Needs both Postgres shards running with active wallets on both shards.
+ * Budgets: -Dbenchmark.localBudget=... and -Dbenchmark.sagaBudget=...
+ * Each run moves 0.01 per transfer. Run with: ./gradlew benchmark
+ */
+@Tag("benchmark")
+class TransferStatementBudgetBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+    private static final int LOCAL_BUDGET = Integer.getInteger("benchmark.localBudget", 12);
+    private static final int SAGA_BUDGET = Integer.getInteger("benchmark.sagaBudget", 40);
+
+    @Test
+    void statementsPerTransfer() {
+        try (ConfigurableApplicationContext context = SpringApplication.run(
+                WalletApplication.class, "--server.port=0", "--spring.jpa.show-sql=false",
+                "--logging.level.com.jitendra.Wallet=WARN")) {
+            TransferSagaService transferSagaService = context.getBean(TransferSagaService.class);
+            WalletService walletService = context.getBean(WalletService.class);
+            ShardRouter shardRouter = context.getBean(ShardRouter.class);
+            List<Wallet> wallets = context.getBean(WalletRepository.class)
+                    .findAll(PageRequest.of(0, 50)).stream()
+                    .filter(w -> Boolean.TRUE.equals(w.getIsActive()))
+                    .toList();
+
+            Wallet source = wallets.getFirst();
+            String sourceShard = shardRouter.shardForUser(source.getUserId());
+            Wallet sameShard = wallets.stream().skip(1)
+                    .filter(w -> shardRouter.shardForUser(w.getUserId()).equals(sourceShard))
+                    .findFirst().orElseThrow(() -> new IllegalStateException("No second wallet on " + sourceShard));
+            Wallet otherShard = wallets.stream()
+                    .filter(w -> !shardRouter.shardForUser(w.getUserId()).equals(sourceShard))
+                    .findFirst().orElseThrow(() -> new IllegalStateException("No wallet off " + sourceShard));
+
+            walletService.addFunds(source.getId(), AMOUNT.multiply(BigDecimal.valueOf(10)));
+            // Warm up caches (wallet owners, saga step beans) outside the measurement
+            transfer(transferSagaService, source, sameShard);
+            transfer(transferSagaService, source, otherShard);
+
+            SqlStats local = measure(transferSagaService, source, sameShard);
+            SqlStats saga = measure(transferSagaService, source, otherShard);
+            report("local", local);
+            report("saga", saga);
+
+            assertTrue(local.statements() <= LOCAL_BUDGET,
+                    "Same-shard transfer used " + local.statements() + " statements, budget " + LOCAL_BUDGET);
+            assertTrue(saga.statements() <= SAGA_BUDGET,
+                    "Cross-shard transfer used " + saga.statements() + " statements, budget " + SAGA_BUDGET);
+        }
+    }
+
+    private static SqlStats measure(TransferSagaService service, Wallet source, Wallet destination) {
+        try (SqlAccounting.Scope scope = SqlAccounting.open()) {
+            transfer(service, source, destination);
+            return scope.stats();
+        }
+    }
+
+    private static void transfer(TransferSagaService service, Wallet source, Wallet destination) {
+        service.initiateTransfer(new TransactionRequestDTO("statement budget", source.getId(),
+                destination.getId(), AMOUNT, TransactionType.TRANSFER));
+    }
+
+    private static void report(String path, SqlStats stats) {
+        System.out.printf("[statements] %-5s %s%n", path, stats);
+        Map<String, Long> repeated = stats.repeatedStatements(2);
+        repeated.forEach((sql, count) -> System.out.printf("[statements] %-5s %3dx %s%n", path, count, sql));
+    }
+}
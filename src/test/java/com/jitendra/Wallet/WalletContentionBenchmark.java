@@ -0,0 +1,91 @@
+package com.jitendra.Wallet;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.jitendra.Wallet.entity.Wallet;
+import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.WalletService;
+
+/**
+ * Concurrent credits to ONE wallet, with and without the per-wallet mailboxes:
+ * completed credits per second and how many lost the @Version race.
+ *
+ * Needs both Postgres shards running with at least one active wallet. Pick
+ * it with -Dbenchmark.walletId=..., otherwise the first wallet found is used.
+ * Each run adds 0.01 per credit to that wallet. Run with: ./gradlew benchmark
+ */
+@Tag("benchmark")
+class WalletContentionBenchmark {
+
+    private static final int CALLERS = 32;
+    private static final int CREDITS_PER_CALLER = 50;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    @Test
+    void sameWalletCredits() throws Exception {
+        for (boolean mailbox : new boolean[] { false, true }) {
+            try (ConfigurableApplicationContext context = SpringApplication.run(
+                    WalletApplication.class, "--server.port=0", "--spring.jpa.show-sql=false",
+                    "--logging.level.com.jitendra.Wallet=WARN",
+                    "--wallet.mailbox.enabled=" + mailbox)) {
+                WalletService walletService = context.getBean(WalletService.class);
+                Long walletId = Long.getLong("benchmark.walletId",
+                        firstWallet(context.getBean(WalletRepository.class)));
+
+                // Warm up connections and JIT outside the measurement
+                for (int i = 0; i < 20; i++) {
+                    walletService.addFunds(walletId, AMOUNT);
+                }
+                run(walletService, walletId, mailbox);
+            }
+        }
+    }
+
+    private static void run(WalletService walletService, Long walletId, boolean mailbox) throws Exception {
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < CALLERS; c++) {
+                futures.add(callers.submit(() -> {
+                    for (int i = 0; i < CREDITS_PER_CALLER; i++) {
+                        try {
+                            walletService.addFunds(walletId, AMOUNT);
+                            completed.incrementAndGet();
+                        } catch (ObjectOptimisticLockingFailureException e) {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        System.out.printf("[contention] mailbox=%-5s %,6d credits ok, %,6d @Version conflicts, %,8.0f credits/s%n",
+                mailbox, completed.get(), conflicts.get(), completed.get() * 1_000.0 / elapsedMillis);
+    }
+
+    private static long firstWallet(WalletRepository repository) {
+        return repository.findAll(PageRequest.of(0, 1)).stream().findFirst()
+                .map(Wallet::getId)
+                .orElseThrow(() -> new IllegalStateException("No wallet to credit"));
+    }
+}
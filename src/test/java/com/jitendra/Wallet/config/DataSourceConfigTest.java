@@ -0,0 +1,104 @@
+package com.jitendra.Wallet.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import com.jitendra.Wallet.services.deadline.DeadlineProperties;
+import com.jitendra.Wallet.services.deadline.StepDeadline;
+import com.jitendra.Wallet.services.sharding.ShardBreakerProperties;
+import com.jitendra.Wallet.services.sharding.ShardCircuitBreaker;
+import com.jitendra.Wallet.services.sqlaccounting.SqlAccounting;
+import com.jitendra.Wallet.services.sqlaccounting.SqlAccountingProperties;
+import com.jitendra.Wallet.services.sqlaccounting.SqlStats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DataSourceConfigTest {
+
+    private static final String TWO_SHARD_RULES = """
+            tables:
+              users:
+                actualDataNodes: shardwallet$->{1..2}.users
+            shardingAlgorithms:
+              db-inline:
+                props:
+                  algorithm-expression: shardwallet$->{id % 2 + 1}
+            """;
+
+    @Test
+    void acceptsMatchingShardCount() {
+        assertThatCode(() -> DataSourceConfig.verifyShardCount(TWO_SHARD_RULES, 2)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void rejectsExtraPool() {
+        assertThatThrownBy(() -> DataSourceConfig.verifyShardCount(TWO_SHARD_RULES, 3))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("3 POSTGRES_DB{n}_URL");
+    }
+
+    @Test
+    void rejectsRulesThatDisagreeWithEachOther() {
+        String rules = TWO_SHARD_RULES.replace("id % 2 + 1", "id % 3 + 1");
+        assertThatThrownBy(() -> DataSourceConfig.verifyShardCount(rules, 2))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsRulesWithoutShardCount() {
+        assertThatThrownBy(() -> DataSourceConfig.verifyShardCount("tables: {}", 2))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shippedRulesMatchDefaultPools() throws Exception {
+        String rules = new String(new ClassPathResource("sharding.yml").getContentAsByteArray(), StandardCharsets.UTF_8);
+        assertThatCode(() -> DataSourceConfig.verifyShardCount(rules, 2)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void chargesARequestOnlyForTheStatementsShardingSphereSends() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement setLocal = mock(Statement.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(setLocal);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.getAutoCommit()).thenReturn(false);
+        when(statement.executeUpdate()).thenReturn(1);
+
+        DataSource shard = DataSourceConfig.wrapShards(Map.of("shardwallet1", pool),
+                new ShardCircuitBreaker(new ShardBreakerProperties(), new SimpleMeterRegistry()),
+                new DeadlineProperties(), new SqlAccountingProperties()).get("shardwallet1");
+
+        SqlStats stats;
+        try (SqlAccounting.Scope scope = SqlAccounting.open();
+                StepDeadline.Scope deadline = StepDeadline.enter(System.currentTimeMillis() + 3_000)) {
+            shard.getConnection().prepareStatement("UPDATE wallet SET balance = ?").executeUpdate();
+            stats = scope.stats();
+        }
+
+        // The deadline's SET LOCAL still reaches the shard, but is not one of the request's statements
+        verify(setLocal).execute(startsWith("SET LOCAL lock_timeout"));
+        assertThat(stats.statements()).isEqualTo(1);
+        assertThat(stats.rows()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,34 @@
+package com.jitendra.Wallet.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import com.jitendra.Wallet.entity.SagaInstance;
+import com.jitendra.Wallet.entity.Wallet;
+import com.jitendra.Wallet.entity.WalletHold;
+import com.jitendra.Wallet.services.saga.SagaContext;
+
+class WalletRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    WalletRuntimeHintsTest() {
+        new WalletRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registersClasspathResourcesReadAtStartup() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("sharding.yml")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/migration/V1__Initial_Schema.sql")).accepts(hints);
+    }
+
+    @Test
+    void registersReflectivelyCreatedTypes() {
+        for (Class<?> type : new Class<?>[] { SagaContext.class, Wallet.class, SagaInstance.class, WalletHold.class }) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(type)).accepts(hints);
+        }
+    }
+}
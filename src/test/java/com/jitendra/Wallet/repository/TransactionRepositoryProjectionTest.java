@@ -0,0 +1,66 @@
+package com.jitendra.Wallet.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.jitendra.Wallet.dto.TransactionResponseDTO;
+import com.jitendra.Wallet.entity.Transaction;
+import com.jitendra.Wallet.services.TransactionService;
+
+/**
+ * The JPQL constructor expression is only checked by Hibernate when the
+ * repository boots; these checks catch a drifting projection without a database.
+ */
+class TransactionRepositoryProjectionTest {
+
+    private static final Pattern CONSTRUCTOR_ARGS = Pattern.compile("TransactionResponseDTO\\((.*?)\\)");
+
+    @Test
+    void viewArgumentsMatchTheDtoConstructor() throws Exception {
+        Matcher matcher = CONSTRUCTOR_ARGS.matcher(TransactionRepository.VIEW);
+        assertThat(matcher.find()).isTrue();
+        List<String> fields = Arrays.stream(matcher.group(1).split(","))
+                .map(arg -> arg.trim().substring("t.".length()))
+                .toList();
+
+        Class<?>[] types = new Class<?>[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            types[i] = Transaction.class.getDeclaredField(fields.get(i)).getType();
+        }
+        // Throws NoSuchMethodException if the arity, order or types drifted
+        assertThat(TransactionResponseDTO.class.getConstructor(types)).isNotNull();
+    }
+
+    @Test
+    void paginatedQueriesReturnProjectionsNotEntities() {
+        for (Method method : TransactionRepository.class.getDeclaredMethods()) {
+            if (Slice.class.isAssignableFrom(method.getReturnType()) && method.isAnnotationPresent(Query.class)) {
+                assertThat(method.getAnnotation(Query.class).value()).as(method.getName())
+                        .startsWith(TransactionRepository.VIEW);
+            }
+        }
+    }
+
+    @Test
+    void paginatedServiceReadsNeverFlush() {
+        for (Method method : TransactionService.class.getDeclaredMethods()) {
+            if (Page.class.equals(method.getReturnType()) && Modifier.isPublic(method.getModifiers())) {
+                Transactional transactional = method.getAnnotation(Transactional.class);
+                assertThat(transactional).as(method.getName()).isNotNull();
+                assertThat(transactional.readOnly()).as(method.getName()).isTrue();
+            }
+        }
+    }
+}
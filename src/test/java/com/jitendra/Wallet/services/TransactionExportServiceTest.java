@@ -0,0 +1,130 @@
+package com.jitendra.Wallet.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jitendra.Wallet.dto.TransactionResponseDTO;
+import com.jitendra.Wallet.entity.TransactionStatus;
+import com.jitendra.Wallet.entity.TransactionType;
+import com.jitendra.Wallet.services.TransactionExportService.ExportFormat;
+import com.jitendra.Wallet.services.archive.TransactionArchive;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+class TransactionExportServiceTest {
+
+    private static final Instant CREATED = Instant.parse("2026-01-02T03:04:05Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TransactionArchive archive = mock(TransactionArchive.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private TransactionExportService service;
+
+    @BeforeEach
+    void hotRows() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true, false);
+        when(rs.getLong("id")).thenReturn(42L);
+        when(rs.getString("description")).thenReturn("rent, \"March\"");
+        when(rs.getLong("source_wallet_id")).thenReturn(1L);
+        when(rs.getLong("destination_wallet_id")).thenReturn(2L);
+        when(rs.getBigDecimal("amount")).thenReturn(new BigDecimal("12.50"));
+        when(rs.getString("status")).thenReturn("SUCCESS");
+        when(rs.getString("type")).thenReturn("TRANSFER");
+        when(rs.getLong("saga_instance_id")).thenReturn(0L);
+        when(rs.getTimestamp("created_date")).thenReturn(Timestamp.from(CREATED));
+        when(rs.getTimestamp("updated_date")).thenReturn(Timestamp.from(CREATED));
+        when(statement.executeQuery()).thenReturn(rs);
+
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        when(archive.horizon()).thenReturn(Instant.EPOCH);
+        when(archive.walletTransactions(anyLong(), any(), any())).thenReturn(Collections.emptyIterator());
+
+        service = new TransactionExportService(new JdbcTemplate(dataSource), mock(PlatformTransactionManager.class),
+                objectMapper, mock(ShardRouter.class), archive);
+    }
+
+    @Test
+    void csvQuotesFieldsThatNeedIt() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(service.export(1L, ExportFormat.CSV, out)).isEqualTo(1);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "id,description,sourceWalletId,destinationWalletId,amount,status,type,sagaInstanceId,"
+                        + "createdDate,updatedDate",
+                "42,\"rent, \"\"March\"\"\",1,2,12.50,SUCCESS,TRANSFER,0,2026-01-02T03:04:05Z,2026-01-02T03:04:05Z");
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.export(1L, ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(1);
+        JsonNode row = objectMapper.readTree(lines[0]);
+        assertThat(row.get("id").asLong()).isEqualTo(42L);
+        assertThat(row.get("description").asText()).isEqualTo("rent, \"March\"");
+        assertThat(row.get("amount").decimalValue()).isEqualByComparingTo("12.50");
+        assertThat(row.get("createdDate").asText()).isEqualTo("2026-01-02T03:04:05Z");
+    }
+
+    @Test
+    void hotRowsArePulledThroughACursor() throws Exception {
+        service.export(1L, ExportFormat.NDJSON, new ByteArrayOutputStream());
+
+        verify(statement).setFetchSize(1_000);
+    }
+
+    @Test
+    void archivedRowsAreMergedIntoTheHotOrder() throws Exception {
+        when(archive.walletTransactions(anyLong(), any(), any())).thenReturn(List.of(
+                archived(40L, CREATED.minusSeconds(3_600)),
+                // Archived and still hot after a crash mid-archive: written once
+                archived(42L, CREATED),
+                // Left the hot table while an older transfer was still PENDING
+                archived(50L, CREATED.plusSeconds(3_600))).iterator());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(service.export(1L, ExportFormat.CSV, out)).isEqualTo(3);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n"))
+                .extracting(line -> line.substring(0, line.indexOf(',')))
+                .containsExactly("id", "40", "42", "50");
+    }
+
+    private static TransactionResponseDTO archived(long id, Instant createdDate) {
+        return new TransactionResponseDTO(id, "archived", 1L, 2L, BigDecimal.ONE, TransactionStatus.SUCCESS,
+                TransactionType.TRANSFER, 0L, createdDate, createdDate);
+    }
+}
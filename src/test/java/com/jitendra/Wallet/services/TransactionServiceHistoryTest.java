@@ -0,0 +1,113 @@
+package com.jitendra.Wallet.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jitendra.Wallet.config.ShardDataSources;
+import com.jitendra.Wallet.dto.TransactionResponseDTO;
+import com.jitendra.Wallet.entity.TransactionStatus;
+import com.jitendra.Wallet.entity.TransactionType;
+import com.jitendra.Wallet.exception.BusinessException;
+import com.jitendra.Wallet.repository.TransactionRepository;
+import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.admission.AdmissionLimiter;
+import com.jitendra.Wallet.services.archive.TransactionArchive;
+import com.jitendra.Wallet.services.paging.CountMode;
+import com.jitendra.Wallet.services.paging.PageCounter;
+import com.jitendra.Wallet.services.paging.PagingProperties;
+import com.jitendra.Wallet.services.saga.TransferSagaService;
+import com.jitendra.Wallet.services.velocity.VelocityLimiter;
+
+class TransactionServiceHistoryTest {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+    private static final Instant FROM = T0;
+    private static final Instant TO = T0.plusSeconds(48 * 3_600);
+
+    private final TransactionRepository repository = mock(TransactionRepository.class);
+    private final TransactionArchive archive = mock(TransactionArchive.class);
+    private TransactionService service;
+
+    @BeforeEach
+    void service() {
+        PageCounter pageCounter = new PageCounter(new PagingProperties(), new ObjectMapper(),
+                new ShardDataSources(Map.of()));
+        service = new TransactionService(repository, mock(WalletRepository.class), mock(TransferSagaService.class),
+                pageCounter, archive, mock(AdmissionLimiter.class), mock(VelocityLimiter.class));
+        // The range reaches past the horizon, so archived rows take part
+        when(archive.horizon()).thenReturn(T0.plusSeconds(24 * 3_600));
+        when(repository.findViewsByWalletIdAndCreatedDateBetween(eq(7L), eq(FROM), eq(TO), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(row(10, 30, "5.00"), row(11, 20, "1.00"))));
+        when(repository.countByWalletIdAndCreatedDateBetween(7L, FROM, TO)).thenReturn(2L);
+        when(archive.countWalletTransactions(7L, FROM, TO)).thenReturn(2L);
+    }
+
+    private static TransactionResponseDTO row(long id, long hours, String amount) {
+        Instant created = T0.plusSeconds(hours * 3_600);
+        return new TransactionResponseDTO(id, "t" + id, 7L, 8L, new BigDecimal(amount), TransactionStatus.SUCCESS,
+                TransactionType.TRANSFER, 0L, created, created);
+    }
+
+    private void archived(TransactionResponseDTO... rows) {
+        when(archive.walletTransactions(7L, FROM, TO)).thenReturn(List.of(rows).iterator());
+    }
+
+    @Test
+    void mergesHotAndArchivedRowsNewestFirst() {
+        archived(row(1, 1, "9.00"), row(11, 20, "1.00"), row(2, 25, "3.00"));
+
+        Page<TransactionResponseDTO> page = service.getTransactionsByWalletIdBetween(7L, FROM, TO,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "createdDate")), CountMode.EXACT);
+
+        assertThat(page.getContent()).extracting(TransactionResponseDTO::getId).containsExactly(10L, 2L);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void honoursTheRequestedSortAndOffset() {
+        archived(row(1, 1, "9.00"), row(2, 25, "3.00"));
+
+        Page<TransactionResponseDTO> page = service.getTransactionsByWalletIdBetween(7L, FROM, TO,
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.ASC, "amount")), CountMode.EXACT);
+
+        // 1.00, 3.00 | 5.00, 9.00
+        assertThat(page.getContent()).extracting(TransactionResponseDTO::getId).containsExactly(10L, 1L);
+    }
+
+    @Test
+    void lastPageNeedsNoCountInAutoMode() {
+        archived(row(2, 25, "3.00"));
+
+        Page<TransactionResponseDTO> page = service.getTransactionsByWalletIdBetween(7L, FROM, TO,
+                PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "createdDate")), CountMode.AUTO);
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsSortingByAnUnknownProperty() {
+        archived();
+
+        assertThatThrownBy(() -> service.getTransactionsByWalletIdBetween(7L, FROM, TO,
+                PageRequest.of(0, 2, Sort.by("nope")), CountMode.EXACT))
+                .isInstanceOf(BusinessException.class);
+    }
+}
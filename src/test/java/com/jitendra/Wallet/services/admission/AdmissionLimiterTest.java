@@ -0,0 +1,113 @@
+package com.jitendra.Wallet.services.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.jitendra.Wallet.exception.TooManyRequestsException;
+import com.jitendra.Wallet.services.admission.AdmissionLimiter.Outcome;
+import com.jitendra.Wallet.services.admission.AdmissionLimiter.Permit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdmissionLimiterTest {
+
+    private final AdmissionProperties properties = new AdmissionProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AdmissionLimiter limiter;
+
+    @BeforeEach
+    void limiter() {
+        properties.setInitialLimit(4);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(8);
+        properties.setTargetLatencyMs(1_000);
+        limiter = new AdmissionLimiter(properties, meterRegistry);
+    }
+
+    private List<Permit> acquire(int count) {
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(limiter.acquire());
+        }
+        return permits;
+    }
+
+    @Test
+    void shedsTransfersBeyondTheLimit() {
+        List<Permit> permits = acquire(4);
+
+        assertThatThrownBy(limiter::acquire).isInstanceOf(TooManyRequestsException.class);
+        assertThat(meterRegistry.get("wallet.admission.rejected").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("wallet.admission.inflight").gauge().value()).isEqualTo(4.0);
+
+        permits.get(0).release(Outcome.IGNORE);
+        limiter.acquire();
+    }
+
+    @Test
+    void releasingTwiceFreesOneSlot() {
+        List<Permit> permits = acquire(4);
+
+        permits.get(0).release(Outcome.IGNORE);
+        permits.get(0).release(Outcome.IGNORE);
+
+        limiter.acquire();
+        assertThatThrownBy(limiter::acquire).isInstanceOf(TooManyRequestsException.class);
+    }
+
+    @Test
+    void growsOnlyWhileTheLimitIsInUse() {
+        // Alone in flight: says nothing about spare capacity
+        limiter.acquire().release(Outcome.SUCCESS);
+        assertThat(limiter.getLimit()).isEqualTo(4.0);
+
+        List<Permit> permits = acquire(3);
+        permits.forEach(permit -> permit.release(Outcome.SUCCESS));
+
+        assertThat(limiter.getLimit()).isGreaterThan(4.0);
+    }
+
+    @Test
+    void backsOffOncePerCooldownOnDrops() {
+        List<Permit> permits = acquire(3);
+
+        permits.forEach(permit -> permit.release(Outcome.DROPPED));
+
+        // Three drops within targetLatencyMs are a single congestion signal
+        assertThat(limiter.getLimit()).isEqualTo(4 * 0.9);
+    }
+
+    @Test
+    void neverBacksOffBelowTheMinimum() {
+        properties.setTargetLatencyMs(0);
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire().release(Outcome.DROPPED);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(2.0);
+    }
+
+    @Test
+    void ignoredOutcomesLeaveTheLimitAlone() {
+        acquire(3).forEach(permit -> permit.release(Outcome.IGNORE));
+
+        assertThat(limiter.getLimit()).isEqualTo(4.0);
+    }
+
+    @Test
+    void admitsEverythingWhenDisabled() {
+        properties.setEnabled(false);
+
+        List<Permit> permits = acquire(10);
+        permits.forEach(permit -> permit.release(Outcome.DROPPED));
+
+        assertThat(limiter.getLimit()).isEqualTo(4.0);
+        assertThat(meterRegistry.get("wallet.admission.inflight").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,83 @@
+package com.jitendra.Wallet.services.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.jitendra.Wallet.services.archive.ArchiveSegment.Column;
+import com.jitendra.Wallet.services.archive.ArchiveSegment.ColumnType;
+import com.jitendra.Wallet.services.archive.ArchiveSegment.Rows;
+import com.jitendra.Wallet.services.archive.ArchiveSegment.WalletFilter;
+
+class ArchiveSegmentTest {
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("id", ColumnType.LONG),
+            new Column("amount", ColumnType.DECIMAL),
+            new Column("created_date", ColumnType.TIMESTAMP),
+            new Column("description", ColumnType.STRING));
+
+    @TempDir
+    Path root;
+
+    @Test
+    void roundTripsEveryTypeAndNulls() throws Exception {
+        Path file = root.resolve("transactions/shardwallet1/segment.seg.gz");
+        List<Object[]> rows = List.of(
+                new Object[] { 9L, new BigDecimal("-1.25"), Instant.parse("2026-01-01T00:00:00.123456Z"), "rent, é" },
+                new Object[] { 3L, null, Instant.EPOCH, null },
+                new Object[] { Long.MAX_VALUE, new BigDecimal("1E+3"), Instant.parse("1999-12-31T23:59:59Z"), "" });
+
+        ArchiveSegment.write(file, COLUMNS, rows);
+        Rows read = ArchiveSegment.read(file);
+
+        assertThat(read.columns()).isEqualTo(COLUMNS);
+        assertThat(read.rows()).hasSize(3);
+        for (int r = 0; r < rows.size(); r++) {
+            assertThat(read.rows().get(r)).containsExactly(rows.get(r));
+        }
+        // Scale survives, not just the value
+        assertThat(((BigDecimal) read.rows().get(2)[1]).scale()).isEqualTo(-3);
+    }
+
+    @Test
+    void leavesNoTempFileBehind() throws Exception {
+        Path file = root.resolve("new/dirs/segment.seg.gz");
+
+        ArchiveSegment.write(file, COLUMNS, List.<Object[]>of(new Object[] { 1L, BigDecimal.ONE, Instant.EPOCH, "x" }));
+
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    @Test
+    void walletFilterNeverMissesAndRarelyLies() throws Exception {
+        Set<Long> wallets = new HashSet<>();
+        for (long id = 0; id < 5_000; id++) {
+            wallets.add(id * 2);
+        }
+        Path file = root.resolve("segment.wallets");
+        ArchiveSegment.writeWalletFilter(file, WalletFilter.of(wallets));
+        WalletFilter filter = ArchiveSegment.readWalletFilter(file);
+
+        int falsePositives = 0;
+        for (long id = 0; id < 5_000; id++) {
+            assertThat(filter.mightContain(id * 2)).isTrue();
+            if (filter.mightContain(id * 2 + 1)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(150);
+    }
+}
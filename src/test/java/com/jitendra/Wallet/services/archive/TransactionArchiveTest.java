@@ -0,0 +1,105 @@
+package com.jitendra.Wallet.services.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.jitendra.Wallet.dto.TransactionResponseDTO;
+
+class TransactionArchiveTest {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    @TempDir
+    Path root;
+
+    private TransactionArchive archive;
+
+    @BeforeEach
+    void archive() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(root.toString());
+        archive = new TransactionArchive(properties);
+    }
+
+    private static Object[] row(long id, long source, long destination, long minutes) {
+        Instant created = T0.plusSeconds(minutes * 60);
+        return new Object[] { id, "t" + id, source, destination, new BigDecimal("1.00"), "SUCCESS", "TRANSFER", 0L,
+                created, created };
+    }
+
+    private void write(String shard, Object[]... rows) throws Exception {
+        archive.writeSegment(TransactionArchive.TRANSACTIONS, shard, TransactionArchive.TRANSACTION_COLUMNS,
+                Arrays.asList(rows));
+    }
+
+    private static List<Long> ids(Iterator<TransactionResponseDTO> rows) {
+        List<Long> ids = new ArrayList<>();
+        rows.forEachRemaining(row -> ids.add(row.getId()));
+        return ids;
+    }
+
+    @Test
+    void mergesOverlappingSegmentsAcrossShardsInCreatedOrder() throws Exception {
+        write("shardwallet1", row(1, 7, 8, 0), row(3, 7, 9, 20));
+        write("shardwallet2", row(2, 8, 7, 10), row(4, 7, 8, 30));
+        // A transfer that stayed PENDING past the horizon left later, in an overlapping segment
+        write("shardwallet1", row(5, 9, 7, 15), row(6, 7, 8, 40));
+
+        assertThat(ids(archive.walletTransactions(7, T0, T0.plusSeconds(3_600))))
+                .containsExactly(1L, 2L, 5L, 3L, 4L, 6L);
+        assertThat(ids(archive.walletTransactions(7, T0.plusSeconds(600), T0.plusSeconds(1_800))))
+                .containsExactly(2L, 5L, 3L);
+        assertThat(archive.countWalletTransactions(9, T0, T0.plusSeconds(3_600))).isEqualTo(2);
+    }
+
+    @Test
+    void listsARowArchivedTwiceOnce() throws Exception {
+        // Crash between the segment write and the DELETE: the next run archives the same rows again
+        write("shardwallet1", row(1, 7, 8, 0), row(2, 7, 8, 5));
+        write("shardwallet1", row(2, 7, 8, 5), row(3, 7, 8, 10));
+
+        assertThat(ids(archive.walletTransactions(7, T0, T0.plusSeconds(3_600)))).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void writesAWalletFilterNextToEachTransactionSegment() throws Exception {
+        write("shardwallet1", row(1, 7, 8, 0));
+
+        try (Stream<Path> files = Files.list(root.resolve("transactions/shardwallet1"))) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                    .containsExactlyInAnyOrder("1735689600000_1735689600000_1_1.seg.gz",
+                            "1735689600000_1735689600000_1_1.wallets");
+        }
+        assertThat(archive.walletTransactions(12345, T0, T0.plusSeconds(60)).hasNext()).isFalse();
+    }
+
+    @Test
+    void stillReadsSegmentsWrittenWithoutAFilter() throws Exception {
+        write("shardwallet1", row(1, 7, 8, 0));
+        Files.delete(root.resolve("transactions/shardwallet1/1735689600000_1735689600000_1_1.wallets"));
+
+        assertThat(ids(archive.walletTransactions(8, T0, T0.plusSeconds(60)))).containsExactly(1L);
+    }
+
+    @Test
+    void findsATransactionById() throws Exception {
+        write("shardwallet2", row(10, 7, 8, 0), row(11, 7, 8, 1));
+
+        assertThat(archive.findTransaction(11)).hasValueSatisfying(row -> assertThat(row.getDescription())
+                .isEqualTo("t11"));
+        assertThat(archive.findTransaction(12)).isEmpty();
+    }
+}
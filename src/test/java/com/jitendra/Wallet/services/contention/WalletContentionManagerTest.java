@@ -0,0 +1,135 @@
+package com.jitendra.Wallet.services.contention;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.jitendra.Wallet.entity.SagaInstance;
+import com.jitendra.Wallet.entity.Wallet;
+import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WalletContentionManagerTest {
+
+    private final ContentionProperties properties = new ContentionProperties();
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WalletContentionManager manager;
+
+    @BeforeEach
+    void manager() {
+        // Scores decay from the moment they are recorded, so a conflict a few
+        // ms old counts a hair under 1.0; a long half-life keeps that a hair
+        properties.setHalfLifeMs(3_600_000);
+        properties.setHotThreshold(2.99);
+        manager = new WalletContentionManager(properties, walletRepository, shardRouter, meterRegistry);
+    }
+
+    private static ObjectOptimisticLockingFailureException conflictOn(long walletId) {
+        return new ObjectOptimisticLockingFailureException(Wallet.class, walletId);
+    }
+
+    private void conflicts(long walletId, int times) {
+        for (int i = 0; i < times; i++) {
+            manager.recordFailure(conflictOn(walletId));
+        }
+    }
+
+    private double hotGauge() {
+        return meterRegistry.get("wallet.contention.hot").gauge().value();
+    }
+
+    @Test
+    void turnsPessimisticAtTheHotThreshold() {
+        conflicts(7L, 2);
+        assertThat(manager.isHot(7L)).isFalse();
+
+        conflicts(7L, 1);
+
+        assertThat(manager.isHot(7L)).isTrue();
+        assertThat(manager.isHot(8L)).isFalse();
+        assertThat(hotGauge()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("wallet.contention.conflicts").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void locksHotWalletsAndFindsColdOnes() {
+        Wallet wallet = new Wallet();
+        when(walletRepository.findById(8L)).thenReturn(Optional.of(wallet));
+        when(shardRouter.ownerOf(7L)).thenReturn(70L);
+        when(walletRepository.findAllForUpdateOrderById(List.of(70L), List.of(7L))).thenReturn(List.of(wallet));
+        conflicts(7L, 3);
+
+        assertThat(manager.loadForUpdate(7L)).containsSame(wallet);
+        assertThat(manager.loadForUpdate(8L)).containsSame(wallet);
+        verify(walletRepository, never()).findById(7L);
+    }
+
+    @Test
+    void coolsDownOnceTheScoreDecays() throws Exception {
+        properties.setHalfLifeMs(10);
+        conflicts(7L, 3);
+        assertThat(manager.isHot(7L)).isTrue();
+
+        // 3 halves to below 0.5 after three half-lives
+        Thread.sleep(100);
+
+        assertThat(manager.isHot(7L)).isFalse();
+        assertThat(meterRegistry.get("wallet.contention.switches").tag("mode", "optimistic").counter().count())
+                .isEqualTo(1.0);
+        manager.sweep();
+        assertThat(hotGauge()).isZero();
+    }
+
+    @Test
+    void findsTheWalletAnywhereInTheCauseChain() {
+        RuntimeException wrapped = new RuntimeException("step failed", conflictOn(7L));
+
+        conflicts(7L, 2);
+        manager.recordFailure(wrapped);
+
+        assertThat(manager.isHot(7L)).isTrue();
+    }
+
+    @Test
+    void ignoresEverythingButWalletConflicts() {
+        for (int i = 0; i < 5; i++) {
+            manager.recordFailure(new CannotAcquireLockException("lock_timeout"));
+            manager.recordFailure(new ObjectOptimisticLockingFailureException(SagaInstance.class, 7L));
+            manager.recordFailure(null);
+        }
+
+        assertThat(manager.isHot(7L)).isFalse();
+        assertThat(meterRegistry.get("wallet.contention.conflicts").counter().count()).isZero();
+    }
+
+    @Test
+    void staysOptimisticWhenDisabledOrFull() {
+        properties.setMaxTrackedWallets(1);
+        conflicts(7L, 1);
+        conflicts(8L, 3);
+        assertThat(manager.isHot(8L)).isFalse();
+
+        conflicts(7L, 2);
+        assertThat(manager.isHot(7L)).isTrue();
+        properties.setEnabled(false);
+        assertThat(manager.isHot(7L)).isFalse();
+        manager.loadForUpdate(7L);
+        verify(walletRepository).findById(7L);
+        verify(walletRepository, never()).findAllForUpdateOrderById(any(), any());
+    }
+}
@@ -0,0 +1,105 @@
+package com.jitendra.Wallet.services.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.matches;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DeadlineEnforcingDataSourceTest {
+
+    private final DataSource pool = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final Statement setLocal = mock(Statement.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private Connection wrapped;
+
+    @BeforeEach
+    void wrap() throws Exception {
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(setLocal);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        // Inside a transaction
+        when(connection.getAutoCommit()).thenReturn(false);
+        wrapped = new DeadlineEnforcingDataSource(pool, 1_000).getConnection();
+    }
+
+    @Test
+    void setsServerTimeoutsOncePerTransactionAndAQueryTimeoutPerStatement() throws Exception {
+        try (StepDeadline.Scope scope = StepDeadline.enter(System.currentTimeMillis() + 3_000)) {
+            wrapped.prepareStatement("UPDATE wallet SET balance = ?").executeUpdate();
+            wrapped.prepareStatement("SELECT 1").executeQuery();
+
+            verify(setLocal).execute(startsWith("SET LOCAL lock_timeout = 1000; SET LOCAL statement_timeout = "));
+            verify(statement, times(2)).setQueryTimeout(3);
+
+            // The next transaction on this connection gets them again
+            wrapped.commit();
+            wrapped.prepareStatement("SELECT 1").executeQuery();
+            verify(setLocal, times(2)).execute(anyString());
+        }
+    }
+
+    @Test
+    void capsTheLockTimeoutAtTheRemainingBudget() throws Exception {
+        try (StepDeadline.Scope scope = StepDeadline.enter(System.currentTimeMillis() + 400)) {
+            wrapped.prepareStatement("SELECT 1").executeQuery();
+        }
+
+        // 400 ms or a little less, whatever is left when the statement goes out
+        verify(setLocal).execute(matches("SET LOCAL lock_timeout = (3\\d\\d|400);.*"));
+    }
+
+    @Test
+    void refusesAStatementOnceTheBudgetIsSpent() throws Exception {
+        PreparedStatement prepared = wrapped.prepareStatement("SELECT 1");
+        try (StepDeadline.Scope scope = StepDeadline.enter(System.currentTimeMillis() - 1)) {
+            assertThatThrownBy(prepared::executeQuery).isInstanceOf(SQLTimeoutException.class);
+        }
+
+        verify(statement, never()).executeQuery();
+    }
+
+    @Test
+    void leavesStatementsOutsideADeadlineAndAutocommitAlone() throws Exception {
+        wrapped.prepareStatement("SELECT 1").executeQuery();
+        verify(statement, never()).setQueryTimeout(anyInt());
+
+        when(connection.getAutoCommit()).thenReturn(true);
+        try (StepDeadline.Scope scope = StepDeadline.enter(System.currentTimeMillis() + 3_000)) {
+            wrapped.prepareStatement("SELECT 1").executeQuery();
+        }
+        // SET LOCAL would not outlive its own statement; the JDBC timeout still applies
+        verify(setLocal, never()).execute(anyString());
+        verify(statement).setQueryTimeout(3);
+    }
+
+    @Test
+    void passesPoolsThroughWhenDisabled() {
+        DeadlineProperties properties = new DeadlineProperties();
+        properties.setEnabled(false);
+
+        assertThat(DeadlineEnforcingDataSource.wrap(Map.of("shardwallet1", pool), properties))
+                .containsEntry("shardwallet1", pool);
+        properties.setEnabled(true);
+        assertThat(DeadlineEnforcingDataSource.wrap(Map.of("shardwallet1", pool), properties).get("shardwallet1"))
+                .isInstanceOf(DeadlineEnforcingDataSource.class);
+    }
+}
@@ -0,0 +1,57 @@
+package com.jitendra.Wallet.services.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.jitendra.Wallet.exception.StepDeadlineExceededException;
+
+class StepDeadlineTest {
+
+    @Test
+    void aNestedScopeOnlyShortensAndIsUndoneOnClose() {
+        long now = System.currentTimeMillis();
+        try (StepDeadline.Scope outer = StepDeadline.enter(now + 5_000)) {
+            try (StepDeadline.Scope inner = StepDeadline.enter(now + 10_000)) {
+                assertThat(StepDeadline.current()).isEqualTo(now + 5_000);
+            }
+            try (StepDeadline.Scope inner = StepDeadline.enter(now + 1_000)) {
+                assertThat(StepDeadline.current()).isEqualTo(now + 1_000);
+            }
+            assertThat(StepDeadline.current()).isEqualTo(now + 5_000);
+        }
+        assertThat(StepDeadline.current()).isZero();
+    }
+
+    @Test
+    void checkFailsOnlyOnceTheDeadlinePassed() {
+        assertThatNoException().isThrownBy(() -> StepDeadline.check("no deadline"));
+        try (StepDeadline.Scope scope = StepDeadline.enter(System.currentTimeMillis() + 60_000)) {
+            assertThatNoException().isThrownBy(() -> StepDeadline.check("step"));
+        }
+        try (StepDeadline.Scope scope = StepDeadline.enter(System.currentTimeMillis() - 1)) {
+            assertThatThrownBy(() -> StepDeadline.check("step"))
+                    .isInstanceOf(StepDeadlineExceededException.class)
+                    .hasMessageContaining("step");
+        }
+    }
+
+    @Test
+    void propagatesTheDeadlineToTheThreadThatRunsTheTask() throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        Supplier<Long> task;
+        try (StepDeadline.Scope scope = StepDeadline.enter(deadline)) {
+            task = StepDeadline.propagate(StepDeadline::current);
+        }
+
+        assertThat(CompletableFuture.supplyAsync(task).get()).isEqualTo(deadline);
+        // Nothing is left behind on the thread that ran it
+        assertThat(task.get()).isEqualTo(deadline);
+        assertThat(StepDeadline.current()).isZero();
+    }
+}
@@ -0,0 +1,116 @@
+package com.jitendra.Wallet.services.diagnostics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.jitendra.Wallet.dto.RecordingDTO;
+import com.jitendra.Wallet.exception.BusinessException;
+import com.jitendra.Wallet.exception.ResourceNotFoundException;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightRecorderServiceTest {
+
+    private final DiagnosticsProperties properties = new DiagnosticsProperties();
+    private final FlightRecorderService service = new FlightRecorderService(properties);
+    private RecordingDTO recording;
+
+    @BeforeEach
+    void enable() {
+        properties.setEnabled(true);
+    }
+
+    @AfterEach
+    void stop() {
+        if (recording != null && service.list().stream().anyMatch(r -> r.getId().equals(recording.getId()))) {
+            service.stop(recording.getId());
+        }
+    }
+
+    @Test
+    void startsListsAndStopsARecording() {
+        recording = service.start("test", null, 5L);
+
+        assertThat(recording.getName()).isEqualTo("test");
+        assertThat(recording.getState()).isEqualTo("RUNNING");
+        assertThat(recording.getMaxAgeSeconds()).isEqualTo(300);
+        assertThat(service.list()).extracting(RecordingDTO::getId).contains(recording.getId());
+
+        service.stop(recording.getId());
+
+        assertThat(service.list()).extracting(RecordingDTO::getId).doesNotContain(recording.getId());
+    }
+
+    @Test
+    void dumpsTheWalletEventsRecordedSoFar() throws Exception {
+        recording = service.start(null, "default", null);
+
+        SagaStepExecutedEvent step = new SagaStepExecutedEvent();
+        step.begin();
+        step.finish(42L, "DEBIT_SOURCE_WALLET", false, () -> "shardwallet1", 1, true);
+        WalletBalanceMutatedEvent mutation = new WalletBalanceMutatedEvent();
+        mutation.begin();
+        mutation.finish(7L, () -> "shardwallet2", "DEBIT", new BigDecimal("12.50"), null, null);
+
+        Path file = service.dump(recording.getId());
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertThat(events)
+                    .filteredOn(e -> e.getEventType().getName().equals("com.jitendra.wallet.SagaStepExecuted"))
+                    .singleElement()
+                    .satisfies(e -> {
+                        assertThat(e.getLong("sagaInstanceId")).isEqualTo(42L);
+                        assertThat(e.getString("shard")).isEqualTo("shardwallet1");
+                        assertThat(e.getInt("retryCount")).isEqualTo(1);
+                    });
+            assertThat(events)
+                    .filteredOn(e -> e.getEventType().getName().equals("com.jitendra.wallet.WalletBalanceMutated"))
+                    .singleElement()
+                    .satisfies(e -> {
+                        assertThat(e.getString("amount")).isEqualTo("12.50");
+                        assertThat(e.getLong("sagaInstanceId")).isZero();
+                    });
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void resolvesTheShardOnlyWhenARecordingWantsTheEvent() {
+        AtomicBoolean resolved = new AtomicBoolean();
+
+        SagaStepRetriedEvent retry = new SagaStepRetriedEvent();
+        retry.begin();
+        retry.finish(42L, "DEBIT_SOURCE_WALLET", false, () -> {
+            resolved.set(true);
+            return "shardwallet1";
+        }, 1, new IllegalStateException("lock"));
+
+        assertThat(resolved).isFalse();
+    }
+
+    @Test
+    void rejectsUnknownSettingsAndRecordings() {
+        assertThatThrownBy(() -> service.start("test", "nope", null)).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.stop(-1)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void answersNotFoundWhenDisabled() {
+        properties.setEnabled(false);
+
+        assertThatThrownBy(service::list).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> service.start("test", null, null)).isInstanceOf(ResourceNotFoundException.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.jitendra.Wallet.services.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+class BalanceHistoryServiceTest {
+
+    private static final long WALLET = 1L;
+    private static final long OWNER = 10L;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private final BalanceHistoryService service = new BalanceHistoryService(jdbcTemplate, shardRouter);
+
+    @BeforeEach
+    void owner() {
+        when(shardRouter.ownerOf(WALLET)).thenReturn(OWNER);
+    }
+
+    private void snapshot(long seq, String balance) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("seq")).thenReturn(seq);
+        when(rs.getBigDecimal("balance")).thenReturn(new BigDecimal(balance));
+        doAnswer(invocation -> List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(rs, 0)))
+                .when(jdbcTemplate).query(startsWith("SELECT seq, balance"), any(RowMapper.class), any(), any(), any());
+    }
+
+    private void entry(String balanceAfter) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getBigDecimal("balance_after")).thenReturn(balanceAfter == null ? null : new BigDecimal(balanceAfter));
+        doAnswer(invocation -> balanceAfter == null ? List.of()
+                : List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(rs, 0)))
+                .when(jdbcTemplate).query(startsWith("SELECT balance_after"), any(RowMapper.class),
+                        any(), any(), any(), any());
+    }
+
+    @Test
+    void latestEntryAfterTheCheckpointWins() throws Exception {
+        snapshot(5, "40.00");
+        entry("55.00");
+
+        assertThat(service.getBalanceAsOf(WALLET, Instant.now())).isEqualByComparingTo("55.00");
+        // Entries are ordered by seq within the wallet, never by created_at
+        verify(jdbcTemplate).query(contains("ORDER BY seq DESC"), any(RowMapper.class),
+                eq(OWNER), eq(WALLET), eq(5L), any());
+    }
+
+    @Test
+    void checkpointAloneWhenNothingChangedSince() throws Exception {
+        snapshot(5, "40.00");
+        entry(null);
+
+        assertThat(service.getBalanceAsOf(WALLET, Instant.now())).isEqualByComparingTo("40.00");
+    }
+
+    @Test
+    void zeroBeforeTheFirstChange() throws Exception {
+        entry(null);
+        doAnswer(invocation -> List.of())
+                .when(jdbcTemplate).query(startsWith("SELECT seq, balance"), any(RowMapper.class), any(), any(), any());
+
+        assertThat(service.getBalanceAsOf(WALLET, Instant.now())).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+}
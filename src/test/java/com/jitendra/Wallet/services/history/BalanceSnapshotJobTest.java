@@ -0,0 +1,41 @@
+package com.jitendra.Wallet.services.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.jitendra.Wallet.config.ShardDataSources;
+
+class BalanceSnapshotJobTest {
+
+    @Test
+    void walksWalletWindowsAndStampsSnapshotsInTheReadingStatement() {
+        BalanceHistoryProperties properties = new BalanceHistoryProperties();
+        properties.setSnapshotBatchSize(2);
+        BalanceSnapshotJob job = new BalanceSnapshotJob(
+                new ShardDataSources(Map.of("shardwallet1", mock(DataSource.class))), properties);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(Long.MIN_VALUE), eq(2)))
+                .thenReturn(List.of(3L, 7L));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(7L), eq(2))).thenReturn(List.of(9L));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(9L), eq(2))).thenReturn(List.of());
+        when(jdbcTemplate.update(anyString(), eq(Long.MIN_VALUE), eq(7L))).thenReturn(2);
+        when(jdbcTemplate.update(anyString(), eq(7L), eq(9L))).thenReturn(1);
+
+        assertThat(job.checkpointShard(jdbcTemplate)).isEqualTo(3);
+        // No timestamp taken in Java ahead of the read
+        verify(jdbcTemplate).update(contains("clock_timestamp()"), eq(Long.MIN_VALUE), eq(7L));
+    }
+}
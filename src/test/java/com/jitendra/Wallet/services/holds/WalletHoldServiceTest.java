@@ -0,0 +1,127 @@
+package com.jitendra.Wallet.services.holds;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.jitendra.Wallet.entity.WalletHold;
+import com.jitendra.Wallet.exception.BusinessException;
+import com.jitendra.Wallet.exception.ResourceNotFoundException;
+import com.jitendra.Wallet.repository.WalletHoldRepository;
+import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.mailbox.WalletMailboxExecutor;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+class WalletHoldServiceTest {
+
+    private static final long WALLET = 1L;
+    private static final long OWNER = 10L;
+    private static final long HOLD = 100L;
+    private static final BigDecimal AMOUNT = new BigDecimal("15.00");
+
+    private final WalletHoldRepository holdRepository = mock(WalletHoldRepository.class);
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private final WalletMailboxExecutor walletMailbox = mock(WalletMailboxExecutor.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final WalletHoldService service = new WalletHoldService(holdRepository, walletRepository, shardRouter,
+            new HoldProperties(), walletMailbox, transactionManager);
+
+    @BeforeEach
+    void owner() {
+        when(shardRouter.ownerOf(WALLET)).thenReturn(OWNER);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(walletMailbox.call(any(), any())).thenAnswer(invocation -> {
+            Supplier<?> task = invocation.getArgument(1);
+            return task.get();
+        });
+    }
+
+    private void lockedHold(Instant expiresAt) {
+        WalletHold hold = WalletHold.builder().id(HOLD).walletId(WALLET).userId(OWNER).amount(AMOUNT)
+                .createdAt(Instant.now()).expiresAt(expiresAt).build();
+        when(holdRepository.findForUpdate(HOLD, WALLET, OWNER)).thenReturn(Optional.of(hold));
+    }
+
+    @Test
+    void releaseDeletesHoldAndReturnsHeldAmount() {
+        lockedHold(Instant.now().plusSeconds(60));
+        when(holdRepository.deleteHold(HOLD, OWNER)).thenReturn(1);
+        when(walletRepository.releaseReserved(WALLET, OWNER, AMOUNT)).thenReturn(1);
+
+        assertThatCode(() -> service.releaseHold(WALLET, HOLD)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void holdSweptMeanwhileIsNotReleasedTwice() {
+        when(holdRepository.findForUpdate(HOLD, WALLET, OWNER)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.releaseHold(WALLET, HOLD)).isInstanceOf(ResourceNotFoundException.class);
+        verify(walletRepository, never()).releaseReserved(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void holdDeletedByAnotherSettlementIsNotReleasedTwice() {
+        lockedHold(Instant.now().plusSeconds(60));
+        when(holdRepository.deleteHold(HOLD, OWNER)).thenReturn(0);
+
+        assertThatThrownBy(() -> service.releaseHold(WALLET, HOLD)).isInstanceOf(ResourceNotFoundException.class);
+        verify(walletRepository, never()).releaseReserved(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void releaseFailsWhenHeldBalanceDoesNotCoverTheHold() {
+        lockedHold(Instant.now().plusSeconds(60));
+        when(holdRepository.deleteHold(HOLD, OWNER)).thenReturn(1);
+        when(walletRepository.releaseReserved(WALLET, OWNER, AMOUNT)).thenReturn(0);
+
+        assertThatThrownBy(() -> service.releaseHold(WALLET, HOLD)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void expiredHoldCannotBeCaptured() {
+        lockedHold(Instant.now().minusSeconds(1));
+
+        assertThatThrownBy(() -> service.captureHold(WALLET, HOLD)).isInstanceOf(BusinessException.class);
+        verify(holdRepository, never()).deleteHold(anyLong(), anyLong());
+    }
+
+    @Test
+    void captureDebitsTheHeldAmount() {
+        lockedHold(Instant.now().plusSeconds(60));
+        when(holdRepository.deleteHold(HOLD, OWNER)).thenReturn(1);
+        when(walletRepository.confirmReserved(WALLET, OWNER, AMOUNT)).thenReturn(1);
+
+        service.captureHold(WALLET, HOLD);
+
+        verify(walletRepository).confirmReserved(WALLET, OWNER, AMOUNT);
+    }
+
+    @Test
+    void settlesOnTheWalletsMailboxInItsOwnTransaction() {
+        lockedHold(Instant.now().plusSeconds(60));
+        when(holdRepository.deleteHold(HOLD, OWNER)).thenReturn(1);
+        when(walletRepository.releaseReserved(WALLET, OWNER, AMOUNT)).thenReturn(1);
+
+        service.releaseHold(WALLET, HOLD);
+
+        verify(walletMailbox).call(eq(WALLET), any());
+        verify(transactionManager).commit(any());
+    }
+}
@@ -0,0 +1,36 @@
+package com.jitendra.Wallet.services.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class LedgerRingBufferTest {
+
+    @Test
+    void rejectsCapacityThatIsNotAPowerOfTwo() {
+        assertThatThrownBy(() -> new LedgerRingBuffer<>(6)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void refusesOffersWhenFullAndFreesSlotsOnDrain() {
+        LedgerRingBuffer<Integer> buffer = new LedgerRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 3)).isEqualTo(3);
+        assertThat(drained).containsExactly(0, 1, 2);
+
+        assertThat(buffer.offer(4)).isTrue();
+        drained.clear();
+        buffer.drainTo(drained, 10);
+        assertThat(drained).containsExactly(3, 4);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,125 @@
+package com.jitendra.Wallet.services.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.jitendra.Wallet.entity.TransactionStatus;
+import com.jitendra.Wallet.services.ledger.LedgerJournalWriter.BatchConflictException;
+import com.jitendra.Wallet.services.ledger.LedgerJournalWriter.CachedBalance;
+
+class LedgerShardTest {
+
+    private final LedgerJournalWriter writer = mock(LedgerJournalWriter.class);
+
+    private static LedgerTransfer transfer(long transactionId, long sourceWalletId, long destinationWalletId,
+            long amountCents) {
+        return new LedgerTransfer(transactionId, sourceWalletId, sourceWalletId * 10, destinationWalletId,
+                destinationWalletId * 10, amountCents, new CompletableFuture<>());
+    }
+
+    private static Map<Long, Long> balances(long... walletAndCents) {
+        Map<Long, Long> balances = new HashMap<>();
+        for (int i = 0; i < walletAndCents.length; i += 2) {
+            balances.put(walletAndCents[i], walletAndCents[i + 1]);
+        }
+        return balances;
+    }
+
+    @Test
+    void appliesCoveredTransfer() {
+        when(writer.loadBalances(anyMap())).thenReturn(balances(1, 500, 2, 0));
+        when(writer.commit(anyList(), anyList(), anyCollection(), anyCollection())).thenReturn(Map.of());
+        LedgerShard shard = new LedgerShard("shardwallet1", 16, 16, 1_000, writer);
+
+        LedgerTransfer transfer = transfer(7, 1, 2, 300);
+        shard.processBatch(List.of(transfer));
+
+        assertThat(transfer.result()).isCompletedWithValue(TransactionStatus.SUCCESS);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rejectionCarriesCachedBalancesForConfirmation() {
+        when(writer.loadBalances(anyMap())).thenReturn(balances(1, 100, 2, 0));
+        when(writer.commit(anyList(), anyList(), anyCollection(), anyCollection())).thenReturn(Map.of());
+        LedgerShard shard = new LedgerShard("shardwallet1", 16, 16, 1_000, writer);
+
+        LedgerTransfer transfer = transfer(7, 1, 2, 300);
+        shard.processBatch(List.of(transfer));
+
+        ArgumentCaptor<Collection<CachedBalance>> confirmed = ArgumentCaptor.forClass(Collection.class);
+        verify(writer).commit(anyList(), anyList(), anyCollection(), confirmed.capture());
+        assertThat(confirmed.getValue()).containsExactlyInAnyOrder(
+                new CachedBalance(1, 10, 100), new CachedBalance(2, 20, 0));
+        assertThat(transfer.result()).isCompletedWithValue(TransactionStatus.FAILED);
+    }
+
+    @Test
+    void staleRejectionIsRetriedWithReloadedBalances() {
+        // Cache says the source is empty; the locked row disagrees, so the batch
+        // conflicts and the retry sees the real balance
+        when(writer.loadBalances(anyMap())).thenReturn(balances(1, 0, 2, 0), balances(1, 500, 2, 0));
+        when(writer.commit(anyList(), anyList(), anyCollection(), anyCollection()))
+                .thenThrow(new BatchConflictException("Cached balance of wallet 1 is stale", null))
+                .thenReturn(Map.of());
+        LedgerShard shard = new LedgerShard("shardwallet1", 16, 16, 1_000, writer);
+
+        LedgerTransfer transfer = transfer(7, 1, 2, 300);
+        shard.processBatch(List.of(transfer));
+
+        verify(writer, times(2)).loadBalances(anyMap());
+        assertThat(transfer.result()).isCompletedWithValue(TransactionStatus.SUCCESS);
+    }
+
+    @Test
+    void skipsTransfersWhoseCallerGaveUp() {
+        LedgerShard shard = new LedgerShard("shardwallet1", 16, 16, 1_000, writer);
+
+        LedgerTransfer transfer = transfer(7, 1, 2, 300);
+        transfer.result().cancel(false);
+        shard.processBatch(List.of(transfer));
+
+        verify(writer, times(0)).commit(anyList(), anyList(), anyCollection(), anyCollection());
+    }
+
+    @Test
+    void clearsCacheOnceItExceedsTheBound() {
+        when(writer.loadBalances(anyMap())).thenReturn(balances(1, 500, 2, 0));
+        when(writer.commit(anyList(), anyList(), anyCollection(), anyCollection()))
+                .thenReturn(balances(1, 400, 2, 100));
+        LedgerShard shard = new LedgerShard("shardwallet1", 16, 16, 1, writer);
+
+        shard.processBatch(List.of(transfer(7, 1, 2, 100)));
+        shard.processBatch(List.of(transfer(8, 1, 2, 100)));
+
+        verify(writer, times(2)).loadBalances(anyMap());
+    }
+
+    @Test
+    void keepsCacheWithinTheBound() {
+        when(writer.loadBalances(anyMap())).thenReturn(balances(1, 500, 2, 0));
+        when(writer.commit(anyList(), anyList(), anyCollection(), anyCollection()))
+                .thenReturn(balances(1, 400, 2, 100));
+        LedgerShard shard = new LedgerShard("shardwallet1", 16, 16, 1_000, writer);
+
+        shard.processBatch(List.of(transfer(7, 1, 2, 100)));
+        shard.processBatch(List.of(transfer(8, 1, 2, 100)));
+
+        verify(writer, times(1)).loadBalances(anyMap());
+    }
+}
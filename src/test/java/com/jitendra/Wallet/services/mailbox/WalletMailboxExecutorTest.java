@@ -0,0 +1,109 @@
+package com.jitendra.Wallet.services.mailbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class WalletMailboxExecutorTest {
+
+    private final WalletMailboxProperties properties = new WalletMailboxProperties();
+    private WalletMailboxExecutor mailbox;
+
+    private WalletMailboxExecutor mailbox(long awaitTimeoutMs) {
+        // One mailbox, so every wallet queues behind every other
+        properties.setShards(1);
+        properties.setAwaitTimeoutMs(awaitTimeoutMs);
+        mailbox = new WalletMailboxExecutor(properties);
+        return mailbox;
+    }
+
+    @AfterEach
+    void stop() {
+        if (mailbox != null) {
+            mailbox.stop();
+        }
+    }
+
+    @Test
+    void waitsForAStartedTaskPastTheTimeout() {
+        mailbox(50);
+
+        // Still running when the caller's wait times out, then commits
+        String result = mailbox.call(1L, () -> {
+            sleep(300);
+            return "committed";
+        });
+
+        assertThat(result).isEqualTo("committed");
+    }
+
+    @Test
+    void skipsAQueuedTaskWhoseCallerGaveUp() throws Exception {
+        mailbox(50);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocking = new CountDownLatch(1);
+        CompletableFuture<Void> blocker = CompletableFuture.runAsync(() -> mailbox.call(1L, () -> {
+            blocking.countDown();
+            await(release);
+            return null;
+        }));
+        assertThat(blocking.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicBoolean ran = new AtomicBoolean();
+        assertThatThrownBy(() -> mailbox.call(2L, () -> {
+            ran.set(true);
+            return null;
+        })).isInstanceOf(IllegalStateException.class);
+
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        // Anything queued after the skipped task still runs, and the skipped one never does
+        assertThat(mailbox.call(3L, () -> "next")).isEqualTo("next");
+        assertThat(ran).isFalse();
+    }
+
+    @Test
+    void passesTheTasksExceptionThrough() {
+        mailbox(1_000);
+        IllegalArgumentException failure = new IllegalArgumentException("insufficient funds");
+
+        assertThatThrownBy(() -> mailbox.call(1L, () -> {
+            throw failure;
+        })).isSameAs(failure);
+    }
+
+    @Test
+    void runsOnTheCallersThreadWhenDisabledOrWithoutAWallet() {
+        properties.setEnabled(false);
+        mailbox(1_000);
+        Thread caller = Thread.currentThread();
+
+        assertThat(mailbox.call(1L, Thread::currentThread)).isSameAs(caller);
+        properties.setEnabled(true);
+        assertThat(mailbox.call(null, Thread::currentThread)).isSameAs(caller);
+        assertThat(mailbox.call(1L, Thread::currentThread)).isNotSameAs(caller);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.jitendra.Wallet.services.paging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jitendra.Wallet.config.ShardDataSources;
+
+class PageCounterTest {
+
+    private final PagingProperties properties = new PagingProperties();
+    private final DataSource shard = mock(DataSource.class);
+    private final PageCounter counter = new PageCounter(properties, new ObjectMapper(),
+            new ShardDataSources(Map.of("shardwallet1", shard)));
+    private final AtomicInteger exactCounts = new AtomicInteger();
+
+    private CountQuery query(long exactTotal) {
+        return new CountQuery("tx.wallet:1", () -> {
+            exactCounts.incrementAndGet();
+            return exactTotal;
+        }, "SELECT 1 FROM transactions WHERE source_wallet_id = ?", 1L);
+    }
+
+    private static SliceImpl<String> middlePage() {
+        return new SliceImpl<>(List.of("a", "b"), PageRequest.of(1, 2), true);
+    }
+
+    private void plannerEstimates(long rows) throws SQLException {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(1);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true, false);
+        when(rs.getMetaData()).thenReturn(metaData);
+        when(rs.getString(1)).thenReturn("[{\"Plan\": {\"Plan Rows\": " + rows + "}}]");
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(rs);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(shard.getConnection()).thenReturn(connection);
+    }
+
+    @Test
+    void exactRunsTheCountEveryTime() {
+        counter.toPage(middlePage(), CountMode.EXACT, query(50));
+        Page<String> page = counter.toPage(middlePage(), CountMode.EXACT, query(50));
+
+        assertThat(page.getTotalElements()).isEqualTo(50);
+        assertThat(exactCounts).hasValue(2);
+    }
+
+    @Test
+    void cachedRunsTheCountOncePerTtl() {
+        counter.toPage(middlePage(), CountMode.CACHED, query(50));
+        Page<String> page = counter.toPage(middlePage(), CountMode.CACHED, query(51));
+
+        assertThat(page.getTotalElements()).isEqualTo(50);
+        assertThat(exactCounts).hasValue(1);
+    }
+
+    @Test
+    void autoIsExactForFreeOnTheLastPage() {
+        Page<String> page = counter.toPage(new SliceImpl<>(List.of("a"), PageRequest.of(3, 2), false),
+                CountMode.AUTO, query(1_000));
+
+        assertThat(page.getTotalElements()).isEqualTo(7);
+        assertThat(exactCounts).hasValue(0);
+    }
+
+    @Test
+    void totalIsNeverBelowWhatTheSliceProves() {
+        Page<String> page = counter.toPage(middlePage(), CountMode.EXACT, query(0));
+
+        assertThat(page.getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    void estimatedSumsPlannerRowsWithoutCounting() throws SQLException {
+        plannerEstimates(12_345);
+
+        Page<String> page = counter.toPage(middlePage(), CountMode.ESTIMATED, query(50));
+
+        assertThat(page.getTotalElements()).isEqualTo(12_345);
+        assertThat(exactCounts).hasValue(0);
+    }
+
+    @Test
+    void autoCountsExactlyBelowTheThreshold() throws SQLException {
+        plannerEstimates(100);
+
+        Page<String> page = counter.toPage(middlePage(), CountMode.AUTO, query(80));
+
+        assertThat(page.getTotalElements()).isEqualTo(80);
+    }
+
+    @Test
+    void failedEstimateFallsBackToTheExactCount() throws SQLException {
+        when(shard.getConnection()).thenThrow(new SQLException("shard down"));
+
+        Page<String> page = counter.toPage(middlePage(), CountMode.ESTIMATED, query(50));
+
+        assertThat(page.getTotalElements()).isEqualTo(50);
+    }
+}
@@ -0,0 +1,104 @@
+package com.jitendra.Wallet.services.partitioning;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.jitendra.Wallet.config.ShardDataSources;
+import com.jitendra.Wallet.services.partitioning.PartitionManager.Partition;
+
+class PartitionManagerTest {
+
+    private final PartitionProperties properties = new PartitionProperties();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private PartitionManager manager;
+
+    @BeforeEach
+    void manager() {
+        properties.setDetachAfterMonths(3);
+        manager = new PartitionManager(properties, new ShardDataSources(Map.of()));
+    }
+
+    private static Partition partition(int monthsAgo, boolean detachPending) {
+        YearMonth month = YearMonth.now().minusMonths(monthsAgo);
+        return new Partition("transactions_p" + month.format(DateTimeFormatter.ofPattern("yyyyMM")), month,
+                detachPending);
+    }
+
+    private void attached(Partition... partitions) {
+        doReturn(List.of(partitions)).when(jdbcTemplate).query(anyString(), any(RowMapper.class), eq("transactions"));
+    }
+
+    private void holdsRows(Partition partition, boolean rows) {
+        when(jdbcTemplate.queryForObject(contains("FROM " + partition.name() + ")"), eq(Boolean.class)))
+                .thenReturn(!rows);
+    }
+
+    @Test
+    void detachesAndDropsOldMonthsThatAreEmpty() {
+        Partition old = partition(6, false);
+        attached(old);
+        holdsRows(old, false);
+
+        manager.maintain("shardwallet1", jdbcTemplate, "transactions");
+
+        verify(jdbcTemplate).execute("ALTER TABLE transactions DETACH PARTITION " + old.name() + " CONCURRENTLY");
+        verify(jdbcTemplate).execute("DROP TABLE " + old.name());
+    }
+
+    @Test
+    void keepsAMonthAttachedWhileItStillHoldsRows() {
+        // A PENDING transfer or FAILED saga the archive job leaves behind
+        Partition old = partition(6, false);
+        attached(old);
+        holdsRows(old, true);
+
+        manager.maintain("shardwallet1", jdbcTemplate, "transactions");
+
+        verify(jdbcTemplate, never()).execute(contains("DETACH"));
+        verify(jdbcTemplate, never()).execute(contains("DROP"));
+    }
+
+    @Test
+    void leavesRecentMonthsAlone() {
+        Partition recent = partition(2, false);
+        attached(recent, partition(-1, false));
+
+        manager.maintain("shardwallet1", jdbcTemplate, "transactions");
+
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Boolean.class));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void finishesAnInterruptedDetachOnlyWhenEmpty() {
+        Partition pending = partition(7, true);
+        Partition pendingWithRows = partition(8, true);
+        attached(pending, pendingWithRows);
+        holdsRows(pending, false);
+        holdsRows(pendingWithRows, true);
+        properties.setDropEmptyDetached(false);
+
+        manager.maintain("shardwallet1", jdbcTemplate, "transactions");
+
+        verify(jdbcTemplate).execute("ALTER TABLE transactions DETACH PARTITION " + pending.name() + " FINALIZE");
+        verify(jdbcTemplate, never()).execute(contains(pendingWithRows.name()));
+        verify(jdbcTemplate, never()).execute(contains("DROP"));
+    }
+}
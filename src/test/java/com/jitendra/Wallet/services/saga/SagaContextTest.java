@@ -0,0 +1,84 @@
+package com.jitendra.Wallet.services.saga;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class SagaContextTest {
+
+    @Test
+    void drainsWrittenKeysWithTheirLatestValues() {
+        SagaContext context = new SagaContext();
+        context.put("amount", 10);
+        context.put("amount", 12);
+        context.put("note", "x");
+
+        SagaContext.Changes changes = context.drainChanges();
+
+        assertThat(changes.written()).isEqualTo(Map.of("amount", 12, "note", "x"));
+        assertThat(changes.removed()).isEmpty();
+        assertThat(context.drainChanges().isEmpty()).isTrue();
+    }
+
+    @Test
+    void aRemoveCancelsAnEarlierPutAndViceVersa() {
+        SagaContext context = new SagaContext();
+        context.put("a", 1);
+        context.put("b", 2);
+        context.drainChanges();
+
+        context.put("a", 3);
+        context.remove("a");
+        context.remove("b");
+        context.put("b", 4);
+
+        SagaContext.Changes changes = context.drainChanges();
+        assertThat(changes.written()).isEqualTo(Map.of("b", 4));
+        assertThat(changes.removed()).isEqualTo(Set.of("a"));
+    }
+
+    @Test
+    void clearRemovesEveryKey() {
+        SagaContext context = new SagaContext();
+        context.put("a", 1);
+        context.put("b", 2);
+        context.drainChanges();
+        context.put("c", 3);
+
+        context.clear();
+
+        SagaContext.Changes changes = context.drainChanges();
+        assertThat(changes.written()).isEmpty();
+        assertThat(changes.removed()).containsExactlyInAnyOrder("a", "b", "c");
+    }
+
+    @Test
+    void copiesStartWithNothingToPersist() {
+        SagaContext context = new SagaContext();
+        context.put("a", 1);
+
+        SagaContext copy = context.copy();
+        copy.put("b", 2);
+
+        assertThat(copy.drainChanges().written()).isEqualTo(Map.of("b", 2));
+        // The original's pending change is its own, and its data untouched by the copy
+        assertThat(context.drainChanges().written()).isEqualTo(Map.of("a", 1));
+        assertThat(context.containsKey("b")).isFalse();
+    }
+
+    @Test
+    void trackingNeverReachesTheJsonOrEquality() throws Exception {
+        SagaContext context = SagaContext.builder().sagaInstanceId(5L).sagaType("TRANSFER").build();
+        context.put("a", 1);
+
+        String json = context.toJson();
+        SagaContext read = SagaContext.fromJson(json);
+
+        assertThat(json).doesNotContain("writtenKeys").doesNotContain("removedKeys");
+        assertThat(read).isEqualTo(context);
+        assertThat(read.drainChanges().isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,93 @@
+package com.jitendra.Wallet.services.saga;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.jitendra.Wallet.services.contention.WalletContentionManager;
+import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.SagaStepType;
+import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.SagaType;
+
+class SagaDagExecutorTest {
+
+    private final SagaOrchestrator orchestrator = mock(SagaOrchestrator.class);
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+    private final SagaDagExecutor executor = new SagaDagExecutor(orchestrator,
+            mock(WalletContentionManager.class));
+
+    @Test
+    void linearSagaRunsStepsInOrder() {
+        when(orchestrator.executeStep(anyLong(), anyString(), anyInt())).thenAnswer(invocation -> {
+            executed.add(invocation.getArgument(1));
+            return true;
+        });
+
+        assertThat(executor.execute(1L, SagaType.TRANSACTION_TRANSFER)).isNull();
+        assertThat(executed).containsExactly(SagaStepType.DEBIT_SOURCE_WALLET.name(),
+                SagaStepType.CREDIT_DESTINATION_WALLET.name(), SagaStepType.UPDATE_TRANSACTION_STATUS.name());
+    }
+
+    @Test
+    void independentStepsRunConcurrently() {
+        // Credit and confirm each wait for the other; run serially they would time out
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(orchestrator.executeStep(anyLong(), anyString(), anyInt())).thenAnswer(invocation -> {
+            String step = invocation.getArgument(1);
+            executed.add(step);
+            if (step.equals(SagaStepType.CREDIT_DESTINATION_WALLET.name())
+                    || step.equals(SagaStepType.CONFIRM_SOURCE_DEBIT.name())) {
+                bothStarted.countDown();
+                return bothStarted.await(5, TimeUnit.SECONDS);
+            }
+            return true;
+        });
+
+        assertThat(executor.execute(1L, SagaType.PARALLEL_TRANSACTION_TRANSFER)).isNull();
+        assertThat(executed.get(0)).isEqualTo(SagaStepType.RESERVE_SOURCE_FUNDS.name());
+        assertThat(executed.get(3)).isEqualTo(SagaStepType.UPDATE_TRANSACTION_STATUS.name());
+    }
+
+    @Test
+    void failedReservationStartsNothingElse() {
+        when(orchestrator.executeStep(anyLong(), anyString(), anyInt())).thenAnswer(invocation -> {
+            executed.add(invocation.getArgument(1));
+            return false;
+        });
+
+        assertThat(executor.execute(1L, SagaType.PARALLEL_TRANSACTION_TRANSFER))
+                .isEqualTo(SagaStepType.RESERVE_SOURCE_FUNDS);
+        assertThat(executed).containsExactly(SagaStepType.RESERVE_SOURCE_FUNDS.name());
+    }
+
+    @Test
+    void failedBranchStopsDependentSteps() {
+        when(orchestrator.executeStep(anyLong(), anyString(), anyInt())).thenAnswer(invocation -> {
+            String step = invocation.getArgument(1);
+            executed.add(step);
+            return !step.equals(SagaStepType.CREDIT_DESTINATION_WALLET.name());
+        });
+
+        assertThat(executor.execute(1L, SagaType.PARALLEL_TRANSACTION_TRANSFER))
+                .isEqualTo(SagaStepType.CREDIT_DESTINATION_WALLET);
+        assertThat(executed).doesNotContain(SagaStepType.UPDATE_TRANSACTION_STATUS.name());
+    }
+
+    @Test
+    void aStepThatThrowsCountsAsFailed() {
+        when(orchestrator.executeStep(anyLong(), anyString(), anyInt()))
+                .thenThrow(new RuntimeException("Saga step not found"));
+
+        assertThat(executor.execute(1L, SagaType.TRANSACTION_TRANSFER))
+                .isEqualTo(SagaStepType.DEBIT_SOURCE_WALLET);
+    }
+}
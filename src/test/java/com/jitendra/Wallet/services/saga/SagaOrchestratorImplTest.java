@@ -0,0 +1,208 @@
+package com.jitendra.Wallet.services.saga;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jitendra.Wallet.entity.SagaStatus;
+import com.jitendra.Wallet.entity.SagaStep;
+import com.jitendra.Wallet.entity.StepStatus;
+import com.jitendra.Wallet.repository.SagaInstanceRepository;
+import com.jitendra.Wallet.repository.SagaStepRepository;
+import com.jitendra.Wallet.services.contention.WalletContentionManager;
+import com.jitendra.Wallet.services.deadline.DeadlineProperties;
+import com.jitendra.Wallet.services.deadline.StepDeadline;
+import com.jitendra.Wallet.services.mailbox.WalletMailboxExecutor;
+import com.jitendra.Wallet.services.saga.steps.SagaStepFactory;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+class SagaOrchestratorImplTest {
+
+    private static final long SAGA = 1L;
+    private static final long WALLET = 7L;
+
+    private final SagaInstanceRepository sagaInstanceRepository = mock(SagaInstanceRepository.class);
+    private final SagaStepRepository sagaStepRepository = mock(SagaStepRepository.class);
+    private final SagaStepFactory sagaStepFactory = mock(SagaStepFactory.class);
+    private final WalletContentionManager contentionManager = mock(WalletContentionManager.class);
+    private final WalletMailboxExecutor walletMailbox = mock(WalletMailboxExecutor.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final TransactionStatus transaction = mock(TransactionStatus.class);
+    private final SagaStepInterface step = mock(SagaStepInterface.class);
+    private SagaOrchestratorImpl orchestrator;
+
+    @BeforeEach
+    void orchestrator() {
+        SagaSessionCache sagaSessions = new SagaSessionCache();
+        sagaSessions.open(SAGA, new SagaContext(), 0L, LocalDateTime.now().plusMinutes(5));
+        orchestrator = new SagaOrchestratorImpl(new ObjectMapper(), sagaInstanceRepository, sagaStepFactory,
+                sagaStepRepository, sagaSessions, contentionManager, new DeadlineProperties(),
+                mock(ShardRouter.class), walletMailbox, transactionManager);
+
+        when(transactionManager.getTransaction(any())).thenReturn(transaction);
+        when(walletMailbox.call(any(), any())).thenAnswer(invocation -> {
+            Supplier<?> task = invocation.getArgument(1);
+            return task.get();
+        });
+        when(sagaStepFactory.getSagaStepByName("DEBIT")).thenReturn(step);
+        when(step.getStepName()).thenReturn("DEBIT");
+        when(step.getMaxRetries()).thenReturn(3);
+        when(step.getWalletKey(any())).thenReturn(WALLET);
+        when(sagaStepRepository.findBySagaInstanceIdAndStatusAndStepName(SAGA, StepStatus.PENDING, "DEBIT"))
+                .thenReturn(Optional.empty());
+    }
+
+    @Test
+    void retriesATransientFailureInAFreshTransactionOnTheWalletsMailbox() throws Exception {
+        when(step.execute(any())).thenThrow(new CannotAcquireLockException("lock_timeout")).thenReturn(true);
+
+        assertThat(orchestrator.executeStep(SAGA, "DEBIT", 1)).isTrue();
+
+        // Each attempt is queued on its own; the back-off between them is not
+        verify(walletMailbox, times(2)).call(eq(WALLET), any());
+        verify(transactionManager).rollback(transaction);
+        verify(transactionManager).commit(transaction);
+        verify(contentionManager).recordFailure(any(CannotAcquireLockException.class));
+        // The row is written once, with the outcome of the attempt that committed
+        verify(sagaStepRepository).save(argThat((SagaStep saved) -> saved.getStatus() == StepStatus.COMPLETED
+                && saved.getRetryCount() == 1 && saved.getStepOrder() == 1));
+    }
+
+    @Test
+    void aStepStaysWithinItsStatementBudget() throws Exception {
+        when(step.execute(any())).thenReturn(true);
+
+        assertThat(orchestrator.executeStep(SAGA, "DEBIT", 1)).isTrue();
+
+        // Besides the step's own work: one lookup of a PENDING row and one write of the
+        // outcome. The context and expiry come from the session, and an unchanged
+        // context is not merged back.
+        verify(sagaStepRepository).findBySagaInstanceIdAndStatusAndStepName(SAGA, StepStatus.PENDING, "DEBIT");
+        verify(sagaStepRepository).save(any(SagaStep.class));
+        verifyNoMoreInteractions(sagaStepRepository);
+        verify(sagaInstanceRepository, never()).findById(any());
+        verify(sagaInstanceRepository, never()).mergeContextData(any(), any(), any(), any());
+    }
+
+    @Test
+    void aPermanentFailureIsRecordedAfterTheAttemptRolledBack() throws Exception {
+        when(step.execute(any())).thenThrow(new IllegalArgumentException("Insufficient balance"));
+
+        assertThat(orchestrator.executeStep(SAGA, "DEBIT", 1)).isFalse();
+
+        verify(walletMailbox).call(eq(WALLET), any());
+        verify(transactionManager).rollback(transaction);
+        // Only the FAILED row commits, in a transaction of its own
+        verify(transactionManager).commit(transaction);
+        verify(sagaStepRepository).save(argThat((SagaStep saved) -> saved.getStatus() == StepStatus.FAILED
+                && "Insufficient balance".equals(saved.getErrorMessage())));
+    }
+
+    @Test
+    void aStepThatDeclinesCommitsItsFailedRow() throws Exception {
+        when(step.execute(any())).thenReturn(false);
+
+        assertThat(orchestrator.executeStep(SAGA, "DEBIT", 1)).isFalse();
+
+        verify(transactionManager).commit(transaction);
+        verify(transactionManager, never()).rollback(any());
+        verify(sagaStepRepository).save(argThat((SagaStep saved) -> saved.getStatus() == StepStatus.FAILED));
+        verify(sagaInstanceRepository, never()).mergeContextData(any(), any(), any(), any());
+    }
+
+    private SagaStep completed() {
+        SagaStep row = SagaStep.builder().stepName("DEBIT").stepOrder(1).status(StepStatus.COMPLETED).build();
+        when(sagaStepRepository.findBySagaInstanceIdAndStatusAndStepName(SAGA, StepStatus.COMPLETED, "DEBIT"))
+                .thenReturn(Optional.of(row));
+        return row;
+    }
+
+    @Test
+    void compensationRetriesInAFreshTransactionWithoutADeadline() throws Exception {
+        SagaStep row = completed();
+        when(step.compensate(any())).thenThrow(new CannotAcquireLockException("lock_timeout"))
+                .thenAnswer(invocation -> StepDeadline.current() == 0);
+
+        assertThat(orchestrator.compensateStep(SAGA, "DEBIT")).isTrue();
+
+        verify(transactionManager).rollback(transaction);
+        verify(transactionManager).commit(transaction);
+        assertThat(row.getStatus()).isEqualTo(StepStatus.COMPENSATED);
+        assertThat(row.getRetryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void compensationQueuesEachAttemptOnTheWalletsMailbox() throws Exception {
+        completed();
+        when(step.compensate(any())).thenThrow(new CannotAcquireLockException("lock_timeout")).thenReturn(true);
+
+        assertThat(orchestrator.compensateStep(SAGA, "DEBIT")).isTrue();
+
+        // The refund takes its turn with the wallet's other mutations; the back-off does not
+        verify(walletMailbox, times(2)).call(eq(WALLET), any());
+    }
+
+    @Test
+    void aCompensationThatNeverGotItsTurnIsRecordedAsFailed() throws Exception {
+        completed();
+        doThrow(new IllegalStateException("Timed out waiting on the mailbox of wallet " + WALLET))
+                .when(walletMailbox).call(eq(WALLET), any());
+
+        assertThat(orchestrator.compensateStep(SAGA, "DEBIT")).isFalse();
+
+        verify(step, never()).compensate(any());
+        verify(sagaStepRepository).save(argThat((SagaStep saved) -> saved.getStatus() == StepStatus.FAILED));
+    }
+
+    @Test
+    void compensatingASagaCommitsEachChangeOnItsOwn() throws Exception {
+        SagaStep row = completed();
+        when(sagaStepRepository.findBySagaInstanceIdAndStatus(SAGA, StepStatus.COMPLETED))
+                .thenReturn(new ArrayList<>(List.of(row)));
+        when(sagaInstanceRepository.updateStatusIfVersion(eq(SAGA), any(), any(), any())).thenReturn(1);
+        when(step.compensate(any())).thenReturn(true);
+
+        orchestrator.compensateSaga(SAGA);
+
+        // COMPENSATING, the undo, COMPENSATED
+        verify(transactionManager, times(3)).commit(transaction);
+        verify(sagaInstanceRepository).updateStatusIfVersion(eq(SAGA), eq(SagaStatus.COMPENSATING), eq(0L), any());
+        verify(sagaInstanceRepository).updateStatusIfVersion(eq(SAGA), eq(SagaStatus.COMPENSATED), eq(1L), any());
+    }
+
+    @Test
+    void aFailedCompensationFailsTheSaga() throws Exception {
+        SagaStep row = completed();
+        when(sagaStepRepository.findBySagaInstanceIdAndStatus(SAGA, StepStatus.COMPLETED))
+                .thenReturn(new ArrayList<>(List.of(row)));
+        when(sagaInstanceRepository.updateStatusIfVersion(eq(SAGA), any(), any(), any())).thenReturn(1);
+        when(step.compensate(any())).thenThrow(new IllegalStateException("wallet closed"));
+
+        orchestrator.compensateSaga(SAGA);
+
+        verify(sagaInstanceRepository).updateStatusIfVersion(eq(SAGA), eq(SagaStatus.FAILED), eq(1L), any());
+        verify(sagaStepRepository).save(argThat((SagaStep saved) -> saved.getStatus() == StepStatus.FAILED
+                && "wallet closed".equals(saved.getErrorMessage())));
+    }
+}
@@ -0,0 +1,111 @@
+package com.jitendra.Wallet.services.saga;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class SagaSessionCacheTest {
+
+    private final SagaSessionCache cache = new SagaSessionCache();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static SagaContext context() {
+        SagaContext context = new SagaContext();
+        context.put("amount", 10);
+        context.drainChanges();
+        return context;
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void servesAnOpenSessionUntilClosed() {
+        SagaSession session = cache.open(1L, context(), 3L, LocalDateTime.now());
+
+        assertThat(cache.get(1L)).isSameAs(session);
+        cache.close(1L);
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void dropsASessionWhoseTransactionRolledBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.open(1L, context(), 0L, LocalDateTime.now());
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void keepsASessionWhoseTransactionCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+        SagaSession session = cache.open(1L, context(), 0L, LocalDateTime.now());
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(cache.get(1L)).isSameAs(session);
+    }
+
+    @Test
+    void foldsStepResultsInOnlyAfterCommit() {
+        AtomicBoolean ran = new AtomicBoolean();
+        cache.afterCommit(() -> ran.set(true));
+        assertThat(ran).isTrue();
+
+        ran.set(false);
+        TransactionSynchronizationManager.initSynchronization();
+        cache.afterCommit(() -> ran.set(true));
+        assertThat(ran).isFalse();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(ran).isTrue();
+
+        ran.set(false);
+        TransactionSynchronizationManager.initSynchronization();
+        cache.afterCommit(() -> ran.set(true));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(ran).isFalse();
+    }
+
+    @Test
+    void eachStepWorksOnItsOwnCopy() {
+        SagaSession session = cache.open(1L, context(), 0L, LocalDateTime.now());
+
+        SagaContext first = session.contextForStep();
+        SagaContext second = session.contextForStep();
+        first.put("credited", true);
+
+        assertThat(second.containsKey("credited")).isFalse();
+        assertThat(session.contextForStep().containsKey("credited")).isFalse();
+
+        session.apply(Map.of("credited", true), Set.of("amount"));
+        SagaContext next = session.contextForStep();
+        assertThat(next.get("credited")).isEqualTo(true);
+        assertThat(next.containsKey("amount")).isFalse();
+        assertThat(next.drainChanges().isEmpty()).isTrue();
+    }
+}
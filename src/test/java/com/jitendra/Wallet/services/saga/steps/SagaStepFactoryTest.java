@@ -0,0 +1,52 @@
+package com.jitendra.Wallet.services.saga.steps;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.SagaStepType;
+import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.SagaType;
+import com.jitendra.Wallet.services.saga.steps.SagaStepFactory.StepNode;
+
+class SagaStepFactoryTest {
+
+    @Test
+    void everySagaListsStepsAfterTheirDependencies() {
+        for (SagaType type : SagaType.values()) {
+            Set<SagaStepType> seen = EnumSet.noneOf(SagaStepType.class);
+            for (StepNode node : type.getNodes()) {
+                assertThat(seen).as(type + " " + node.step()).containsAll(node.dependsOn());
+                seen.add(node.step());
+            }
+        }
+    }
+
+    @Test
+    void creditNeverRunsAheadOfTheSourceFunds() {
+        for (SagaType type : SagaType.values()) {
+            StepNode credit = node(type, SagaStepType.CREDIT_DESTINATION_WALLET);
+            assertThat(credit.dependsOn()).as(type.name())
+                    .containsAnyOf(SagaStepType.DEBIT_SOURCE_WALLET, SagaStepType.RESERVE_SOURCE_FUNDS);
+        }
+    }
+
+    @Test
+    void parallelSagaOverlapsCreditAndConfirmAfterTheReservation() {
+        SagaType type = SagaType.PARALLEL_TRANSACTION_TRANSFER;
+
+        assertThat(type.getSteps().get(0)).isEqualTo(SagaStepType.RESERVE_SOURCE_FUNDS);
+        assertThat(node(type, SagaStepType.CREDIT_DESTINATION_WALLET).dependsOn())
+                .containsExactly(SagaStepType.RESERVE_SOURCE_FUNDS);
+        assertThat(node(type, SagaStepType.CONFIRM_SOURCE_DEBIT).dependsOn())
+                .containsExactly(SagaStepType.RESERVE_SOURCE_FUNDS);
+        assertThat(node(type, SagaStepType.UPDATE_TRANSACTION_STATUS).dependsOn())
+                .containsExactlyInAnyOrder(SagaStepType.CREDIT_DESTINATION_WALLET, SagaStepType.CONFIRM_SOURCE_DEBIT);
+    }
+
+    private static StepNode node(SagaType type, SagaStepType step) {
+        return type.getNodes().stream().filter(n -> n.step() == step).findFirst().orElseThrow();
+    }
+}
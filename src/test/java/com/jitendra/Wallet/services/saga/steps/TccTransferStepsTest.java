@@ -0,0 +1,89 @@
+package com.jitendra.Wallet.services.saga.steps;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.jitendra.Wallet.repository.WalletRepository;
+import com.jitendra.Wallet.services.saga.SagaContext;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+class TccTransferStepsTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("25.00");
+
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private final ReserveSourceFundsStep reserve = new ReserveSourceFundsStep(walletRepository, shardRouter);
+    private final ConfirmSourceDebitStep confirm = new ConfirmSourceDebitStep(walletRepository, shardRouter);
+
+    private SagaContext context;
+
+    @BeforeEach
+    void context() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("amount", AMOUNT);
+        data.put("sourceWalletId", 1L);
+        context = SagaContext.builder().sagaInstanceId(9L).data(data).build();
+        when(shardRouter.ownerOf(1L)).thenReturn(10L);
+    }
+
+    @Test
+    void reserveHoldsFundsAndCompensationReleasesThem() throws Exception {
+        when(walletRepository.reserve(1L, 10L, AMOUNT)).thenReturn(1);
+        when(walletRepository.releaseReserved(1L, 10L, AMOUNT)).thenReturn(1);
+
+        assertThat(reserve.execute(context)).isTrue();
+        assertThat(context.get(ReserveSourceFundsStep.RESERVED_KEY)).isEqualTo(true);
+
+        assertThat(reserve.compensate(context)).isTrue();
+        verify(walletRepository).releaseReserved(1L, 10L, AMOUNT);
+        assertThat(context.get(ReserveSourceFundsStep.RESERVED_KEY)).isEqualTo(false);
+    }
+
+    @Test
+    void reserveFailsWhenFundsAreNotAvailable() {
+        when(walletRepository.reserve(1L, 10L, AMOUNT)).thenReturn(0);
+
+        assertThatThrownBy(() -> reserve.execute(context)).hasMessageContaining("Insufficient balance");
+        assertThat(context.get(ReserveSourceFundsStep.RESERVED_KEY)).isNull();
+    }
+
+    @Test
+    void confirmedHoldIsNotReleasedAgain() throws Exception {
+        when(walletRepository.reserve(1L, 10L, AMOUNT)).thenReturn(1);
+        when(walletRepository.confirmReserved(1L, 10L, AMOUNT)).thenReturn(1);
+
+        reserve.execute(context);
+        confirm.execute(context);
+        reserve.compensate(context);
+
+        verify(walletRepository, never()).releaseReserved(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void confirmFailsWithoutAHold() {
+        when(walletRepository.confirmReserved(eq(1L), eq(10L), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> confirm.execute(context)).hasMessageContaining("Reserved funds not found");
+    }
+
+    @Test
+    void unconfirmedDebitNeedsNoRefund() throws Exception {
+        assertThat(confirm.compensate(context)).isTrue();
+        verify(walletRepository, never()).findById(any());
+    }
+}
@@ -0,0 +1,165 @@
+package com.jitendra.Wallet.services.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+
+import com.jitendra.Wallet.dto.TransactionRequestDTO;
+import com.jitendra.Wallet.entity.Transaction;
+import com.jitendra.Wallet.entity.TransactionStatus;
+import com.jitendra.Wallet.entity.TransactionType;
+import com.jitendra.Wallet.entity.Wallet;
+import com.jitendra.Wallet.repository.TransactionRepository;
+import com.jitendra.Wallet.repository.WalletRepository;
+
+class LocalTransferServiceTest {
+
+    private static final String SHARD = "shardwallet1";
+    private static final long TRANSACTION_ID = 1_000L;
+
+    private final WalletRepository walletRepository = mock(WalletRepository.class);
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private final ShardLocalTransactions shardLocalTransactions = mock(ShardLocalTransactions.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final LocalTransferService service = new LocalTransferService(walletRepository, transactionRepository,
+            shardRouter, shardLocalTransactions, transactionManager);
+
+    private Wallet source;
+    private Wallet destination;
+
+    @BeforeEach
+    void wallets() {
+        source = wallet(1L, "100.00");
+        destination = wallet(2L, "0.00");
+        when(shardRouter.ownerOf(any())).thenReturn(10L);
+        when(shardLocalTransactions.nextId(SHARD)).thenReturn(TRANSACTION_ID);
+        when(walletRepository.findAllForUpdateOrderById(anyCollection(), anyCollection()))
+                .thenReturn(List.of(source, destination));
+    }
+
+    private static Wallet wallet(Long id, String balance) {
+        Wallet wallet = new Wallet();
+        wallet.setId(id);
+        wallet.setUserId(10L);
+        wallet.setBalance(new BigDecimal(balance));
+        wallet.setHeldBalance(BigDecimal.ZERO);
+        return wallet;
+    }
+
+    private static TransactionRequestDTO request(String amount) {
+        return new TransactionRequestDTO("rent", 1L, 2L, new BigDecimal(amount), TransactionType.TRANSFER);
+    }
+
+    @Test
+    void movesMoneyAndInsertsRowWithShardLocalId() {
+        Transaction result = service.transfer(SHARD, request("40.00"));
+
+        assertThat(result.getId()).isEqualTo(TRANSACTION_ID);
+        assertThat(result.getStatus()).isEqualTo(TransactionStatus.SUCCESS);
+        assertThat(result.getSagaInstanceId()).isEqualTo(Transaction.NO_SAGA_INSTANCE);
+        assertThat(source.getBalance()).isEqualByComparingTo("60.00");
+        assertThat(destination.getBalance()).isEqualByComparingTo("40.00");
+        verify(shardLocalTransactions).insertAll(List.of(result));
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void staysWithinItsStatementBudget() {
+        service.transfer(SHARD, request("40.00"));
+
+        // One SELECT ... FOR UPDATE and one INSERT; the two balance UPDATEs are
+        // flushed from the locked entities at commit
+        verify(walletRepository).findAllForUpdateOrderById(anyCollection(), anyCollection());
+        verify(shardLocalTransactions).nextId(SHARD);
+        verify(shardLocalTransactions).insertAll(anyList());
+        verifyNoMoreInteractions(walletRepository, shardLocalTransactions);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void uncoveredTransferIsFailedWithoutMovingMoney() {
+        Transaction result = service.transfer(SHARD, request("150.00"));
+
+        assertThat(result.getStatus()).isEqualTo(TransactionStatus.FAILED);
+        assertThat(source.getBalance()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void rolledBackTransferIsRecordedAsFailed() {
+        when(walletRepository.findAllForUpdateOrderById(anyCollection(), anyCollection()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+        when(transactionRepository.findById(TRANSACTION_ID)).thenReturn(Optional.empty());
+
+        Transaction result = service.transfer(SHARD, request("40.00"));
+
+        assertThat(result.getId()).isEqualTo(TRANSACTION_ID);
+        assertThat(result.getStatus()).isEqualTo(TransactionStatus.FAILED);
+        verify(shardLocalTransactions).insertAll(List.of(result));
+    }
+
+    @Test
+    void lostCommitAcknowledgementReturnsTheCommittedRow() {
+        doThrow(new TransactionSystemException("connection reset during commit"))
+                .when(transactionManager).commit(any());
+        Transaction committed = Transaction.builder().id(TRANSACTION_ID).status(TransactionStatus.SUCCESS).build();
+        when(transactionRepository.findById(TRANSACTION_ID)).thenReturn(Optional.of(committed));
+
+        Transaction result = service.transfer(SHARD, request("40.00"));
+
+        assertThat(result).isSameAs(committed);
+        // Only the insert inside the (committed) transaction — no FAILED row on top
+        verify(shardLocalTransactions).insertAll(anyList());
+    }
+
+    @Test
+    void committedBatchIsNotRetriedItemByItem() {
+        when(shardLocalTransactions.nextId(SHARD)).thenReturn(TRANSACTION_ID, TRANSACTION_ID + 1);
+        doThrow(new TransactionSystemException("connection reset during commit"))
+                .when(transactionManager).commit(any());
+        Transaction first = Transaction.builder().id(TRANSACTION_ID).status(TransactionStatus.SUCCESS).build();
+        Transaction second = Transaction.builder().id(TRANSACTION_ID + 1).status(TransactionStatus.SUCCESS).build();
+        when(transactionRepository.findAllById(List.of(TRANSACTION_ID, TRANSACTION_ID + 1)))
+                .thenReturn(List.of(second, first));
+
+        List<Transaction> results = service.transferAll(SHARD, List.of(request("10.00"), request("20.00")));
+
+        assertThat(results).containsExactly(first, second);
+        verify(walletRepository).findAllForUpdateOrderById(anyCollection(), anyCollection());
+    }
+
+    @Test
+    void rolledBackBatchIsRetriedItemByItemWithTheSameIds() {
+        when(shardLocalTransactions.nextId(SHARD)).thenReturn(TRANSACTION_ID, TRANSACTION_ID + 1);
+        when(walletRepository.findAllForUpdateOrderById(anyCollection(), anyCollection()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenReturn(List.of(source, destination));
+        when(transactionRepository.findAllById(any())).thenReturn(List.of());
+
+        List<Transaction> results = service.transferAll(SHARD, List.of(request("10.00"), request("20.00")));
+
+        assertThat(results).extracting(Transaction::getId).containsExactly(TRANSACTION_ID, TRANSACTION_ID + 1);
+        assertThat(results).extracting(Transaction::getStatus)
+                .containsOnly(TransactionStatus.SUCCESS);
+        assertThat(source.getBalance()).isEqualByComparingTo("70.00");
+    }
+}
@@ -0,0 +1,136 @@
+package com.jitendra.Wallet.services.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.jitendra.Wallet.exception.ShardUnavailableException;
+import com.jitendra.Wallet.services.sharding.ShardCircuitBreaker.Breaker;
+import com.jitendra.Wallet.services.sharding.ShardCircuitBreaker.Outcome;
+import com.jitendra.Wallet.services.sharding.ShardCircuitBreaker.State;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ShardCircuitBreakerTest {
+
+    private static final String SHARD = "shardwallet1";
+
+    private final ShardBreakerProperties properties = new ShardBreakerProperties();
+    private ShardCircuitBreaker breakers;
+    private Breaker breaker;
+
+    @BeforeEach
+    void breaker() {
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setOpenMs(50);
+        properties.setHalfOpenProbes(2);
+        properties.setHalfOpenProbeTimeoutMs(50);
+        breakers = new ShardCircuitBreaker(properties, new SimpleMeterRegistry());
+        breaker = breakers.breaker(SHARD);
+    }
+
+    private void record(Outcome outcome, int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.record(outcome);
+        }
+    }
+
+    private void openAndWait() throws InterruptedException {
+        record(Outcome.FAILURE, 4);
+        assertThat(breakers.state(SHARD)).isEqualTo(State.OPEN);
+        Thread.sleep(properties.getOpenMs() + 20);
+    }
+
+    @Test
+    void opensOnceEnoughCallsFail() {
+        record(Outcome.SUCCESS, 2);
+        record(Outcome.FAILURE, 1);
+        assertThat(breakers.state(SHARD)).isEqualTo(State.CLOSED);
+
+        record(Outcome.FAILURE, 1);
+
+        assertThat(breakers.state(SHARD)).isEqualTo(State.OPEN);
+        assertThat(breakers.allClosed()).isFalse();
+        assertThatThrownBy(() -> breakers.checkAvailable(SHARD)).isInstanceOf(ShardUnavailableException.class);
+        assertThatThrownBy(breaker::acquire).isInstanceOf(ShardUnavailableException.class);
+    }
+
+    @Test
+    void opensOnSlowCalls() {
+        record(Outcome.SLOW, 4);
+
+        assertThat(breakers.state(SHARD)).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void preChecksNeverUseUpHalfOpenProbes() throws Exception {
+        openAndWait();
+        breaker.acquire();
+        assertThat(breakers.state(SHARD)).isEqualTo(State.HALF_OPEN);
+
+        for (int i = 0; i < 10; i++) {
+            breakers.checkAvailable(SHARD);
+        }
+
+        // The second probe is still available to a connection acquire
+        assertThatNoException().isThrownBy(breaker::acquire);
+        assertThatThrownBy(breaker::acquire).isInstanceOf(ShardUnavailableException.class);
+        record(Outcome.SUCCESS, 2);
+        assertThat(breakers.state(SHARD)).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void aFailedProbeOpensAgain() throws Exception {
+        openAndWait();
+        breaker.acquire();
+
+        breaker.record(Outcome.FAILURE);
+
+        assertThat(breakers.state(SHARD)).isEqualTo(State.OPEN);
+        assertThatThrownBy(() -> breakers.checkAvailable(SHARD)).isInstanceOf(ShardUnavailableException.class);
+    }
+
+    @Test
+    void probesThatNeverReportOpenAgainWithAFreshBudget() throws Exception {
+        openAndWait();
+        breaker.acquire();
+        breaker.acquire();
+        // Both probes hang on the shard and report nothing
+        Thread.sleep(properties.getHalfOpenProbeTimeoutMs() + 20);
+
+        assertThatThrownBy(breaker::acquire).isInstanceOf(ShardUnavailableException.class);
+        assertThat(breakers.state(SHARD)).isEqualTo(State.OPEN);
+
+        Thread.sleep(properties.getOpenMs() + 20);
+        assertThatNoException().isThrownBy(breaker::acquire);
+        assertThatNoException().isThrownBy(breaker::acquire);
+        assertThat(breakers.state(SHARD)).isEqualTo(State.HALF_OPEN);
+    }
+
+    @Test
+    void passesEverythingWhenDisabled() {
+        properties.setEnabled(false);
+        record(Outcome.FAILURE, 10);
+
+        assertThat(breakers.state(SHARD)).isEqualTo(State.CLOSED);
+        assertThatNoException().isThrownBy(() -> breakers.checkAvailable(SHARD));
+        assertThatNoException().isThrownBy(breaker::acquire);
+    }
+
+    @Test
+    void onlyConnectionLevelErrorsCountAsShardFailures() {
+        assertThat(ShardCircuitBreaker.isShardFailure(new SQLTransientConnectionException("pool"))).isTrue();
+        assertThat(ShardCircuitBreaker.isShardFailure(new SQLException("gone", "08006"))).isTrue();
+        assertThat(ShardCircuitBreaker.isShardFailure(new SQLException("too many", "53300"))).isTrue();
+        // Our own statement_timeout, and the database answering
+        assertThat(ShardCircuitBreaker.isShardFailure(new SQLException("canceled", "57014"))).isFalse();
+        assertThat(ShardCircuitBreaker.isShardFailure(new SQLException("duplicate", "23505"))).isFalse();
+    }
+}
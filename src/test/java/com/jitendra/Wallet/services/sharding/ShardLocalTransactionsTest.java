@@ -0,0 +1,52 @@
+package com.jitendra.Wallet.services.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class ShardLocalTransactionsTest {
+
+    // One sequence per shard, as in production (V4 runs on every database)
+    private final Map<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+    private final ShardLocalTransactions transactions = new ShardLocalTransactions(2,
+            shard -> sequences.computeIfAbsent(shard, s -> new AtomicLong()).incrementAndGet(), null);
+
+    @Test
+    void idsRouteToTheRequestedShardUnderTheInlineRule() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(transactions.nextId("shardwallet1") % 2 + 1).isEqualTo(1);
+            assertThat(transactions.nextId("shardwallet2") % 2 + 1).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void idsAreUniqueAcrossBlocksAndShards() {
+        Set<Long> ids = new HashSet<>();
+        int perShard = (int) (ShardLocalTransactions.BLOCK_SIZE * 2 + 17);
+        for (int i = 0; i < perShard; i++) {
+            ids.add(transactions.nextId("shardwallet1"));
+            ids.add(transactions.nextId("shardwallet2"));
+        }
+        assertThat(ids).hasSize(perShard * 2);
+        assertThat(sequences.get("shardwallet1").get()).isEqualTo(3);
+    }
+
+    @Test
+    void idsStayBetweenSerialAndSnowflakeRanges() {
+        long id = transactions.nextId("shardwallet2");
+        assertThat(id).isGreaterThan(ShardLocalTransactions.LOCAL_ID_BASE);
+        assertThat(id).isLessThan(1L << 57);
+    }
+
+    @Test
+    void rejectsShardsBeyondTheConfiguredCount() {
+        assertThatThrownBy(() -> transactions.nextId("shardwallet3")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,62 @@
+package com.jitendra.Wallet.services.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.jitendra.Wallet.dto.TransactionRequestDTO;
+import com.jitendra.Wallet.entity.Transaction;
+import com.jitendra.Wallet.entity.TransactionStatus;
+import com.jitendra.Wallet.entity.TransactionType;
+import com.jitendra.Wallet.services.saga.TransferProperties;
+
+class TransferBatcherTest {
+
+    private final LocalTransferService localTransferService = mock(LocalTransferService.class);
+    private final TransferProperties properties = new TransferProperties();
+    private final TransferBatcher batcher = new TransferBatcher(localTransferService, properties);
+
+    @AfterEach
+    void stop() {
+        batcher.stop();
+    }
+
+    private static TransactionRequestDTO request(String description) {
+        return new TransactionRequestDTO(description, 1L, 2L, BigDecimal.TEN, TransactionType.TRANSFER);
+    }
+
+    @Test
+    void transfersArrivingWithinTheWindowShareOneCommit() throws Exception {
+        properties.getBatch().setWindowMicros(5_000_000);
+        properties.getBatch().setMaxSize(2);
+        TransactionRequestDTO first = request("first");
+        TransactionRequestDTO second = request("second");
+        Transaction firstResult = Transaction.builder().id(1L).status(TransactionStatus.SUCCESS).build();
+        Transaction secondResult = Transaction.builder().id(2L).status(TransactionStatus.FAILED).build();
+        when(localTransferService.transferAll(eq("shardwallet1"), anyList())).thenAnswer(invocation -> {
+            List<TransactionRequestDTO> batch = invocation.getArgument(1);
+            return batch.stream().map(r -> r == first ? firstResult : secondResult).toList();
+        });
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Transaction> a = callers.submit(() -> batcher.submit("shardwallet1", first));
+            Future<Transaction> b = callers.submit(() -> batcher.submit("shardwallet1", second));
+
+            assertThat(a.get()).isSameAs(firstResult);
+            assertThat(b.get()).isSameAs(secondResult);
+        }
+        verify(localTransferService).transferAll(eq("shardwallet1"), anyList());
+    }
+}
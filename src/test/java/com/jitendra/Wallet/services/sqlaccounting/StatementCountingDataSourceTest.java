@@ -0,0 +1,91 @@
+package com.jitendra.Wallet.services.sqlaccounting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StatementCountingDataSourceTest {
+
+    private static final String SHARD = "shardwallet1";
+
+    private final DataSource pool = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement statement = mock(PreparedStatement.class);
+    private final ResultSet resultSet = mock(ResultSet.class);
+    private Connection wrapped;
+
+    @BeforeEach
+    void wrap() throws Exception {
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(statement.executeBatch()).thenReturn(new int[] { 1, 1, 0 });
+        when(resultSet.next()).thenReturn(true, true, false);
+        wrapped = new StatementCountingDataSource(pool, SHARD).getConnection();
+    }
+
+    @Test
+    void chargesStatementsAndRowsToTheOpenScope() throws Exception {
+        SqlStats stats;
+        try (SqlAccounting.Scope scope = SqlAccounting.open()) {
+            ResultSet rows = wrapped.prepareStatement("SELECT * FROM wallet WHERE id = ?").executeQuery();
+            while (rows.next()) {
+                // fetched rows are counted as they are read
+            }
+            wrapped.prepareStatement("INSERT INTO transactions VALUES (?)").executeBatch();
+            stats = scope.stats();
+        }
+
+        assertThat(stats.statements()).isEqualTo(2);
+        assertThat(stats.rows()).isEqualTo(4);
+        assertThat(stats.byShard()).containsOnlyKeys(SHARD);
+    }
+
+    @Test
+    void reportsSqlRepeatedWithinOneScope() throws Exception {
+        SqlStats stats;
+        try (SqlAccounting.Scope scope = SqlAccounting.open()) {
+            for (int i = 0; i < 3; i++) {
+                wrapped.prepareStatement("SELECT * FROM wallet WHERE id = ?").executeQuery();
+            }
+            stats = scope.stats();
+        }
+
+        assertThat(stats.repeatedStatements(3)).containsEntry("SELECT * FROM wallet WHERE id = ?", 3L);
+        assertThat(stats.repeatedStatements(4)).isEmpty();
+    }
+
+    @Test
+    void passesStatementsThroughOutsideAScope() throws Exception {
+        SqlStats stats;
+        try (SqlAccounting.Scope scope = SqlAccounting.open()) {
+            stats = scope.stats();
+        }
+
+        // After the request (or on a thread it did not hand its scope to) nothing is charged
+        assertThat(wrapped.prepareStatement("SELECT 1").executeQuery()).isSameAs(resultSet);
+        assertThat(stats.statements()).isZero();
+    }
+
+    @Test
+    void leavesPoolsUnwrappedWhenDisabled() {
+        SqlAccountingProperties properties = new SqlAccountingProperties();
+        properties.setEnabled(false);
+
+        assertThat(StatementCountingDataSource.wrap(Map.of(SHARD, pool), properties)).containsEntry(SHARD, pool);
+        properties.setEnabled(true);
+        assertThat(StatementCountingDataSource.wrap(Map.of(SHARD, pool), properties).get(SHARD))
+                .isInstanceOf(StatementCountingDataSource.class);
+    }
+}
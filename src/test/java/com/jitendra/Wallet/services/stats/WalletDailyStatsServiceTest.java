@@ -0,0 +1,158 @@
+package com.jitendra.Wallet.services.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.jitendra.Wallet.config.ShardDataSources;
+import com.jitendra.Wallet.entity.Transaction;
+import com.jitendra.Wallet.entity.TransactionStatus;
+import com.jitendra.Wallet.exception.BusinessException;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+
+class WalletDailyStatsServiceTest {
+
+    private final DailyStatsProperties properties = new DailyStatsProperties();
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+
+    private WalletDailyStatsService service(Map<String, DataSource> shards) {
+        return new WalletDailyStatsService(properties, shardRouter, mock(JdbcTemplate.class),
+                new ShardDataSources(shards));
+    }
+
+    private static Transaction transfer(TransactionStatus status, Instant createdDate) {
+        return Transaction.builder().id(42L).sourceWalletId(1L).destinationWalletId(2L)
+                .amount(new BigDecimal("12.50")).status(status).createdDate(createdDate).build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordsOneOutflowAndOneInflowOnTheUtcDay() {
+        WalletDailyStatsService service = spy(service(Map.of("shardwallet1", mock(DataSource.class))));
+        doNothing().when(service).apply(anyList());
+        when(shardRouter.ownerOf(1L)).thenReturn(10L);
+        when(shardRouter.ownerOf(2L)).thenReturn(11L);
+
+        service.record(transfer(TransactionStatus.SUCCESS, Instant.parse("2026-03-01T23:30:00Z")));
+
+        ArgumentCaptor<List<StatsDelta>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(service).apply(deltas.capture());
+        LocalDate day = LocalDate.of(2026, 3, 1);
+        assertThat(deltas.getValue()).containsExactly(
+                new StatsDelta(1L, 10L, 42L, false, day, new BigDecimal("12.50")),
+                new StatsDelta(2L, 11L, 42L, true, day, new BigDecimal("12.50")));
+    }
+
+    @Test
+    void ignoresTransfersThatDidNotSucceed() {
+        WalletDailyStatsService service = spy(service(Map.of("shardwallet1", mock(DataSource.class))));
+
+        service.record(transfer(TransactionStatus.FAILED, Instant.now()));
+        service.record(transfer(TransactionStatus.PENDING, Instant.now()));
+
+        verify(service, never()).apply(anyList());
+    }
+
+    @Test
+    void ignoresEverythingWhenDisabled() {
+        properties.setEnabled(false);
+        WalletDailyStatsService service = spy(service(Map.of("shardwallet1", mock(DataSource.class))));
+
+        service.record(transfer(TransactionStatus.SUCCESS, Instant.now()));
+
+        verify(service, never()).apply(anyList());
+    }
+
+    @Test
+    void neverThrowsOnceTheTransferHasCommitted() {
+        WalletDailyStatsService service = spy(service(Map.of("shardwallet1", mock(DataSource.class))));
+        doThrow(new IllegalStateException("shard down")).when(service).apply(anyList());
+
+        assertThatCode(() -> service.record(transfer(TransactionStatus.SUCCESS, Instant.now())))
+                .doesNotThrowAnyException();
+
+        when(shardRouter.ownerOf(anyLong())).thenThrow(new IllegalArgumentException("unknown wallet"));
+        assertThatCode(() -> service.record(transfer(TransactionStatus.SUCCESS, Instant.now())))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void appliesEachDeltaOnItsOwnersShard() throws Exception {
+        PreparedStatement first = mock(PreparedStatement.class);
+        PreparedStatement second = mock(PreparedStatement.class);
+        DataSource firstShard = dataSourceFor(first);
+        DataSource secondShard = dataSourceFor(second);
+        WalletDailyStatsService service = service(Map.of("shardwallet1", firstShard, "shardwallet2", secondShard));
+        when(shardRouter.shardForUser(10L)).thenReturn("shardwallet1");
+        when(shardRouter.shardForUser(11L)).thenReturn("shardwallet2");
+        LocalDate day = LocalDate.of(2026, 3, 1);
+
+        service.apply(List.of(
+                new StatsDelta(1L, 10L, 42L, false, day, BigDecimal.TEN),
+                new StatsDelta(2L, 11L, 42L, true, day, BigDecimal.TEN)));
+
+        verify(first).setLong(1, 1L);
+        verify(first).setString(3, "OUT");
+        verify(first).setBigDecimal(10, BigDecimal.TEN);
+        verify(first, times(1)).executeUpdate();
+        verify(second).setLong(1, 2L);
+        verify(second).setString(3, "IN");
+        verify(second).setBigDecimal(9, BigDecimal.TEN);
+        verify(second, times(1)).executeUpdate();
+    }
+
+    @Test
+    void rejectsInvertedAndOverlongRanges() {
+        properties.setMaxRangeDays(31);
+        WalletDailyStatsService service = service(Map.of("shardwallet1", mock(DataSource.class)));
+        LocalDate from = LocalDate.of(2026, 1, 1);
+
+        assertThatThrownBy(() -> service.validateRange(from, from.minusDays(1)))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.validateRange(from, from.plusDays(31)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("31 days");
+        assertThatCode(() -> service.validateRange(from, from.plusDays(30))).doesNotThrowAnyException();
+        assertThatCode(() -> service.validateRange(from, from)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void bucketsByUtcDayRegardlessOfTheJvmZone() {
+        assertThat(StatsDelta.dayOf(Instant.parse("2026-03-01T23:59:59Z"))).isEqualTo(LocalDate.of(2026, 3, 1));
+        assertThat(StatsDelta.dayOf(Instant.parse("2026-03-02T00:00:00Z"))).isEqualTo(LocalDate.of(2026, 3, 2));
+    }
+
+    // No batch support reported, so JdbcTemplate falls back to one executeUpdate per delta
+    private static DataSource dataSourceFor(PreparedStatement statement) throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(WalletDailyStatsService.APPLY_DELTA)).thenReturn(statement);
+        when(statement.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
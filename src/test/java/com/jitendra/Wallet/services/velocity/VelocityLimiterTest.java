@@ -0,0 +1,185 @@
+package com.jitendra.Wallet.services.velocity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+import com.jitendra.Wallet.config.ShardDataSources;
+import com.jitendra.Wallet.exception.TooManyRequestsException;
+import com.jitendra.Wallet.services.sharding.ShardRouter;
+import com.jitendra.Wallet.services.velocity.VelocityLimiter.Reservation;
+
+class VelocityLimiterTest {
+
+    private static final long WALLET = 7L;
+    private static final long USER = 70L;
+
+    private final VelocityProperties properties = new VelocityProperties();
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+
+    private VelocityLimiter limiter(Map<String, DataSource> shards) {
+        return new VelocityLimiter(properties, shardRouter, new ShardDataSources(shards));
+    }
+
+    private static Connection connection(DataSource dataSource) throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return connection;
+    }
+
+    private static PreparedStatement statement(Connection connection, String sqlPrefix) throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(startsWith(sqlPrefix))).thenReturn(statement);
+        when(statement.getConnection()).thenReturn(connection);
+        return statement;
+    }
+
+    @Test
+    void rejectsTheTransferThatWouldExceedTheCountWithoutCountingIt() {
+        properties.setPerMinute(new VelocityProperties.Limit(2, null));
+        VelocityLimiter limiter = limiter(Map.of());
+
+        limiter.reserve(WALLET, USER, new BigDecimal("1.00"));
+        limiter.reserve(WALLET, USER, new BigDecimal("1.00"));
+
+        assertThatThrownBy(() -> limiter.reserve(WALLET, USER, new BigDecimal("1.00")))
+                .isInstanceOf(TooManyRequestsException.class)
+                .hasMessageContaining("per-minute transfer count")
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfterSeconds())
+                        .isBetween(1L, 60L));
+        // Other wallets have their own counters
+        limiter.reserve(8L, USER, new BigDecimal("1.00"));
+    }
+
+    @Test
+    void releasingAReservationMakesRoomAgain() {
+        properties.setPerHour(new VelocityProperties.Limit(0, new BigDecimal("10.00")));
+        VelocityLimiter limiter = limiter(Map.of());
+
+        Reservation reservation = limiter.reserve(WALLET, USER, new BigDecimal("6.00"));
+        assertThatThrownBy(() -> limiter.reserve(WALLET, USER, new BigDecimal("4.01")))
+                .hasMessageContaining("per-hour transfer amount");
+
+        limiter.release(reservation);
+
+        limiter.reserve(WALLET, USER, new BigDecimal("10.00"));
+    }
+
+    @Test
+    void roundsFractionsOfACentUp() {
+        properties.setPerDay(new VelocityProperties.Limit(0, new BigDecimal("1.00")));
+        VelocityLimiter limiter = limiter(Map.of());
+
+        assertThat(limiter.reserve(WALLET, USER, new BigDecimal("0.001")).amountCents()).isEqualTo(1);
+    }
+
+    @Test
+    void countsNothingWhenDisabled() {
+        properties.setEnabled(false);
+        properties.setPerMinute(new VelocityProperties.Limit(1, null));
+        VelocityLimiter limiter = limiter(Map.of());
+
+        limiter.reserve(WALLET, USER, BigDecimal.ONE);
+        Reservation reservation = limiter.reserve(WALLET, USER, BigDecimal.ONE);
+
+        assertThat(reservation.walletId()).isNull();
+        limiter.release(reservation);
+    }
+
+    @Test
+    void checkpointsChangedWalletsOnTheirOwnShardOnly() throws Exception {
+        DataSource shard1 = mock(DataSource.class);
+        DataSource shard2 = mock(DataSource.class);
+        Connection connection1 = connection(shard1);
+        Connection connection2 = connection(shard2);
+        PreparedStatement insert1 = statement(connection1, "INSERT");
+        PreparedStatement delete1 = statement(connection1, "DELETE FROM wallet_velocity_counter WHERE wallet_id");
+        PreparedStatement prune1 = statement(connection1, "DELETE FROM wallet_velocity_counter WHERE bucket_start_ms");
+        PreparedStatement prune2 = statement(connection2, "DELETE FROM wallet_velocity_counter WHERE bucket_start_ms");
+        when(shardRouter.shardForUser(USER)).thenReturn("shardwallet1");
+        VelocityLimiter limiter = limiter(Map.of("shardwallet1", shard1, "shardwallet2", shard2));
+
+        limiter.reserve(WALLET, USER, new BigDecimal("2.50"));
+        limiter.checkpoint();
+
+        verify(delete1).executeUpdate();
+        // One live bucket per window
+        verify(insert1, times(VelocityWindow.values().length)).executeUpdate();
+        verify(insert1, times(VelocityWindow.values().length)).setObject(6, 250L);
+        verify(prune1).executeUpdate();
+        verify(connection1).commit();
+        verify(connection2, never()).prepareStatement(startsWith("INSERT"));
+        verify(prune2).executeUpdate();
+
+        // Nothing changed since: only the prune runs
+        limiter.checkpoint();
+        verify(insert1, times(VelocityWindow.values().length)).executeUpdate();
+    }
+
+    @Test
+    void aFailedCheckpointIsRetriedNextRound() throws Exception {
+        DataSource shard1 = mock(DataSource.class);
+        when(shard1.getConnection()).thenThrow(new SQLException("down", "08006"));
+        when(shardRouter.shardForUser(USER)).thenReturn("shardwallet1");
+        VelocityLimiter limiter = limiter(Map.of("shardwallet1", shard1));
+        limiter.reserve(WALLET, USER, BigDecimal.ONE);
+        limiter.checkpoint();
+
+        Connection connection = mock(Connection.class);
+        doReturn(connection).when(shard1).getConnection();
+        PreparedStatement insert = mock(PreparedStatement.class);
+        when(insert.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            return sql.startsWith("INSERT") ? insert : mock(PreparedStatement.class);
+        });
+        limiter.checkpoint();
+
+        verify(insert, times(VelocityWindow.values().length)).executeUpdate();
+    }
+
+    @Test
+    void restoresLiveBucketsOnStartup() throws Exception {
+        properties.setPerDay(new VelocityProperties.Limit(3, null));
+        long start = VelocityWindow.DAY.bucketStart(System.currentTimeMillis());
+        DataSource shard1 = mock(DataSource.class);
+        PreparedStatement load = statement(connection(shard1), "SELECT");
+        ResultSet rows = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(load.executeQuery()).thenReturn(rows);
+        when(rows.getMetaData()).thenReturn(metaData);
+        when(rows.next()).thenReturn(true, false);
+        String[] columns = { "wallet_id", "window_name", "bucket_start_ms", "user_id", "tx_count", "amount_cents" };
+        Object[] values = { WALLET, "DAY", start, USER, 3L, 300L };
+        when(metaData.getColumnCount()).thenReturn(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(columns[i]);
+            when(rows.getObject(i + 1)).thenReturn(values[i]);
+        }
+        VelocityLimiter limiter = limiter(Map.of("shardwallet1", shard1));
+
+        limiter.restore();
+
+        assertThatThrownBy(() -> limiter.reserve(WALLET, USER, BigDecimal.ONE))
+                .hasMessageContaining("per-day transfer count");
+    }
+}
@@ -0,0 +1,33 @@
+package com.jitendra.Wallet.services.velocity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class VelocityWindowTest {
+
+    @Test
+    void bucketsStartOnBucketBoundaries() {
+        assertThat(VelocityWindow.MINUTE.bucketMs).isEqualTo(5_000);
+        assertThat(VelocityWindow.MINUTE.bucketStart(12_345)).isEqualTo(10_000);
+        assertThat(VelocityWindow.MINUTE.bucketStart(10_000)).isEqualTo(10_000);
+        assertThat(VelocityWindow.HOUR.bucketStart(301_000)).isEqualTo(300_000);
+    }
+
+    @Test
+    void aSlotIsReusedOneWindowLater() {
+        VelocityWindow minute = VelocityWindow.MINUTE;
+
+        assertThat(minute.slot(10_000)).isEqualTo(2);
+        assertThat(minute.slot(10_000 + minute.lengthMs)).isEqualTo(2);
+        assertThat(minute.slot(15_000)).isEqualTo(3);
+    }
+
+    @Test
+    void aBucketStaysLiveForOneWindowLength() {
+        VelocityWindow minute = VelocityWindow.MINUTE;
+
+        assertThat(minute.isLive(10_000, 69_999)).isTrue();
+        assertThat(minute.isLive(10_000, 70_000)).isFalse();
+    }
+}
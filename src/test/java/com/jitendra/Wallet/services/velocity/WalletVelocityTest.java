@@ -0,0 +1,64 @@
+package com.jitendra.Wallet.services.velocity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.jitendra.Wallet.services.velocity.WalletVelocity.Bucket;
+import com.jitendra.Wallet.services.velocity.WalletVelocity.Totals;
+
+class WalletVelocityTest {
+
+    private static final VelocityWindow MINUTE = VelocityWindow.MINUTE;
+
+    private final WalletVelocity velocity = new WalletVelocity(70L);
+
+    @Test
+    void sumsTheLiveBucketsOfAWindow() {
+        velocity.add(MINUTE, 0, 1, 100);
+        velocity.add(MINUTE, 0, 1, 50);
+        velocity.add(MINUTE, 5_000, 1, 25);
+
+        assertThat(velocity.totals(MINUTE, 10_000)).isEqualTo(new Totals(3, 175));
+        // The bucket at 0 has slid out
+        assertThat(velocity.totals(MINUTE, 60_000)).isEqualTo(new Totals(1, 25));
+        assertThat(velocity.oldestLiveStart(MINUTE, 60_000)).isEqualTo(5_000);
+    }
+
+    @Test
+    void aNewPeriodReplacesTheBucketInItsSlot() {
+        velocity.add(MINUTE, 0, 3, 300);
+
+        velocity.add(MINUTE, MINUTE.lengthMs, 1, 10);
+
+        assertThat(velocity.totals(MINUTE, MINUTE.lengthMs)).isEqualTo(new Totals(1, 10));
+    }
+
+    @Test
+    void anUndoForAPeriodThatRolledOverIsDropped() {
+        velocity.add(MINUTE, MINUTE.lengthMs, 1, 10);
+
+        velocity.add(MINUTE, 0, -1, -100);
+        // A late increment for the old period can't overwrite the newer bucket either
+        velocity.add(MINUTE, 0, 1, 100);
+
+        assertThat(velocity.totals(MINUTE, MINUTE.lengthMs)).isEqualTo(new Totals(1, 10));
+    }
+
+    @Test
+    void idleOnceTheDayWindowIsEmpty() {
+        velocity.add(VelocityWindow.DAY, 0, 1, 10);
+        assertThat(velocity.isIdle(1_000)).isFalse();
+
+        velocity.add(VelocityWindow.DAY, 0, -1, -10);
+
+        assertThat(velocity.isIdle(1_000)).isTrue();
+        assertThat(velocity.oldestLiveStart(VelocityWindow.DAY, 1_000)).isEqualTo(-1);
+        List<Bucket> live = new ArrayList<>();
+        velocity.forEachLive(VelocityWindow.DAY, 1_000, live::add);
+        assertThat(live).containsExactly(new Bucket(0, 0, 0));
+    }
+}